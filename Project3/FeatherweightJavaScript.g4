@@ -10,6 +10,14 @@ WHILE     : 'while' ;
 FUNCTION  : 'function' ;
 VAR       : 'var' ;
 PRINT     : 'print' ;
+ASYNC     : 'async' ;
+AWAIT     : 'await' ;
+PAR       : 'par' ;
+SPAWN     : 'spawn' ;
+CHAN      : 'chan' ;
+SEND      : 'send' ;
+RECV      : 'recv' ;
+CLOSE     : 'close' ;
 
 // Literals
 INT       : [1-9][0-9]* | '0' ;
@@ -17,6 +25,7 @@ BOOL      : 'true' | 'false' ;
 NULL      : 'null' ;
 
 // Symbols
+LBRACE    : '{' ;
 MUL       : '*' ;
 DIV       : '/' ;
 SEPARATOR : ';' ;
@@ -44,33 +53,57 @@ WS            : [ \t]+ -> skip ; // ignore whitespace
 /** The start rule */
 prog: stat+ ;
 
-stat: expr SEPARATOR                                    # bareExpr
-    | IF '(' expr ')' block ELSE block                  # ifThenElse
-    | IF '(' expr ')' block                             # ifThen
+// An else belongs to the nearest if. Keeping the optional else in one
+// alternative lets the parser decide on it with one token of lookahead,
+// instead of scanning the whole block.
+// As in JavaScript, a statement never starts with an object literal, so
+// a '{' after if, while or function always opens a block: ({ x: 1 });.
+stat: {_input.LA(1) != LBRACE}? expr SEPARATOR          # bareExpr
+    | IF '(' expr ')' block (ELSE block)?               # ifThenElse
     | WHILE '(' expr ')' block                          # while
     | PRINT '(' expr ')' SEPARATOR                      # printExpr
+    | PAR '{' block* '}'                                # par
     | SEPARATOR                                         # empty
     ;
 
-expr: expr op=( '*' | '/' | '%' ) expr                  # MulDivMod
+// async, await and spawn bind tighter than any binary operator, and take
+// in the calls that follow them: async f(x)(y) is async (f(x)(y)).
+// Storing into an element or a property binds loosest, like assigning
+// to a variable, and from the right: a[i] = o.x = y + 1 stores y + 1 in
+// both.
+expr: expr argument                                     # funcApp
+    | expr '[' expr ']'                                 # index
+    | expr '.' ID                                       # property
+    | ASYNC expr                                        # asyncCall
+    | AWAIT expr                                        # awaitExpr
+    | SPAWN expr                                        # spawnCall
+    | op=CHAN '(' expr ')'                              # channelOp
+    | op=SEND '(' expr ',' expr ')'                     # channelOp
+    | op=( RECV | CLOSE ) '(' expr ')'                  # channelOp
+    | PAR '(' expr ( ',' expr )* ')'                    # parValues
+    | expr op=( '*' | '/' | '%' ) expr                  # MulDivMod
     | expr op=( '+' | '-' ) expr                        # AddSub
     | expr op=( '<' | '<=' | '>' | '>=' | '==') expr    # compare
+    | <assoc=right> expr ( '[' expr ']' | '.' ID ) op='=' expr  # store
     | FUNCTION parameter block                          # functionDeclrExpr
     | VAR ID op='=' expr                                # varDeclrExpr
-    | expr argument                                     # funcApp
     | ID                                                # varRef
     | ID op='=' expr                                    # assignExpr
     | INT                                               # int
     | BOOL                                              # bool
     | NULL                                              # null
+    | '[' ( expr ( ',' expr )* )? ']'                   # arrayLit
+    | '{' ( ID ':' expr ( ',' ID ':' expr )* )? '}'     # objectLit
     | '(' expr ')'                                      # parens
     ;
 
-parameter: '(' (ID ',')* ID  ')'                        # withParam
+// Separators are matched before, not after, each further element, so
+// the parser never looks past an expression to find the next ',' or ')'.
+parameter: '(' ID (',' ID)* ')'                         # withParam
    | '('  ')'                                           # emptyParam
    ;
 
-argument: '(' (expr ',')* expr ')'                      # withArg
+argument: '(' expr (',' expr)* ')'                      # withArg
    | '('  ')'                                           # emptyArg
    ;
 
@@ -0,0 +1,59 @@
+package edu.sjsu.fwjs;
+
+import java.io.FileInputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+
+/**
+ * Reports how many bytes the evaluator allocates per run of a script.
+ * Scripts are parsed once; only evaluation is measured. Their output is
+ * discarded.
+ *
+ * Usage: AllocationBenchmark [runs] [script...]
+ *        (default 20000 runs of operators.fwjs and factorial.fwjs)
+ */
+public class AllocationBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int runs = 20000;
+        String[] scripts = { "fwjsScripts/operators.fwjs", "fwjsScripts/factorial.fwjs" };
+        if (args.length > 0) runs = Integer.parseInt(args[0]);
+        if (args.length > 1) {
+            scripts = new String[args.length - 1];
+            System.arraycopy(args, 1, scripts, 0, scripts.length);
+        }
+        com.sun.management.ThreadMXBean mx =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        PrintStream out = System.out;
+        PrintStream devNull = new PrintStream(new OutputStream() {
+            public void write(int b) {}
+            public void write(byte[] b, int off, int len) {}
+        });
+
+        for (String script : scripts) {
+            Expression prog = Interpreter.parse(new ANTLRInputStream(new FileInputStream(script)));
+            System.setOut(devNull);
+            try {
+                // Warm up, so the JIT can remove what escape analysis allows.
+                for (int i = 0; i < runs; i++)
+                    prog.evaluate(new Environment());
+                long tid = Thread.currentThread().getId();
+                long bytes = mx.getThreadAllocatedBytes(tid);
+                long start = System.nanoTime();
+                for (int i = 0; i < runs; i++)
+                    prog.evaluate(new Environment());
+                long elapsed = System.nanoTime() - start;
+                bytes = mx.getThreadAllocatedBytes(tid) - bytes;
+                System.setOut(out);
+                System.out.printf("%-28s %10d bytes/run %10.1f MB/s %8.2f us/run%n",
+                        script, bytes / runs, bytes / (elapsed / 1e9) / (1 << 20),
+                        elapsed / 1e3 / runs);
+            } finally {
+                System.setOut(out);
+            }
+        }
+    }
+}
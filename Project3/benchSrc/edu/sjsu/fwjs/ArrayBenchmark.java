@@ -0,0 +1,137 @@
+package edu.sjsu.fwjs;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+
+/**
+ * Compares arrays with the lists of lists.fwjs, pairs encoded as
+ * closures, holding the same integers (all outside the IntVal cache):
+ *
+ *   int[]      an array of integers, kept unboxed
+ *   Value[]    an array whose first element was null, so every integer
+ *              in it is a boxed IntVal
+ *   cons list  a chain of pair closures, each with its own frame
+ *
+ * For each it reports the heap retained per element, and the element
+ * reads per second of a FWJS loop summing them all: in order (a[i] for
+ * the arrays, head and tail for the list), and by index, which for the
+ * list walks from its start to each element, so it runs on a shorter
+ * list. The loops run on the tree walker, and then compiled by the
+ * JitCompiler, whose code reads the elements of an int[] unboxed.
+ *
+ * Usage: ArrayBenchmark [elements] [indexed list elements] [runs]
+ *        (default 100000 elements, 2000 for the list by index, best of 10)
+ */
+public class ArrayBenchmark {
+    private static final String PROGRAM =
+        "var tru = function(x, y) { x; }; var fls = function(x, y) { y; };"
+        + "var pair = function(x, y) { function(f) { f(x, y); }; };"
+        + "var head = function(p) { p(tru); }; var tail = function(p) { p(fls); };"
+        + "var fill = function(a) { var i = 0;"
+        + "  while (i < a.length) { a[i] = 1000000 + i; i = i + 1; } a; };"
+        + "var cons = function(n) { var l = null;"
+        + "  while (n > 0) { n = n - 1; l = pair(1000000 + n, l); } l; };"
+        + "var sumArray = function(a) { var s = 0; var i = 0;"
+        + "  while (i < a.length) { s = s + a[i]; i = i + 1; } s; };"
+        + "var sumList = function(l, n) { var s = 0;"
+        + "  while (n > 0) { s = s + head(l); l = tail(l); n = n - 1; } s; };"
+        + "var nth = function(l, i) { while (i > 0) { l = tail(l); i = i - 1; } head(l); };"
+        + "var sumListByIndex = function(l, n) { var s = 0; var i = 0;"
+        + "  while (i < n) { s = s + nth(l, i); i = i + 1; } s; };";
+
+    public static void main(String[] args) throws Exception {
+        int n = 100000, indexed = 2000, runs = 10;
+        if (args.length > 0) n = Integer.parseInt(args[0]);
+        if (args.length > 1) indexed = Integer.parseInt(args[1]);
+        if (args.length > 2) runs = Integer.parseInt(args[2]);
+        Expression prog = Interpreter.parse(new ANTLRInputStream(PROGRAM
+                + "var ints = function() { " + literal("0", n) + "; };"
+                + "var boxed = function() { " + literal("null", n) + "; };"));
+        Environment env = new Environment();
+        prog.evaluate(env);
+        Value size = IntVal.valueOf(n), small = IntVal.valueOf(indexed);
+        System.out.printf("%d elements, %d for the list by index; reads/s, best of %d%n",
+                n, indexed, runs);
+        System.out.printf("%-10s %10s %12s %12s %12s %12s%n", "", "bytes/elem",
+                "tree order", "tree index", "jit order", "jit index");
+
+        // The first array built warms up the JVM, and is measured again last.
+        Value[] built = new Value[3];
+        retained(n, () -> built[0] = call(env, "fill", call(env, "ints")));
+        double boxedBytes = retained(n, () -> built[1] = call(env, "fill", call(env, "boxed")));
+        built[0] = null;
+        double intBytes = retained(n, () -> built[0] = call(env, "fill", call(env, "ints")));
+        double listBytes = retained(n, () -> built[2] = call(env, "cons", size));
+        Value ints = built[0], boxed = built[1], list = built[2];
+        if (!((ArrayVal) ints).isIntArray() || ((ArrayVal) boxed).isIntArray())
+            throw new AssertionError();
+
+        double[][] rates = new double[3][4];
+        int saved = JitCompiler.threshold;
+        try {
+            for (int jit = 0; jit < 2; jit++) {
+                // Compiles each function on its first call, before it is timed.
+                JitCompiler.threshold = jit == 0 ? -1 : 1;
+                rates[0][2 * jit] = rate(n, runs, env, "sumArray", ints);
+                rates[1][2 * jit] = rate(n, runs, env, "sumArray", boxed);
+                rates[2][2 * jit] = rate(n, runs, env, "sumList", list, size);
+                rates[2][2 * jit + 1] = rate(indexed, runs, env, "sumListByIndex", list, small);
+                rates[0][2 * jit + 1] = rates[0][2 * jit];
+                rates[1][2 * jit + 1] = rates[1][2 * jit];
+            }
+        } finally {
+            JitCompiler.threshold = saved;
+        }
+        report("int[]", intBytes, rates[0]);
+        report("Value[]", boxedBytes, rates[1]);
+        report("cons list", listBytes, rates[2]);
+    }
+
+    private static void report(String name, double bytes, double[] rates) {
+        System.out.printf("%-10s %10.1f %12.0f %12.0f %12.0f %12.0f%n",
+                name, bytes, rates[0], rates[1], rates[2], rates[3]);
+    }
+
+    /** An array literal of n copies of elem. */
+    private static String literal(String elem, int n) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < n; i++)
+            sb.append(i > 0 ? ", " : "").append(elem);
+        return sb.append("]").toString();
+    }
+
+    private static Value call(Environment env, String fn, Value... args) {
+        return ((ClosureVal) env.resolveVar(fn)).call(args);
+    }
+
+    /** Heap bytes per element that build leaves reachable. */
+    private static double retained(int n, Runnable build) {
+        long before = used();
+        build.run();
+        return (double) (used() - before) / n;
+    }
+
+    private static long used() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++)
+            System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    /**
+     * Elements read per second by fn, which reads n of them, after warming
+     * up the JVM, and the JitCompiler when it is on.
+     */
+    private static double rate(int n, int runs, Environment env, String fn, Value... args) {
+        for (int r = 0; r < 10; r++) {
+            call(env, fn, args);
+            JitCompiler.awaitCompilations();
+        }
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < runs; r++) {
+            long start = System.nanoTime();
+            call(env, fn, args);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return n / (best / 1e9);
+    }
+}
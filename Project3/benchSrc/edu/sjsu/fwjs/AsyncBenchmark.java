@@ -0,0 +1,96 @@
+package edu.sjsu.fwjs;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+
+/**
+ * Launches about 100k async calls two ways, and compares them with the
+ * same work done by plain calls:
+ *
+ *   fan-out  one loop starts every call, each spinning for a while, and
+ *            only then awaits them all, so all of them are pending at
+ *            once; the futures are kept in a list of closures
+ *   tree     a binary tree of calls, each starting one child with async
+ *            and computing the other itself before awaiting the first
+ *
+ * Reports the best time of several runs, the calls started per second,
+ * and the most threads the JVM had at once, which shows whether calls
+ * ran on virtual threads or on the few threads of the ForkJoinPool.
+ *
+ * Usage: AsyncBenchmark [calls] [runs]
+ *        (default 100000 calls, best of 3 runs)
+ */
+public class AsyncBenchmark {
+    private static final String PROGRAM =
+        "var spin = function(k) { var i = 0; while (i < k) { i = i + 1; } 1; };"
+        + "var cons = function(h, t) { function(first) { if (first) { h; } else { t; } }; };"
+        + "var fanOut = function(n, k) {"
+        + "  var fs = null; var i = 0;"
+        + "  while (i < n) { fs = cons(async spin(k), fs); i = i + 1; }"
+        + "  var s = 0; i = 0;"
+        + "  while (i < n) { s = s + await fs(true); fs = fs(false); i = i + 1; }"
+        + "  s; };"
+        + "var fanOutPlain = function(n, k) {"
+        + "  var s = 0; var i = 0;"
+        + "  while (i < n) { s = s + spin(k); i = i + 1; }"
+        + "  s; };"
+        + "var tree = function(d) { if (d == 0) { 1; } else {"
+        + "  var l = async tree(d - 1); var r = tree(d - 1); await l + r; } };"
+        + "var treePlain = function(d) { if (d == 0) { 1; } else {"
+        + "  treePlain(d - 1) + treePlain(d - 1); } };";
+
+    public static void main(String[] args) throws Exception {
+        int calls = 100000, runs = 3;
+        if (args.length > 0) calls = Integer.parseInt(args[0]);
+        if (args.length > 1) runs = Integer.parseInt(args[1]);
+        int depth = 32 - Integer.numberOfLeadingZeros(calls);
+        Expression prog = Interpreter.parse(new ANTLRInputStream(PROGRAM));
+        Environment env = Environment.concurrent();
+        prog.evaluate(env);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        System.out.printf("%d cores, calls on %s; ms, best of %d%n",
+                Runtime.getRuntime().availableProcessors(),
+                Async.virtual() ? "virtual threads" : "the ForkJoinPool", runs);
+        System.out.printf("%-10s %8s %10s %10s %12s %8s%n",
+                "", "calls", "plain ms", "async ms", "calls/s", "threads");
+        Value n = IntVal.valueOf(calls), k = IntVal.valueOf(100), d = IntVal.valueOf(depth);
+        // Warm up the JVM and the JitCompiler.
+        for (int r = 0; r < 3; r++) {
+            time(env, "fanOutPlain", n, k);
+            time(env, "fanOut", n, k);
+            time(env, "treePlain", d);
+            time(env, "tree", d);
+        }
+        threads.resetPeakThreadCount();
+        long plain = best(runs, env, "fanOutPlain", n, k);
+        long async = best(runs, env, "fanOut", n, k);
+        report("fan-out", calls, plain, async, threads.getPeakThreadCount());
+        threads.resetPeakThreadCount();
+        plain = best(runs, env, "treePlain", d);
+        async = best(runs, env, "tree", d);
+        report("tree", (1 << depth) - 1, plain, async, threads.getPeakThreadCount());
+    }
+
+    private static void report(String name, int calls, long plain, long async, int threads) {
+        System.out.printf("%-10s %8d %10.1f %10.1f %12.0f %8d%n", name, calls,
+                plain / 1e6, async / 1e6, calls / (async / 1e9), threads);
+    }
+
+    private static long best(int runs, Environment env, String fn, Value... args) {
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < runs; r++)
+            best = Math.min(best, time(env, fn, args));
+        return best;
+    }
+
+    private static long time(Environment env, String fn, Value... args) {
+        ClosureVal f = (ClosureVal) env.resolveVar(fn);
+        long start = System.nanoTime();
+        f.call(args);
+        long ns = System.nanoTime() - start;
+        Async.quiesce(env);
+        return ns;
+    }
+}
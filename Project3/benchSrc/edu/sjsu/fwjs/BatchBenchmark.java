@@ -0,0 +1,73 @@
+package edu.sjsu.fwjs;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Measures how the throughput of a BatchRunner scales with its number
+ * of threads, from 1 up to the number of cores, doubling each time.
+ * The batch is every script in fwjsScripts but objects.fwjs, and a loop
+ * summing the integers up to n with n = 1..jobs as a preset global, on
+ * the tree walker. Each thread count gets one warm-up batch, then the
+ * best of several runs is reported; output is discarded.
+ *
+ * Usage: BatchBenchmark [jobs] [max threads] [runs]
+ *        (default 2000 jobs, availableProcessors threads, 3 runs)
+ */
+public class BatchBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int n = 2000, maxThreads = Runtime.getRuntime().availableProcessors(), runs = 3;
+        if (args.length > 0) n = Integer.parseInt(args[0]);
+        if (args.length > 1) maxThreads = Integer.parseInt(args[1]);
+        if (args.length > 2) runs = Integer.parseInt(args[2]);
+        System.setProperty("fwjs.cache.dir", "");
+        Path dir = Files.createTempDirectory("fwjs");
+        Path sum = dir.resolve("sum.fwjs");
+        Files.write(sum, ("var add = function(a, b) { a + b; };"
+                + "var s = 0; var i = 0; while (i < n * 10) { s = add(s, i); i = i + 1; }"
+                + "print(s);").getBytes());
+        List<Path> scripts = new ArrayList<Path>();
+        for (File f : new File("fwjsScripts").listFiles())
+            if (f.getName().endsWith(".fwjs") && !f.getName().equals("objects.fwjs"))
+                scripts.add(f.toPath());
+        List<BatchRunner.Job> jobs = new ArrayList<BatchRunner.Job>();
+        for (int i = 1; i <= n; i++) {
+            jobs.add(i % 2 == 0 ? new BatchRunner.Job(scripts.get(i / 2 % scripts.size()))
+                    : new BatchRunner.Job(sum,
+                            Collections.singletonMap("n", (Value) IntVal.valueOf(i))));
+        }
+        PrintStream err = new PrintStream(OutputStream.nullOutputStream());
+        try {
+            System.out.printf("%d jobs on %d cores; best of %d%n", n,
+                    Runtime.getRuntime().availableProcessors(), runs);
+            System.out.printf("%8s %10s %10s %8s%n", "threads", "ms", "runs/s", "speedup");
+            double base = 0;
+            for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+                long best = Long.MAX_VALUE;
+                try (BatchRunner runner = new BatchRunner(threads, false, false)) {
+                    runner.run(jobs, OutputStream.nullOutputStream(), err);
+                    for (int r = 0; r < runs; r++) {
+                        long start = System.nanoTime();
+                        runner.run(jobs, OutputStream.nullOutputStream(), err);
+                        best = Math.min(best, System.nanoTime() - start);
+                    }
+                }
+                double rate = n / (best / 1e9);
+                if (threads == 1) base = rate;
+                System.out.printf("%8d %10d %10.0f %8.2f%n", threads, best / 1000000,
+                        rate, rate / base);
+                if (threads == maxThreads) break;
+            }
+        } finally {
+            Files.delete(sum);
+            Files.delete(dir);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package edu.sjsu.fwjs;
+
+/**
+ * Runs a generated program of many top-level statements as a BlockExpr,
+ * and as the left-nested chain of SeqExprs the parser used to build, on
+ * the tree walker, the StackMachine and the VirtualMachine. Reports the
+ * best of several runs, or the error a run fails with.
+ *
+ * Usage: BlockBenchmark [statements] [runs]   (default 100000 statements, 5 runs)
+ */
+public class BlockBenchmark {
+    private static final String[] STATEMENTS = {
+        "x = x + 1;",
+        "if (x % 3 == 0) y = y + x; else y = y - 1;",
+        "z = x * 2 - y;",
+        "f = function(a) { a + z; };",
+        "y = f(y) % 1000;",
+    };
+
+    public static void main(String[] args) {
+        int n = 100000, runs = 5;
+        if (args.length > 0) n = Integer.parseInt(args[0]);
+        if (args.length > 1) runs = Integer.parseInt(args[1]);
+        StringBuilder sb = new StringBuilder("var x = 0; var y = 0; var z = 0;\n");
+        for (int i = 0; i < n; i++)
+            sb.append(STATEMENTS[i % STATEMENTS.length]).append('\n');
+        JitCompiler.threshold = -1;
+        Expression block = new Resolver().resolve(DirectParser.parse(sb));
+        Expression chain = chain((BlockExpr) block);
+        System.out.printf("%d statements%n", n + 3);
+        for (String engine : new String[] { "tree", "stack", "vm" }) {
+            System.out.printf("%-6s SeqExpr chain %-24s BlockExpr %s%n", engine,
+                    time(engine, chain, runs), time(engine, block, runs));
+        }
+    }
+
+    private static Expression chain(BlockExpr block) {
+        Expression exp = block.stmts[0];
+        for (int i = 1; i < block.stmts.length; i++)
+            exp = new SeqExpr(exp, block.stmts[i]);
+        return exp;
+    }
+
+    private static String time(String engine, Expression prog, int runs) {
+        long best = Long.MAX_VALUE;
+        try {
+            for (int r = 0; r < runs; r++) {
+                long start = System.nanoTime();
+                if (engine.equals("stack"))
+                    new StackMachine().run(prog, new Environment());
+                else if (engine.equals("vm"))
+                    new VirtualMachine().run(new BytecodeCompiler().compile(prog), new Environment());
+                else
+                    prog.evaluate(new Environment());
+                best = Math.min(best, System.nanoTime() - start);
+            }
+        } catch (StackOverflowError e) {
+            return "StackOverflowError";
+        }
+        return String.format("%8.2f ms", best / 1e6);
+    }
+}
@@ -0,0 +1,60 @@
+package edu.sjsu.fwjs;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+
+/**
+ * Measures calls on the tree walker with and without inline caches at
+ * call sites, on the Church-encoded lists of fwjsScripts/lists.fwjs:
+ * building a list of pairs and summing it, which is all closure calls.
+ * The JitCompiler is off, so every call goes through FunctionAppExpr.
+ *
+ * Usage: CallBenchmark [elements] [rounds]   (default 1000 elements, 2000 rounds)
+ */
+public class CallBenchmark {
+    private static final String PRELUDE =
+          "var tru = function(x,y) { x; };\n"
+        + "var fls = function(x,y) { y; };\n"
+        + "var pair = function(x,y) { function(f) { f(x,y); }; };\n"
+        + "var head = function(p) { p(tru); };\n"
+        + "var tail = function(p) { p(fls); };\n"
+        + "var isEmpty = function(lst) { lst == null; };\n"
+        + "var sumList = function(lst) {\n"
+        + "  if (isEmpty(lst)) 0;\n"
+        + "  else head(lst) + sumList(tail(lst));\n"
+        + "};\n";
+
+    public static void main(String[] args) {
+        int n = 1000, rounds = 2000;
+        if (args.length > 0) n = Integer.parseInt(args[0]);
+        if (args.length > 1) rounds = Integer.parseInt(args[1]);
+        String src = PRELUDE
+            + "var lst = null;\n"
+            + "var i = 0;\n"
+            + "while (i < " + n + ") { lst = pair(i, lst); i = i + 1; }\n"
+            + "sumList(lst);";
+        JitCompiler.threshold = -1;
+        int size = FunctionAppExpr.cacheSize;
+        long generic = 0, cached = 0;
+        for (int round = 0; round < 2; round++) {
+            generic = time(src, 0, rounds);
+            cached = time(src, size, rounds);
+        }
+        System.out.printf("generic calls %6d ms   inline caches %6d ms   %.1fx%n",
+                generic / 1000000, cached / 1000000, (double) generic / cached);
+        // Count one more round, so counting does not slow the timed ones.
+        FunctionAppExpr.counting = true;
+        time(src, size, 1);
+        System.out.printf("cache hits %d, misses %d, megamorphic calls %d%n",
+                FunctionAppExpr.cacheHits.sum(), FunctionAppExpr.cacheMisses.sum(),
+                FunctionAppExpr.megamorphicCalls.sum());
+    }
+
+    private static long time(String src, int cacheSize, int rounds) {
+        FunctionAppExpr.cacheSize = cacheSize;
+        Expression prog = Interpreter.parse(new ANTLRInputStream(src));
+        long start = System.nanoTime();
+        for (int r = 0; r < rounds; r++)
+            prog.evaluate(new Environment());
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,84 @@
+package edu.sjsu.fwjs;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+
+/**
+ * Passes integers through pipelines of 1, 4 and 16 isolates, each stage
+ * receiving from one channel and sending what it got plus one on the
+ * next, and measures:
+ *
+ *   throughput  a producer isolate sends every message at once into
+ *               channels of the given capacity, and the main program
+ *               sums what comes out of the last stage
+ *   latency     the main program sends one message and receives it at
+ *               the end of the pipeline before sending the next, so the
+ *               time is that of a message crossing every stage
+ *
+ * Reports the best of several runs. Each stage is a thread of its own,
+ * so on Java 17 these are platform threads and every hand-off between
+ * stages is a park and unpark of one.
+ *
+ * Usage: ChannelBenchmark [messages] [capacity] [runs]
+ *        (default 100000 messages, capacity 64, best of 3 runs)
+ */
+public class ChannelBenchmark {
+    private static final String PROGRAM =
+        "var produce = function(out, n) { var i = 0;"
+        + "  while (i < n) { send(out, i); i = i + 1; } close(out); };"
+        + "var stage = function(in, out) { var open = true; var v = null;"
+        + "  while (open) { v = recv(in);"
+        + "    if (v == null) { open = false; } else { send(out, v + 1); } }"
+        + "  close(out); };"
+        + "var pipeline = function(in, k, cap) { if (k == 0) { in; } else {"
+        + "  var out = chan(cap); spawn stage(in, out); pipeline(out, k - 1, cap); } };"
+        + "var throughput = function(n, k, cap) {"
+        + "  var in = chan(cap); var out = pipeline(in, k, cap); spawn produce(in, n);"
+        + "  var s = 0; var open = true; var v = null;"
+        + "  while (open) { v = recv(out); if (v == null) { open = false; } else { s = s + v; } }"
+        + "  s; };"
+        + "var latency = function(n, k) {"
+        + "  var in = chan(1); var out = pipeline(in, k, 1); var s = 0; var i = 0;"
+        + "  while (i < n) { send(in, i); s = s + recv(out); i = i + 1; }"
+        + "  close(in); recv(out); s; };";
+
+    public static void main(String[] args) throws Exception {
+        int messages = 100000, capacity = 64, runs = 3;
+        if (args.length > 0) messages = Integer.parseInt(args[0]);
+        if (args.length > 1) capacity = Integer.parseInt(args[1]);
+        if (args.length > 2) runs = Integer.parseInt(args[2]);
+        Expression prog = Interpreter.parse(new ANTLRInputStream(PROGRAM));
+        Environment env = Environment.concurrent();
+        prog.evaluate(env);
+        System.out.printf("%d cores, isolates on %s; capacity %d, best of %d%n",
+                Runtime.getRuntime().availableProcessors(),
+                Async.virtual() ? "virtual threads" : "platform threads", capacity, runs);
+        System.out.printf("%8s %10s %14s %10s %14s%n",
+                "stages", "messages", "msgs/s", "pings", "us/ping");
+        for (int stages : new int[] { 1, 4, 16 }) {
+            int pings = Math.max(messages / (10 * stages), 100);
+            Value n = IntVal.valueOf(messages), k = IntVal.valueOf(stages);
+            Value c = IntVal.valueOf(capacity), p = IntVal.valueOf(pings);
+            // Warm up the JVM and the JitCompiler.
+            for (int r = 0; r < 3; r++) {
+                time(env, "throughput", n, k, c);
+                time(env, "latency", p, k);
+            }
+            long through = Long.MAX_VALUE, latency = Long.MAX_VALUE;
+            for (int r = 0; r < runs; r++) {
+                through = Math.min(through, time(env, "throughput", n, k, c));
+                latency = Math.min(latency, time(env, "latency", p, k));
+            }
+            System.out.printf("%8d %10d %14.0f %10d %14.2f%n", stages, messages,
+                    messages / (through / 1e9), pings, latency / 1e3 / pings);
+        }
+    }
+
+    private static long time(Environment env, String fn, Value... args) {
+        ClosureVal f = (ClosureVal) env.resolveVar(fn);
+        long start = System.nanoTime();
+        f.call(args);
+        long ns = System.nanoTime() - start;
+        Async.quiesce(env);
+        return ns;
+    }
+}
@@ -0,0 +1,98 @@
+package edu.sjsu.fwjs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+
+/**
+ * Throughput of threads hammering shared counters through one global
+ * Environment.concurrent(), from 1 to 64 threads: inc, which counts in
+ * a global with an atomic update, and ctr, the counter of closure.fwjs,
+ * which counts in the frame of makeCounter. Frames are not synchronized,
+ * so ctr loses increments once threads overlap; the lost column shows
+ * how many. The first line is inc on a plain Environment, on one thread.
+ *
+ * Usage: ConcurrentEnvironmentBenchmark [calls] [runs]
+ *        (default 4000000 calls split between the threads, best of 3 runs)
+ */
+public class ConcurrentEnvironmentBenchmark {
+    private static final String PROGRAM =
+        "var count = 0; var inc = function() { count = count + 1; };"
+        + "var makeCounter = function() { var i = 0; function() { i = i + 1; }; };"
+        + "var ctr = makeCounter();";
+
+    public static void main(String[] args) throws Exception {
+        int calls = 4000000, runs = 3;
+        if (args.length > 0) calls = Integer.parseInt(args[0]);
+        if (args.length > 1) runs = Integer.parseInt(args[1]);
+        Expression prog = Interpreter.parse(new ANTLRInputStream(PROGRAM));
+        // Warm up the JVM and let the JitCompiler compile both functions.
+        best(prog, null, "inc", 4, calls, 1);
+        best(prog, null, "ctr", 4, calls, 1);
+        best(prog, new Environment(), "inc", 1, calls, 1);
+        System.out.printf("%d calls on %d cores; Mcalls/s, best of %d%n", calls,
+                Runtime.getRuntime().availableProcessors(), runs);
+        double[] plain = best(prog, new Environment(), "inc", 1, calls, runs * 3);
+        System.out.printf("plain Environment %9.2f%n", plain[0]);
+        System.out.printf("%8s %12s %8s %12s %8s%n", "threads", "inc", "lost", "ctr", "lost");
+        for (int threads = 1; threads <= 64; threads *= 2) {
+            double[] inc = best(prog, null, "inc", threads, calls, runs);
+            double[] ctr = best(prog, null, "ctr", threads, calls, runs);
+            System.out.printf("%8d %12.2f %8d %12.2f %8d%n", threads,
+                    inc[0], (long) inc[1], ctr[0], (long) ctr[1]);
+        }
+    }
+
+    /**
+     * The best rate over several runs in fresh environments, or in the
+     * given one, and the increments lost in that run.
+     */
+    private static double[] best(Expression prog, Environment given, String fn, int threads,
+            int calls, int runs) throws Exception {
+        double[] best = { 0, 0 };
+        for (int r = 0; r < runs; r++) {
+            Environment env = given != null ? given : Environment.concurrent();
+            if (given == null || r == 0) prog.evaluate(env);
+            env.updateVar("count", IntVal.valueOf(0));
+            ClosureVal f = (ClosureVal) env.resolveVar(fn);
+            Value before = f.call(new Value[0]);
+            int each = calls / threads;
+            long ns = hammer(f, threads, each);
+            int counted = ((IntVal) f.call(new Value[0])).toInt() - ((IntVal) before).toInt() - 1;
+            double rate = (double) each * threads / ns * 1000;
+            if (rate > best[0]) {
+                best[0] = rate;
+                best[1] = (long) each * threads - counted;
+            }
+        }
+        return best;
+    }
+
+    /** Calls f from each of the threads, and returns the time they took. */
+    private static long hammer(ClosureVal f, int threads, int each) throws Exception {
+        // Started by the last thread to arrive, since with fewer cores
+        // than threads this one may not run again until they are done.
+        long[] begin = new long[1];
+        CyclicBarrier start = new CyclicBarrier(threads, () -> begin[0] = System.nanoTime());
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            Thread w = new Thread(() -> {
+                Value[] none = new Value[0];
+                try {
+                    start.await();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+                for (int i = 0; i < each; i++)
+                    f.call(none);
+            });
+            w.start();
+            workers.add(w);
+        }
+        for (Thread w : workers)
+            w.join();
+        return System.nanoTime() - begin[0];
+    }
+}
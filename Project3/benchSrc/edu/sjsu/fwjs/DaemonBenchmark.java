@@ -0,0 +1,94 @@
+package edu.sjsu.fwjs;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the latency of running each script with a cold java launch
+ * of the Interpreter and on a warm Daemon: through a DaemonClient JVM,
+ * and with DaemonClient.run from this JVM, which is what a native client
+ * would see. The daemon runs in a fresh JVM of its own and is warmed up
+ * with every script first. The AstCache is off throughout; output is
+ * discarded.
+ *
+ * Usage: DaemonBenchmark [runs] [script...]
+ *        (default 5 runs of every script in fwjsScripts but objects.fwjs)
+ */
+public class DaemonBenchmark {
+    private static final int WARMUP = 50;
+
+    public static void main(String[] args) throws Exception {
+        int runs = 5;
+        if (args.length > 0) runs = Integer.parseInt(args[0]);
+        List<String> scripts = new ArrayList<String>();
+        for (int i = 1; i < args.length; i++)
+            scripts.add(args[i]);
+        if (scripts.isEmpty()) {
+            for (File f : new File("fwjsScripts").listFiles())
+                if (f.getName().endsWith(".fwjs") && !f.getName().equals("objects.fwjs"))
+                    scripts.add(f.getPath());
+        }
+        Path dir = Files.createTempDirectory("fwjs");
+        Path socket = dir.resolve("fwjs.sock");
+        Process daemon = new ProcessBuilder(java(socket, "edu.sjsu.fwjs.Daemon"))
+                .inheritIO().start();
+        try {
+            while (!Files.exists(socket)) Thread.sleep(10);
+            for (int r = 0; r < WARMUP; r++)
+                for (String script : scripts)
+                    request(socket, script);
+            System.out.printf("%-22s %12s %14s %14s%n", "ms per run", "cold java",
+                    "client JVM", "in-process");
+            for (String script : scripts) {
+                long cold = 0, client = 0, local = 0;
+                for (int r = 0; r < runs; r++) {
+                    cold += launch(java(socket, "edu.sjsu.fwjs.Interpreter", script));
+                    client += launch(java(socket, "edu.sjsu.fwjs.DaemonClient", script));
+                    long start = System.nanoTime();
+                    request(socket, script);
+                    local += System.nanoTime() - start;
+                }
+                double n = runs * 1e6;
+                System.out.printf("%-22s %12.1f %14.1f %14.2f%n",
+                        new File(script).getName(), cold / n, client / n, local / n);
+            }
+        } finally {
+            daemon.destroy();
+            daemon.waitFor();
+            Files.deleteIfExists(socket);
+            Files.delete(dir);
+        }
+    }
+
+    private static List<String> java(Path socket, String main, String... args) {
+        List<String> cmd = new ArrayList<String>();
+        cmd.add("java");
+        cmd.add("-Dfwjs.cache.dir=");
+        cmd.add("-Dfwjs.daemon.socket=" + socket);
+        cmd.add("-cp");
+        cmd.add(System.getProperty("java.class.path"));
+        cmd.add(main);
+        for (String arg : args) cmd.add(arg);
+        return cmd;
+    }
+
+    private static long launch(List<String> cmd) throws Exception {
+        ProcessBuilder pb = new ProcessBuilder(cmd);
+        pb.redirectErrorStream(true);
+        pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        long start = System.nanoTime();
+        pb.start().waitFor();
+        return System.nanoTime() - start;
+    }
+
+    private static void request(Path socket, String script) throws Exception {
+        OutputStream discard = OutputStream.nullOutputStream();
+        DaemonClient.run(socket, new String[] { script },
+                new ByteArrayInputStream(new byte[0]), discard, discard);
+    }
+}
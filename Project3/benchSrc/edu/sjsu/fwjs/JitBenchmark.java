@@ -0,0 +1,53 @@
+package edu.sjsu.fwjs;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+
+/**
+ * Compares the tree walker with and without the JitCompiler on a function
+ * with an arithmetic loop, called many times, and on recursive fib.
+ *
+ * Usage: JitBenchmark [calls]   (default 10^4 calls of a 10^4-iteration loop)
+ */
+public class JitBenchmark {
+
+    public static void main(String[] args) {
+        int calls = 10000;
+        if (args.length > 0) calls = Integer.parseInt(args[0]);
+        String loop = "var f = function(n) {\n"
+            + "  var i = 0; var sum = 0;\n"
+            + "  while (i < n) { sum = sum + i % 7 * 3; i = i + 1; }\n"
+            + "  sum;\n"
+            + "};\n"
+            + "var k = 0; var r = 0;\n"
+            + "while (k < " + calls + ") { r = f(10000); k = k + 1; }\n"
+            + "r;";
+        String fib = "var fib = function(n) { if (n < 2) n; else fib(n - 1) + fib(n - 2); };\n"
+            + "fib(30);";
+        run("loop", loop);
+        run("fib(30)", fib);
+    }
+
+    private static void run(String name, String src) {
+        int saved = JitCompiler.threshold;
+        long tree = Long.MAX_VALUE, jit = Long.MAX_VALUE;
+        Value a = null, b = null;
+        // Two warm-up rounds each, then the best of the measured rounds.
+        // Every round parses again, so compiled code does not carry over.
+        for (int round = 0; round < 6; round++) {
+            JitCompiler.threshold = -1;
+            Expression prog = Interpreter.parse(new ANTLRInputStream(src));
+            long start = System.nanoTime();
+            a = prog.evaluate(new Environment());
+            if (round >= 2) tree = Math.min(tree, System.nanoTime() - start);
+            JitCompiler.threshold = saved;
+            prog = Interpreter.parse(new ANTLRInputStream(src));
+            start = System.nanoTime();
+            b = prog.evaluate(new Environment());
+            if (round >= 2) jit = Math.min(jit, System.nanoTime() - start);
+        }
+        if (!a.equals(b))
+            throw new AssertionError(a + " != " + b);
+        System.out.printf("%-8s tree %6d ms   jit %6d ms   %.1fx%n",
+                name, tree / 1000000, jit / 1000000, (double) tree / jit);
+    }
+}
@@ -0,0 +1,101 @@
+package edu.sjsu.fwjs;
+
+import java.io.BufferedWriter;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.Token;
+
+import edu.sjsu.fwjs.parser.FeatherweightJavaScriptLexer;
+
+/**
+ * Compares reading a very large script into memory with mapping it, for
+ * both the ANTLR lexer and the DirectParser's Tokenizer. Each input runs
+ * in a fresh JVM, which reports the time until the first statement has
+ * been scanned (the first ';'), the time to scan the whole script, and
+ * its peak resident set size.
+ *
+ * Usage: MappedInputBenchmark [megabytes | script]   (default 500)
+ */
+public class MappedInputBenchmark {
+    private static final String[] MODES = {
+        "antlr-copy", "antlr-mapped", "direct-copy", "direct-mapped" };
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2) {
+            child(args[0], Paths.get(args[1]));
+            return;
+        }
+        Path script;
+        boolean generated = args.length == 0 || args[0].matches("[0-9]+");
+        if (generated) {
+            int mb = args.length == 0 ? 500 : Integer.parseInt(args[0]);
+            script = Files.createTempFile("fwjs", ".fwjs");
+            String chunk = ParserBenchmark.generate(4 << 20);
+            try (BufferedWriter w = Files.newBufferedWriter(script, StandardCharsets.US_ASCII)) {
+                for (long n = 0; n < (long) mb << 20; n += chunk.length())
+                    w.write(chunk);
+            }
+        } else {
+            script = Paths.get(args[0]);
+        }
+        System.out.printf("script: %d MB%n", Files.size(script) >> 20);
+        try {
+            for (String mode : MODES) {
+                ProcessBuilder pb = new ProcessBuilder("java", "-Xmx4g",
+                        "-cp", System.getProperty("java.class.path"),
+                        MappedInputBenchmark.class.getName(), mode, script.toString());
+                pb.redirectErrorStream(true);
+                Process p = pb.start();
+                BufferedReader r = new BufferedReader(new InputStreamReader(p.getInputStream()));
+                for (String line; (line = r.readLine()) != null; )
+                    System.out.println(line);
+                p.waitFor();
+            }
+        } finally {
+            if (generated) Files.delete(script);
+        }
+    }
+
+    private static void child(String mode, Path script) throws Exception {
+        long start = System.nanoTime();
+        long first = -1;
+        long tokens = 0;
+        if (mode.startsWith("antlr")) {
+            CharStream input = mode.endsWith("mapped") ? MappedCharStream.open(script)
+                    : new ANTLRInputStream(new FileInputStream(script.toFile()));
+            FeatherweightJavaScriptLexer lexer = new FeatherweightJavaScriptLexer(input);
+            for (Token t; (t = lexer.nextToken()).getType() != Token.EOF; tokens++) {
+                if (first < 0 && t.getType() == FeatherweightJavaScriptLexer.SEPARATOR)
+                    first = System.nanoTime() - start;
+            }
+        } else {
+            CharSequence input = mode.endsWith("mapped") ? MappedCharStream.open(script)
+                    : new String(Files.readAllBytes(script), StandardCharsets.US_ASCII);
+            Tokenizer lex = new Tokenizer(input);
+            for (; lex.type != Tokenizer.EOF; lex.next(), tokens++) {
+                if (first < 0 && lex.type == Tokenizer.SEPARATOR)
+                    first = System.nanoTime() - start;
+            }
+        }
+        long total = System.nanoTime() - start;
+        System.out.printf("%-14s first statement %8.1f ms   all %9d tokens %8.1f ms   peak RSS %6d MB%n",
+                mode, first / 1e6, tokens, total / 1e6, peakRssKb() >> 10);
+    }
+
+    private static long peakRssKb() throws Exception {
+        for (String line : Files.readAllLines(new File("/proc/self/status").toPath())) {
+            if (line.startsWith("VmHWM:"))
+                return Long.parseLong(line.replaceAll("[^0-9]", ""));
+        }
+        return -1;
+    }
+}
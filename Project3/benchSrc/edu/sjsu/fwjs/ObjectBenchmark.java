@@ -0,0 +1,110 @@
+package edu.sjsu.fwjs;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+
+/**
+ * Property reads per second of a FWJS loop that goes round an array of
+ * eight objects, adding up the properties x, y and z of each:
+ *
+ *   HashMap       objects built with ObjectVal.maxSlots at 0, so each is
+ *                 a LinkedHashMap from names to values; runs first, while
+ *                 the caches of the loop are empty
+ *   one shape     the objects were built in the same order, so they share
+ *                 a Shape, and every read hits the inline cache of its
+ *                 PropertyExpr and goes straight to a slot
+ *   four shapes   built in four orders, as many as a cache holds, so the
+ *                 reads still hit, after looking through more entries
+ *   eight shapes  built in eight orders, so the caches keep starting over
+ *                 and most reads look the name up in the shape
+ *
+ * The loop runs on the tree walker, and then, parsed again so that its
+ * caches start empty, compiled by the JitCompiler, whose code shares the
+ * inline caches of the nodes.
+ *
+ * Usage: ObjectBenchmark [iterations] [runs]
+ *        (default 1000000 iterations of 3 reads, best of 10)
+ */
+public class ObjectBenchmark {
+    /** Eight objects, built in the given numbers of property orders. */
+    private static String objects(int shapes) {
+        String[] orders = { "x: 1, y: 2, z: 3", "y: 2, x: 1, z: 3", "z: 3, x: 1, y: 2",
+                "z: 3, y: 2, x: 1", "w: 0, x: 1, y: 2, z: 3", "x: 1, w: 0, y: 2, z: 3",
+                "x: 1, y: 2, w: 0, z: 3", "x: 1, y: 2, z: 3, w: 0" };
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 8; i++)
+            sb.append(i > 0 ? ", " : "").append("{").append(orders[i % shapes]).append("}");
+        return sb.append("]").toString();
+    }
+
+    private static final String PROGRAM =
+        "var one = function() { " + objects(1) + "; };"
+        + "var four = function() { " + objects(4) + "; };"
+        + "var eight = function() { " + objects(8) + "; };"
+        + "var sum = function(os, n) { var s = 0; var i = 0; var o = null;"
+        + "  while (i < n) { o = os[i % 8]; s = s + o.x + o.y + o.z; i = i + 1; } s; };";
+
+    public static void main(String[] args) throws Exception {
+        int n = 1000000, runs = 10;
+        if (args.length > 0) n = Integer.parseInt(args[0]);
+        if (args.length > 1) runs = Integer.parseInt(args[1]);
+        Environment env = load();
+        Value maps;
+        int savedSlots = ObjectVal.maxSlots;
+        try {
+            ObjectVal.maxSlots = 0;
+            maps = call(env, "one");
+        } finally {
+            ObjectVal.maxSlots = savedSlots;
+        }
+        if (((ObjectVal) ((ArrayVal) maps).get(0)).shape() != null)
+            throw new AssertionError();
+
+        System.out.printf("%d iterations of 3 reads; reads/s, best of %d%n", n, runs);
+        System.out.printf("%-12s %14s %14s%n", "", "tree", "jit");
+        String[] names = { "HashMap", "one shape", "four shapes", "eight shapes" };
+        Value[] objects = { maps, call(env, "one"), call(env, "four"), call(env, "eight") };
+        double[][] rates = new double[objects.length][2];
+        int saved = JitCompiler.threshold;
+        try {
+            for (int jit = 0; jit < 2; jit++) {
+                // Compiles sum on its first call, before it is timed.
+                JitCompiler.threshold = jit == 0 ? -1 : 1;
+                env = load();
+                for (int k = 0; k < objects.length; k++)
+                    rates[k][jit] = rate(3L * n, runs, env, objects[k], IntVal.valueOf(n));
+            }
+        } finally {
+            JitCompiler.threshold = saved;
+        }
+        for (int k = 0; k < objects.length; k++)
+            System.out.printf("%-12s %14.0f %14.0f%n", names[k], rates[k][0], rates[k][1]);
+    }
+
+    private static Environment load() {
+        Environment env = new Environment();
+        Interpreter.parse(new ANTLRInputStream(PROGRAM)).evaluate(env);
+        return env;
+    }
+
+    private static Value call(Environment env, String fn, Value... args) {
+        return ((ClosureVal) env.resolveVar(fn)).call(args);
+    }
+
+    /**
+     * Property reads per second of sum, which makes reads of them, after
+     * warming up the JVM, and the JitCompiler when it is on.
+     */
+    private static double rate(long reads, int runs, Environment env, Value os, Value n) {
+        for (int r = 0; r < 5; r++) {
+            call(env, "sum", os, n);
+            JitCompiler.awaitCompilations();
+        }
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < runs; r++) {
+            long start = System.nanoTime();
+            call(env, "sum", os, n);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return reads / (best / 1e9);
+    }
+}
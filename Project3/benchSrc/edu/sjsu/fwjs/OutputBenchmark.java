@@ -0,0 +1,78 @@
+package edu.sjsu.fwjs;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Times a script that prints the integers up to n, in a fresh
+ * JVM: with print writing each value through System.out.println, as it
+ * used to, and through an OutputSink, to standard output redirected to
+ * a file and to the file directly with -out. The same loop without the
+ * print is the baseline.
+ *
+ * Usage: OutputBenchmark [n] [runs]   (default 10000000, 3 runs)
+ */
+public class OutputBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int n = 10000000, runs = 3;
+        if (args.length > 0) n = Integer.parseInt(args[0]);
+        if (args.length > 1) runs = Integer.parseInt(args[1]);
+        Path dir = Files.createTempDirectory("fwjs");
+        Path quiet = dir.resolve("quiet.fwjs");
+        Path loud = dir.resolve("print.fwjs");
+        Path out = dir.resolve("out.txt");
+        String loop = "var i = 0; while (i < " + n + ") { %s; i = i + 1; }";
+        Files.write(quiet, String.format(loop, "i").getBytes());
+        Files.write(loud, String.format(loop, "print(i)").getBytes());
+        try {
+            long base = best(runs, out, cmd("", quiet.toString()));
+            long println = best(runs, out, cmd("0", loud.toString()));
+            long sink = best(runs, out, cmd("", loud.toString()));
+            long channel = best(runs, null, cmd("", "-out", out.toString(), loud.toString()));
+            long size = Files.size(out);
+            System.out.printf("%d ints, %d MB of output; ms, best of %d%n", n, size >> 20, runs);
+            System.out.printf("loop without print %8d%n", base / 1000000);
+            System.out.printf("println            %8d   print %6.1f ns/int%n",
+                    println / 1000000, (println - base) / (double) n);
+            System.out.printf("sink to stdout     %8d   print %6.1f ns/int%n",
+                    sink / 1000000, (sink - base) / (double) n);
+            System.out.printf("sink to -out file  %8d   print %6.1f ns/int%n",
+                    channel / 1000000, (channel - base) / (double) n);
+        } finally {
+            for (File f : dir.toFile().listFiles()) f.delete();
+            Files.delete(dir);
+        }
+    }
+
+    private static List<String> cmd(String buffer, String... args) {
+        List<String> cmd = new ArrayList<String>();
+        cmd.add("java");
+        cmd.add("-Dfwjs.cache.dir=");
+        if (!buffer.isEmpty()) cmd.add("-Dfwjs.output.buffer=" + buffer);
+        cmd.add("-cp");
+        cmd.add(System.getProperty("java.class.path"));
+        cmd.add("edu.sjsu.fwjs.Interpreter");
+        cmd.addAll(Arrays.asList(args));
+        return cmd;
+    }
+
+    /** The shortest of several runs, with standard output going to stdout. */
+    private static long best(int runs, Path stdout, List<String> cmd) throws Exception {
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < runs; r++) {
+            ProcessBuilder pb = new ProcessBuilder(cmd);
+            pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+            pb.redirectOutput(stdout != null ? ProcessBuilder.Redirect.to(stdout.toFile())
+                    : ProcessBuilder.Redirect.DISCARD);
+            long start = System.nanoTime();
+            pb.start().waitFor();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,104 @@
+package edu.sjsu.fwjs;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+
+/**
+ * Speedup curves of two divide-and-conquer FWJS functions written with
+ * par, on ForkJoinPools of 1 thread up to the number of cores, doubling:
+ *
+ *   fib  naive Fibonacci, both recursive calls in a par
+ *   sum  the sum of a range of integers, halving it in a par
+ *
+ * Each runs with several sequential cutoffs, the problem size below
+ * which it calls a plain, JIT compiled version of itself instead. The
+ * speedup is against that plain version run on its own, so it includes
+ * the overhead of par, which the pars' own surplus heuristic
+ * (-Dfwjs.par.surplus) keeps down.
+ *
+ * Usage: ParBenchmark [fib n] [sum n] [max threads] [runs]
+ *        (default fib 32, sum 30000000, availableProcessors, best of 3)
+ */
+public class ParBenchmark {
+    private static final String PROGRAM =
+        "var fibSeq = function(n) { if (n < 2) { n; } else { fibSeq(n - 1) + fibSeq(n - 2); } };"
+        + "var fib = function(n, cutoff) { if (n < cutoff) { fibSeq(n); } else {"
+        + "  par { var a = fib(n - 1, cutoff); var b = fib(n - 2, cutoff); } a + b; } };"
+        + "var sumSeq = function(lo, hi) { var s = 0; while (lo < hi) { s = s + lo % 7; lo = lo + 1; } s; };"
+        + "var sum = function(lo, hi, cutoff) { if (hi - lo < cutoff) { sumSeq(lo, hi); } else {"
+        + "  var mid = (lo + hi) / 2;"
+        + "  par { var l = sum(lo, mid, cutoff); var r = sum(mid, hi, cutoff); } l + r; } };";
+
+    public static void main(String[] args) throws Exception {
+        int fibN = 32, sumN = 30000000;
+        int maxThreads = Runtime.getRuntime().availableProcessors(), runs = 3;
+        if (args.length > 0) fibN = Integer.parseInt(args[0]);
+        if (args.length > 1) sumN = Integer.parseInt(args[1]);
+        if (args.length > 2) maxThreads = Integer.parseInt(args[2]);
+        if (args.length > 3) runs = Integer.parseInt(args[3]);
+        Expression prog = Interpreter.parse(new ANTLRInputStream(PROGRAM));
+        Environment env = Environment.concurrent();
+        prog.evaluate(env);
+        System.out.printf("%d cores; ms, best of %d%n",
+                Runtime.getRuntime().availableProcessors(), runs);
+        Value n = IntVal.valueOf(fibN);
+        curves(env, "fib(" + fibN + ")", "fibSeq", new Value[] { n }, "fib",
+                new int[] { 2, 10, 15, 20 }, maxThreads, runs);
+        Value lo = IntVal.valueOf(0), hi = IntVal.valueOf(sumN);
+        curves(env, "sum(" + sumN + ")", "sumSeq", new Value[] { lo, hi }, "sum",
+                new int[] { 1000, 10000, 100000, 1000000 }, maxThreads, runs);
+    }
+
+    /**
+     * Times fn with each cutoff on pools of 1 to maxThreads threads, and
+     * prints the speedups over seq.
+     */
+    private static void curves(Environment env, String name, String seq, Value[] args,
+            String fn, int[] cutoffs, int maxThreads, int runs) throws Exception {
+        Value[] withCutoff = new Value[args.length + 1];
+        System.arraycopy(args, 0, withCutoff, 0, args.length);
+        ForkJoinPool one = new ForkJoinPool(1);
+        for (int r = 0; r < 3; r++) {
+            time(one, env, seq, args);
+            for (int cutoff : cutoffs) {
+                withCutoff[args.length] = IntVal.valueOf(cutoff);
+                time(one, env, fn, withCutoff);
+            }
+        }
+        one.shutdown();
+        long base = Long.MAX_VALUE;
+        for (int r = 0; r < runs; r++)
+            base = Math.min(base, time(null, env, seq, args));
+        System.out.printf("%n%s, plain: %d ms%n%8s", name, base / 1000000, "cutoff");
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            System.out.printf(" %8s", threads + (threads == 1 ? " thread" : " threads"));
+            if (threads == maxThreads) break;
+        }
+        System.out.println();
+        for (int cutoff : cutoffs) {
+            withCutoff[args.length] = IntVal.valueOf(cutoff);
+            System.out.printf("%8d", cutoff);
+            for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                long best = Long.MAX_VALUE;
+                for (int r = 0; r < runs; r++)
+                    best = Math.min(best, time(pool, env, fn, withCutoff));
+                pool.shutdown();
+                System.out.printf(" %8.2f", (double) base / best);
+                if (threads == maxThreads) break;
+            }
+            System.out.println();
+        }
+    }
+
+    /** Calls fn on a thread of the pool, or of the common pool if it is null. */
+    private static long time(ForkJoinPool pool, Environment env, String fn, Value[] args)
+            throws Exception {
+        ClosureVal f = (ClosureVal) env.resolveVar(fn);
+        if (pool == null) pool = ForkJoinPool.commonPool();
+        long start = System.nanoTime();
+        pool.submit(() -> f.call(args)).get();
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,98 @@
+package edu.sjsu.fwjs;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+
+/**
+ * Measures lexer and parser throughput on a large generated script, with
+ * full LL prediction only and with the two-stage SLL/LL parse that the
+ * Interpreter uses; then ANTLR together with the ExpressionBuilderVisitor
+ * against the DirectParser, which builds the Expressions itself.
+ *
+ * Usage: ParserBenchmark [megabytes]   (default 4)
+ */
+public class ParserBenchmark {
+
+    public static void main(String[] args) {
+        double mb = 4;
+        if (args.length > 0) mb = Double.parseDouble(args[0]);
+        String src = generate((int) (mb * (1 << 20)));
+        double size = src.getBytes(StandardCharsets.UTF_8).length / (double) (1 << 20);
+        System.out.printf("script: %.1f MB%n", size);
+        boolean sllFirst = Interpreter.sllFirst;
+        try {
+            for (int round = 0; round < 3; round++) {
+                Interpreter.sllFirst = false;
+                long ll = time(src);
+                Interpreter.sllFirst = true;
+                long sll = time(src);
+                long build = timeBuild(src);
+                long direct = timeDirect(src);
+                System.out.printf("LL %5.2f MB/s   SLL/LL %5.2f MB/s   "
+                        + "ANTLR+builder %5.2f MB/s   direct %6.2f MB/s%n",
+                        size * 1e9 / ll, size * 1e9 / sll, size * 1e9 / build,
+                        size * 1e9 / direct);
+            }
+        } finally {
+            Interpreter.sllFirst = sllFirst;
+        }
+    }
+
+    private static long time(String src) {
+        long start = System.nanoTime();
+        Interpreter.parseTree(new ANTLRInputStream(src), null);
+        return System.nanoTime() - start;
+    }
+
+    private static long timeBuild(String src) {
+        long start = System.nanoTime();
+        Interpreter.build(new ANTLRInputStream(src), null);
+        return System.nanoTime() - start;
+    }
+
+    private static long timeDirect(String src) {
+        long start = System.nanoTime();
+        DirectParser.parse(src);
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * A valid program of about the given number of characters, made of
+     * functions with nested control flow, calls and arithmetic.
+     */
+    static String generate(int chars) {
+        Random rnd = new Random(42);
+        StringBuilder sb = new StringBuilder();
+        for (int n = 0; sb.length() < chars; n++) {
+            sb.append("var f").append(n).append(" = function(a, b, c) {\n");
+            sb.append("  var x = ").append(expr(rnd, 3)).append(";\n");
+            sb.append("  if (x > ").append(expr(rnd, 2)).append(") {\n");
+            sb.append("    while (a < b) { a = a + 1; x = x * 2 % 7; }\n");
+            sb.append("    if (b == c) print(x); else { c = g(a, b, ")
+              .append(expr(rnd, 2)).append("); }\n");
+            sb.append("  } else {\n");
+            sb.append("    x = h(x)(a + b, c);\n");
+            sb.append("  }\n");
+            sb.append("  // result\n");
+            sb.append("  x + a - b;\n");
+            sb.append("};\n");
+            sb.append("print(f").append(n).append("(1, 2, (3 + 4) * 5));\n");
+        }
+        return sb.toString();
+    }
+
+    private static String expr(Random rnd, int depth) {
+        if (depth == 0 || rnd.nextInt(3) == 0) {
+            switch (rnd.nextInt(3)) {
+                case 0: return Integer.toString(rnd.nextInt(1000));
+                case 1: return "abc".substring(rnd.nextInt(3)).substring(0, 1);
+                default: return "k(" + rnd.nextInt(10) + ")";
+            }
+        }
+        String[] ops = { " + ", " - ", " * ", " / ", " % " };
+        String e = expr(rnd, depth - 1) + ops[rnd.nextInt(ops.length)] + expr(rnd, depth - 1);
+        return rnd.nextBoolean() ? "(" + e + ")" : e;
+    }
+}
@@ -0,0 +1,68 @@
+package edu.sjsu.fwjs;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+
+/**
+ * Compares the recursive evaluator with the StackMachine on sumList from
+ * fwjsScripts/lists.fwjs, which is not tail recursive.
+ *
+ * Each run happens on a fresh thread with the default thread stack size,
+ * so the recursive evaluator overflows where a plain `java` launch would.
+ * Lists are built with a loop, which does not need deep recursion.
+ *
+ * Usage: RecursionBenchmark [max elements]   (default 10^6)
+ */
+public class RecursionBenchmark {
+    private static final String PRELUDE =
+          "var tru = function(x,y) { x; };\n"
+        + "var fls = function(x,y) { y; };\n"
+        + "var pair = function(x,y) { function(f) { f(x,y); }; };\n"
+        + "var head = function(p) { p(tru); };\n"
+        + "var tail = function(p) { p(fls); };\n"
+        + "var isEmpty = function(lst) { lst == null; };\n"
+        + "var sumList = function(lst) {\n"
+        + "  if (isEmpty(lst)) 0;\n"
+        + "  else head(lst) + sumList(tail(lst));\n"
+        + "};\n";
+
+    public static void main(String[] args) throws Exception {
+        int max = 1000000;
+        if (args.length > 0) max = Integer.parseInt(args[0]);
+        System.out.println("elements   recursive        stack machine");
+        for (int n = 1000; n <= max; n *= 10) {
+            String src = PRELUDE
+                + "var lst = null;\n"
+                + "var i = 0;\n"
+                + "while (i < " + n + ") { lst = pair(1, lst); i = i + 1; }\n";
+            Expression build = Interpreter.parse(new ANTLRInputStream(src));
+            Expression sum = Interpreter.parse(new ANTLRInputStream("sumList(lst);"));
+            System.out.printf("%-10d %-16s %s%n", n,
+                    time(build, sum, false, n), time(build, sum, true, n));
+        }
+    }
+
+    private static String time(final Expression build, final Expression sum,
+            final boolean stack, final int n) throws Exception {
+        final String[] result = new String[1];
+        Thread t = new Thread(new Runnable() {
+            public void run() {
+                Environment env = new Environment();
+                build.evaluate(env);
+                try {
+                    long start = System.nanoTime();
+                    Value v = stack ? new StackMachine().run(sum, env) : sum.evaluate(env);
+                    long ms = (System.nanoTime() - start) / 1000000;
+                    if (!v.equals(new IntVal(n)))
+                        result[0] = "wrong: " + v;
+                    else
+                        result[0] = ms + " ms";
+                } catch (StackOverflowError e) {
+                    result[0] = "StackOverflow";
+                }
+            }
+        });
+        t.start();
+        t.join();
+        return result[0];
+    }
+}
@@ -0,0 +1,72 @@
+package edu.sjsu.fwjs;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the startup time of the Interpreter on the scripts, with a
+ * cold AstCache, which parses every script, and with a warm one, which
+ * loads every tree from disk; and with the DirectParser and no cache.
+ * Each run is a fresh JVM, started with the same class path as the
+ * benchmark; script output is discarded.
+ *
+ * Usage: StartupBenchmark [runs] [script...]
+ *        (default 5 runs of every script in fwjsScripts)
+ */
+public class StartupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int runs = 5;
+        if (args.length > 0) runs = Integer.parseInt(args[0]);
+        List<String> scripts = new ArrayList<String>();
+        for (int i = 1; i < args.length; i++)
+            scripts.add(args[i]);
+        if (scripts.isEmpty()) {
+            for (File f : new File("fwjsScripts").listFiles())
+                if (f.getName().endsWith(".fwjs")) scripts.add(f.getPath());
+        }
+        File cache = Files.createTempDirectory("fwjs-cache").toFile();
+        try {
+            long cold = 0, warm = 0, direct = 0;
+            for (int r = 0; r < runs; r++) {
+                clear(cache);
+                for (String script : scripts)
+                    cold += time(cache.getPath(), script, false);
+                for (String script : scripts)
+                    warm += time(cache.getPath(), script, false);
+                for (String script : scripts)
+                    direct += time("", script, true);
+            }
+            double n = runs * scripts.size() * 1e6;
+            System.out.printf("%d scripts: cold %.1f ms/script   warm %.1f ms/script   "
+                    + "direct %.1f ms/script%n",
+                    scripts.size(), cold / n, warm / n, direct / n);
+        } finally {
+            clear(cache);
+            cache.delete();
+        }
+    }
+
+    private static long time(String cache, String script, boolean direct) throws Exception {
+        List<String> cmd = new ArrayList<String>();
+        cmd.add("java");
+        cmd.add("-Dfwjs.cache.dir=" + cache);
+        cmd.add("-cp");
+        cmd.add(System.getProperty("java.class.path"));
+        cmd.add("edu.sjsu.fwjs.Interpreter");
+        if (direct) cmd.add("-direct");
+        cmd.add(script);
+        ProcessBuilder pb = new ProcessBuilder(cmd);
+        pb.redirectErrorStream(true);
+        pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        long start = System.nanoTime();
+        pb.start().waitFor();
+        return System.nanoTime() - start;
+    }
+
+    private static void clear(File dir) {
+        for (File f : dir.listFiles()) f.delete();
+    }
+}
@@ -0,0 +1,97 @@
+package edu.sjsu.fwjs;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Pipes a generated program through the Interpreter's standard input,
+ * read whole (with ANTLR or the DirectParser) and with -stream, in fresh
+ * JVMs with the same heap limit. The program is the same few statements
+ * over and over, updating a handful of globals, so a streaming run needs
+ * the same memory however long it is. Reports time and the child's peak
+ * resident set size, or that it failed.
+ *
+ * Usage: StreamBenchmark [megabytes...]   (default 16 64 256)
+ */
+public class StreamBenchmark {
+    private static final String HEAP = "-Xmx256m";
+
+    private static final String CHUNK =
+        "n = n + 1;\n"
+        + "if (n % 1000 == 0) { k = k + 1; }\n"
+        + "f = function(a, b) { var t = a * b; t % 7; };\n"
+        + "s = s + f(n, k);\n"
+        + "while (s > 100000) s = s - 100000;\n";
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = { 16, 64, 256 };
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++)
+                sizes[i] = Integer.parseInt(args[i]);
+        }
+        System.out.println("heap limit " + HEAP);
+        for (int mb : sizes) {
+            run(mb, "whole");
+            run(mb, "-direct");
+            run(mb, "-stream");
+        }
+    }
+
+    private static void run(int mb, String mode) throws Exception {
+        ProcessBuilder pb = new ProcessBuilder("java", HEAP, "-Dfwjs.cache.dir=",
+                "-cp", System.getProperty("java.class.path"), Interpreter.class.getName());
+        if (!mode.equals("whole")) pb.command().add(mode);
+        pb.redirectErrorStream(true);
+        long start = System.nanoTime();
+        Process p = pb.start();
+        long[] peak = new long[1];
+        Thread poll = new Thread(() -> {
+            File status = new File("/proc/" + p.pid() + "/status");
+            while (p.isAlive()) {
+                try {
+                    for (String line : Files.readAllLines(status.toPath())) {
+                        if (line.startsWith("VmHWM:"))
+                            peak[0] = Long.parseLong(line.replaceAll("[^0-9]", ""));
+                    }
+                    Thread.sleep(20);
+                } catch (Exception e) {
+                    return;
+                }
+            }
+        });
+        poll.start();
+        Thread feed = new Thread(() -> {
+            byte[] header = "var n = 0; var k = 0; var s = 0; var f = null;\n"
+                    .getBytes(StandardCharsets.US_ASCII);
+            byte[] chunk = CHUNK.getBytes(StandardCharsets.US_ASCII);
+            try (OutputStream out = p.getOutputStream()) {
+                out.write(header);
+                for (long n = 0; n < (long) mb << 20; n += chunk.length)
+                    out.write(chunk);
+                out.write("print(n); print(s);\n".getBytes(StandardCharsets.US_ASCII));
+            } catch (IOException e) {
+                // The child died; its output says why.
+            }
+        });
+        feed.start();
+        StringBuilder output = new StringBuilder();
+        BufferedReader r = new BufferedReader(new InputStreamReader(p.getInputStream()));
+        for (String line; (line = r.readLine()) != null; )
+            if (output.length() < 200) output.append(line).append(' ');
+        int status = p.waitFor();
+        long ms = (System.nanoTime() - start) / 1000000;
+        feed.join();
+        poll.join();
+        String result = status == 0 ? output.toString().trim()
+                : "failed: " + output.toString().replaceAll("\\s+", " ").trim();
+        if (result.length() > 60) result = result.substring(0, 60) + "...";
+        System.out.printf("%5d MB  %-8s %8d ms  %8.1f MB/s  peak RSS %5d MB  %s%n",
+                mb, mode, ms, mb * 1000.0 / ms, peak[0] >> 10, result);
+    }
+}
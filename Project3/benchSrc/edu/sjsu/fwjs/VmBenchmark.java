@@ -0,0 +1,68 @@
+package edu.sjsu.fwjs;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+
+/**
+ * Compares the tree walker with the bytecode VirtualMachine on arithmetic
+ * loops, one over globals and one over the locals of a function, a loop
+ * over an array, and recursive calls. The JitCompiler is left on, as the
+ * Interpreter runs it.
+ *
+ * Usage: VmBenchmark [iterations]   (default 2*10^7)
+ */
+public class VmBenchmark {
+
+    public static void main(String[] args) {
+        int n = 20000000;
+        if (args.length > 0) n = Integer.parseInt(args[0]);
+        String globalLoop = "var i = 0; var sum = 0;\n"
+            + "while (i < " + n + ") { sum = sum + i % 7 * 3; i = i + 1; }\n"
+            + "sum;";
+        String localLoop = "var f = function(n) {\n"
+            + "  var i = 0; var sum = 0;\n"
+            + "  while (i < n) { sum = sum + i % 7 * 3; i = i + 1; }\n"
+            + "  sum;\n"
+            + "};\n"
+            + "f(" + n + ");";
+        String arrayLoop = "var f = function(n) {\n"
+            + "  var a = [0, 0, 0, 0, 0, 0, 0]; var i = 0;\n"
+            + "  while (i < n) { a[i % 7] = a[i % 7] + i; i = i + 1; }\n"
+            + "  a[3];\n"
+            + "};\n"
+            + "f(" + n + ");";
+        int depth = 20;
+        while (depth < 32 && fibCalls(depth + 1) <= n / 4) depth++;
+        String fib = "var fib = function(n) { if (n < 2) n; else fib(n - 1) + fib(n - 2); };\n"
+            + "fib(" + depth + ");";
+        run("global loop", globalLoop, n);
+        run("local loop", localLoop, n);
+        run("array loop", arrayLoop, n);
+        run("fib(" + depth + ")", fib, fibCalls(depth));
+    }
+
+    private static void run(String name, String src, int n) {
+        Expression prog = Interpreter.parse(new ANTLRInputStream(src));
+        Chunk chunk = new BytecodeCompiler().compile(prog);
+        VirtualMachine vm = new VirtualMachine();
+        // Warm-up rounds, then the best of the measured rounds.
+        long tree = Long.MAX_VALUE, bytecode = Long.MAX_VALUE;
+        for (int round = 0; round < 6; round++) {
+            long start = System.nanoTime();
+            Value a = prog.evaluate(new Environment());
+            if (round >= 2) tree = Math.min(tree, System.nanoTime() - start);
+            start = System.nanoTime();
+            Value b = vm.run(chunk, new Environment());
+            if (round >= 2) bytecode = Math.min(bytecode, System.nanoTime() - start);
+            if (!a.equals(b))
+                throw new AssertionError(a + " != " + b);
+        }
+        System.out.printf("%-12s tree %6d ms (%5.1f M it/s)   vm %6d ms (%5.1f M it/s)   %.1fx%n",
+                name, tree / 1000000, n * 1e3 / tree, bytecode / 1000000,
+                n * 1e3 / bytecode, (double) tree / bytecode);
+    }
+
+    /** The number of calls fib(n) makes. */
+    private static int fibCalls(int n) {
+        return n < 2 ? 1 : 1 + fibCalls(n - 1) + fibCalls(n - 2);
+    }
+}
@@ -0,0 +1,34 @@
+package edu.sjsu.fwjs;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+
+/**
+ * Runs the loop from fwjsScripts/while.fwjs for many iterations and
+ * reports iterations per second. The print in the loop body is replaced
+ * by a running sum so the benchmark measures the loop, not the console.
+ *
+ * Usage: WhileBenchmark [iterations]   (default 10^8)
+ */
+public class WhileBenchmark {
+
+    public static void main(String[] args) {
+        long n = 100000000L;
+        if (args.length > 0) n = Long.parseLong(args[0]);
+        String src = "var i = 0;\n"
+            + "var sum = 0;\n"
+            + "while (i<" + n + ") {\n"
+            + "  sum = sum + i;\n"
+            + "  i = i + 1;\n"
+            + "}\n";
+        Expression prog = Interpreter.parse(new ANTLRInputStream(src));
+
+        long start = System.nanoTime();
+        Environment env = new Environment();
+        prog.evaluate(env);
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println("iterations:     " + env.resolveVar("i"));
+        System.out.println("elapsed:        " + (elapsed / 1000000) + " ms");
+        System.out.println("iterations/sec: " + (long) (n * 1e9 / elapsed));
+    }
+}
@@ -17,31 +17,37 @@ public class FeatherweightJavaScriptLexer extends Lexer {
 	protected static final PredictionContextCache _sharedContextCache =
 		new PredictionContextCache();
 	public static final int
-		T__0=1, T__1=2, T__2=3, T__3=4, T__4=5, T__5=6, IF=7, ELSE=8, WHILE=9, 
-		FUNCTION=10, VAR=11, PRINT=12, INT=13, BOOL=14, NULL=15, MUL=16, DIV=17, 
-		SEPARATOR=18, ADD=19, SUB=20, MOD=21, GT=22, GE=23, LT=24, LE=25, EQ=26, 
-		ID=27, NEWLINE=28, BLOCK_COMMENT=29, LINE_COMMENT=30, WS=31;
+		T__0=1, T__1=2, T__2=3, T__3=4, T__4=5, T__5=6, T__6=7, T__7=8, T__8=9, 
+		IF=10, ELSE=11, WHILE=12, FUNCTION=13, VAR=14, PRINT=15, ASYNC=16, AWAIT=17, 
+		PAR=18, SPAWN=19, CHAN=20, SEND=21, RECV=22, CLOSE=23, INT=24, BOOL=25, 
+		NULL=26, LBRACE=27, MUL=28, DIV=29, SEPARATOR=30, ADD=31, SUB=32, MOD=33, 
+		GT=34, GE=35, LT=36, LE=37, EQ=38, ID=39, NEWLINE=40, BLOCK_COMMENT=41, 
+		LINE_COMMENT=42, WS=43;
 	public static String[] modeNames = {
 		"DEFAULT_MODE"
 	};
 
 	public static final String[] ruleNames = {
-		"T__0", "T__1", "T__2", "T__3", "T__4", "T__5", "IF", "ELSE", "WHILE", 
-		"FUNCTION", "VAR", "PRINT", "INT", "BOOL", "NULL", "MUL", "DIV", "SEPARATOR", 
-		"ADD", "SUB", "MOD", "GT", "GE", "LT", "LE", "EQ", "ID", "NEWLINE", "BLOCK_COMMENT", 
-		"LINE_COMMENT", "WS"
+		"T__0", "T__1", "T__2", "T__3", "T__4", "T__5", "T__6", "T__7", "T__8", 
+		"IF", "ELSE", "WHILE", "FUNCTION", "VAR", "PRINT", "ASYNC", "AWAIT", "PAR", 
+		"SPAWN", "CHAN", "SEND", "RECV", "CLOSE", "INT", "BOOL", "NULL", "LBRACE", 
+		"MUL", "DIV", "SEPARATOR", "ADD", "SUB", "MOD", "GT", "GE", "LT", "LE", 
+		"EQ", "ID", "NEWLINE", "BLOCK_COMMENT", "LINE_COMMENT", "WS"
 	};
 
 	private static final String[] _LITERAL_NAMES = {
-		null, "'('", "')'", "'='", "','", "'{'", "'}'", "'if'", "'else'", "'while'", 
-		"'function'", "'var'", "'print'", null, null, "'null'", "'*'", "'/'", 
-		"';'", "'+'", "'-'", "'%'", "'>'", "'>='", "'<'", "'<='", "'=='"
+		null, "'('", "')'", "'}'", "'['", "']'", "'.'", "','", "'='", "':'", "'if'", 
+		"'else'", "'while'", "'function'", "'var'", "'print'", "'async'", "'await'", 
+		"'par'", "'spawn'", "'chan'", "'send'", "'recv'", "'close'", null, null, 
+		"'null'", "'{'", "'*'", "'/'", "';'", "'+'", "'-'", "'%'", "'>'", "'>='", 
+		"'<'", "'<='", "'=='"
 	};
 	private static final String[] _SYMBOLIC_NAMES = {
-		null, null, null, null, null, null, null, "IF", "ELSE", "WHILE", "FUNCTION", 
-		"VAR", "PRINT", "INT", "BOOL", "NULL", "MUL", "DIV", "SEPARATOR", "ADD", 
-		"SUB", "MOD", "GT", "GE", "LT", "LE", "EQ", "ID", "NEWLINE", "BLOCK_COMMENT", 
-		"LINE_COMMENT", "WS"
+		null, null, null, null, null, null, null, null, null, null, "IF", "ELSE", 
+		"WHILE", "FUNCTION", "VAR", "PRINT", "ASYNC", "AWAIT", "PAR", "SPAWN", 
+		"CHAN", "SEND", "RECV", "CLOSE", "INT", "BOOL", "NULL", "LBRACE", "MUL", 
+		"DIV", "SEPARATOR", "ADD", "SUB", "MOD", "GT", "GE", "LT", "LE", "EQ", 
+		"ID", "NEWLINE", "BLOCK_COMMENT", "LINE_COMMENT", "WS"
 	};
 	public static final Vocabulary VOCABULARY = new VocabularyImpl(_LITERAL_NAMES, _SYMBOLIC_NAMES);
 
@@ -98,69 +104,95 @@ public class FeatherweightJavaScriptLexer extends Lexer {
 	public ATN getATN() { return _ATN; }
 
 	public static final String _serializedATN =
-		"\3\u0430\ud6d1\u8206\uad2d\u4417\uaef1\u8d80\uaadd\2!\u00cf\b\1\4\2\t"+
+		"\3\u0430\ud6d1\u8206\uad2d\u4417\uaef1\u8d80\uaadd\2-\u011a\b\1\4\2\t"+
 		"\2\4\3\t\3\4\4\t\4\4\5\t\5\4\6\t\6\4\7\t\7\4\b\t\b\4\t\t\t\4\n\t\n\4\13"+
 		"\t\13\4\f\t\f\4\r\t\r\4\16\t\16\4\17\t\17\4\20\t\20\4\21\t\21\4\22\t\22"+
 		"\4\23\t\23\4\24\t\24\4\25\t\25\4\26\t\26\4\27\t\27\4\30\t\30\4\31\t\31"+
-		"\4\32\t\32\4\33\t\33\4\34\t\34\4\35\t\35\4\36\t\36\4\37\t\37\4 \t \3\2"+
-		"\3\2\3\3\3\3\3\4\3\4\3\5\3\5\3\6\3\6\3\7\3\7\3\b\3\b\3\b\3\t\3\t\3\t\3"+
-		"\t\3\t\3\n\3\n\3\n\3\n\3\n\3\n\3\13\3\13\3\13\3\13\3\13\3\13\3\13\3\13"+
-		"\3\13\3\f\3\f\3\f\3\f\3\r\3\r\3\r\3\r\3\r\3\r\3\16\3\16\7\16q\n\16\f\16"+
-		"\16\16t\13\16\3\16\5\16w\n\16\3\17\3\17\3\17\3\17\3\17\3\17\3\17\3\17"+
-		"\3\17\5\17\u0082\n\17\3\20\3\20\3\20\3\20\3\20\3\21\3\21\3\22\3\22\3\23"+
-		"\3\23\3\24\3\24\3\25\3\25\3\26\3\26\3\27\3\27\3\30\3\30\3\30\3\31\3\31"+
-		"\3\32\3\32\3\32\3\33\3\33\3\33\3\34\3\34\7\34\u00a4\n\34\f\34\16\34\u00a7"+
-		"\13\34\3\35\5\35\u00aa\n\35\3\35\3\35\3\35\3\35\3\36\3\36\3\36\3\36\7"+
-		"\36\u00b4\n\36\f\36\16\36\u00b7\13\36\3\36\3\36\3\36\3\36\3\36\3\37\3"+
-		"\37\3\37\3\37\7\37\u00c2\n\37\f\37\16\37\u00c5\13\37\3\37\3\37\3 \6 \u00ca"+
-		"\n \r \16 \u00cb\3 \3 \3\u00b5\2!\3\3\5\4\7\5\t\6\13\7\r\b\17\t\21\n\23"+
-		"\13\25\f\27\r\31\16\33\17\35\20\37\21!\22#\23%\24\'\25)\26+\27-\30/\31"+
-		"\61\32\63\33\65\34\67\359\36;\37= ?!\3\2\b\3\2\63;\3\2\62;\5\2C\\aac|"+
-		"\6\2\62;C\\aac|\4\2\f\f\17\17\4\2\13\13\"\"\u00d6\2\3\3\2\2\2\2\5\3\2"+
-		"\2\2\2\7\3\2\2\2\2\t\3\2\2\2\2\13\3\2\2\2\2\r\3\2\2\2\2\17\3\2\2\2\2\21"+
-		"\3\2\2\2\2\23\3\2\2\2\2\25\3\2\2\2\2\27\3\2\2\2\2\31\3\2\2\2\2\33\3\2"+
-		"\2\2\2\35\3\2\2\2\2\37\3\2\2\2\2!\3\2\2\2\2#\3\2\2\2\2%\3\2\2\2\2\'\3"+
-		"\2\2\2\2)\3\2\2\2\2+\3\2\2\2\2-\3\2\2\2\2/\3\2\2\2\2\61\3\2\2\2\2\63\3"+
-		"\2\2\2\2\65\3\2\2\2\2\67\3\2\2\2\29\3\2\2\2\2;\3\2\2\2\2=\3\2\2\2\2?\3"+
-		"\2\2\2\3A\3\2\2\2\5C\3\2\2\2\7E\3\2\2\2\tG\3\2\2\2\13I\3\2\2\2\rK\3\2"+
-		"\2\2\17M\3\2\2\2\21P\3\2\2\2\23U\3\2\2\2\25[\3\2\2\2\27d\3\2\2\2\31h\3"+
-		"\2\2\2\33v\3\2\2\2\35\u0081\3\2\2\2\37\u0083\3\2\2\2!\u0088\3\2\2\2#\u008a"+
-		"\3\2\2\2%\u008c\3\2\2\2\'\u008e\3\2\2\2)\u0090\3\2\2\2+\u0092\3\2\2\2"+
-		"-\u0094\3\2\2\2/\u0096\3\2\2\2\61\u0099\3\2\2\2\63\u009b\3\2\2\2\65\u009e"+
-		"\3\2\2\2\67\u00a1\3\2\2\29\u00a9\3\2\2\2;\u00af\3\2\2\2=\u00bd\3\2\2\2"+
-		"?\u00c9\3\2\2\2AB\7*\2\2B\4\3\2\2\2CD\7+\2\2D\6\3\2\2\2EF\7?\2\2F\b\3"+
-		"\2\2\2GH\7.\2\2H\n\3\2\2\2IJ\7}\2\2J\f\3\2\2\2KL\7\177\2\2L\16\3\2\2\2"+
-		"MN\7k\2\2NO\7h\2\2O\20\3\2\2\2PQ\7g\2\2QR\7n\2\2RS\7u\2\2ST\7g\2\2T\22"+
-		"\3\2\2\2UV\7y\2\2VW\7j\2\2WX\7k\2\2XY\7n\2\2YZ\7g\2\2Z\24\3\2\2\2[\\\7"+
-		"h\2\2\\]\7w\2\2]^\7p\2\2^_\7e\2\2_`\7v\2\2`a\7k\2\2ab\7q\2\2bc\7p\2\2"+
-		"c\26\3\2\2\2de\7x\2\2ef\7c\2\2fg\7t\2\2g\30\3\2\2\2hi\7r\2\2ij\7t\2\2"+
-		"jk\7k\2\2kl\7p\2\2lm\7v\2\2m\32\3\2\2\2nr\t\2\2\2oq\t\3\2\2po\3\2\2\2"+
-		"qt\3\2\2\2rp\3\2\2\2rs\3\2\2\2sw\3\2\2\2tr\3\2\2\2uw\7\62\2\2vn\3\2\2"+
-		"\2vu\3\2\2\2w\34\3\2\2\2xy\7v\2\2yz\7t\2\2z{\7w\2\2{\u0082\7g\2\2|}\7"+
-		"h\2\2}~\7c\2\2~\177\7n\2\2\177\u0080\7u\2\2\u0080\u0082\7g\2\2\u0081x"+
-		"\3\2\2\2\u0081|\3\2\2\2\u0082\36\3\2\2\2\u0083\u0084\7p\2\2\u0084\u0085"+
-		"\7w\2\2\u0085\u0086\7n\2\2\u0086\u0087\7n\2\2\u0087 \3\2\2\2\u0088\u0089"+
-		"\7,\2\2\u0089\"\3\2\2\2\u008a\u008b\7\61\2\2\u008b$\3\2\2\2\u008c\u008d"+
-		"\7=\2\2\u008d&\3\2\2\2\u008e\u008f\7-\2\2\u008f(\3\2\2\2\u0090\u0091\7"+
-		"/\2\2\u0091*\3\2\2\2\u0092\u0093\7\'\2\2\u0093,\3\2\2\2\u0094\u0095\7"+
-		"@\2\2\u0095.\3\2\2\2\u0096\u0097\7@\2\2\u0097\u0098\7?\2\2\u0098\60\3"+
-		"\2\2\2\u0099\u009a\7>\2\2\u009a\62\3\2\2\2\u009b\u009c\7>\2\2\u009c\u009d"+
-		"\7?\2\2\u009d\64\3\2\2\2\u009e\u009f\7?\2\2\u009f\u00a0\7?\2\2\u00a0\66"+
-		"\3\2\2\2\u00a1\u00a5\t\4\2\2\u00a2\u00a4\t\5\2\2\u00a3\u00a2\3\2\2\2\u00a4"+
-		"\u00a7\3\2\2\2\u00a5\u00a3\3\2\2\2\u00a5\u00a6\3\2\2\2\u00a68\3\2\2\2"+
-		"\u00a7\u00a5\3\2\2\2\u00a8\u00aa\7\17\2\2\u00a9\u00a8\3\2\2\2\u00a9\u00aa"+
-		"\3\2\2\2\u00aa\u00ab\3\2\2\2\u00ab\u00ac\7\f\2\2\u00ac\u00ad\3\2\2\2\u00ad"+
-		"\u00ae\b\35\2\2\u00ae:\3\2\2\2\u00af\u00b0\7\61\2\2\u00b0\u00b1\7,\2\2"+
-		"\u00b1\u00b5\3\2\2\2\u00b2\u00b4\13\2\2\2\u00b3\u00b2\3\2\2\2\u00b4\u00b7"+
-		"\3\2\2\2\u00b5\u00b6\3\2\2\2\u00b5\u00b3\3\2\2\2\u00b6\u00b8\3\2\2\2\u00b7"+
-		"\u00b5\3\2\2\2\u00b8\u00b9\7,\2\2\u00b9\u00ba\7\61\2\2\u00ba\u00bb\3\2"+
-		"\2\2\u00bb\u00bc\b\36\2\2\u00bc<\3\2\2\2\u00bd\u00be\7\61\2\2\u00be\u00bf"+
-		"\7\61\2\2\u00bf\u00c3\3\2\2\2\u00c0\u00c2\n\6\2\2\u00c1\u00c0\3\2\2\2"+
-		"\u00c2\u00c5\3\2\2\2\u00c3\u00c1\3\2\2\2\u00c3\u00c4\3\2\2\2\u00c4\u00c6"+
-		"\3\2\2\2\u00c5\u00c3\3\2\2\2\u00c6\u00c7\b\37\2\2\u00c7>\3\2\2\2\u00c8"+
-		"\u00ca\t\7\2\2\u00c9\u00c8\3\2\2\2\u00ca\u00cb\3\2\2\2\u00cb\u00c9\3\2"+
-		"\2\2\u00cb\u00cc\3\2\2\2\u00cc\u00cd\3\2\2\2\u00cd\u00ce\b \2\2\u00ce"+
-		"@\3\2\2\2\13\2rv\u0081\u00a5\u00a9\u00b5\u00c3\u00cb\3\b\2\2";
+		"\4\32\t\32\4\33\t\33\4\34\t\34\4\35\t\35\4\36\t\36\4\37\t\37\4 \t \4!"+
+		"\t!\4\"\t\"\4#\t#\4$\t$\4%\t%\4&\t&\4\'\t\'\4(\t(\4)\t)\4*\t*\4+\t+\4"+
+		",\t,\3\2\3\2\3\3\3\3\3\4\3\4\3\5\3\5\3\6\3\6\3\7\3\7\3\b\3\b\3\t\3\t\3"+
+		"\n\3\n\3\13\3\13\3\13\3\f\3\f\3\f\3\f\3\f\3\r\3\r\3\r\3\r\3\r\3\r\3\16"+
+		"\3\16\3\16\3\16\3\16\3\16\3\16\3\16\3\16\3\17\3\17\3\17\3\17\3\20\3\20"+
+		"\3\20\3\20\3\20\3\20\3\21\3\21\3\21\3\21\3\21\3\21\3\22\3\22\3\22\3\22"+
+		"\3\22\3\22\3\23\3\23\3\23\3\23\3\24\3\24\3\24\3\24\3\24\3\24\3\25\3\25"+
+		"\3\25\3\25\3\25\3\26\3\26\3\26\3\26\3\26\3\27\3\27\3\27\3\27\3\27\3\30"+
+		"\3\30\3\30\3\30\3\30\3\30\3\31\3\31\7\31\u00ba\n\31\f\31\16\31\u00bd\13"+
+		"\31\3\31\5\31\u00c0\n\31\3\32\3\32\3\32\3\32\3\32\3\32\3\32\3\32\3\32"+
+		"\5\32\u00cb\n\32\3\33\3\33\3\33\3\33\3\33\3\34\3\34\3\35\3\35\3\36\3\36"+
+		"\3\37\3\37\3 \3 \3!\3!\3\"\3\"\3#\3#\3$\3$\3$\3%\3%\3&\3&\3&\3\'\3\'\3"+
+		"\'\3(\3(\7(\u00ef\n(\f(\16(\u00f2\13(\3)\5)\u00f5\n)\3)\3)\3)\3)\3*\3"+
+		"*\3*\3*\7*\u00ff\n*\f*\16*\u0102\13*\3*\3*\3*\3*\3*\3+\3+\3+\3+\7+\u010d"+
+		"\n+\f+\16+\u0110\13+\3+\3+\3,\6,\u0115\n,\r,\16,\u0116\3,\3,\3\u0100\2"+
+		"-\3\3\5\4\7\5\t\6\13\7\r\b\17\t\21\n\23\13\25\f\27\r\31\16\33\17\35\20"+
+		"\37\21!\22#\23%\24\'\25)\26+\27-\30/\31\61\32\63\33\65\34\67\359\36;\37"+
+		"= ?!A\"C#E$G%I&K\'M(O)Q*S+U,W-\3\2\b\3\2\63;\3\2\62;\5\2C\\aac|\6\2\62"+
+		";C\\aac|\4\2\f\f\17\17\4\2\13\13\"\"\u0121\2\3\3\2\2\2\2\5\3\2\2\2\2\7"+
+		"\3\2\2\2\2\t\3\2\2\2\2\13\3\2\2\2\2\r\3\2\2\2\2\17\3\2\2\2\2\21\3\2\2"+
+		"\2\2\23\3\2\2\2\2\25\3\2\2\2\2\27\3\2\2\2\2\31\3\2\2\2\2\33\3\2\2\2\2"+
+		"\35\3\2\2\2\2\37\3\2\2\2\2!\3\2\2\2\2#\3\2\2\2\2%\3\2\2\2\2\'\3\2\2\2"+
+		"\2)\3\2\2\2\2+\3\2\2\2\2-\3\2\2\2\2/\3\2\2\2\2\61\3\2\2\2\2\63\3\2\2\2"+
+		"\2\65\3\2\2\2\2\67\3\2\2\2\29\3\2\2\2\2;\3\2\2\2\2=\3\2\2\2\2?\3\2\2\2"+
+		"\2A\3\2\2\2\2C\3\2\2\2\2E\3\2\2\2\2G\3\2\2\2\2I\3\2\2\2\2K\3\2\2\2\2M"+
+		"\3\2\2\2\2O\3\2\2\2\2Q\3\2\2\2\2S\3\2\2\2\2U\3\2\2\2\2W\3\2\2\2\3Y\3\2"+
+		"\2\2\5[\3\2\2\2\7]\3\2\2\2\t_\3\2\2\2\13a\3\2\2\2\rc\3\2\2\2\17e\3\2\2"+
+		"\2\21g\3\2\2\2\23i\3\2\2\2\25k\3\2\2\2\27n\3\2\2\2\31s\3\2\2\2\33y\3\2"+
+		"\2\2\35\u0082\3\2\2\2\37\u0086\3\2\2\2!\u008c\3\2\2\2#\u0092\3\2\2\2%"+
+		"\u0098\3\2\2\2\'\u009c\3\2\2\2)\u00a2\3\2\2\2+\u00a7\3\2\2\2-\u00ac\3"+
+		"\2\2\2/\u00b1\3\2\2\2\61\u00bf\3\2\2\2\63\u00ca\3\2\2\2\65\u00cc\3\2\2"+
+		"\2\67\u00d1\3\2\2\29\u00d3\3\2\2\2;\u00d5\3\2\2\2=\u00d7\3\2\2\2?\u00d9"+
+		"\3\2\2\2A\u00db\3\2\2\2C\u00dd\3\2\2\2E\u00df\3\2\2\2G\u00e1\3\2\2\2I"+
+		"\u00e4\3\2\2\2K\u00e6\3\2\2\2M\u00e9\3\2\2\2O\u00ec\3\2\2\2Q\u00f4\3\2"+
+		"\2\2S\u00fa\3\2\2\2U\u0108\3\2\2\2W\u0114\3\2\2\2YZ\7*\2\2Z\4\3\2\2\2"+
+		"[\\\7+\2\2\\\6\3\2\2\2]^\7\177\2\2^\b\3\2\2\2_`\7]\2\2`\n\3\2\2\2ab\7"+
+		"_\2\2b\f\3\2\2\2cd\7\60\2\2d\16\3\2\2\2ef\7.\2\2f\20\3\2\2\2gh\7?\2\2"+
+		"h\22\3\2\2\2ij\7<\2\2j\24\3\2\2\2kl\7k\2\2lm\7h\2\2m\26\3\2\2\2no\7g\2"+
+		"\2op\7n\2\2pq\7u\2\2qr\7g\2\2r\30\3\2\2\2st\7y\2\2tu\7j\2\2uv\7k\2\2v"+
+		"w\7n\2\2wx\7g\2\2x\32\3\2\2\2yz\7h\2\2z{\7w\2\2{|\7p\2\2|}\7e\2\2}~\7"+
+		"v\2\2~\177\7k\2\2\177\u0080\7q\2\2\u0080\u0081\7p\2\2\u0081\34\3\2\2\2"+
+		"\u0082\u0083\7x\2\2\u0083\u0084\7c\2\2\u0084\u0085\7t\2\2\u0085\36\3\2"+
+		"\2\2\u0086\u0087\7r\2\2\u0087\u0088\7t\2\2\u0088\u0089\7k\2\2\u0089\u008a"+
+		"\7p\2\2\u008a\u008b\7v\2\2\u008b \3\2\2\2\u008c\u008d\7c\2\2\u008d\u008e"+
+		"\7u\2\2\u008e\u008f\7{\2\2\u008f\u0090\7p\2\2\u0090\u0091\7e\2\2\u0091"+
+		"\"\3\2\2\2\u0092\u0093\7c\2\2\u0093\u0094\7y\2\2\u0094\u0095\7c\2\2\u0095"+
+		"\u0096\7k\2\2\u0096\u0097\7v\2\2\u0097$\3\2\2\2\u0098\u0099\7r\2\2\u0099"+
+		"\u009a\7c\2\2\u009a\u009b\7t\2\2\u009b&\3\2\2\2\u009c\u009d\7u\2\2\u009d"+
+		"\u009e\7r\2\2\u009e\u009f\7c\2\2\u009f\u00a0\7y\2\2\u00a0\u00a1\7p\2\2"+
+		"\u00a1(\3\2\2\2\u00a2\u00a3\7e\2\2\u00a3\u00a4\7j\2\2\u00a4\u00a5\7c\2"+
+		"\2\u00a5\u00a6\7p\2\2\u00a6*\3\2\2\2\u00a7\u00a8\7u\2\2\u00a8\u00a9\7"+
+		"g\2\2\u00a9\u00aa\7p\2\2\u00aa\u00ab\7f\2\2\u00ab,\3\2\2\2\u00ac\u00ad"+
+		"\7t\2\2\u00ad\u00ae\7g\2\2\u00ae\u00af\7e\2\2\u00af\u00b0\7x\2\2\u00b0"+
+		".\3\2\2\2\u00b1\u00b2\7e\2\2\u00b2\u00b3\7n\2\2\u00b3\u00b4\7q\2\2\u00b4"+
+		"\u00b5\7u\2\2\u00b5\u00b6\7g\2\2\u00b6\60\3\2\2\2\u00b7\u00bb\t\2\2\2"+
+		"\u00b8\u00ba\t\3\2\2\u00b9\u00b8\3\2\2\2\u00ba\u00bd\3\2\2\2\u00bb\u00b9"+
+		"\3\2\2\2\u00bb\u00bc\3\2\2\2\u00bc\u00c0\3\2\2\2\u00bd\u00bb\3\2\2\2\u00be"+
+		"\u00c0\7\62\2\2\u00bf\u00b7\3\2\2\2\u00bf\u00be\3\2\2\2\u00c0\62\3\2\2"+
+		"\2\u00c1\u00c2\7v\2\2\u00c2\u00c3\7t\2\2\u00c3\u00c4\7w\2\2\u00c4\u00cb"+
+		"\7g\2\2\u00c5\u00c6\7h\2\2\u00c6\u00c7\7c\2\2\u00c7\u00c8\7n\2\2\u00c8"+
+		"\u00c9\7u\2\2\u00c9\u00cb\7g\2\2\u00ca\u00c1\3\2\2\2\u00ca\u00c5\3\2\2"+
+		"\2\u00cb\64\3\2\2\2\u00cc\u00cd\7p\2\2\u00cd\u00ce\7w\2\2\u00ce\u00cf"+
+		"\7n\2\2\u00cf\u00d0\7n\2\2\u00d0\66\3\2\2\2\u00d1\u00d2\7}\2\2\u00d28"+
+		"\3\2\2\2\u00d3\u00d4\7,\2\2\u00d4:\3\2\2\2\u00d5\u00d6\7\61\2\2\u00d6"+
+		"<\3\2\2\2\u00d7\u00d8\7=\2\2\u00d8>\3\2\2\2\u00d9\u00da\7-\2\2\u00da@"+
+		"\3\2\2\2\u00db\u00dc\7/\2\2\u00dcB\3\2\2\2\u00dd\u00de\7\'\2\2\u00deD"+
+		"\3\2\2\2\u00df\u00e0\7@\2\2\u00e0F\3\2\2\2\u00e1\u00e2\7@\2\2\u00e2\u00e3"+
+		"\7?\2\2\u00e3H\3\2\2\2\u00e4\u00e5\7>\2\2\u00e5J\3\2\2\2\u00e6\u00e7\7"+
+		">\2\2\u00e7\u00e8\7?\2\2\u00e8L\3\2\2\2\u00e9\u00ea\7?\2\2\u00ea\u00eb"+
+		"\7?\2\2\u00ebN\3\2\2\2\u00ec\u00f0\t\4\2\2\u00ed\u00ef\t\5\2\2\u00ee\u00ed"+
+		"\3\2\2\2\u00ef\u00f2\3\2\2\2\u00f0\u00ee\3\2\2\2\u00f0\u00f1\3\2\2\2\u00f1"+
+		"P\3\2\2\2\u00f2\u00f0\3\2\2\2\u00f3\u00f5\7\17\2\2\u00f4\u00f3\3\2\2\2"+
+		"\u00f4\u00f5\3\2\2\2\u00f5\u00f6\3\2\2\2\u00f6\u00f7\7\f\2\2\u00f7\u00f8"+
+		"\3\2\2\2\u00f8\u00f9\b)\2\2\u00f9R\3\2\2\2\u00fa\u00fb\7\61\2\2\u00fb"+
+		"\u00fc\7,\2\2\u00fc\u0100\3\2\2\2\u00fd\u00ff\13\2\2\2\u00fe\u00fd\3\2"+
+		"\2\2\u00ff\u0102\3\2\2\2\u0100\u0101\3\2\2\2\u0100\u00fe\3\2\2\2\u0101"+
+		"\u0103\3\2\2\2\u0102\u0100\3\2\2\2\u0103\u0104\7,\2\2\u0104\u0105\7\61"+
+		"\2\2\u0105\u0106\3\2\2\2\u0106\u0107\b*\2\2\u0107T\3\2\2\2\u0108\u0109"+
+		"\7\61\2\2\u0109\u010a\7\61\2\2\u010a\u010e\3\2\2\2\u010b\u010d\n\6\2\2"+
+		"\u010c\u010b\3\2\2\2\u010d\u0110\3\2\2\2\u010e\u010c\3\2\2\2\u010e\u010f"+
+		"\3\2\2\2\u010f\u0111\3\2\2\2\u0110\u010e\3\2\2\2\u0111\u0112\b+\2\2\u0112"+
+		"V\3\2\2\2\u0113\u0115\t\7\2\2\u0114\u0113\3\2\2\2\u0115\u0116\3\2\2\2"+
+		"\u0116\u0114\3\2\2\2\u0116\u0117\3\2\2\2\u0117\u0118\3\2\2\2\u0118\u0119"+
+		"\b,\2\2\u0119X\3\2\2\2\13\2\u00bb\u00bf\u00ca\u00f0\u00f4\u0100\u010e"+
+		"\u0116\3\b\2\2";
 	public static final ATN _ATN =
 		new ATNDeserializer().deserialize(_serializedATN.toCharArray());
 	static {
@@ -17,10 +17,12 @@ public class FeatherweightJavaScriptParser extends Parser {
 	protected static final PredictionContextCache _sharedContextCache =
 		new PredictionContextCache();
 	public static final int
-		T__0=1, T__1=2, T__2=3, T__3=4, T__4=5, T__5=6, IF=7, ELSE=8, WHILE=9, 
-		FUNCTION=10, VAR=11, PRINT=12, INT=13, BOOL=14, NULL=15, MUL=16, DIV=17, 
-		SEPARATOR=18, ADD=19, SUB=20, MOD=21, GT=22, GE=23, LT=24, LE=25, EQ=26, 
-		ID=27, NEWLINE=28, BLOCK_COMMENT=29, LINE_COMMENT=30, WS=31;
+		T__0=1, T__1=2, T__2=3, T__3=4, T__4=5, T__5=6, T__6=7, T__7=8, T__8=9, 
+		IF=10, ELSE=11, WHILE=12, FUNCTION=13, VAR=14, PRINT=15, ASYNC=16, AWAIT=17, 
+		PAR=18, SPAWN=19, CHAN=20, SEND=21, RECV=22, CLOSE=23, INT=24, BOOL=25, 
+		NULL=26, LBRACE=27, MUL=28, DIV=29, SEPARATOR=30, ADD=31, SUB=32, MOD=33, 
+		GT=34, GE=35, LT=36, LE=37, EQ=38, ID=39, NEWLINE=40, BLOCK_COMMENT=41, 
+		LINE_COMMENT=42, WS=43;
 	public static final int
 		RULE_prog = 0, RULE_stat = 1, RULE_expr = 2, RULE_parameter = 3, RULE_argument = 4, 
 		RULE_block = 5;
@@ -29,15 +31,18 @@ public class FeatherweightJavaScriptParser extends Parser {
 	};
 
 	private static final String[] _LITERAL_NAMES = {
-		null, "'('", "')'", "'='", "','", "'{'", "'}'", "'if'", "'else'", "'while'", 
-		"'function'", "'var'", "'print'", null, null, "'null'", "'*'", "'/'", 
-		"';'", "'+'", "'-'", "'%'", "'>'", "'>='", "'<'", "'<='", "'=='"
+		null, "'('", "')'", "'}'", "'['", "']'", "'.'", "','", "'='", "':'", "'if'", 
+		"'else'", "'while'", "'function'", "'var'", "'print'", "'async'", "'await'", 
+		"'par'", "'spawn'", "'chan'", "'send'", "'recv'", "'close'", null, null, 
+		"'null'", "'{'", "'*'", "'/'", "';'", "'+'", "'-'", "'%'", "'>'", "'>='", 
+		"'<'", "'<='", "'=='"
 	};
 	private static final String[] _SYMBOLIC_NAMES = {
-		null, null, null, null, null, null, null, "IF", "ELSE", "WHILE", "FUNCTION", 
-		"VAR", "PRINT", "INT", "BOOL", "NULL", "MUL", "DIV", "SEPARATOR", "ADD", 
-		"SUB", "MOD", "GT", "GE", "LT", "LE", "EQ", "ID", "NEWLINE", "BLOCK_COMMENT", 
-		"LINE_COMMENT", "WS"
+		null, null, null, null, null, null, null, null, null, null, "IF", "ELSE", 
+		"WHILE", "FUNCTION", "VAR", "PRINT", "ASYNC", "AWAIT", "PAR", "SPAWN", 
+		"CHAN", "SEND", "RECV", "CLOSE", "INT", "BOOL", "NULL", "LBRACE", "MUL", 
+		"DIV", "SEPARATOR", "ADD", "SUB", "MOD", "GT", "GE", "LT", "LE", "EQ", 
+		"ID", "NEWLINE", "BLOCK_COMMENT", "LINE_COMMENT", "WS"
 	};
 	public static final Vocabulary VOCABULARY = new VocabularyImpl(_LITERAL_NAMES, _SYMBOLIC_NAMES);
 
@@ -109,24 +114,30 @@ public class FeatherweightJavaScriptParser extends Parser {
 	public final ProgContext prog() throws RecognitionException {
 		ProgContext _localctx = new ProgContext(_ctx, getState());
 		enterRule(_localctx, 0, RULE_prog);
-		int _la;
 		try {
+			int _alt;
 			enterOuterAlt(_localctx, 1);
 			{
 			setState(13); 
 			_errHandler.sync(this);
-			_la = _input.LA(1);
+			_alt = 1;
 			do {
-				{
-				{
-				setState(12);
-				stat();
-				}
+				switch (_alt) {
+				case 1:
+					{
+					{
+					setState(12);
+					stat();
+					}
+					}
+					break;
+				default:
+					throw new NoViableAltException(this);
 				}
 				setState(15); 
 				_errHandler.sync(this);
-				_la = _input.LA(1);
-			} while ( (((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << T__0) | (1L << IF) | (1L << WHILE) | (1L << FUNCTION) | (1L << VAR) | (1L << PRINT) | (1L << INT) | (1L << BOOL) | (1L << NULL) | (1L << SEPARATOR) | (1L << ID))) != 0) );
+				_alt = getInterpreter().adaptivePredict(_input,0,_ctx);
+			} while ( _alt!=2 && _alt!=org.antlr.v4.runtime.atn.ATN.INVALID_ALT_NUMBER );
 			}
 		}
 		catch (RecognitionException re) {
@@ -151,37 +162,37 @@ public class FeatherweightJavaScriptParser extends Parser {
 			super.copyFrom(ctx);
 		}
 	}
-	public static class IfThenElseContext extends StatContext {
-		public TerminalNode IF() { return getToken(FeatherweightJavaScriptParser.IF, 0); }
-		public ExprContext expr() {
-			return getRuleContext(ExprContext.class,0);
-		}
+	public static class ParContext extends StatContext {
+		public TerminalNode PAR() { return getToken(FeatherweightJavaScriptParser.PAR, 0); }
 		public List<BlockContext> block() {
 			return getRuleContexts(BlockContext.class);
 		}
 		public BlockContext block(int i) {
 			return getRuleContext(BlockContext.class,i);
 		}
-		public TerminalNode ELSE() { return getToken(FeatherweightJavaScriptParser.ELSE, 0); }
-		public IfThenElseContext(StatContext ctx) { copyFrom(ctx); }
+		public ParContext(StatContext ctx) { copyFrom(ctx); }
 		@Override
 		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
-			if ( visitor instanceof FeatherweightJavaScriptVisitor ) return ((FeatherweightJavaScriptVisitor<? extends T>)visitor).visitIfThenElse(this);
+			if ( visitor instanceof FeatherweightJavaScriptVisitor ) return ((FeatherweightJavaScriptVisitor<? extends T>)visitor).visitPar(this);
 			else return visitor.visitChildren(this);
 		}
 	}
-	public static class IfThenContext extends StatContext {
+	public static class IfThenElseContext extends StatContext {
 		public TerminalNode IF() { return getToken(FeatherweightJavaScriptParser.IF, 0); }
 		public ExprContext expr() {
 			return getRuleContext(ExprContext.class,0);
 		}
-		public BlockContext block() {
-			return getRuleContext(BlockContext.class,0);
+		public List<BlockContext> block() {
+			return getRuleContexts(BlockContext.class);
+		}
+		public BlockContext block(int i) {
+			return getRuleContext(BlockContext.class,i);
 		}
-		public IfThenContext(StatContext ctx) { copyFrom(ctx); }
+		public TerminalNode ELSE() { return getToken(FeatherweightJavaScriptParser.ELSE, 0); }
+		public IfThenElseContext(StatContext ctx) { copyFrom(ctx); }
 		@Override
 		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
-			if ( visitor instanceof FeatherweightJavaScriptVisitor ) return ((FeatherweightJavaScriptVisitor<? extends T>)visitor).visitIfThen(this);
+			if ( visitor instanceof FeatherweightJavaScriptVisitor ) return ((FeatherweightJavaScriptVisitor<? extends T>)visitor).visitIfThenElse(this);
 			else return visitor.visitChildren(this);
 		}
 	}
@@ -239,16 +250,19 @@ public class FeatherweightJavaScriptParser extends Parser {
 		StatContext _localctx = new StatContext(_ctx, getState());
 		enterRule(_localctx, 2, RULE_stat);
 		try {
-			setState(47);
+			int _alt;
+			setState(52);
 			_errHandler.sync(this);
-			switch ( getInterpreter().adaptivePredict(_input,1,_ctx) ) {
+			switch ( getInterpreter().adaptivePredict(_input,3,_ctx) ) {
 			case 1:
 				_localctx = new BareExprContext(_localctx);
 				enterOuterAlt(_localctx, 1);
 				{
 				setState(17);
-				expr(0);
+				if (!(_input.LA(1) != LBRACE)) throw new FailedPredicateException(this, "_input.LA(1) != LBRACE");
 				setState(18);
+				expr(0);
+				setState(19);
 				match(SEPARATOR);
 				}
 				break;
@@ -256,75 +270,95 @@ public class FeatherweightJavaScriptParser extends Parser {
 				_localctx = new IfThenElseContext(_localctx);
 				enterOuterAlt(_localctx, 2);
 				{
-				setState(20);
-				match(IF);
 				setState(21);
-				match(T__0);
+				match(IF);
 				setState(22);
-				expr(0);
+				match(T__0);
 				setState(23);
-				match(T__1);
+				expr(0);
 				setState(24);
-				block();
+				match(T__1);
 				setState(25);
-				match(ELSE);
-				setState(26);
 				block();
+				setState(28);
+				_errHandler.sync(this);
+				switch ( getInterpreter().adaptivePredict(_input,1,_ctx) ) {
+				case 1:
+					{
+					setState(26);
+					match(ELSE);
+					setState(27);
+					block();
+					}
+					break;
+				}
 				}
 				break;
 			case 3:
-				_localctx = new IfThenContext(_localctx);
+				_localctx = new WhileContext(_localctx);
 				enterOuterAlt(_localctx, 3);
 				{
-				setState(28);
-				match(IF);
-				setState(29);
-				match(T__0);
 				setState(30);
-				expr(0);
+				match(WHILE);
 				setState(31);
-				match(T__1);
+				match(T__0);
 				setState(32);
+				expr(0);
+				setState(33);
+				match(T__1);
+				setState(34);
 				block();
 				}
 				break;
 			case 4:
-				_localctx = new WhileContext(_localctx);
+				_localctx = new PrintExprContext(_localctx);
 				enterOuterAlt(_localctx, 4);
 				{
-				setState(34);
-				match(WHILE);
-				setState(35);
-				match(T__0);
 				setState(36);
-				expr(0);
+				match(PRINT);
 				setState(37);
-				match(T__1);
+				match(T__0);
 				setState(38);
-				block();
+				expr(0);
+				setState(39);
+				match(T__1);
+				setState(40);
+				match(SEPARATOR);
 				}
 				break;
 			case 5:
-				_localctx = new PrintExprContext(_localctx);
+				_localctx = new ParContext(_localctx);
 				enterOuterAlt(_localctx, 5);
 				{
-				setState(40);
-				match(PRINT);
-				setState(41);
-				match(T__0);
 				setState(42);
-				expr(0);
+				match(PAR);
 				setState(43);
-				match(T__1);
-				setState(44);
-				match(SEPARATOR);
+				match(LBRACE);
+				setState(47);
+				_errHandler.sync(this);
+				_alt = getInterpreter().adaptivePredict(_input,2,_ctx);
+				while ( _alt!=2 && _alt!=org.antlr.v4.runtime.atn.ATN.INVALID_ALT_NUMBER ) {
+					if ( _alt==1 ) {
+						{
+						{
+						setState(44);
+						block();
+						}
+						} 
+					}
+					setState(49);
+					_errHandler.sync(this);
+					_alt = getInterpreter().adaptivePredict(_input,2,_ctx);
+				}
+				setState(50);
+				match(T__2);
 				}
 				break;
 			case 6:
 				_localctx = new EmptyContext(_localctx);
 				enterOuterAlt(_localctx, 6);
 				{
-				setState(46);
+				setState(51);
 				match(SEPARATOR);
 				}
 				break;
@@ -363,21 +397,6 @@ public class FeatherweightJavaScriptParser extends Parser {
 			else return visitor.visitChildren(this);
 		}
 	}
-	public static class MulDivModContext extends ExprContext {
-		public Token op;
-		public List<ExprContext> expr() {
-			return getRuleContexts(ExprContext.class);
-		}
-		public ExprContext expr(int i) {
-			return getRuleContext(ExprContext.class,i);
-		}
-		public MulDivModContext(ExprContext ctx) { copyFrom(ctx); }
-		@Override
-		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
-			if ( visitor instanceof FeatherweightJavaScriptVisitor ) return ((FeatherweightJavaScriptVisitor<? extends T>)visitor).visitMulDivMod(this);
-			else return visitor.visitChildren(this);
-		}
-	}
 	public static class CompareContext extends ExprContext {
 		public Token op;
 		public List<ExprContext> expr() {
@@ -407,6 +426,25 @@ public class FeatherweightJavaScriptParser extends Parser {
 			else return visitor.visitChildren(this);
 		}
 	}
+	public static class ChannelOpContext extends ExprContext {
+		public Token op;
+		public List<ExprContext> expr() {
+			return getRuleContexts(ExprContext.class);
+		}
+		public ExprContext expr(int i) {
+			return getRuleContext(ExprContext.class,i);
+		}
+		public TerminalNode CHAN() { return getToken(FeatherweightJavaScriptParser.CHAN, 0); }
+		public TerminalNode SEND() { return getToken(FeatherweightJavaScriptParser.SEND, 0); }
+		public TerminalNode RECV() { return getToken(FeatherweightJavaScriptParser.RECV, 0); }
+		public TerminalNode CLOSE() { return getToken(FeatherweightJavaScriptParser.CLOSE, 0); }
+		public ChannelOpContext(ExprContext ctx) { copyFrom(ctx); }
+		@Override
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof FeatherweightJavaScriptVisitor ) return ((FeatherweightJavaScriptVisitor<? extends T>)visitor).visitChannelOp(this);
+			else return visitor.visitChildren(this);
+		}
+	}
 	public static class BoolContext extends ExprContext {
 		public TerminalNode BOOL() { return getToken(FeatherweightJavaScriptParser.BOOL, 0); }
 		public BoolContext(ExprContext ctx) { copyFrom(ctx); }
@@ -416,12 +454,15 @@ public class FeatherweightJavaScriptParser extends Parser {
 			else return visitor.visitChildren(this);
 		}
 	}
-	public static class NullContext extends ExprContext {
-		public TerminalNode NULL() { return getToken(FeatherweightJavaScriptParser.NULL, 0); }
-		public NullContext(ExprContext ctx) { copyFrom(ctx); }
+	public static class SpawnCallContext extends ExprContext {
+		public TerminalNode SPAWN() { return getToken(FeatherweightJavaScriptParser.SPAWN, 0); }
+		public ExprContext expr() {
+			return getRuleContext(ExprContext.class,0);
+		}
+		public SpawnCallContext(ExprContext ctx) { copyFrom(ctx); }
 		@Override
 		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
-			if ( visitor instanceof FeatherweightJavaScriptVisitor ) return ((FeatherweightJavaScriptVisitor<? extends T>)visitor).visitNull(this);
+			if ( visitor instanceof FeatherweightJavaScriptVisitor ) return ((FeatherweightJavaScriptVisitor<? extends T>)visitor).visitSpawnCall(this);
 			else return visitor.visitChildren(this);
 		}
 	}
@@ -454,6 +495,20 @@ public class FeatherweightJavaScriptParser extends Parser {
 			else return visitor.visitChildren(this);
 		}
 	}
+	public static class IndexContext extends ExprContext {
+		public List<ExprContext> expr() {
+			return getRuleContexts(ExprContext.class);
+		}
+		public ExprContext expr(int i) {
+			return getRuleContext(ExprContext.class,i);
+		}
+		public IndexContext(ExprContext ctx) { copyFrom(ctx); }
+		@Override
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof FeatherweightJavaScriptVisitor ) return ((FeatherweightJavaScriptVisitor<? extends T>)visitor).visitIndex(this);
+			else return visitor.visitChildren(this);
+		}
+	}
 	public static class VarRefContext extends ExprContext {
 		public TerminalNode ID() { return getToken(FeatherweightJavaScriptParser.ID, 0); }
 		public VarRefContext(ExprContext ctx) { copyFrom(ctx); }
@@ -463,6 +518,138 @@ public class FeatherweightJavaScriptParser extends Parser {
 			else return visitor.visitChildren(this);
 		}
 	}
+	public static class StoreContext extends ExprContext {
+		public Token op;
+		public List<ExprContext> expr() {
+			return getRuleContexts(ExprContext.class);
+		}
+		public ExprContext expr(int i) {
+			return getRuleContext(ExprContext.class,i);
+		}
+		public TerminalNode ID() { return getToken(FeatherweightJavaScriptParser.ID, 0); }
+		public StoreContext(ExprContext ctx) { copyFrom(ctx); }
+		@Override
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof FeatherweightJavaScriptVisitor ) return ((FeatherweightJavaScriptVisitor<? extends T>)visitor).visitStore(this);
+			else return visitor.visitChildren(this);
+		}
+	}
+	public static class AwaitExprContext extends ExprContext {
+		public TerminalNode AWAIT() { return getToken(FeatherweightJavaScriptParser.AWAIT, 0); }
+		public ExprContext expr() {
+			return getRuleContext(ExprContext.class,0);
+		}
+		public AwaitExprContext(ExprContext ctx) { copyFrom(ctx); }
+		@Override
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof FeatherweightJavaScriptVisitor ) return ((FeatherweightJavaScriptVisitor<? extends T>)visitor).visitAwaitExpr(this);
+			else return visitor.visitChildren(this);
+		}
+	}
+	public static class IntContext extends ExprContext {
+		public TerminalNode INT() { return getToken(FeatherweightJavaScriptParser.INT, 0); }
+		public IntContext(ExprContext ctx) { copyFrom(ctx); }
+		@Override
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof FeatherweightJavaScriptVisitor ) return ((FeatherweightJavaScriptVisitor<? extends T>)visitor).visitInt(this);
+			else return visitor.visitChildren(this);
+		}
+	}
+	public static class ObjectLitContext extends ExprContext {
+		public List<TerminalNode> ID() { return getTokens(FeatherweightJavaScriptParser.ID); }
+		public TerminalNode ID(int i) {
+			return getToken(FeatherweightJavaScriptParser.ID, i);
+		}
+		public List<ExprContext> expr() {
+			return getRuleContexts(ExprContext.class);
+		}
+		public ExprContext expr(int i) {
+			return getRuleContext(ExprContext.class,i);
+		}
+		public ObjectLitContext(ExprContext ctx) { copyFrom(ctx); }
+		@Override
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof FeatherweightJavaScriptVisitor ) return ((FeatherweightJavaScriptVisitor<? extends T>)visitor).visitObjectLit(this);
+			else return visitor.visitChildren(this);
+		}
+	}
+	public static class ParValuesContext extends ExprContext {
+		public TerminalNode PAR() { return getToken(FeatherweightJavaScriptParser.PAR, 0); }
+		public List<ExprContext> expr() {
+			return getRuleContexts(ExprContext.class);
+		}
+		public ExprContext expr(int i) {
+			return getRuleContext(ExprContext.class,i);
+		}
+		public ParValuesContext(ExprContext ctx) { copyFrom(ctx); }
+		@Override
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof FeatherweightJavaScriptVisitor ) return ((FeatherweightJavaScriptVisitor<? extends T>)visitor).visitParValues(this);
+			else return visitor.visitChildren(this);
+		}
+	}
+	public static class ArrayLitContext extends ExprContext {
+		public List<ExprContext> expr() {
+			return getRuleContexts(ExprContext.class);
+		}
+		public ExprContext expr(int i) {
+			return getRuleContext(ExprContext.class,i);
+		}
+		public ArrayLitContext(ExprContext ctx) { copyFrom(ctx); }
+		@Override
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof FeatherweightJavaScriptVisitor ) return ((FeatherweightJavaScriptVisitor<? extends T>)visitor).visitArrayLit(this);
+			else return visitor.visitChildren(this);
+		}
+	}
+	public static class MulDivModContext extends ExprContext {
+		public Token op;
+		public List<ExprContext> expr() {
+			return getRuleContexts(ExprContext.class);
+		}
+		public ExprContext expr(int i) {
+			return getRuleContext(ExprContext.class,i);
+		}
+		public MulDivModContext(ExprContext ctx) { copyFrom(ctx); }
+		@Override
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof FeatherweightJavaScriptVisitor ) return ((FeatherweightJavaScriptVisitor<? extends T>)visitor).visitMulDivMod(this);
+			else return visitor.visitChildren(this);
+		}
+	}
+	public static class NullContext extends ExprContext {
+		public TerminalNode NULL() { return getToken(FeatherweightJavaScriptParser.NULL, 0); }
+		public NullContext(ExprContext ctx) { copyFrom(ctx); }
+		@Override
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof FeatherweightJavaScriptVisitor ) return ((FeatherweightJavaScriptVisitor<? extends T>)visitor).visitNull(this);
+			else return visitor.visitChildren(this);
+		}
+	}
+	public static class AsyncCallContext extends ExprContext {
+		public TerminalNode ASYNC() { return getToken(FeatherweightJavaScriptParser.ASYNC, 0); }
+		public ExprContext expr() {
+			return getRuleContext(ExprContext.class,0);
+		}
+		public AsyncCallContext(ExprContext ctx) { copyFrom(ctx); }
+		@Override
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof FeatherweightJavaScriptVisitor ) return ((FeatherweightJavaScriptVisitor<? extends T>)visitor).visitAsyncCall(this);
+			else return visitor.visitChildren(this);
+		}
+	}
+	public static class PropertyContext extends ExprContext {
+		public ExprContext expr() {
+			return getRuleContext(ExprContext.class,0);
+		}
+		public TerminalNode ID() { return getToken(FeatherweightJavaScriptParser.ID, 0); }
+		public PropertyContext(ExprContext ctx) { copyFrom(ctx); }
+		@Override
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof FeatherweightJavaScriptVisitor ) return ((FeatherweightJavaScriptVisitor<? extends T>)visitor).visitProperty(this);
+			else return visitor.visitChildren(this);
+		}
+	}
 	public static class FunctionDeclrExprContext extends ExprContext {
 		public TerminalNode FUNCTION() { return getToken(FeatherweightJavaScriptParser.FUNCTION, 0); }
 		public ParameterContext parameter() {
@@ -491,15 +678,6 @@ public class FeatherweightJavaScriptParser extends Parser {
 			else return visitor.visitChildren(this);
 		}
 	}
-	public static class IntContext extends ExprContext {
-		public TerminalNode INT() { return getToken(FeatherweightJavaScriptParser.INT, 0); }
-		public IntContext(ExprContext ctx) { copyFrom(ctx); }
-		@Override
-		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
-			if ( visitor instanceof FeatherweightJavaScriptVisitor ) return ((FeatherweightJavaScriptVisitor<? extends T>)visitor).visitInt(this);
-			else return visitor.visitChildren(this);
-		}
-	}
 
 	public final ExprContext expr() throws RecognitionException {
 		return expr(0);
@@ -517,120 +695,319 @@ public class FeatherweightJavaScriptParser extends Parser {
 			int _alt;
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(69);
+			setState(137);
 			_errHandler.sync(this);
-			switch ( getInterpreter().adaptivePredict(_input,2,_ctx) ) {
+			switch ( getInterpreter().adaptivePredict(_input,9,_ctx) ) {
 			case 1:
 				{
-				_localctx = new FunctionDeclrExprContext(_localctx);
+				_localctx = new AsyncCallContext(_localctx);
 				_ctx = _localctx;
 				_prevctx = _localctx;
 
-				setState(50);
+				setState(55);
+				match(ASYNC);
+				setState(56);
+				expr(21);
+				}
+				break;
+			case 2:
+				{
+				_localctx = new AwaitExprContext(_localctx);
+				_ctx = _localctx;
+				_prevctx = _localctx;
+				setState(57);
+				match(AWAIT);
+				setState(58);
+				expr(20);
+				}
+				break;
+			case 3:
+				{
+				_localctx = new SpawnCallContext(_localctx);
+				_ctx = _localctx;
+				_prevctx = _localctx;
+				setState(59);
+				match(SPAWN);
+				setState(60);
+				expr(19);
+				}
+				break;
+			case 4:
+				{
+				_localctx = new ChannelOpContext(_localctx);
+				_ctx = _localctx;
+				_prevctx = _localctx;
+				setState(61);
+				((ChannelOpContext)_localctx).op = match(CHAN);
+				setState(62);
+				match(T__0);
+				setState(63);
+				expr(0);
+				setState(64);
+				match(T__1);
+				}
+				break;
+			case 5:
+				{
+				_localctx = new ChannelOpContext(_localctx);
+				_ctx = _localctx;
+				_prevctx = _localctx;
+				setState(66);
+				((ChannelOpContext)_localctx).op = match(SEND);
+				setState(67);
+				match(T__0);
+				setState(68);
+				expr(0);
+				setState(69);
+				match(T__6);
+				setState(70);
+				expr(0);
+				setState(71);
+				match(T__1);
+				}
+				break;
+			case 6:
+				{
+				_localctx = new ChannelOpContext(_localctx);
+				_ctx = _localctx;
+				_prevctx = _localctx;
+				setState(73);
+				((ChannelOpContext)_localctx).op = _input.LT(1);
+				_la = _input.LA(1);
+				if ( !(_la==RECV || _la==CLOSE) ) {
+					((ChannelOpContext)_localctx).op = (Token)_errHandler.recoverInline(this);
+				} else {
+					consume();
+				}
+				setState(74);
+				match(T__0);
+				setState(75);
+				expr(0);
+				setState(76);
+				match(T__1);
+				}
+				break;
+			case 7:
+				{
+				_localctx = new ParValuesContext(_localctx);
+				_ctx = _localctx;
+				_prevctx = _localctx;
+				setState(78);
+				match(PAR);
+				setState(79);
+				match(T__0);
+				setState(80);
+				expr(0);
+				setState(85);
+				_errHandler.sync(this);
+				_la = _input.LA(1);
+				while (_la==T__6) {
+					{
+					{
+					setState(81);
+					match(T__6);
+					setState(82);
+					expr(0);
+					}
+					}
+					setState(87);
+					_errHandler.sync(this);
+					_la = _input.LA(1);
+				}
+				setState(88);
+				match(T__1);
+				}
+				break;
+			case 8:
+				{
+				_localctx = new FunctionDeclrExprContext(_localctx);
+				_ctx = _localctx;
+				_prevctx = _localctx;
+				setState(90);
 				match(FUNCTION);
-				setState(51);
+				setState(91);
 				parameter();
-				setState(52);
+				setState(92);
 				block();
 				}
 				break;
-			case 2:
+			case 9:
 				{
 				_localctx = new VarDeclrExprContext(_localctx);
 				_ctx = _localctx;
 				_prevctx = _localctx;
-				setState(54);
+				setState(94);
 				match(VAR);
-				setState(55);
+				setState(95);
 				match(ID);
-				setState(56);
-				((VarDeclrExprContext)_localctx).op = match(T__2);
-				setState(57);
-				expr(8);
+				setState(96);
+				((VarDeclrExprContext)_localctx).op = match(T__7);
+				setState(97);
+				expr(9);
 				}
 				break;
-			case 3:
+			case 10:
 				{
 				_localctx = new VarRefContext(_localctx);
 				_ctx = _localctx;
 				_prevctx = _localctx;
-				setState(58);
+				setState(98);
 				match(ID);
 				}
 				break;
-			case 4:
+			case 11:
 				{
 				_localctx = new AssignExprContext(_localctx);
 				_ctx = _localctx;
 				_prevctx = _localctx;
-				setState(59);
+				setState(99);
 				match(ID);
-				setState(60);
-				((AssignExprContext)_localctx).op = match(T__2);
-				setState(61);
-				expr(5);
+				setState(100);
+				((AssignExprContext)_localctx).op = match(T__7);
+				setState(101);
+				expr(7);
 				}
 				break;
-			case 5:
+			case 12:
 				{
 				_localctx = new IntContext(_localctx);
 				_ctx = _localctx;
 				_prevctx = _localctx;
-				setState(62);
+				setState(102);
 				match(INT);
 				}
 				break;
-			case 6:
+			case 13:
 				{
 				_localctx = new BoolContext(_localctx);
 				_ctx = _localctx;
 				_prevctx = _localctx;
-				setState(63);
+				setState(103);
 				match(BOOL);
 				}
 				break;
-			case 7:
+			case 14:
 				{
 				_localctx = new NullContext(_localctx);
 				_ctx = _localctx;
 				_prevctx = _localctx;
-				setState(64);
+				setState(104);
 				match(NULL);
 				}
 				break;
-			case 8:
+			case 15:
+				{
+				_localctx = new ArrayLitContext(_localctx);
+				_ctx = _localctx;
+				_prevctx = _localctx;
+				setState(105);
+				match(T__3);
+				setState(114);
+				_la = _input.LA(1);
+				if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << T__0) | (1L << T__3) | (1L << FUNCTION) | (1L << VAR) | (1L << ASYNC) | (1L << AWAIT) | (1L << PAR) | (1L << SPAWN) | (1L << CHAN) | (1L << SEND) | (1L << RECV) | (1L << CLOSE) | (1L << INT) | (1L << BOOL) | (1L << NULL) | (1L << LBRACE) | (1L << ID))) != 0)) {
+					{
+					setState(106);
+					expr(0);
+					setState(111);
+					_errHandler.sync(this);
+					_la = _input.LA(1);
+					while (_la==T__6) {
+						{
+						{
+						setState(107);
+						match(T__6);
+						setState(108);
+						expr(0);
+						}
+						}
+						setState(113);
+						_errHandler.sync(this);
+						_la = _input.LA(1);
+					}
+					}
+				}
+
+				setState(116);
+				match(T__4);
+				}
+				break;
+			case 16:
+				{
+				_localctx = new ObjectLitContext(_localctx);
+				_ctx = _localctx;
+				_prevctx = _localctx;
+				setState(117);
+				match(LBRACE);
+				setState(130);
+				_la = _input.LA(1);
+				if (_la==ID) {
+					{
+					setState(118);
+					match(ID);
+					setState(119);
+					match(T__8);
+					setState(120);
+					expr(0);
+					setState(127);
+					_errHandler.sync(this);
+					_la = _input.LA(1);
+					while (_la==T__6) {
+						{
+						{
+						setState(121);
+						match(T__6);
+						setState(122);
+						match(ID);
+						setState(123);
+						match(T__8);
+						setState(124);
+						expr(0);
+						}
+						}
+						setState(129);
+						_errHandler.sync(this);
+						_la = _input.LA(1);
+					}
+					}
+				}
+
+				setState(132);
+				match(T__2);
+				}
+				break;
+			case 17:
 				{
 				_localctx = new ParensContext(_localctx);
 				_ctx = _localctx;
 				_prevctx = _localctx;
-				setState(65);
+				setState(133);
 				match(T__0);
-				setState(66);
+				setState(134);
 				expr(0);
-				setState(67);
+				setState(135);
 				match(T__1);
 				}
 				break;
 			}
 			_ctx.stop = _input.LT(-1);
-			setState(84);
+			setState(171);
 			_errHandler.sync(this);
-			_alt = getInterpreter().adaptivePredict(_input,4,_ctx);
+			_alt = getInterpreter().adaptivePredict(_input,12,_ctx);
 			while ( _alt!=2 && _alt!=org.antlr.v4.runtime.atn.ATN.INVALID_ALT_NUMBER ) {
 				if ( _alt==1 ) {
 					if ( _parseListeners!=null ) triggerExitRuleEvent();
 					_prevctx = _localctx;
 					{
-					setState(82);
+					setState(169);
 					_errHandler.sync(this);
-					switch ( getInterpreter().adaptivePredict(_input,3,_ctx) ) {
+					switch ( getInterpreter().adaptivePredict(_input,11,_ctx) ) {
 					case 1:
 						{
 						_localctx = new MulDivModContext(new ExprContext(_parentctx, _parentState));
 						pushNewRecursionContext(_localctx, _startState, RULE_expr);
-						setState(71);
-						if (!(precpred(_ctx, 12))) throw new FailedPredicateException(this, "precpred(_ctx, 12)");
-						setState(72);
+						setState(139);
+						if (!(precpred(_ctx, 14))) throw new FailedPredicateException(this, "precpred(_ctx, 14)");
+						setState(140);
 						((MulDivModContext)_localctx).op = _input.LT(1);
 						_la = _input.LA(1);
 						if ( !((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << MUL) | (1L << DIV) | (1L << MOD))) != 0)) ) {
@@ -638,17 +1015,17 @@ public class FeatherweightJavaScriptParser extends Parser {
 						} else {
 							consume();
 						}
-						setState(73);
-						expr(13);
+						setState(141);
+						expr(15);
 						}
 						break;
 					case 2:
 						{
 						_localctx = new AddSubContext(new ExprContext(_parentctx, _parentState));
 						pushNewRecursionContext(_localctx, _startState, RULE_expr);
-						setState(74);
-						if (!(precpred(_ctx, 11))) throw new FailedPredicateException(this, "precpred(_ctx, 11)");
-						setState(75);
+						setState(142);
+						if (!(precpred(_ctx, 13))) throw new FailedPredicateException(this, "precpred(_ctx, 13)");
+						setState(143);
 						((AddSubContext)_localctx).op = _input.LT(1);
 						_la = _input.LA(1);
 						if ( !(_la==ADD || _la==SUB) ) {
@@ -656,17 +1033,17 @@ public class FeatherweightJavaScriptParser extends Parser {
 						} else {
 							consume();
 						}
-						setState(76);
-						expr(12);
+						setState(144);
+						expr(14);
 						}
 						break;
 					case 3:
 						{
 						_localctx = new CompareContext(new ExprContext(_parentctx, _parentState));
 						pushNewRecursionContext(_localctx, _startState, RULE_expr);
-						setState(77);
-						if (!(precpred(_ctx, 10))) throw new FailedPredicateException(this, "precpred(_ctx, 10)");
-						setState(78);
+						setState(145);
+						if (!(precpred(_ctx, 12))) throw new FailedPredicateException(this, "precpred(_ctx, 12)");
+						setState(146);
 						((CompareContext)_localctx).op = _input.LT(1);
 						_la = _input.LA(1);
 						if ( !((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << GT) | (1L << GE) | (1L << LT) | (1L << LE) | (1L << EQ))) != 0)) ) {
@@ -674,26 +1051,87 @@ public class FeatherweightJavaScriptParser extends Parser {
 						} else {
 							consume();
 						}
-						setState(79);
-						expr(11);
+						setState(147);
+						expr(13);
 						}
 						break;
 					case 4:
+						{
+						_localctx = new StoreContext(new ExprContext(_parentctx, _parentState));
+						pushNewRecursionContext(_localctx, _startState, RULE_expr);
+						setState(148);
+						if (!(precpred(_ctx, 11))) throw new FailedPredicateException(this, "precpred(_ctx, 11)");
+						setState(155);
+						switch (_input.LA(1)) {
+						case T__3:
+							{
+							setState(149);
+							match(T__3);
+							setState(150);
+							expr(0);
+							setState(151);
+							match(T__4);
+							}
+							break;
+						case T__5:
+							{
+							setState(153);
+							match(T__5);
+							setState(154);
+							match(ID);
+							}
+							break;
+						default:
+							throw new NoViableAltException(this);
+						}
+						setState(157);
+						((StoreContext)_localctx).op = match(T__7);
+						setState(158);
+						expr(11);
+						}
+						break;
+					case 5:
 						{
 						_localctx = new FuncAppContext(new ExprContext(_parentctx, _parentState));
 						pushNewRecursionContext(_localctx, _startState, RULE_expr);
-						setState(80);
-						if (!(precpred(_ctx, 7))) throw new FailedPredicateException(this, "precpred(_ctx, 7)");
-						setState(81);
+						setState(159);
+						if (!(precpred(_ctx, 24))) throw new FailedPredicateException(this, "precpred(_ctx, 24)");
+						setState(160);
 						argument();
 						}
 						break;
+					case 6:
+						{
+						_localctx = new IndexContext(new ExprContext(_parentctx, _parentState));
+						pushNewRecursionContext(_localctx, _startState, RULE_expr);
+						setState(161);
+						if (!(precpred(_ctx, 23))) throw new FailedPredicateException(this, "precpred(_ctx, 23)");
+						setState(162);
+						match(T__3);
+						setState(163);
+						expr(0);
+						setState(164);
+						match(T__4);
+						}
+						break;
+					case 7:
+						{
+						_localctx = new PropertyContext(new ExprContext(_parentctx, _parentState));
+						pushNewRecursionContext(_localctx, _startState, RULE_expr);
+						setState(166);
+						if (!(precpred(_ctx, 22))) throw new FailedPredicateException(this, "precpred(_ctx, 22)");
+						setState(167);
+						match(T__5);
+						setState(168);
+						match(ID);
+						}
+						break;
 					}
 					} 
 				}
-				setState(86);
+				setState(173);
 				_errHandler.sync(this);
-				_alt = getInterpreter().adaptivePredict(_input,4,_ctx);
+				_alt = getInterpreter().adaptivePredict(_input,12,_ctx);
 			}
 			}
 		}
@@ -743,38 +1181,36 @@ public class FeatherweightJavaScriptParser extends Parser {
 	public final ParameterContext parameter() throws RecognitionException {
 		ParameterContext _localctx = new ParameterContext(_ctx, getState());
 		enterRule(_localctx, 6, RULE_parameter);
+		int _la;
 		try {
-			int _alt;
-			setState(99);
+			setState(186);
 			_errHandler.sync(this);
-			switch ( getInterpreter().adaptivePredict(_input,6,_ctx) ) {
+			switch ( getInterpreter().adaptivePredict(_input,14,_ctx) ) {
 			case 1:
 				_localctx = new WithParamContext(_localctx);
 				enterOuterAlt(_localctx, 1);
 				{
-				setState(87);
+				setState(174);
 				match(T__0);
-				setState(92);
+				setState(175);
+				match(ID);
+				setState(180);
 				_errHandler.sync(this);
-				_alt = getInterpreter().adaptivePredict(_input,5,_ctx);
-				while ( _alt!=2 && _alt!=org.antlr.v4.runtime.atn.ATN.INVALID_ALT_NUMBER ) {
-					if ( _alt==1 ) {
-						{
-						{
-						setState(88);
-						match(ID);
-						setState(89);
-						match(T__3);
-						}
-						} 
+				_la = _input.LA(1);
+				while (_la==T__6) {
+					{
+					{
+					setState(176);
+					match(T__6);
+					setState(177);
+					match(ID);
+					}
 					}
-					setState(94);
+					setState(182);
 					_errHandler.sync(this);
-					_alt = getInterpreter().adaptivePredict(_input,5,_ctx);
+					_la = _input.LA(1);
 				}
-				setState(95);
-				match(ID);
-				setState(96);
+				setState(183);
 				match(T__1);
 				}
 				break;
@@ -782,9 +1218,9 @@ public class FeatherweightJavaScriptParser extends Parser {
 				_localctx = new EmptyParamContext(_localctx);
 				enterOuterAlt(_localctx, 2);
 				{
-				setState(97);
+				setState(184);
 				match(T__0);
-				setState(98);
+				setState(185);
 				match(T__1);
 				}
 				break;
@@ -838,38 +1274,36 @@ public class FeatherweightJavaScriptParser extends Parser {
 	public final ArgumentContext argument() throws RecognitionException {
 		ArgumentContext _localctx = new ArgumentContext(_ctx, getState());
 		enterRule(_localctx, 8, RULE_argument);
+		int _la;
 		try {
-			int _alt;
-			setState(115);
+			setState(201);
 			_errHandler.sync(this);
-			switch ( getInterpreter().adaptivePredict(_input,8,_ctx) ) {
+			switch ( getInterpreter().adaptivePredict(_input,16,_ctx) ) {
 			case 1:
 				_localctx = new WithArgContext(_localctx);
 				enterOuterAlt(_localctx, 1);
 				{
-				setState(101);
+				setState(188);
 				match(T__0);
-				setState(107);
+				setState(189);
+				expr(0);
+				setState(194);
 				_errHandler.sync(this);
-				_alt = getInterpreter().adaptivePredict(_input,7,_ctx);
-				while ( _alt!=2 && _alt!=org.antlr.v4.runtime.atn.ATN.INVALID_ALT_NUMBER ) {
-					if ( _alt==1 ) {
-						{
-						{
-						setState(102);
-						expr(0);
-						setState(103);
-						match(T__3);
-						}
-						} 
+				_la = _input.LA(1);
+				while (_la==T__6) {
+					{
+					{
+					setState(190);
+					match(T__6);
+					setState(191);
+					expr(0);
+					}
 					}
-					setState(109);
+					setState(196);
 					_errHandler.sync(this);
-					_alt = getInterpreter().adaptivePredict(_input,7,_ctx);
+					_la = _input.LA(1);
 				}
-				setState(110);
-				expr(0);
-				setState(111);
+				setState(197);
 				match(T__1);
 				}
 				break;
@@ -877,9 +1311,9 @@ public class FeatherweightJavaScriptParser extends Parser {
 				_localctx = new EmptyArgContext(_localctx);
 				enterOuterAlt(_localctx, 2);
 				{
-				setState(113);
+				setState(199);
 				match(T__0);
-				setState(114);
+				setState(200);
 				match(T__1);
 				}
 				break;
@@ -936,54 +1370,45 @@ public class FeatherweightJavaScriptParser extends Parser {
 	public final BlockContext block() throws RecognitionException {
 		BlockContext _localctx = new BlockContext(_ctx, getState());
 		enterRule(_localctx, 10, RULE_block);
-		int _la;
 		try {
-			setState(126);
-			switch (_input.LA(1)) {
-			case T__4:
+			int _alt;
+			setState(212);
+			_errHandler.sync(this);
+			switch ( getInterpreter().adaptivePredict(_input,18,_ctx) ) {
+			case 1:
 				_localctx = new FullBlockContext(_localctx);
 				enterOuterAlt(_localctx, 1);
 				{
-				setState(117);
-				match(T__4);
-				setState(121);
+				setState(203);
+				match(LBRACE);
+				setState(207);
 				_errHandler.sync(this);
-				_la = _input.LA(1);
-				while ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << T__0) | (1L << IF) | (1L << WHILE) | (1L << FUNCTION) | (1L << VAR) | (1L << PRINT) | (1L << INT) | (1L << BOOL) | (1L << NULL) | (1L << SEPARATOR) | (1L << ID))) != 0)) {
-					{
-					{
-					setState(118);
-					stat();
-					}
+				_alt = getInterpreter().adaptivePredict(_input,17,_ctx);
+				while ( _alt!=2 && _alt!=org.antlr.v4.runtime.atn.ATN.INVALID_ALT_NUMBER ) {
+					if ( _alt==1 ) {
+						{
+						{
+						setState(204);
+						stat();
+						}
+						} 
 					}
-					setState(123);
+					setState(209);
 					_errHandler.sync(this);
-					_la = _input.LA(1);
+					_alt = getInterpreter().adaptivePredict(_input,17,_ctx);
 				}
-				setState(124);
-				match(T__5);
+				setState(210);
+				match(T__2);
 				}
 				break;
-			case T__0:
-			case IF:
-			case WHILE:
-			case FUNCTION:
-			case VAR:
-			case PRINT:
-			case INT:
-			case BOOL:
-			case NULL:
-			case SEPARATOR:
-			case ID:
+			case 2:
 				_localctx = new SimpBlockContext(_localctx);
 				enterOuterAlt(_localctx, 2);
 				{
-				setState(125);
+				setState(211);
 				stat();
 				}
 				break;
-			default:
-				throw new NoViableAltException(this);
 			}
 		}
 		catch (RecognitionException re) {
@@ -999,60 +1424,114 @@ public class FeatherweightJavaScriptParser extends Parser {
 
 	public boolean sempred(RuleContext _localctx, int ruleIndex, int predIndex) {
 		switch (ruleIndex) {
+		case 1:
+			return stat_sempred((StatContext)_localctx, predIndex);
 		case 2:
 			return expr_sempred((ExprContext)_localctx, predIndex);
 		}
 		return true;
 	}
-	private boolean expr_sempred(ExprContext _localctx, int predIndex) {
+	private boolean stat_sempred(StatContext _localctx, int predIndex) {
 		switch (predIndex) {
 		case 0:
-			return precpred(_ctx, 12);
+			return _input.LA(1) != LBRACE;
+		}
+		return true;
+	}
+	private boolean expr_sempred(ExprContext _localctx, int predIndex) {
+		switch (predIndex) {
 		case 1:
-			return precpred(_ctx, 11);
+			return precpred(_ctx, 14);
 		case 2:
-			return precpred(_ctx, 10);
+			return precpred(_ctx, 13);
 		case 3:
-			return precpred(_ctx, 7);
+			return precpred(_ctx, 12);
+		case 4:
+			return precpred(_ctx, 11);
+		case 5:
+			return precpred(_ctx, 24);
+		case 6:
+			return precpred(_ctx, 23);
+		case 7:
+			return precpred(_ctx, 22);
 		}
 		return true;
 	}
 
 	public static final String _serializedATN =
-		"\3\u0430\ud6d1\u8206\uad2d\u4417\uaef1\u8d80\uaadd\3!\u0083\4\2\t\2\4"+
+		"\3\u0430\ud6d1\u8206\uad2d\u4417\uaef1\u8d80\uaadd\3-\u00d9\4\2\t\2\4"+
 		"\3\t\3\4\4\t\4\4\5\t\5\4\6\t\6\4\7\t\7\3\2\6\2\20\n\2\r\2\16\2\21\3\3"+
-		"\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3"+
-		"\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\5\3\62\n\3\3\4\3\4\3\4"+
-		"\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\5"+
-		"\4H\n\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\7\4U\n\4\f\4\16\4"+
-		"X\13\4\3\5\3\5\3\5\7\5]\n\5\f\5\16\5`\13\5\3\5\3\5\3\5\3\5\5\5f\n\5\3"+
-		"\6\3\6\3\6\3\6\7\6l\n\6\f\6\16\6o\13\6\3\6\3\6\3\6\3\6\3\6\5\6v\n\6\3"+
-		"\7\3\7\7\7z\n\7\f\7\16\7}\13\7\3\7\3\7\5\7\u0081\n\7\3\7\2\3\6\b\2\4\6"+
-		"\b\n\f\2\5\4\2\22\23\27\27\3\2\25\26\3\2\30\34\u0093\2\17\3\2\2\2\4\61"+
-		"\3\2\2\2\6G\3\2\2\2\be\3\2\2\2\nu\3\2\2\2\f\u0080\3\2\2\2\16\20\5\4\3"+
-		"\2\17\16\3\2\2\2\20\21\3\2\2\2\21\17\3\2\2\2\21\22\3\2\2\2\22\3\3\2\2"+
-		"\2\23\24\5\6\4\2\24\25\7\24\2\2\25\62\3\2\2\2\26\27\7\t\2\2\27\30\7\3"+
-		"\2\2\30\31\5\6\4\2\31\32\7\4\2\2\32\33\5\f\7\2\33\34\7\n\2\2\34\35\5\f"+
-		"\7\2\35\62\3\2\2\2\36\37\7\t\2\2\37 \7\3\2\2 !\5\6\4\2!\"\7\4\2\2\"#\5"+
-		"\f\7\2#\62\3\2\2\2$%\7\13\2\2%&\7\3\2\2&\'\5\6\4\2\'(\7\4\2\2()\5\f\7"+
-		"\2)\62\3\2\2\2*+\7\16\2\2+,\7\3\2\2,-\5\6\4\2-.\7\4\2\2./\7\24\2\2/\62"+
-		"\3\2\2\2\60\62\7\24\2\2\61\23\3\2\2\2\61\26\3\2\2\2\61\36\3\2\2\2\61$"+
-		"\3\2\2\2\61*\3\2\2\2\61\60\3\2\2\2\62\5\3\2\2\2\63\64\b\4\1\2\64\65\7"+
-		"\f\2\2\65\66\5\b\5\2\66\67\5\f\7\2\67H\3\2\2\289\7\r\2\29:\7\35\2\2:;"+
-		"\7\5\2\2;H\5\6\4\n<H\7\35\2\2=>\7\35\2\2>?\7\5\2\2?H\5\6\4\7@H\7\17\2"+
-		"\2AH\7\20\2\2BH\7\21\2\2CD\7\3\2\2DE\5\6\4\2EF\7\4\2\2FH\3\2\2\2G\63\3"+
-		"\2\2\2G8\3\2\2\2G<\3\2\2\2G=\3\2\2\2G@\3\2\2\2GA\3\2\2\2GB\3\2\2\2GC\3"+
-		"\2\2\2HV\3\2\2\2IJ\f\16\2\2JK\t\2\2\2KU\5\6\4\17LM\f\r\2\2MN\t\3\2\2N"+
-		"U\5\6\4\16OP\f\f\2\2PQ\t\4\2\2QU\5\6\4\rRS\f\t\2\2SU\5\n\6\2TI\3\2\2\2"+
-		"TL\3\2\2\2TO\3\2\2\2TR\3\2\2\2UX\3\2\2\2VT\3\2\2\2VW\3\2\2\2W\7\3\2\2"+
-		"\2XV\3\2\2\2Y^\7\3\2\2Z[\7\35\2\2[]\7\6\2\2\\Z\3\2\2\2]`\3\2\2\2^\\\3"+
-		"\2\2\2^_\3\2\2\2_a\3\2\2\2`^\3\2\2\2ab\7\35\2\2bf\7\4\2\2cd\7\3\2\2df"+
-		"\7\4\2\2eY\3\2\2\2ec\3\2\2\2f\t\3\2\2\2gm\7\3\2\2hi\5\6\4\2ij\7\6\2\2"+
-		"jl\3\2\2\2kh\3\2\2\2lo\3\2\2\2mk\3\2\2\2mn\3\2\2\2np\3\2\2\2om\3\2\2\2"+
-		"pq\5\6\4\2qr\7\4\2\2rv\3\2\2\2st\7\3\2\2tv\7\4\2\2ug\3\2\2\2us\3\2\2\2"+
-		"v\13\3\2\2\2w{\7\7\2\2xz\5\4\3\2yx\3\2\2\2z}\3\2\2\2{y\3\2\2\2{|\3\2\2"+
-		"\2|~\3\2\2\2}{\3\2\2\2~\u0081\7\b\2\2\177\u0081\5\4\3\2\u0080w\3\2\2\2"+
-		"\u0080\177\3\2\2\2\u0081\r\3\2\2\2\r\21\61GTV^emu{\u0080";
+		"\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\5\3\37\n\3\3\3\3\3\3\3\3\3\3"+
+		"\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\7\3\60\n\3\f\3\16\3\63\13\3"+
+		"\3\3\3\3\5\3\67\n\3\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3"+
+		"\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\7\4"+
+		"V\n\4\f\4\16\4Y\13\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3"+
+		"\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\7\4p\n\4\f\4\16\4s\13\4\5\4u\n\4\3"+
+		"\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\7\4\u0080\n\4\f\4\16\4\u0083\13\4\5"+
+		"\4\u0085\n\4\3\4\3\4\3\4\3\4\3\4\5\4\u008c\n\4\3\4\3\4\3\4\3\4\3\4\3\4"+
+		"\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\5\4\u009e\n\4\3\4\3\4\3\4\3\4"+
+		"\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\7\4\u00ac\n\4\f\4\16\4\u00af\13\4\3\5"+
+		"\3\5\3\5\3\5\7\5\u00b5\n\5\f\5\16\5\u00b8\13\5\3\5\3\5\3\5\5\5\u00bd\n"+
+		"\5\3\6\3\6\3\6\3\6\7\6\u00c3\n\6\f\6\16\6\u00c6\13\6\3\6\3\6\3\6\3\6\5"+
+		"\6\u00cc\n\6\3\7\3\7\7\7\u00d0\n\7\f\7\16\7\u00d3\13\7\3\7\3\7\5\7\u00d7"+
+		"\n\7\3\7\2\3\6\b\2\4\6\b\n\f\2\6\3\2\30\31\4\2\36\37##\3\2!\"\3\2$(\u00fd"+
+		"\2\17\3\2\2\2\4\66\3\2\2\2\6\u008b\3\2\2\2\b\u00bc\3\2\2\2\n\u00cb\3\2"+
+		"\2\2\f\u00d6\3\2\2\2\16\20\5\4\3\2\17\16\3\2\2\2\20\21\3\2\2\2\21\17\3"+
+		"\2\2\2\21\22\3\2\2\2\22\3\3\2\2\2\23\24\6\3\2\2\24\25\5\6\4\2\25\26\7"+
+		" \2\2\26\67\3\2\2\2\27\30\7\f\2\2\30\31\7\3\2\2\31\32\5\6\4\2\32\33\7"+
+		"\4\2\2\33\36\5\f\7\2\34\35\7\r\2\2\35\37\5\f\7\2\36\34\3\2\2\2\36\37\3"+
+		"\2\2\2\37\67\3\2\2\2 !\7\16\2\2!\"\7\3\2\2\"#\5\6\4\2#$\7\4\2\2$%\5\f"+
+		"\7\2%\67\3\2\2\2&\'\7\21\2\2\'(\7\3\2\2()\5\6\4\2)*\7\4\2\2*+\7 \2\2+"+
+		"\67\3\2\2\2,-\7\24\2\2-\61\7\35\2\2.\60\5\f\7\2/.\3\2\2\2\60\63\3\2\2"+
+		"\2\61/\3\2\2\2\61\62\3\2\2\2\62\64\3\2\2\2\63\61\3\2\2\2\64\67\7\5\2\2"+
+		"\65\67\7 \2\2\66\23\3\2\2\2\66\27\3\2\2\2\66 \3\2\2\2\66&\3\2\2\2\66,"+
+		"\3\2\2\2\66\65\3\2\2\2\67\5\3\2\2\289\b\4\1\29:\7\22\2\2:\u008c\5\6\4"+
+		"\27;<\7\23\2\2<\u008c\5\6\4\26=>\7\25\2\2>\u008c\5\6\4\25?@\7\26\2\2@"+
+		"A\7\3\2\2AB\5\6\4\2BC\7\4\2\2C\u008c\3\2\2\2DE\7\27\2\2EF\7\3\2\2FG\5"+
+		"\6\4\2GH\7\t\2\2HI\5\6\4\2IJ\7\4\2\2J\u008c\3\2\2\2KL\t\2\2\2LM\7\3\2"+
+		"\2MN\5\6\4\2NO\7\4\2\2O\u008c\3\2\2\2PQ\7\24\2\2QR\7\3\2\2RW\5\6\4\2S"+
+		"T\7\t\2\2TV\5\6\4\2US\3\2\2\2VY\3\2\2\2WU\3\2\2\2WX\3\2\2\2XZ\3\2\2\2"+
+		"YW\3\2\2\2Z[\7\4\2\2[\u008c\3\2\2\2\\]\7\17\2\2]^\5\b\5\2^_\5\f\7\2_\u008c"+
+		"\3\2\2\2`a\7\20\2\2ab\7)\2\2bc\7\n\2\2c\u008c\5\6\4\13d\u008c\7)\2\2e"+
+		"f\7)\2\2fg\7\n\2\2g\u008c\5\6\4\th\u008c\7\32\2\2i\u008c\7\33\2\2j\u008c"+
+		"\7\34\2\2kt\7\6\2\2lq\5\6\4\2mn\7\t\2\2np\5\6\4\2om\3\2\2\2ps\3\2\2\2"+
+		"qo\3\2\2\2qr\3\2\2\2ru\3\2\2\2sq\3\2\2\2tl\3\2\2\2tu\3\2\2\2uv\3\2\2\2"+
+		"v\u008c\7\7\2\2w\u0084\7\35\2\2xy\7)\2\2yz\7\13\2\2z\u0081\5\6\4\2{|\7"+
+		"\t\2\2|}\7)\2\2}~\7\13\2\2~\u0080\5\6\4\2\177{\3\2\2\2\u0080\u0083\3\2"+
+		"\2\2\u0081\177\3\2\2\2\u0081\u0082\3\2\2\2\u0082\u0085\3\2\2\2\u0083\u0081"+
+		"\3\2\2\2\u0084x\3\2\2\2\u0084\u0085\3\2\2\2\u0085\u0086\3\2\2\2\u0086"+
+		"\u008c\7\5\2\2\u0087\u0088\7\3\2\2\u0088\u0089\5\6\4\2\u0089\u008a\7\4"+
+		"\2\2\u008a\u008c\3\2\2\2\u008b8\3\2\2\2\u008b;\3\2\2\2\u008b=\3\2\2\2"+
+		"\u008b?\3\2\2\2\u008bD\3\2\2\2\u008bK\3\2\2\2\u008bP\3\2\2\2\u008b\\\3"+
+		"\2\2\2\u008b`\3\2\2\2\u008bd\3\2\2\2\u008be\3\2\2\2\u008bh\3\2\2\2\u008b"+
+		"i\3\2\2\2\u008bj\3\2\2\2\u008bk\3\2\2\2\u008bw\3\2\2\2\u008b\u0087\3\2"+
+		"\2\2\u008c\u00ad\3\2\2\2\u008d\u008e\f\20\2\2\u008e\u008f\t\3\2\2\u008f"+
+		"\u00ac\5\6\4\21\u0090\u0091\f\17\2\2\u0091\u0092\t\4\2\2\u0092\u00ac\5"+
+		"\6\4\20\u0093\u0094\f\16\2\2\u0094\u0095\t\5\2\2\u0095\u00ac\5\6\4\17"+
+		"\u0096\u009d\f\r\2\2\u0097\u0098\7\6\2\2\u0098\u0099\5\6\4\2\u0099\u009a"+
+		"\7\7\2\2\u009a\u009e\3\2\2\2\u009b\u009c\7\b\2\2\u009c\u009e\7)\2\2\u009d"+
+		"\u0097\3\2\2\2\u009d\u009b\3\2\2\2\u009e\u009f\3\2\2\2\u009f\u00a0\7\n"+
+		"\2\2\u00a0\u00ac\5\6\4\r\u00a1\u00a2\f\32\2\2\u00a2\u00ac\5\n\6\2\u00a3"+
+		"\u00a4\f\31\2\2\u00a4\u00a5\7\6\2\2\u00a5\u00a6\5\6\4\2\u00a6\u00a7\7"+
+		"\7\2\2\u00a7\u00ac\3\2\2\2\u00a8\u00a9\f\30\2\2\u00a9\u00aa\7\b\2\2\u00aa"+
+		"\u00ac\7)\2\2\u00ab\u008d\3\2\2\2\u00ab\u0090\3\2\2\2\u00ab\u0093\3\2"+
+		"\2\2\u00ab\u0096\3\2\2\2\u00ab\u00a1\3\2\2\2\u00ab\u00a3\3\2\2\2\u00ab"+
+		"\u00a8\3\2\2\2\u00ac\u00af\3\2\2\2\u00ad\u00ab\3\2\2\2\u00ad\u00ae\3\2"+
+		"\2\2\u00ae\7\3\2\2\2\u00af\u00ad\3\2\2\2\u00b0\u00b1\7\3\2\2\u00b1\u00b6"+
+		"\7)\2\2\u00b2\u00b3\7\t\2\2\u00b3\u00b5\7)\2\2\u00b4\u00b2\3\2\2\2\u00b5"+
+		"\u00b8\3\2\2\2\u00b6\u00b4\3\2\2\2\u00b6\u00b7\3\2\2\2\u00b7\u00b9\3\2"+
+		"\2\2\u00b8\u00b6\3\2\2\2\u00b9\u00bd\7\4\2\2\u00ba\u00bb\7\3\2\2\u00bb"+
+		"\u00bd\7\4\2\2\u00bc\u00b0\3\2\2\2\u00bc\u00ba\3\2\2\2\u00bd\t\3\2\2\2"+
+		"\u00be\u00bf\7\3\2\2\u00bf\u00c4\5\6\4\2\u00c0\u00c1\7\t\2\2\u00c1\u00c3"+
+		"\5\6\4\2\u00c2\u00c0\3\2\2\2\u00c3\u00c6\3\2\2\2\u00c4\u00c2\3\2\2\2\u00c4"+
+		"\u00c5\3\2\2\2\u00c5\u00c7\3\2\2\2\u00c6\u00c4\3\2\2\2\u00c7\u00c8\7\4"+
+		"\2\2\u00c8\u00cc\3\2\2\2\u00c9\u00ca\7\3\2\2\u00ca\u00cc\7\4\2\2\u00cb"+
+		"\u00be\3\2\2\2\u00cb\u00c9\3\2\2\2\u00cc\13\3\2\2\2\u00cd\u00d1\7\35\2"+
+		"\2\u00ce\u00d0\5\4\3\2\u00cf\u00ce\3\2\2\2\u00d0\u00d3\3\2\2\2\u00d1\u00cf"+
+		"\3\2\2\2\u00d1\u00d2\3\2\2\2\u00d2\u00d4\3\2\2\2\u00d3\u00d1\3\2\2\2\u00d4"+
+		"\u00d7\7\5\2\2\u00d5\u00d7\5\4\3\2\u00d6\u00cd\3\2\2\2\u00d6\u00d5\3\2"+
+		"\2\2\u00d7\r\3\2\2\2\25\21\36\61\66Wqt\u0081\u0084\u008b\u009d\u00ab\u00ad"+
+		"\u00b6\u00bc\u00c4\u00cb\u00d1\u00d6";
 	public static final ATN _ATN =
 		new ATNDeserializer().deserialize(_serializedATN.toCharArray());
 	static {
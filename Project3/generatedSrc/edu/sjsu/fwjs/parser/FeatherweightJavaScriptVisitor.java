@@ -31,26 +31,26 @@ public interface FeatherweightJavaScriptVisitor<T> extends ParseTreeVisitor<T> {
 	 */
 	T visitIfThenElse(FeatherweightJavaScriptParser.IfThenElseContext ctx);
 	/**
-	 * Visit a parse tree produced by the {@code ifThen}
+	 * Visit a parse tree produced by the {@code while}
 	 * labeled alternative in {@link FeatherweightJavaScriptParser#stat}.
 	 * @param ctx the parse tree
 	 * @return the visitor result
 	 */
-	T visitIfThen(FeatherweightJavaScriptParser.IfThenContext ctx);
+	T visitWhile(FeatherweightJavaScriptParser.WhileContext ctx);
 	/**
-	 * Visit a parse tree produced by the {@code while}
+	 * Visit a parse tree produced by the {@code printExpr}
 	 * labeled alternative in {@link FeatherweightJavaScriptParser#stat}.
 	 * @param ctx the parse tree
 	 * @return the visitor result
 	 */
-	T visitWhile(FeatherweightJavaScriptParser.WhileContext ctx);
+	T visitPrintExpr(FeatherweightJavaScriptParser.PrintExprContext ctx);
 	/**
-	 * Visit a parse tree produced by the {@code printExpr}
+	 * Visit a parse tree produced by the {@code par}
 	 * labeled alternative in {@link FeatherweightJavaScriptParser#stat}.
 	 * @param ctx the parse tree
 	 * @return the visitor result
 	 */
-	T visitPrintExpr(FeatherweightJavaScriptParser.PrintExprContext ctx);
+	T visitPar(FeatherweightJavaScriptParser.ParContext ctx);
 	/**
 	 * Visit a parse tree produced by the {@code empty}
 	 * labeled alternative in {@link FeatherweightJavaScriptParser#stat}.
@@ -66,26 +66,26 @@ public interface FeatherweightJavaScriptVisitor<T> extends ParseTreeVisitor<T> {
 	 */
 	T visitParens(FeatherweightJavaScriptParser.ParensContext ctx);
 	/**
-	 * Visit a parse tree produced by the {@code MulDivMod}
+	 * Visit a parse tree produced by the {@code compare}
 	 * labeled alternative in {@link FeatherweightJavaScriptParser#expr}.
 	 * @param ctx the parse tree
 	 * @return the visitor result
 	 */
-	T visitMulDivMod(FeatherweightJavaScriptParser.MulDivModContext ctx);
+	T visitCompare(FeatherweightJavaScriptParser.CompareContext ctx);
 	/**
-	 * Visit a parse tree produced by the {@code compare}
+	 * Visit a parse tree produced by the {@code funcApp}
 	 * labeled alternative in {@link FeatherweightJavaScriptParser#expr}.
 	 * @param ctx the parse tree
 	 * @return the visitor result
 	 */
-	T visitCompare(FeatherweightJavaScriptParser.CompareContext ctx);
+	T visitFuncApp(FeatherweightJavaScriptParser.FuncAppContext ctx);
 	/**
-	 * Visit a parse tree produced by the {@code funcApp}
+	 * Visit a parse tree produced by the {@code channelOp}
 	 * labeled alternative in {@link FeatherweightJavaScriptParser#expr}.
 	 * @param ctx the parse tree
 	 * @return the visitor result
 	 */
-	T visitFuncApp(FeatherweightJavaScriptParser.FuncAppContext ctx);
+	T visitChannelOp(FeatherweightJavaScriptParser.ChannelOpContext ctx);
 	/**
 	 * Visit a parse tree produced by the {@code bool}
 	 * labeled alternative in {@link FeatherweightJavaScriptParser#expr}.
@@ -94,12 +94,12 @@ public interface FeatherweightJavaScriptVisitor<T> extends ParseTreeVisitor<T> {
 	 */
 	T visitBool(FeatherweightJavaScriptParser.BoolContext ctx);
 	/**
-	 * Visit a parse tree produced by the {@code null}
+	 * Visit a parse tree produced by the {@code spawnCall}
 	 * labeled alternative in {@link FeatherweightJavaScriptParser#expr}.
 	 * @param ctx the parse tree
 	 * @return the visitor result
 	 */
-	T visitNull(FeatherweightJavaScriptParser.NullContext ctx);
+	T visitSpawnCall(FeatherweightJavaScriptParser.SpawnCallContext ctx);
 	/**
 	 * Visit a parse tree produced by the {@code AddSub}
 	 * labeled alternative in {@link FeatherweightJavaScriptParser#expr}.
@@ -114,6 +114,13 @@ public interface FeatherweightJavaScriptVisitor<T> extends ParseTreeVisitor<T> {
 	 * @return the visitor result
 	 */
 	T visitVarDeclrExpr(FeatherweightJavaScriptParser.VarDeclrExprContext ctx);
+	/**
+	 * Visit a parse tree produced by the {@code index}
+	 * labeled alternative in {@link FeatherweightJavaScriptParser#expr}.
+	 * @param ctx the parse tree
+	 * @return the visitor result
+	 */
+	T visitIndex(FeatherweightJavaScriptParser.IndexContext ctx);
 	/**
 	 * Visit a parse tree produced by the {@code varRef}
 	 * labeled alternative in {@link FeatherweightJavaScriptParser#expr}.
@@ -122,19 +129,19 @@ public interface FeatherweightJavaScriptVisitor<T> extends ParseTreeVisitor<T> {
 	 */
 	T visitVarRef(FeatherweightJavaScriptParser.VarRefContext ctx);
 	/**
-	 * Visit a parse tree produced by the {@code functionDeclrExpr}
+	 * Visit a parse tree produced by the {@code store}
 	 * labeled alternative in {@link FeatherweightJavaScriptParser#expr}.
 	 * @param ctx the parse tree
 	 * @return the visitor result
 	 */
-	T visitFunctionDeclrExpr(FeatherweightJavaScriptParser.FunctionDeclrExprContext ctx);
+	T visitStore(FeatherweightJavaScriptParser.StoreContext ctx);
 	/**
-	 * Visit a parse tree produced by the {@code assignExpr}
+	 * Visit a parse tree produced by the {@code awaitExpr}
 	 * labeled alternative in {@link FeatherweightJavaScriptParser#expr}.
 	 * @param ctx the parse tree
 	 * @return the visitor result
 	 */
-	T visitAssignExpr(FeatherweightJavaScriptParser.AssignExprContext ctx);
+	T visitAwaitExpr(FeatherweightJavaScriptParser.AwaitExprContext ctx);
 	/**
 	 * Visit a parse tree produced by the {@code int}
 	 * labeled alternative in {@link FeatherweightJavaScriptParser#expr}.
@@ -142,6 +149,69 @@ public interface FeatherweightJavaScriptVisitor<T> extends ParseTreeVisitor<T> {
 	 * @return the visitor result
 	 */
 	T visitInt(FeatherweightJavaScriptParser.IntContext ctx);
+	/**
+	 * Visit a parse tree produced by the {@code objectLit}
+	 * labeled alternative in {@link FeatherweightJavaScriptParser#expr}.
+	 * @param ctx the parse tree
+	 * @return the visitor result
+	 */
+	T visitObjectLit(FeatherweightJavaScriptParser.ObjectLitContext ctx);
+	/**
+	 * Visit a parse tree produced by the {@code parValues}
+	 * labeled alternative in {@link FeatherweightJavaScriptParser#expr}.
+	 * @param ctx the parse tree
+	 * @return the visitor result
+	 */
+	T visitParValues(FeatherweightJavaScriptParser.ParValuesContext ctx);
+	/**
+	 * Visit a parse tree produced by the {@code arrayLit}
+	 * labeled alternative in {@link FeatherweightJavaScriptParser#expr}.
+	 * @param ctx the parse tree
+	 * @return the visitor result
+	 */
+	T visitArrayLit(FeatherweightJavaScriptParser.ArrayLitContext ctx);
+	/**
+	 * Visit a parse tree produced by the {@code MulDivMod}
+	 * labeled alternative in {@link FeatherweightJavaScriptParser#expr}.
+	 * @param ctx the parse tree
+	 * @return the visitor result
+	 */
+	T visitMulDivMod(FeatherweightJavaScriptParser.MulDivModContext ctx);
+	/**
+	 * Visit a parse tree produced by the {@code null}
+	 * labeled alternative in {@link FeatherweightJavaScriptParser#expr}.
+	 * @param ctx the parse tree
+	 * @return the visitor result
+	 */
+	T visitNull(FeatherweightJavaScriptParser.NullContext ctx);
+	/**
+	 * Visit a parse tree produced by the {@code asyncCall}
+	 * labeled alternative in {@link FeatherweightJavaScriptParser#expr}.
+	 * @param ctx the parse tree
+	 * @return the visitor result
+	 */
+	T visitAsyncCall(FeatherweightJavaScriptParser.AsyncCallContext ctx);
+	/**
+	 * Visit a parse tree produced by the {@code property}
+	 * labeled alternative in {@link FeatherweightJavaScriptParser#expr}.
+	 * @param ctx the parse tree
+	 * @return the visitor result
+	 */
+	T visitProperty(FeatherweightJavaScriptParser.PropertyContext ctx);
+	/**
+	 * Visit a parse tree produced by the {@code functionDeclrExpr}
+	 * labeled alternative in {@link FeatherweightJavaScriptParser#expr}.
+	 * @param ctx the parse tree
+	 * @return the visitor result
+	 */
+	T visitFunctionDeclrExpr(FeatherweightJavaScriptParser.FunctionDeclrExprContext ctx);
+	/**
+	 * Visit a parse tree produced by the {@code assignExpr}
+	 * labeled alternative in {@link FeatherweightJavaScriptParser#expr}.
+	 * @param ctx the parse tree
+	 * @return the visitor result
+	 */
+	T visitAssignExpr(FeatherweightJavaScriptParser.AssignExprContext ctx);
 	/**
 	 * Visit a parse tree produced by the {@code withParam}
 	 * labeled alternative in {@link FeatherweightJavaScriptParser#parameter}.
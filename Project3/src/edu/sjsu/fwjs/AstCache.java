@@ -0,0 +1,519 @@
+package edu.sjsu.fwjs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A directory of parsed programs, keyed by a SHA-256 hash of their
+ * source, so that running an unchanged script again skips the lexer
+ * and parser.
+ *
+ * The trees are stored before resolution, in a compact binary format:
+ * a header, a pool of the identifiers the program uses, and then the
+ * nodes in prefix order. Each node is a tag byte followed by its
+ * operands; identifiers are indexes into the pool, and integers are
+ * zigzag varints, so most constants take a single byte.
+ */
+public class AstCache {
+    private static final byte[] MAGIC = {'F', 'W', 'J', 'S'};
+    /**
+     * Changes whenever the format, or the tree the parser builds for a
+     * source, does, which invalidates old files.
+     */
+    private static final int FORMAT = 9;
+
+    static final int INT = 0;
+    static final int TRUE = 1;
+    static final int FALSE = 2;
+    static final int NULL = 3;
+    static final int VAR = 4;
+    static final int PRINT = 5;
+    /** BINOP op e1 e2 */
+    static final int BINOP = 6;
+    static final int IF = 7;
+    static final int WHILE = 8;
+    static final int SEQ = 9;
+    /** VAR_DECL name exp */
+    static final int VAR_DECL = 10;
+    /** ASSIGN name e */
+    static final int ASSIGN = 11;
+    /** FUNCTION n param1 ... paramn body */
+    static final int FUNCTION = 12;
+    /** CALL n f arg1 ... argn */
+    static final int CALL = 13;
+    /** BLOCK n stmt1 ... stmtn */
+    static final int BLOCK = 14;
+    /** ASYNC n f arg1 ... argn */
+    static final int ASYNC = 15;
+    static final int AWAIT = 16;
+    /** PAR n branch1 ... branchn */
+    static final int PAR = 17;
+    /** SPAWN n f arg1 ... argn */
+    static final int SPAWN = 18;
+    /** CHANNEL kind n arg1 ... argn */
+    static final int CHANNEL = 19;
+    /** ARRAY n elem1 ... elemn */
+    static final int ARRAY = 20;
+    /** INDEX array index */
+    static final int INDEX = 21;
+    /** INDEX_ASSIGN array index e */
+    static final int INDEX_ASSIGN = 22;
+    /** PROPERTY name obj */
+    static final int PROPERTY = 23;
+    /** OBJECT n (name value)* */
+    static final int OBJECT = 24;
+    /** PROPERTY_ASSIGN name obj e */
+    static final int PROPERTY_ASSIGN = 25;
+    /** PAR_VALUES n branch1 ... branchn, for par(f, g, ...) */
+    static final int PAR_VALUES = 26;
+
+    private static final Op[] OPS = Op.values();
+    private static final ChannelExpr.Kind[] CHANNEL_KINDS = ChannelExpr.Kind.values();
+
+    private final File dir;
+
+    /**
+     * A cache in the given directory, which is created when the first
+     * tree is stored.
+     */
+    public AstCache(File dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * The cache in the directory named by the fwjs.cache.dir system
+     * property, such as ~/.cache/fwjs, or null if the property is not
+     * set or is empty, so that nothing is written unless asked for.
+     */
+    public static AstCache fromProperties() {
+        String dir = System.getProperty("fwjs.cache.dir", "");
+        return dir.isEmpty() ? null : new AstCache(new File(dir));
+    }
+
+    /**
+     * Returns the stored tree for the source, or null if there is none
+     * or it cannot be read.
+     */
+    public Expression load(ByteBuffer source) {
+        File file = fileFor(source);
+        if (!file.isFile()) return null;
+        try (InputStream in = new FileInputStream(file)) {
+            return read(in);
+        } catch (IOException e) {
+            return null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Stores the tree of the source. Failures are ignored, since the
+     * program can always be parsed again.
+     */
+    public void store(ByteBuffer source, Expression prog) {
+        File tmp = null;
+        try {
+            dir.mkdirs();
+            tmp = File.createTempFile("fwjs", ".tmp", dir);
+            try (OutputStream out = new FileOutputStream(tmp)) {
+                write(prog, out);
+            }
+            Files.move(tmp.toPath(), fileFor(source).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            if (tmp != null) tmp.delete();
+        }
+    }
+
+    private File fileFor(ByteBuffer source) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) { throw new RuntimeException(e); }
+        md.update(source.duplicate());
+        StringBuilder sb = new StringBuilder();
+        for (byte b : md.digest())
+            sb.append(String.format("%02x", b & 0xff));
+        return new File(dir, sb.append(".ast").toString());
+    }
+
+    /**
+     * Writes an unresolved tree in the cache format.
+     */
+    public static void write(Expression prog, OutputStream out) throws IOException {
+        Writer w = new Writer();
+        w.node(prog);
+        DataOutputStream data = new DataOutputStream(out);
+        data.write(MAGIC);
+        writeVarint(data, FORMAT);
+        writeVarint(data, w.names.size());
+        for (String name : w.names) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            writeVarint(data, bytes.length);
+            data.write(bytes);
+        }
+        w.nodes.writeTo(data);
+        data.flush();
+    }
+
+    /**
+     * Reads a tree written by write.
+     */
+    public static Expression read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        byte[] magic = new byte[MAGIC.length];
+        data.readFully(magic);
+        for (int i = 0; i < MAGIC.length; i++)
+            if (magic[i] != MAGIC[i]) throw new IOException("not an FWJS tree");
+        if (readVarint(data) != FORMAT)
+            throw new IOException("unsupported format");
+        String[] names = new String[readVarint(data)];
+        for (int i = 0; i < names.length; i++) {
+            byte[] bytes = new byte[readVarint(data)];
+            data.readFully(bytes);
+            names[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new Reader(data, names).node();
+    }
+
+    private static class Writer {
+        final List<String> names = new ArrayList<String>();
+        final Map<String, Integer> ids = new HashMap<String, Integer>();
+        final ByteArrayOutputStream nodes = new ByteArrayOutputStream();
+
+        void node(Expression exp) throws IOException {
+            if (exp instanceof ValueExpr) {
+                Value v = ((ValueExpr) exp).val;
+                if (v instanceof IntVal) {
+                    tag(INT);
+                    int i = ((IntVal) v).toInt();
+                    writeVarint(nodes, (i << 1) ^ (i >> 31));
+                } else if (v instanceof BoolVal) {
+                    tag(((BoolVal) v).toBoolean() ? TRUE : FALSE);
+                } else if (v instanceof NullVal) {
+                    tag(NULL);
+                } else {
+                    throw new IOException("cannot store " + v);
+                }
+            } else if (exp instanceof VarExpr) {
+                tag(VAR);
+                name(((VarExpr) exp).varName);
+            } else if (exp instanceof PrintExpr) {
+                tag(PRINT);
+                node(((PrintExpr) exp).exp);
+            } else if (exp instanceof BinOpExpr) {
+                BinOpExpr be = (BinOpExpr) exp;
+                tag(BINOP);
+                nodes.write(be.op.ordinal());
+                node(be.e1);
+                node(be.e2);
+            } else if (exp instanceof IfExpr) {
+                IfExpr ie = (IfExpr) exp;
+                tag(IF);
+                node(ie.cond);
+                node(ie.thn);
+                node(ie.els);
+            } else if (exp instanceof WhileExpr) {
+                tag(WHILE);
+                node(((WhileExpr) exp).cond);
+                node(((WhileExpr) exp).body);
+            } else if (exp instanceof SeqExpr) {
+                tag(SEQ);
+                node(((SeqExpr) exp).e1);
+                node(((SeqExpr) exp).e2);
+            } else if (exp instanceof BlockExpr) {
+                Expression[] stmts = ((BlockExpr) exp).stmts;
+                tag(BLOCK);
+                writeVarint(nodes, stmts.length);
+                for (Expression stat : stmts)
+                    node(stat);
+            } else if (exp instanceof VarDeclExpr) {
+                tag(VAR_DECL);
+                name(((VarDeclExpr) exp).varName);
+                node(((VarDeclExpr) exp).exp);
+            } else if (exp instanceof AssignExpr) {
+                tag(ASSIGN);
+                name(((AssignExpr) exp).varName);
+                node(((AssignExpr) exp).e);
+            } else if (exp instanceof FunctionDeclExpr) {
+                FunctionDeclExpr fd = (FunctionDeclExpr) exp;
+                tag(FUNCTION);
+                writeVarint(nodes, fd.params.size());
+                for (String param : fd.params)
+                    name(param);
+                node(fd.body);
+            } else if (exp instanceof FunctionAppExpr) {
+                FunctionAppExpr fa = (FunctionAppExpr) exp;
+                tag(CALL);
+                writeVarint(nodes, fa.args.size());
+                node(fa.f);
+                for (Expression arg : fa.args)
+                    node(arg);
+            } else if (exp instanceof AsyncExpr) {
+                AsyncExpr ae = (AsyncExpr) exp;
+                tag(ASYNC);
+                writeVarint(nodes, ae.args.size());
+                node(ae.f);
+                for (Expression arg : ae.args)
+                    node(arg);
+            } else if (exp instanceof AwaitExpr) {
+                tag(AWAIT);
+                node(((AwaitExpr) exp).exp);
+            } else if (exp instanceof SpawnExpr) {
+                SpawnExpr se = (SpawnExpr) exp;
+                tag(SPAWN);
+                writeVarint(nodes, se.args.size());
+                node(se.f);
+                for (Expression arg : se.args)
+                    node(arg);
+            } else if (exp instanceof ChannelExpr) {
+                ChannelExpr ce = (ChannelExpr) exp;
+                tag(CHANNEL);
+                nodes.write(ce.kind.ordinal());
+                writeVarint(nodes, ce.args.size());
+                for (Expression arg : ce.args)
+                    node(arg);
+            } else if (exp instanceof ArrayExpr) {
+                List<Expression> elems = ((ArrayExpr) exp).elems;
+                tag(ARRAY);
+                writeVarint(nodes, elems.size());
+                for (Expression e : elems)
+                    node(e);
+            } else if (exp instanceof IndexExpr) {
+                tag(INDEX);
+                node(((IndexExpr) exp).array);
+                node(((IndexExpr) exp).index);
+            } else if (exp instanceof IndexAssignExpr) {
+                IndexAssignExpr ia = (IndexAssignExpr) exp;
+                tag(INDEX_ASSIGN);
+                node(ia.array);
+                node(ia.index);
+                node(ia.e);
+            } else if (exp instanceof PropertyExpr) {
+                tag(PROPERTY);
+                name(((PropertyExpr) exp).name);
+                node(((PropertyExpr) exp).obj);
+            } else if (exp instanceof ObjectExpr) {
+                ObjectExpr oe = (ObjectExpr) exp;
+                tag(OBJECT);
+                writeVarint(nodes, oe.names.size());
+                for (int i = 0; i < oe.names.size(); i++) {
+                    name(oe.names.get(i));
+                    node(oe.values.get(i));
+                }
+            } else if (exp instanceof PropertyAssignExpr) {
+                PropertyAssignExpr pa = (PropertyAssignExpr) exp;
+                tag(PROPERTY_ASSIGN);
+                name(pa.name);
+                node(pa.obj);
+                node(pa.e);
+            } else if (exp instanceof ParExpr) {
+                List<Expression> branches = ((ParExpr) exp).branches;
+                tag(((ParExpr) exp).values ? PAR_VALUES : PAR);
+                writeVarint(nodes, branches.size());
+                for (Expression b : branches)
+                    node(b);
+            } else {
+                throw new IOException("cannot store " + exp);
+            }
+        }
+
+        private void tag(int tag) {
+            nodes.write(tag);
+        }
+
+        private void name(String name) throws IOException {
+            Integer id = ids.get(name);
+            if (id == null) {
+                id = names.size();
+                names.add(name);
+                ids.put(name, id);
+            }
+            writeVarint(nodes, id);
+        }
+    }
+
+    private static class Reader {
+        final DataInputStream in;
+        final String[] names;
+
+        Reader(DataInputStream in, String[] names) {
+            this.in = in;
+            this.names = names;
+        }
+
+        Expression node() throws IOException {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case INT: {
+                    int z = readVarint(in);
+                    return new ValueExpr(IntVal.valueOf((z >>> 1) ^ -(z & 1)));
+                }
+                case TRUE: return new ValueExpr(BoolVal.TRUE);
+                case FALSE: return new ValueExpr(BoolVal.FALSE);
+                case NULL: return new ValueExpr(NullVal.NULL);
+                case VAR: return new VarExpr(name());
+                case PRINT: return new PrintExpr(node());
+                case BINOP: {
+                    Op op = OPS[in.readUnsignedByte()];
+                    Expression e1 = node();
+                    return BinOpExpr.create(op, e1, node());
+                }
+                case IF: {
+                    Expression cond = node();
+                    Expression thn = node();
+                    return new IfExpr(cond, thn, node());
+                }
+                case WHILE: {
+                    Expression cond = node();
+                    return new WhileExpr(cond, node());
+                }
+                case SEQ: {
+                    Expression e1 = node();
+                    return new SeqExpr(e1, node());
+                }
+                case VAR_DECL: {
+                    String name = name();
+                    return new VarDeclExpr(name, node());
+                }
+                case ASSIGN: {
+                    String name = name();
+                    return new AssignExpr(name, node());
+                }
+                case FUNCTION: {
+                    int n = readVarint(in);
+                    List<String> params = new ArrayList<String>(n);
+                    for (int i = 0; i < n; i++)
+                        params.add(name());
+                    return new FunctionDeclExpr(params, node());
+                }
+                case CALL: {
+                    int n = readVarint(in);
+                    Expression f = node();
+                    List<Expression> args = new ArrayList<Expression>(n);
+                    for (int i = 0; i < n; i++)
+                        args.add(node());
+                    return new FunctionAppExpr(f, args);
+                }
+                case BLOCK: {
+                    int n = readVarint(in);
+                    List<Expression> stmts = new ArrayList<Expression>(n);
+                    for (int i = 0; i < n; i++)
+                        stmts.add(node());
+                    return new BlockExpr(stmts);
+                }
+                case ASYNC: {
+                    int n = readVarint(in);
+                    Expression f = node();
+                    List<Expression> args = new ArrayList<Expression>(n);
+                    for (int i = 0; i < n; i++)
+                        args.add(node());
+                    return new AsyncExpr(f, args);
+                }
+                case AWAIT: return new AwaitExpr(node());
+                case SPAWN: {
+                    int n = readVarint(in);
+                    Expression f = node();
+                    List<Expression> args = new ArrayList<Expression>(n);
+                    for (int i = 0; i < n; i++)
+                        args.add(node());
+                    return new SpawnExpr(f, args);
+                }
+                case CHANNEL: {
+                    ChannelExpr.Kind kind = CHANNEL_KINDS[in.readUnsignedByte()];
+                    int n = readVarint(in);
+                    List<Expression> args = new ArrayList<Expression>(n);
+                    for (int i = 0; i < n; i++)
+                        args.add(node());
+                    return new ChannelExpr(kind, args);
+                }
+                case PAR:
+                case PAR_VALUES: {
+                    int n = readVarint(in);
+                    List<Expression> branches = new ArrayList<Expression>(n);
+                    for (int i = 0; i < n; i++)
+                        branches.add(node());
+                    return new ParExpr(branches, tag == PAR_VALUES);
+                }
+                case ARRAY: {
+                    int n = readVarint(in);
+                    List<Expression> elems = new ArrayList<Expression>(n);
+                    for (int i = 0; i < n; i++)
+                        elems.add(node());
+                    return new ArrayExpr(elems);
+                }
+                case INDEX: {
+                    Expression array = node();
+                    return new IndexExpr(array, node());
+                }
+                case INDEX_ASSIGN: {
+                    Expression array = node();
+                    Expression index = node();
+                    return new IndexAssignExpr(array, index, node());
+                }
+                case PROPERTY: {
+                    String name = name();
+                    return new PropertyExpr(node(), name);
+                }
+                case OBJECT: {
+                    int n = readVarint(in);
+                    List<String> names = new ArrayList<String>(n);
+                    List<Expression> values = new ArrayList<Expression>(n);
+                    for (int i = 0; i < n; i++) {
+                        names.add(name());
+                        values.add(node());
+                    }
+                    return new ObjectExpr(names, values);
+                }
+                case PROPERTY_ASSIGN: {
+                    String name = name();
+                    Expression obj = node();
+                    return new PropertyAssignExpr(obj, name, node());
+                }
+                default:
+                    throw new IOException("bad tag " + tag);
+            }
+        }
+
+        private String name() throws IOException {
+            return names[readVarint(in)];
+        }
+    }
+
+    private static void writeVarint(OutputStream out, int v) throws IOException {
+        while ((v & ~0x7f) != 0) {
+            out.write((v & 0x7f) | 0x80);
+            v >>>= 7;
+        }
+        out.write(v);
+    }
+
+    private static int readVarint(InputStream in) throws IOException {
+        int v = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.read();
+            if (b < 0) throw new EOFException();
+            v |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new IOException("bad varint");
+    }
+}
@@ -0,0 +1,121 @@
+package edu.sjsu.fwjs;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the calls of async expressions, on virtual threads when the JVM
+ * has them (-Dfwjs.async.virtual) and otherwise on a ForkJoinPool.
+ */
+final class Async {
+    private static final ExecutorService VIRTUAL = virtualThreads();
+    private static final ForkJoinPool POOL =
+        VIRTUAL != null ? null : new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private Async() {}
+
+    private static ExecutorService virtualThreads() {
+        if (!Boolean.parseBoolean(System.getProperty("fwjs.async.virtual", "true")))
+            return null;
+        try {
+            return (ExecutorService) Executors.class
+                .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /** True if calls run on virtual threads, and false on the ForkJoinPool. */
+    static boolean virtual() {
+        return VIRTUAL != null;
+    }
+
+    /**
+     * Calls fn with the arguments on another thread, and returns the
+     * future of its result.
+     */
+    static FutureVal start(ClosureVal fn, Value[] args) {
+        Pending pending = fn.env().global().pending();
+        OutputSink sink = PrintExpr.sink.get();
+        if (pending != null) pending.add();
+        Callable<Value> call = () -> {
+            OutputSink saved = PrintExpr.sink.get();
+            PrintExpr.sink.set(sink);
+            try {
+                return fn.call(args);
+            } finally {
+                PrintExpr.sink.set(saved);
+                if (pending != null) pending.done();
+            }
+        };
+        if (VIRTUAL != null)
+            return new FutureVal(VIRTUAL.submit(call));
+        ForkJoinTask<Value> task = ForkJoinTask.adapt(call);
+        // A call from a pool thread goes on that thread's own deque, so an
+        // await that comes before any thief runs it itself.
+        Thread t = Thread.currentThread();
+        if (t instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) t).getPool() == POOL)
+            task.fork();
+        else
+            POOL.execute(task);
+        return new FutureVal(task);
+    }
+
+    /**
+     * Runs r on a thread of its own: a virtual thread if there are any,
+     * and otherwise a new daemon thread, since r may block for long.
+     */
+    static void thread(Runnable r) {
+        if (VIRTUAL != null) {
+            VIRTUAL.execute(r);
+            return;
+        }
+        Thread t = new Thread(r);
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Waits until every call started in the global environment of env
+     * has finished, including those nothing awaited.
+     */
+    static void quiesce(Environment env) {
+        Pending pending = env.global().pending();
+        if (pending != null) pending.await();
+    }
+
+    /**
+     * The number of calls of one global environment that have not yet
+     * finished.
+     */
+    static final class Pending {
+        private final AtomicInteger count = new AtomicInteger();
+
+        void add() {
+            count.incrementAndGet();
+        }
+
+        void done() {
+            if (count.decrementAndGet() == 0) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+
+        synchronized void await() {
+            try {
+                while (count.get() > 0)
+                    wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package edu.sjsu.fwjs;
+
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Runs many independent scripts, or one script with many inputs, on a
+ * work-stealing ForkJoinPool. Every run has its own global Environment
+ * and its own output buffer, and the output of the runs is written in
+ * the order they were given, whichever finishes first.
+ *
+ * Each script is parsed and optimized once, and the tree is shared by
+ * all of its runs. That tree is never evaluated: nodes keep state that
+ * evaluation updates (the specialization of a BinOpExpr, the inline
+ * cache of a FunctionAppExpr, the call counts and compiled code of a
+ * FunctionDeclExpr), so each worker thread resolves its own copy the
+ * first time it runs the script and keeps it for the script's later
+ * runs on that thread. The state is then confined to one thread, and
+ * stays warm from one run to the next.
+ *
+ * The pool has -Dfwjs.batch.threads threads, by default one per core.
+ */
+public class BatchRunner implements AutoCloseable {
+    static final int THREADS = Integer.getInteger("fwjs.batch.threads",
+            Runtime.getRuntime().availableProcessors());
+
+    /**
+     * One run: a script, and the global variables it starts with.
+     */
+    public static final class Job {
+        final Path script;
+        final Map<String, Value> globals;
+
+        public Job(Path script, Map<String, Value> globals) {
+            this.script = script.toAbsolutePath().normalize();
+            this.globals = globals;
+        }
+
+        public Job(Path script) {
+            this(script, Collections.<String, Value>emptyMap());
+        }
+    }
+
+    /**
+     * What a run printed, and the syntax errors or exception that ended
+     * it, or an empty string.
+     */
+    public static final class Result {
+        final byte[] out;
+        final String err;
+
+        Result(byte[] out, String err) {
+            this.out = out;
+            this.err = err;
+        }
+
+        public boolean failed() {
+            return !err.isEmpty();
+        }
+    }
+
+    /**
+     * A parsed and optimized script, shared read-only by every thread,
+     * with the syntax errors found in it.
+     */
+    private static final class Script {
+        final Expression prog;
+        final String errors;
+
+        Script(Expression prog, String errors) {
+            this.prog = prog;
+            this.errors = errors;
+        }
+    }
+
+    /**
+     * What a worker thread keeps between runs: its own resolved copy of
+     * every script it has run, and the StackMachine and buffer it runs
+     * them with.
+     */
+    private final class Worker {
+        final Map<Script, Expression> resolved = new IdentityHashMap<Script, Expression>();
+        /** The scripts with async calls, which run in a concurrent Environment. */
+        final Set<Script> spawning = Collections.newSetFromMap(new IdentityHashMap<Script, Boolean>());
+        final StackMachine sm = stack ? new StackMachine() : null;
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final OutputSink sink = new OutputSink(Channels.newChannel(out), OutputSink.BUFFER_SIZE);
+    }
+
+    private final ForkJoinPool pool;
+    private final boolean stack;
+    private final boolean direct;
+    private final AstCache cache = AstCache.fromProperties();
+    private final Map<Path, ForkJoinTask<Script>> scripts =
+            new ConcurrentHashMap<Path, ForkJoinTask<Script>>();
+    private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+
+    /**
+     * A runner with the given number of threads, which evaluates with the
+     * StackMachine if stack is set, and parses with the DirectParser if
+     * direct is.
+     */
+    public BatchRunner(int threads, boolean stack, boolean direct) {
+        this.pool = new ForkJoinPool(threads);
+        this.stack = stack;
+        this.direct = direct;
+    }
+
+    /**
+     * Runs the jobs, writing the output of each to out and its errors to
+     * err, in order. Returns the number of runs that failed.
+     */
+    public int run(List<Job> jobs, OutputStream out, PrintStream err) throws IOException {
+        List<ForkJoinTask<Result>> tasks = new ArrayList<ForkJoinTask<Result>>(jobs.size());
+        for (Job job : jobs)
+            tasks.add(pool.submit(() -> run(job)));
+        int failed = 0;
+        try {
+            for (int i = 0; i < tasks.size(); i++) {
+                Result r = tasks.get(i).join();
+                out.write(r.out);
+                if (r.failed()) {
+                    out.flush();
+                    err.print(r.err);
+                    err.flush();
+                    failed++;
+                }
+            }
+        } finally {
+            for (ForkJoinTask<Result> t : tasks)
+                t.cancel(false);
+        }
+        out.flush();
+        return failed;
+    }
+
+    /**
+     * Runs one job on the current thread.
+     */
+    Result run(Job job) {
+        Worker w = workers.get();
+        String name = job.script.toString();
+        Script script;
+        try {
+            script = script(job.script);
+        } catch (RuntimeException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return new Result(new byte[0], name + ": " + cause + System.lineSeparator());
+        }
+        if (!script.errors.isEmpty())
+            return new Result(new byte[0], script.errors);
+        OutputSink saved = PrintExpr.sink.get();
+        PrintExpr.sink.set(w.sink);
+        String err = "";
+        Environment env = null;
+        try {
+            Expression prog = w.resolved.get(script);
+            if (prog == null) {
+                Resolver resolver = new Resolver();
+                prog = resolver.resolve(script.prog);
+                w.resolved.put(script, prog);
+                if (resolver.spawnsThreads()) w.spawning.add(script);
+            }
+            env = w.spawning.contains(script) ? Environment.concurrent()
+                    : new Environment();
+            for (Map.Entry<String, Value> g : job.globals.entrySet())
+                env.createVar(g.getKey(), g.getValue());
+            if (w.sm != null) {
+                w.sm.run(prog, env);
+            } else {
+                prog.evaluate(env);
+            }
+        } catch (Exception | StackOverflowError e) {
+            err = name + ": " + e + System.lineSeparator();
+        } finally {
+            // Calls nothing awaited still print to this run's buffer.
+            if (env != null) Async.quiesce(env);
+            PrintExpr.sink.set(saved);
+            w.sink.flush();
+        }
+        byte[] out = w.out.toByteArray();
+        w.out.reset();
+        return new Result(out, err);
+    }
+
+    /**
+     * The shared tree of a script, parsing it if no thread has yet.
+     * Threads that want it while another parses it wait for that parse.
+     */
+    private Script script(Path path) {
+        ForkJoinTask<Script> t = scripts.get(path);
+        if (t == null) {
+            ForkJoinTask<Script> mine = ForkJoinTask.adapt(() -> parse(path));
+            t = scripts.putIfAbsent(path, mine);
+            if (t == null) {
+                t = mine;
+                mine.invoke();
+            }
+        }
+        return t.join();
+    }
+
+    private Script parse(Path path) throws IOException {
+        MappedCharStream input = MappedCharStream.open(path);
+        Expression prog = cache == null ? null : cache.load(input.bytes());
+        if (prog != null) return new Script(prog, "");
+        ErrorRecorder errors = new ErrorRecorder(path.toString());
+        if (direct) {
+            try {
+                prog = DirectParser.parse(input);
+            } catch (DirectParser.SyntaxError e) {
+                // Parse again with ANTLR, which reports the errors.
+            }
+        }
+        if (prog == null) {
+            input.seek(0);
+            prog = new ExpressionBuilderVisitor().visit(
+                    Interpreter.parseTree(input, null, errors));
+        }
+        if (prog == null) prog = new ValueExpr(NullVal.NULL);
+        prog = new Optimizer().optimize(prog);
+        String messages = errors.messages.toString();
+        if (cache != null && messages.isEmpty()) cache.store(input.bytes(), prog);
+        return new Script(prog, messages);
+    }
+
+    /**
+     * Collects syntax errors as ANTLR's ConsoleErrorListener would print
+     * them, prefixed with the name of the script.
+     */
+    private static class ErrorRecorder extends BaseErrorListener {
+        final String name;
+        final StringBuilder messages = new StringBuilder();
+
+        ErrorRecorder(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol,
+                int line, int charPositionInLine, String msg, RecognitionException e) {
+            messages.append(name).append(": line ").append(line).append(':')
+                    .append(charPositionInLine).append(' ').append(msg)
+                    .append(System.lineSeparator());
+        }
+    }
+
+    /**
+     * The jobs for Interpreter -batch arguments: each is a script, or
+     * @manifest for the jobs listed in a manifest file.
+     *
+     * A manifest has one job per line: a script, relative to the
+     * manifest, and the globals it starts with as name=value, where a
+     * value is an integer, true, false or null. Blank lines and lines
+     * starting with # are skipped.
+     */
+    public static List<Job> jobs(List<String> args) throws IOException {
+        List<Job> jobs = new ArrayList<Job>();
+        for (String arg : args) {
+            if (!arg.startsWith("@")) {
+                jobs.add(new Job(Paths.get(arg)));
+                continue;
+            }
+            Path manifest = Paths.get(arg.substring(1)).toAbsolutePath();
+            for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] words = line.split("\\s+");
+                Map<String, Value> globals = new LinkedHashMap<String, Value>();
+                for (int i = 1; i < words.length; i++) {
+                    int eq = words[i].indexOf('=');
+                    if (eq <= 0)
+                        throw new RuntimeException(manifest + ": expected name=value: " + words[i]);
+                    globals.put(words[i].substring(0, eq), value(words[i].substring(eq + 1)));
+                }
+                jobs.add(new Job(manifest.resolveSibling(words[0]), globals));
+            }
+        }
+        return jobs;
+    }
+
+    private static Value value(String s) {
+        if (s.equals("true")) return BoolVal.TRUE;
+        if (s.equals("false")) return BoolVal.FALSE;
+        if (s.equals("null")) return NullVal.NULL;
+        try {
+            return IntVal.valueOf(Integer.parseInt(s));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("not an integer, true, false or null: " + s);
+        }
+    }
+
+    /**
+     * Shuts the pool down.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
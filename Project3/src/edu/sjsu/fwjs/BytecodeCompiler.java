@@ -0,0 +1,573 @@
+package edu.sjsu.fwjs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiles a resolved Expression tree into register bytecode for the
+ * VirtualMachine.
+ *
+ * Each function body, and the program itself, becomes a Chunk: an int[]
+ * of opcodes with their operands inline, and a constant pool. Jumps use
+ * absolute offsets into the code. A function that creates no closures,
+ * and has no node left to the tree walker, keeps its locals in registers:
+ * an operand that reads one takes no instruction of its own, and an
+ * assignment is computed straight into it. Other functions keep their
+ * locals in an Environment frame, as the tree walker does.
+ *
+ * Names of globals are shared by every chunk of a program, so the VM can
+ * cache their bindings by index. To run several programs against one
+ * global environment, compile them all with the same compiler: their
+ * chunks then share a single numbering.
+ */
+public class BytecodeCompiler {
+    private final List<String> globals = new ArrayList<String>();
+    private final Map<String,Integer> globalIndex = new HashMap<String,Integer>();
+
+    /**
+     * Compiles a whole program. The program's chunk returns its value.
+     */
+    public Chunk compile(Expression prog) {
+        return new ChunkBuilder(null, prog).build();
+    }
+
+    private int global(String name) {
+        Integer i = globalIndex.get(name);
+        if (i == null) {
+            i = globals.size();
+            globals.add(name);
+            globalIndex.put(name, i);
+        }
+        return i;
+    }
+
+    private static int opcode(Op op) {
+        return Chunk.ADD + op.ordinal();
+    }
+
+    private static boolean isComparison(Op op) {
+        switch (op) {
+        case GT: case GE: case LT: case LE: case EQ:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * True for an expression whose code writes its result only once all
+     * of its operands are read, so it can be computed straight into a
+     * local that it reads itself.
+     */
+    private static boolean writesLast(Expression exp) {
+        return exp instanceof ValueExpr || exp instanceof VarExpr
+            || exp instanceof BinOpExpr || exp instanceof FunctionAppExpr
+            || exp instanceof ArrayExpr || exp instanceof IndexExpr
+            || exp instanceof IndexAssignExpr || exp instanceof ObjectExpr
+            || exp instanceof PropertyExpr || exp instanceof PropertyAssignExpr;
+    }
+
+    /** True for a constant or variable, which cannot assign a local. */
+    private static boolean isPure(Expression exp) {
+        return exp instanceof ValueExpr || exp instanceof VarExpr;
+    }
+
+    /**
+     * The code of one chunk while it is compiled. Its registers are the
+     * locals, if they are kept in registers, then the constant values,
+     * then temporaries, which are allocated like a stack.
+     */
+    private class ChunkBuilder {
+        final FunctionDeclExpr decl;
+        final Expression body;
+        final boolean registers;
+        final int locals;
+        /**
+         * Locals that the code emitted so far has declared on every path,
+         * and on some path. Only declarations in the top-level sequence
+         * of the body count for the first, as for the JitCompiler.
+         */
+        final boolean[] declared;
+        final boolean[] maybeDeclared;
+        final Set<Expression> topDecls =
+            Collections.newSetFromMap(new IdentityHashMap<Expression,Boolean>());
+
+        int[] code = new int[32];
+        int size = 0;
+        final List<Object> consts = new ArrayList<Object>();
+        final Map<Object,Integer> constIndex = new IdentityHashMap<Object,Integer>();
+        final List<Value> values = new ArrayList<Value>();
+        final Map<Value,Integer> valueIndex = new IdentityHashMap<Value,Integer>();
+        /** True once every constant value has its register. */
+        boolean sealed;
+        int temps = 0;
+        int maxTemps = 0;
+
+        ChunkBuilder(FunctionDeclExpr decl, Expression body) {
+            this.decl = decl;
+            this.body = body;
+            boolean simple = scan(body);
+            sealed = true;
+            registers = decl != null && decl.frameNames != null && !decl.capturesFrame && simple;
+            locals = registers ? decl.frameNames.length : 0;
+            declared = new boolean[locals];
+            maybeDeclared = new boolean[locals];
+            if (registers) {
+                for (int slot : decl.paramSlots)
+                    declared[slot] = maybeDeclared[slot] = true;
+                collectTopDecls(body);
+            }
+        }
+
+        Chunk build() {
+            op(Chunk.RETURN, value(body));
+            // The program chunk is finished last, so it sees every global name.
+            String[] globalNames = null;
+            if (decl == null)
+                globalNames = globals.toArray(new String[globals.size()]);
+            return new Chunk(Arrays.copyOf(code, size), consts.toArray(),
+                    values.toArray(new Value[values.size()]), decl, globalNames,
+                    registers, locals + values.size() + maxTemps);
+        }
+
+        /**
+         * Gives every constant of the code a register, and returns false
+         * if some node is left to the tree walker or refers to a variable
+         * by name, which needs an Environment frame.
+         */
+        private boolean scan(Expression exp) {
+            if (exp instanceof ValueExpr) {
+                valueRegister(((ValueExpr) exp).val);
+                return true;
+            }
+            if (exp instanceof VarExpr)
+                return ((VarExpr) exp).depth != Environment.DYNAMIC;
+            if (exp instanceof FunctionDeclExpr)
+                return true;
+            if (exp instanceof BinOpExpr)
+                return scan(((BinOpExpr) exp).e1) & scan(((BinOpExpr) exp).e2);
+            if (exp instanceof IfExpr) {
+                IfExpr ie = (IfExpr) exp;
+                return scan(ie.cond) & scan(ie.thn) & scan(ie.els);
+            }
+            if (exp instanceof WhileExpr) {
+                valueRegister(NullVal.NULL);
+                return scan(((WhileExpr) exp).cond) & scan(((WhileExpr) exp).body);
+            }
+            if (exp instanceof SeqExpr)
+                return scan(((SeqExpr) exp).e1) & scan(((SeqExpr) exp).e2);
+            if (exp instanceof BlockExpr) {
+                boolean simple = true;
+                for (Expression stat : ((BlockExpr) exp).stmts)
+                    simple &= scan(stat);
+                return simple;
+            }
+            if (exp instanceof PrintExpr)
+                return scan(((PrintExpr) exp).exp);
+            if (exp instanceof VarDeclExpr)
+                return scan(((VarDeclExpr) exp).exp) & ((VarDeclExpr) exp).slot >= 0;
+            if (exp instanceof AssignExpr)
+                return scan(((AssignExpr) exp).e) & ((AssignExpr) exp).depth != Environment.DYNAMIC;
+            if (exp instanceof FunctionAppExpr) {
+                boolean simple = scan(((FunctionAppExpr) exp).f);
+                for (Expression arg : ((FunctionAppExpr) exp).args)
+                    simple &= scan(arg);
+                return simple;
+            }
+            if (exp instanceof ArrayExpr) {
+                boolean simple = true;
+                if (!((ArrayExpr) exp).isConstant())
+                    for (Expression e : ((ArrayExpr) exp).elems)
+                        simple &= scan(e);
+                return simple;
+            }
+            if (exp instanceof IndexExpr)
+                return scan(((IndexExpr) exp).array) & scan(((IndexExpr) exp).index);
+            if (exp instanceof IndexAssignExpr) {
+                IndexAssignExpr ia = (IndexAssignExpr) exp;
+                return scan(ia.array) & scan(ia.index) & scan(ia.e);
+            }
+            if (exp instanceof ObjectExpr) {
+                boolean simple = true;
+                for (Expression e : ((ObjectExpr) exp).values)
+                    simple &= scan(e);
+                return simple;
+            }
+            if (exp instanceof PropertyExpr)
+                return scan(((PropertyExpr) exp).obj);
+            if (exp instanceof PropertyAssignExpr)
+                return scan(((PropertyAssignExpr) exp).obj) & scan(((PropertyAssignExpr) exp).e);
+            return false;
+        }
+
+        private void collectTopDecls(Expression exp) {
+            if (exp instanceof VarDeclExpr) {
+                topDecls.add(exp);
+            } else if (exp instanceof SeqExpr) {
+                collectTopDecls(((SeqExpr) exp).e1);
+                collectTopDecls(((SeqExpr) exp).e2);
+            } else if (exp instanceof BlockExpr) {
+                for (Expression stat : ((BlockExpr) exp).stmts)
+                    collectTopDecls(stat);
+            }
+        }
+
+        /**
+         * Emits code computing exp, and returns a register holding its
+         * value. The register may be a local, so the value must be used
+         * before any more code is emitted that could assign that local.
+         */
+        int value(Expression exp) {
+            if (exp instanceof ValueExpr)
+                return valueRegister(((ValueExpr) exp).val);
+            if (exp instanceof VarExpr) {
+                VarExpr ve = (VarExpr) exp;
+                if (registers && ve.depth == 0 && declared[ve.slot])
+                    return ve.slot;
+            } else if (exp instanceof AssignExpr) {
+                return assign((AssignExpr) exp);
+            } else if (exp instanceof VarDeclExpr) {
+                return declare((VarDeclExpr) exp);
+            }
+            int t = temp();
+            into(exp, t);
+            return t;
+        }
+
+        /**
+         * Like value, for an operand that other operands follow: if any of
+         * them could assign the local holding its value, it is copied first.
+         */
+        int operand(Expression exp, Expression... later) {
+            int r = value(exp);
+            if (r >= locals)
+                return r;
+            for (Expression e : later) {
+                if (!isPure(e)) {
+                    int t = temp();
+                    op(Chunk.MOVE, t, r);
+                    return t;
+                }
+            }
+            return r;
+        }
+
+        /**
+         * Emits code storing the value of exp in register d. Unless exp
+         * writesLast, d must be a temporary.
+         */
+        void into(Expression exp, int d) {
+            int mark = temps;
+            if (exp instanceof ValueExpr) {
+                move(d, valueRegister(((ValueExpr) exp).val));
+            } else if (exp instanceof VarExpr) {
+                load((VarExpr) exp, d);
+            } else if (exp instanceof FunctionDeclExpr) {
+                FunctionDeclExpr fd = (FunctionDeclExpr) exp;
+                op(Chunk.CLOSURE, d, constant(new ChunkBuilder(fd, fd.body).build()));
+            } else if (exp instanceof BinOpExpr) {
+                BinOpExpr be = (BinOpExpr) exp;
+                int a = operand(be.e1, be.e2);
+                int b = value(be.e2);
+                op(opcode(be.op), d, a, b);
+            } else if (exp instanceof IfExpr) {
+                IfExpr ie = (IfExpr) exp;
+                int jumpElse = branch(ie.cond, false);
+                into(ie.thn, d);
+                int jumpEnd = jump(Chunk.JUMP);
+                patch(jumpElse);
+                into(ie.els, d);
+                patch(jumpEnd);
+            } else if (exp instanceof WhileExpr) {
+                loop((WhileExpr) exp);
+                move(d, valueRegister(NullVal.NULL));
+            } else if (exp instanceof SeqExpr) {
+                into(((SeqExpr) exp).e1, d);
+                int b = value(((SeqExpr) exp).e2);
+                op(Chunk.SEQ, d, b);
+            } else if (exp instanceof BlockExpr) {
+                Expression[] stmts = ((BlockExpr) exp).stmts;
+                into(stmts[0], d);
+                for (int i = 1; i < stmts.length; i++) {
+                    int b = value(stmts[i]);
+                    op(Chunk.SEQ, d, b);
+                    temps = mark;
+                }
+            } else if (exp instanceof PrintExpr) {
+                into(((PrintExpr) exp).exp, d);
+                op(Chunk.PRINT, d);
+            } else if (exp instanceof VarDeclExpr) {
+                move(d, declare((VarDeclExpr) exp));
+            } else if (exp instanceof AssignExpr) {
+                move(d, assign((AssignExpr) exp));
+            } else if (exp instanceof FunctionAppExpr) {
+                FunctionAppExpr fa = (FunctionAppExpr) exp;
+                Expression[] args = fa.args.toArray(new Expression[fa.args.size()]);
+                int f = operand(fa.f, args);
+                int a = temps(args.length);
+                for (int i = 0; i < args.length; i++)
+                    into(args[i], a + i);
+                op(Chunk.CALL, d, f, a, args.length);
+            } else if (exp instanceof ArrayExpr) {
+                ArrayExpr ae = (ArrayExpr) exp;
+                int a = 0;
+                if (!ae.isConstant())
+                    a = intoTemps(ae.elems);
+                op(Chunk.ARRAY, d, constant(ae), a);
+            } else if (exp instanceof IndexExpr) {
+                IndexExpr ie = (IndexExpr) exp;
+                int a = operand(ie.array, ie.index);
+                int i = value(ie.index);
+                op(Chunk.INDEX, d, a, i);
+            } else if (exp instanceof IndexAssignExpr) {
+                IndexAssignExpr ia = (IndexAssignExpr) exp;
+                int a = operand(ia.array, ia.index, ia.e);
+                int i = operand(ia.index, ia.e);
+                int v = value(ia.e);
+                op(Chunk.INDEX_SET, d, a, i, v);
+            } else if (exp instanceof ObjectExpr) {
+                ObjectExpr oe = (ObjectExpr) exp;
+                op(Chunk.OBJECT, d, constant(oe), intoTemps(oe.values));
+            } else if (exp instanceof PropertyExpr) {
+                PropertyExpr pe = (PropertyExpr) exp;
+                op(Chunk.GET, d, value(pe.obj), constant(pe));
+            } else if (exp instanceof PropertyAssignExpr) {
+                PropertyAssignExpr pa = (PropertyAssignExpr) exp;
+                int o = operand(pa.obj, pa.e);
+                int v = value(pa.e);
+                op(Chunk.PUT, d, o, constant(pa), v);
+            } else {
+                // Nodes without an opcode of their own run on the tree walker.
+                op(Chunk.EVAL, d, constant(exp));
+            }
+            temps = mark;
+        }
+
+        /** Emits code for exp whose value is not used. */
+        void effect(Expression exp) {
+            if (exp instanceof ValueExpr || exp instanceof VarExpr
+                    || exp instanceof FunctionDeclExpr)
+                return;
+            int mark = temps;
+            if (exp instanceof IfExpr) {
+                IfExpr ie = (IfExpr) exp;
+                int jumpElse = branch(ie.cond, false);
+                effect(ie.thn);
+                if (ie.els instanceof ValueExpr) {
+                    patch(jumpElse);
+                } else {
+                    int jumpEnd = jump(Chunk.JUMP);
+                    patch(jumpElse);
+                    effect(ie.els);
+                    patch(jumpEnd);
+                }
+            } else if (exp instanceof WhileExpr) {
+                loop((WhileExpr) exp);
+            } else if (exp instanceof SeqExpr) {
+                effect(((SeqExpr) exp).e1);
+                effect(((SeqExpr) exp).e2);
+            } else if (exp instanceof BlockExpr) {
+                for (Expression stat : ((BlockExpr) exp).stmts)
+                    effect(stat);
+            } else if (exp instanceof PrintExpr) {
+                op(Chunk.PRINT, value(((PrintExpr) exp).exp));
+            } else if (exp instanceof VarDeclExpr) {
+                declare((VarDeclExpr) exp);
+            } else if (exp instanceof AssignExpr) {
+                assign((AssignExpr) exp);
+            } else {
+                into(exp, temp());
+            }
+            temps = mark;
+        }
+
+        /**
+         * Emits a loop with its test after the body, so each iteration
+         * takes a single conditional jump.
+         */
+        private void loop(WhileExpr we) {
+            int jumpTest = jump(Chunk.JUMP);
+            int top = size;
+            effect(we.body);
+            patch(jumpTest);
+            int jumpTop = branch(we.cond, true);
+            code[jumpTop] = top;
+        }
+
+        /**
+         * Emits a conditional jump on the value of cond, taken if the value
+         * equals when, and returns the position of its target for patching.
+         * Comparisons jump on their result directly instead of storing it.
+         */
+        private int branch(Expression cond, boolean when) {
+            int mark = temps;
+            if (cond instanceof BinOpExpr && isComparison(((BinOpExpr) cond).op)) {
+                BinOpExpr be = (BinOpExpr) cond;
+                int a = operand(be.e1, be.e2);
+                int b = value(be.e2);
+                int first = when ? Chunk.JUMP_IF_GT : Chunk.JUMP_UNLESS_GT;
+                op(first + be.op.ordinal() - Op.GT.ordinal(), a, b, -1);
+            } else {
+                int r = value(cond);
+                op(when ? Chunk.JUMP_IF_TRUE : Chunk.JUMP_IF_FALSE, r, -1);
+            }
+            temps = mark;
+            return size - 1;
+        }
+
+        private void load(VarExpr ve, int d) {
+            if (registers && ve.depth == 0) {
+                if (declared[ve.slot])
+                    move(d, ve.slot);
+                else
+                    op(Chunk.LOAD_LOCAL, d, ve.slot, constant(ve.varName));
+            } else if (ve.depth >= 0) {
+                op(Chunk.LOAD_SLOT, d, frameDepth(ve.depth), ve.slot, constant(ve.varName));
+            } else if (ve.depth == Environment.GLOBAL) {
+                op(Chunk.LOAD_GLOBAL, d, global(ve.varName));
+            } else {
+                op(Chunk.LOAD_NAME, d, constant(ve.varName));
+            }
+        }
+
+        /** Emits an assignment, and returns a register holding the value. */
+        private int assign(AssignExpr ae) {
+            if (ae.update != null) {
+                int a = temp();
+                int g = global(ae.varName);
+                op(Chunk.LOAD_GLOBAL, a, g);
+                int b = value(ae.update.e2);
+                op(Chunk.UPDATE_GLOBAL, a, g, opcode(ae.update.op), a, b);
+                return a;
+            }
+            if (registers && ae.depth == 0) {
+                if (declared[ae.slot]) {
+                    store(ae.e, ae.slot);
+                    return ae.slot;
+                }
+                int r = value(ae.e);
+                op(Chunk.STORE_LOCAL, ae.slot, constant(ae.varName), r);
+                return r;
+            }
+            int r = value(ae.e);
+            if (ae.depth >= 0)
+                op(Chunk.STORE_SLOT, frameDepth(ae.depth), ae.slot, constant(ae.varName), r);
+            else if (ae.depth == Environment.GLOBAL)
+                op(Chunk.STORE_GLOBAL, global(ae.varName), r);
+            else
+                op(Chunk.STORE_NAME, constant(ae.varName), r);
+            return r;
+        }
+
+        /** Emits a declaration, and returns a register holding the value. */
+        private int declare(VarDeclExpr vd) {
+            if (registers) {
+                int slot = vd.slot;
+                boolean top = topDecls.contains(vd);
+                if (top && !maybeDeclared[slot]) {
+                    // Runs once, before anything else declares the slot.
+                    store(vd.exp, slot);
+                    declared[slot] = maybeDeclared[slot] = true;
+                    return slot;
+                }
+                int r = value(vd.exp);
+                op(Chunk.DECL_LOCAL, slot, r);
+                maybeDeclared[slot] = true;
+                declared[slot] |= top;
+                return r;
+            }
+            int r = value(vd.exp);
+            if (vd.slot >= 0)
+                op(Chunk.DECL_SLOT, vd.slot, r);
+            else
+                op(Chunk.DECL_NAME, constant(vd.varName), r);
+            return r;
+        }
+
+        /** Emits code storing the value of exp in a local register. */
+        private void store(Expression exp, int slot) {
+            if (writesLast(exp))
+                into(exp, slot);
+            else
+                move(slot, value(exp));
+        }
+
+        /** The depth of a resolved reference counted from env, the frame the VM keeps. */
+        private int frameDepth(int depth) {
+            return registers ? depth - 1 : depth;
+        }
+
+        /** Computes the expressions into consecutive temporaries, and returns the first. */
+        private int intoTemps(List<Expression> exps) {
+            int a = temps(exps.size());
+            for (int i = 0; i < exps.size(); i++)
+                into(exps.get(i), a + i);
+            return a;
+        }
+
+        private void move(int d, int s) {
+            if (d != s)
+                op(Chunk.MOVE, d, s);
+        }
+
+        private int temp() {
+            int t = locals + values.size() + temps++;
+            maxTemps = Math.max(maxTemps, temps);
+            return t;
+        }
+
+        /** Allocates n consecutive temporaries and returns the first. */
+        private int temps(int n) {
+            int first = locals + values.size() + temps;
+            temps += n;
+            maxTemps = Math.max(maxTemps, temps);
+            return first;
+        }
+
+        private int valueRegister(Value v) {
+            Integer i = valueIndex.get(v);
+            if (i == null) {
+                if (sealed)
+                    throw new IllegalStateException("constant missed by scan");
+                i = values.size();
+                values.add(v);
+                valueIndex.put(v, i);
+            }
+            return locals + i;
+        }
+
+        void op(int... words) {
+            if (size + words.length > code.length)
+                code = Arrays.copyOf(code, Math.max(code.length * 2, size + words.length));
+            for (int w : words)
+                code[size++] = w;
+        }
+
+        int constant(Object c) {
+            Integer i = constIndex.get(c);
+            if (i == null) {
+                i = consts.size();
+                consts.add(c);
+                constIndex.put(c, i);
+            }
+            return i;
+        }
+
+        /** Emits a jump with a placeholder target and returns its position. */
+        int jump(int op) {
+            op(op, -1);
+            return size - 1;
+        }
+
+        /** Points the jump at the given position to the current end of code. */
+        void patch(int at) {
+            code[at] = size;
+        }
+    }
+}
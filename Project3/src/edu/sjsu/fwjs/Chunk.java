@@ -0,0 +1,132 @@
+package edu.sjsu.fwjs;
+
+/**
+ * Compiled bytecode for a function body or a whole program.
+ *
+ * The VirtualMachine runs each call of a chunk in a window of registers:
+ * first the locals of the function, if they live in registers, then the
+ * constants of the chunk, then temporaries. Operands follow their opcode
+ * in the code array; d, s, a, b and so on are registers of the window,
+ * k is an index into consts, g the index of a global name and t a jump
+ * target. Instructions that produce a value write it to register d.
+ */
+public class Chunk {
+    /** MOVE d s */
+    public static final int MOVE = 0;
+    /** LOAD_SLOT d depth slot k: read a variable of an Environment frame, named consts[k]. */
+    public static final int LOAD_SLOT = 1;
+    /** STORE_SLOT depth slot k s: update a variable of an Environment frame. */
+    public static final int STORE_SLOT = 2;
+    /** DECL_SLOT slot s: declare a variable of the current Environment frame. */
+    public static final int DECL_SLOT = 3;
+    /**
+     * LOAD_LOCAL d slot k: read a local held in a register that may not
+     * be declared yet, in which case consts[k] is looked up further out.
+     */
+    public static final int LOAD_LOCAL = 4;
+    /** STORE_LOCAL slot k s: update a local held in a register that may not be declared yet. */
+    public static final int STORE_LOCAL = 5;
+    /** DECL_LOCAL slot s: declare a local held in a register, which may be declared already. */
+    public static final int DECL_LOCAL = 6;
+    /** LOAD_GLOBAL d g */
+    public static final int LOAD_GLOBAL = 7;
+    /** STORE_GLOBAL g s: update or create global g. */
+    public static final int STORE_GLOBAL = 8;
+    /**
+     * UPDATE_GLOBAL d g op a b: g = a op b, where a is the value of g read
+     * before b; made atomic in a concurrent Environment. See AssignExpr.
+     */
+    public static final int UPDATE_GLOBAL = 9;
+    /** LOAD_NAME d k: read a variable looked up by name. */
+    public static final int LOAD_NAME = 10;
+    /** STORE_NAME k s: update a variable by name. */
+    public static final int STORE_NAME = 11;
+    /** DECL_NAME k s: declare a variable in the current scope. */
+    public static final int DECL_NAME = 12;
+    /** JUMP t */
+    public static final int JUMP = 13;
+    /** JUMP_IF_FALSE s t: jump if the boolean s is false. */
+    public static final int JUMP_IF_FALSE = 14;
+    /** JUMP_IF_TRUE s t: jump if the boolean s is true. */
+    public static final int JUMP_IF_TRUE = 15;
+    /** SEQ d s: d = s, unless s is null. */
+    public static final int SEQ = 16;
+    /** PRINT s */
+    public static final int PRINT = 17;
+    /** CLOSURE d k: a closure over the current scope for the chunk in consts[k]. */
+    public static final int CLOSURE = 18;
+    /** CALL d f a n: call f with the n arguments in registers a to a + n - 1. */
+    public static final int CALL = 19;
+    /** RETURN s: return s to the caller. */
+    public static final int RETURN = 20;
+    /** EVAL d k: evaluate the Expression in consts[k] on the tree walker. */
+    public static final int EVAL = 21;
+    /** ARRAY d k a: the ArrayExpr in consts[k], with its elements in registers from a. */
+    public static final int ARRAY = 22;
+    /** INDEX d a i: d = a[i] */
+    public static final int INDEX = 23;
+    /** INDEX_SET d a i s: a[i] = s, and d = s. */
+    public static final int INDEX_SET = 24;
+    /** OBJECT d k a: the ObjectExpr in consts[k], with its values in registers from a. */
+    public static final int OBJECT = 25;
+    /** GET d o k: read a property of o through the PropertyExpr in consts[k]. */
+    public static final int GET = 26;
+    /** PUT d o k s: store s in a property of o through the PropertyAssignExpr in consts[k], and d = s. */
+    public static final int PUT = 27;
+    /** Binary operators d a b, in the order of the Op enum. */
+    public static final int ADD = 28;
+    public static final int SUBTRACT = 29;
+    public static final int MULTIPLY = 30;
+    public static final int DIVIDE = 31;
+    public static final int MOD = 32;
+    public static final int GT = 33;
+    public static final int GE = 34;
+    public static final int LT = 35;
+    public static final int LE = 36;
+    public static final int EQ = 37;
+    /**
+     * Comparisons that jump instead of producing a boolean, a b t, in the
+     * order of the Op enum: jump if (a op b) is true.
+     */
+    public static final int JUMP_IF_GT = 38;
+    public static final int JUMP_IF_GE = 39;
+    public static final int JUMP_IF_LT = 40;
+    public static final int JUMP_IF_LE = 41;
+    public static final int JUMP_IF_EQ = 42;
+    /** As above, but jump if (a op b) is false. */
+    public static final int JUMP_UNLESS_GT = 43;
+    public static final int JUMP_UNLESS_GE = 44;
+    public static final int JUMP_UNLESS_LT = 45;
+    public static final int JUMP_UNLESS_LE = 46;
+    public static final int JUMP_UNLESS_EQ = 47;
+
+    final int[] code;
+    final Object[] consts;
+    /** Values copied into registers locals to locals + values.length - 1 on entry. */
+    final Value[] values;
+    /** The function this chunk is the body of, or null for a program. */
+    final FunctionDeclExpr decl;
+    /** Names of the globals used by the program; null for function chunks. */
+    final String[] globalNames;
+    /**
+     * True if the locals of the function are held in registers, rather
+     * than in an Environment frame.
+     */
+    final boolean registers;
+    /** The number of locals held in registers, or 0. */
+    final int locals;
+    /** The number of registers of a call's window. */
+    final int frameSize;
+
+    public Chunk(int[] code, Object[] consts, Value[] values, FunctionDeclExpr decl,
+            String[] globalNames, boolean registers, int frameSize) {
+        this.code = code;
+        this.consts = consts;
+        this.values = values;
+        this.decl = decl;
+        this.globalNames = globalNames;
+        this.registers = registers;
+        this.locals = registers ? decl.frameNames.length : 0;
+        this.frameSize = frameSize;
+    }
+}
@@ -0,0 +1,341 @@
+package edu.sjsu.fwjs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a JVM class file, with just what the JitCompiler needs: a
+ * constant pool, and methods whose code is built with Code.
+ *
+ * Classes are written in version 49, the last before stack map frames,
+ * so the JVM infers the types of locals and of the operand stack itself
+ * when it verifies the code.
+ */
+final class ClassFile {
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    static final int ACONST_NULL = 0x01, ICONST_0 = 0x03, BIPUSH = 0x10, SIPUSH = 0x11,
+        LDC_W = 0x13, ILOAD = 0x15, ALOAD = 0x19, AALOAD = 0x32,
+        ISTORE = 0x36, ASTORE = 0x3a, IASTORE = 0x4f, AASTORE = 0x53, POP = 0x57,
+        DUP = 0x59, DUP_X1 = 0x5a, DUP_X2 = 0x5b, SWAP = 0x5f,
+        IADD = 0x60, ISUB = 0x64, IMUL = 0x68, IDIV = 0x6c, IREM = 0x70,
+        IFEQ = 0x99, IFNE = 0x9a, IF_ICMPEQ = 0x9f, IF_ICMPNE = 0xa0, IF_ICMPLT = 0xa1,
+        IF_ICMPGE = 0xa2, IF_ICMPGT = 0xa3, IF_ICMPLE = 0xa4, GOTO = 0xa7,
+        ARETURN = 0xb0, RETURN = 0xb1, GETSTATIC = 0xb2, GETFIELD = 0xb4,
+        INVOKEVIRTUAL = 0xb6, INVOKESPECIAL = 0xb7, INVOKESTATIC = 0xb8,
+        NEWARRAY = 0xbc, ANEWARRAY = 0xbd, ARRAYLENGTH = 0xbe, CHECKCAST = 0xc0,
+        INSTANCEOF = 0xc1;
+
+    /** The operand of NEWARRAY for an int[]. */
+    static final int T_INT = 10;
+
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+    private final Map<String, Integer> entries = new HashMap<String, Integer>();
+    private int poolCount = 1;
+    private final List<byte[]> methods = new ArrayList<byte[]>();
+    private final int access;
+    private final int thisClass;
+    private final int superClass;
+    /** Set when the class exceeds a limit of the format, such as 64K constants. */
+    private boolean tooLarge;
+
+    /** A class with internal names such as "edu/sjsu/fwjs/Value". */
+    ClassFile(int access, String name, String superName) {
+        this.access = access;
+        this.thisClass = classRef(name);
+        this.superClass = classRef(superName);
+    }
+
+    /** The class file, or null if it is too large. */
+    byte[] toBytes() {
+        if (tooLarge)
+            return null;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xcafebabe);
+            out.writeShort(0);
+            out.writeShort(49);
+            out.writeShort(poolCount);
+            pool.writeTo(out);
+            out.writeShort(access);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0);
+            out.writeShort(0);
+            out.writeShort(methods.size());
+            for (byte[] m : methods)
+                out.write(m);
+            out.writeShort(0);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** Adds a method with the code built so far. */
+    void method(int access, String name, String descriptor, Code code) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            byte[] body = code.toBytes();
+            tooLarge |= body.length > 0xffff;
+            out.writeShort(access);
+            out.writeShort(utf8(name));
+            out.writeShort(utf8(descriptor));
+            out.writeShort(1);
+            out.writeShort(utf8("Code"));
+            out.writeInt(12 + body.length);
+            out.writeShort(code.maxStack);
+            out.writeShort(code.maxLocals);
+            out.writeInt(body.length);
+            out.write(body);
+            out.writeShort(0);
+            out.writeShort(0);
+            methods.add(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    int utf8(String s) {
+        Integer i = entries.get("U" + s);
+        if (i != null) return i;
+        try {
+            poolOut.writeByte(1);
+            poolOut.writeUTF(s);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return add("U" + s);
+    }
+
+    int classRef(String name) {
+        return entry(7, "C" + name, utf8(name), -1);
+    }
+
+    int string(String s) {
+        return entry(8, "S" + s, utf8(s), -1);
+    }
+
+    int integer(int v) {
+        Integer i = entries.get("I" + v);
+        if (i != null) return i;
+        try {
+            poolOut.writeByte(3);
+            poolOut.writeInt(v);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return add("I" + v);
+    }
+
+    int fieldRef(String owner, String name, String descriptor) {
+        return entry(9, "F" + owner + "." + name + ":" + descriptor,
+                classRef(owner), nameAndType(name, descriptor));
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        return entry(10, "M" + owner + "." + name + descriptor,
+                classRef(owner), nameAndType(name, descriptor));
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        return entry(12, "N" + name + ":" + descriptor, utf8(name), utf8(descriptor));
+    }
+
+    /** An entry that refers to one or two others. */
+    private int entry(int tag, String key, int a, int b) {
+        Integer i = entries.get(key);
+        if (i != null) return i;
+        try {
+            poolOut.writeByte(tag);
+            poolOut.writeShort(a);
+            if (b >= 0) poolOut.writeShort(b);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return add(key);
+    }
+
+    private int add(String key) {
+        int i = poolCount++;
+        tooLarge |= poolCount > 0xffff;
+        entries.put(key, i);
+        return i;
+    }
+
+    /** A jump target in a Code. */
+    static final class Label {
+        /** The offset of the target, or -1 until it is placed. */
+        int offset = -1;
+        /** Depth of the operand stack at the target, or -1 if no jump to it was seen yet. */
+        int stack = -1;
+        /** Offsets of the jumps to this label, before it was placed. */
+        final List<Integer> jumps = new ArrayList<Integer>();
+    }
+
+    /**
+     * The bytecode of one method. It keeps track of the depth of the
+     * operand stack, to find max_stack; after an unconditional jump the
+     * depth is unknown until the next label.
+     */
+    final class Code {
+        private byte[] code = new byte[256];
+        private int length;
+        private int stack;
+        int maxStack;
+        int maxLocals;
+
+        Code(int maxLocals) {
+            this.maxLocals = maxLocals;
+        }
+
+        /** An instruction without operands that pushes push - pop values. */
+        void op(int opcode, int pop, int push) {
+            write(opcode);
+            adjust(push - pop);
+        }
+
+        void iconst(int v) {
+            if (v >= -1 && v <= 5) {
+                op(ICONST_0 + v, 0, 1);
+            } else if (v == (byte) v) {
+                write(BIPUSH);
+                write(v);
+                adjust(1);
+            } else if (v == (short) v) {
+                write(SIPUSH);
+                u2(v);
+                adjust(1);
+            } else {
+                write(LDC_W);
+                u2(integer(v));
+                adjust(1);
+            }
+        }
+
+        void ldcString(String s) {
+            write(LDC_W);
+            u2(string(s));
+            adjust(1);
+        }
+
+        /** ILOAD, ALOAD, ISTORE or ASTORE of a local. */
+        void local(int opcode, int index) {
+            tooLarge |= index > 0xff;
+            write(opcode);
+            write(index);
+            adjust(opcode == ILOAD || opcode == ALOAD ? 1 : -1);
+            maxLocals = Math.max(maxLocals, index + 1);
+        }
+
+        /** ANEWARRAY, CHECKCAST or INSTANCEOF of a class. */
+        void type(int opcode, String name) {
+            write(opcode);
+            u2(classRef(name));
+        }
+
+        void newIntArray() {
+            write(NEWARRAY);
+            write(T_INT);
+        }
+
+        void field(int opcode, String owner, String name, String descriptor) {
+            write(opcode);
+            u2(fieldRef(owner, name, descriptor));
+            adjust(opcode == GETSTATIC ? 1 : 0);
+        }
+
+        void invoke(int opcode, String owner, String name, String descriptor) {
+            write(opcode);
+            u2(methodRef(owner, name, descriptor));
+            int args = argumentCount(descriptor);
+            adjust((descriptor.endsWith(")V") ? 0 : 1) - args
+                    - (opcode == INVOKESTATIC ? 0 : 1));
+        }
+
+        /** A jump, which pops the operands of opcode. */
+        void jump(int opcode, Label target) {
+            int at = length;
+            write(opcode);
+            u2(0);
+            adjust(opcode == GOTO ? 0 : opcode <= IFNE ? -1 : -2);
+            if (target.stack < 0)
+                target.stack = stack;
+            if (target.offset >= 0)
+                patch(at, target.offset);
+            else
+                target.jumps.add(at);
+            if (opcode == GOTO)
+                stack = -1;
+        }
+
+        /** Places a label at the current offset. */
+        void mark(Label label) {
+            label.offset = length;
+            if (stack < 0)
+                stack = label.stack;
+            else if (label.stack < 0)
+                label.stack = stack;
+            for (int at : label.jumps)
+                patch(at, label.offset);
+            label.jumps.clear();
+        }
+
+        /** A return instruction, after which the depth is unknown. */
+        void ret(int opcode) {
+            write(opcode);
+            stack = -1;
+        }
+
+        byte[] toBytes() {
+            return Arrays.copyOf(code, length);
+        }
+
+        private void patch(int at, int target) {
+            int delta = target - at;
+            tooLarge |= delta != (short) delta;
+            code[at + 1] = (byte) (delta >> 8);
+            code[at + 2] = (byte) delta;
+        }
+
+        private void write(int b) {
+            if (length == code.length)
+                code = Arrays.copyOf(code, 2 * length);
+            code[length++] = (byte) b;
+        }
+
+        private void adjust(int delta) {
+            stack += delta;
+            maxStack = Math.max(maxStack, stack);
+        }
+
+        private void u2(int v) {
+            write(v >> 8);
+            write(v);
+        }
+    }
+
+    /** The number of arguments of a method descriptor, none of them long or double. */
+    private static int argumentCount(String descriptor) {
+        int n = 0;
+        for (int i = 1; descriptor.charAt(i) != ')'; i++) {
+            char c = descriptor.charAt(i);
+            while (c == '[')
+                c = descriptor.charAt(++i);
+            if (c == 'L')
+                i = descriptor.indexOf(';', i);
+            n++;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,162 @@
+package edu.sjsu.fwjs;
+
+/**
+ * Base class of the JVM classes that the JitCompiler generates for the
+ * bodies of hot functions. The static helpers are what generated code
+ * calls for everything that is not plain int or boolean arithmetic.
+ */
+abstract class CompiledFunction {
+    /** The function whose body this is. */
+    protected final FunctionDeclExpr decl;
+    /** Constants of the body that have no Java literal. */
+    protected final Value[] consts;
+    /**
+     * Nodes of the body that the code passes to the helpers below by
+     * index: reads and assignments of variables outside the function,
+     * and property accesses and object literals, whose inline caches and
+     * shapes the code shares with the tree walker.
+     */
+    protected final Expression[] sites;
+    /** The bindings of the globals read at sites, found on first use. */
+    private final GlobalCell[] cells;
+
+    protected CompiledFunction(FunctionDeclExpr decl, Value[] consts, Expression[] sites) {
+        this.decl = decl;
+        this.consts = consts;
+        this.sites = sites;
+        this.cells = new GlobalCell[sites.length];
+    }
+
+    /**
+     * Runs the body for a call with the given arguments, in a closure
+     * over the outer environment. Returns null, before doing anything
+     * else, if an argument is not of the type the code was specialized
+     * for; the caller then runs the body on the tree walker instead.
+     * Like the body's evaluate, the result may be a TailCall.
+     */
+    abstract Value call(Value[] args, Environment outer);
+
+    static int toInt(Value v) {
+        if (!(v instanceof IntVal))
+            throw new RuntimeException();
+        return ((IntVal) v).toInt();
+    }
+
+    /** The value of a sequence, as SeqExpr computes it. */
+    static Value seq(Value a, Value b) {
+        if (b == null || b instanceof NullVal)
+            return a;
+        if (b instanceof TailCall)
+            ((TailCall) b).orElse(a);
+        return b;
+    }
+
+    /** The value of the global read at a site. */
+    Value global(int site, Environment outer) {
+        Environment globals = outer.global();
+        GlobalCell c = cells[site];
+        if (c == null || c.globals != globals) {
+            String name = ((VarExpr) sites[site]).varName;
+            Binding b = globals.lookupBinding(name);
+            if (b == null)
+                return globals.resolveVar(name);
+            cells[site] = c = new GlobalCell(globals, b);
+        }
+        return c.binding.get();
+    }
+
+    /** Stores v in the variable outside the function that a site assigns. */
+    void assign(Value v, int site, Environment outer) {
+        AssignExpr ae = (AssignExpr) sites[site];
+        if (ae.depth > 0)
+            outer.setSlot(ae.depth - 1, ae.slot, ae.varName, v);
+        else
+            outer.global().updateVar(ae.varName, v);
+    }
+
+    /**
+     * The update x = x op b of a global at a site, where a is the value
+     * of x that was read; atomic in a concurrent environment, like
+     * AssignExpr.
+     */
+    Value update(Value a, Value b, int site, Environment outer) {
+        AssignExpr ae = (AssignExpr) sites[site];
+        if (outer.isConcurrent())
+            return outer.global().updateGlobal(ae.varName, ae.update.op, a, b);
+        Value v = BinOpExpr.apply(ae.update.op, a, b);
+        outer.global().updateVar(ae.varName, v);
+        return v;
+    }
+
+    Value make(int site, Value[] vals) {
+        return ((ObjectExpr) sites[site]).make(vals);
+    }
+
+    Value get(Value o, int site) {
+        return ((PropertyExpr) sites[site]).get(o);
+    }
+
+    void put(Value o, Value v, int site) {
+        ((PropertyAssignExpr) sites[site]).put(o, v);
+    }
+
+    static Value newArray(int[] elems) {
+        return new ArrayVal(elems);
+    }
+
+    static ArrayVal array(Value a) {
+        if (!(a instanceof ArrayVal))
+            throw new RuntimeException();
+        return (ArrayVal) a;
+    }
+
+    static Value at(Value a, int i) {
+        return array(a).get(i);
+    }
+
+    /** An element that must be an integer, unboxed if the array is. */
+    static int intAt(Value a, int i) {
+        return array(a).getInt(i);
+    }
+
+    static void store(Value a, int i, Value v) {
+        array(a).set(i, v);
+    }
+
+    static void store(Value a, int i, int v) {
+        array(a).setInt(i, v);
+    }
+
+    /** The length of an array, or else the property a site reads, as an int. */
+    int length(Value a, int site) {
+        if (a instanceof ArrayVal)
+            return ((ArrayVal) a).length();
+        return toInt(get(a, site));
+    }
+
+    static ClosureVal fn(Value f) {
+        if (!(f instanceof ClosureVal))
+            throw new RuntimeException();
+        return (ClosureVal) f;
+    }
+
+    /**
+     * Calls f. A call of the function this code was compiled from runs
+     * this code directly, so HotSpot sees which code it calls and can
+     * inline a recursive function into itself.
+     */
+    Value invoke(ClosureVal f, Value[] args) {
+        try {
+            if (f.decl() == decl) {
+                Value r = call(args, f.env());
+                if (r != null)
+                    return f.finish(r, null);
+            }
+            return f.call(args);
+        } catch (Exception e) { throw new RuntimeException(); }
+    }
+
+    static Value tailCall(ClosureVal f, Value[] args) {
+        return new TailCall(f, args);
+    }
+}
@@ -0,0 +1,195 @@
+package edu.sjsu.fwjs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Runs scripts for DaemonClient in one long-lived JVM, so they do not
+ * each pay for starting a JVM, loading ANTLR, filling the parser's DFA
+ * cache and warming up the JIT. Requests arrive on a Unix domain socket
+ * and are served one at a time, each in a fresh global Environment.
+ *
+ * A request is the number of arguments as an int and each argument as
+ * writeUTF would write it: the same arguments as for the Interpreter,
+ * with file names absolute. Without a file, the program follows, up to
+ * the end of the stream. The reply is a series of frames: OUT or ERR,
+ * an int length and that many bytes of standard output or standard
+ * error, sent as the script runs, and last EXIT and an int status,
+ * which is 1 if the script failed with an exception.
+ *
+ * Usage: Daemon   (listens on fwjs.daemon.socket, see socketPath)
+ */
+public class Daemon implements Closeable {
+    static final int OUT = 1;
+    static final int ERR = 2;
+    static final int EXIT = 3;
+
+    private final Path socket;
+    private final ServerSocketChannel server;
+
+    public Daemon(Path socket) throws IOException {
+        this.socket = socket;
+        // A socket file left behind by a daemon that was killed.
+        Files.deleteIfExists(socket);
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socket));
+    }
+
+    public static void main(String[] args) throws IOException {
+        try (Daemon daemon = new Daemon(socketPath())) {
+            daemon.serve();
+        }
+    }
+
+    /**
+     * The socket named by -Dfwjs.daemon.socket, or by default
+     * fwjs-<user>.sock in the temporary directory.
+     */
+    static Path socketPath() {
+        String path = System.getProperty("fwjs.daemon.socket");
+        if (path != null) return Paths.get(path);
+        return Paths.get(System.getProperty("java.io.tmpdir"),
+                "fwjs-" + System.getProperty("user.name") + ".sock");
+    }
+
+    /**
+     * Serves requests until the daemon is closed.
+     */
+    public void serve() throws IOException {
+        while (true) {
+            SocketChannel ch;
+            try {
+                ch = server.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            }
+            try (SocketChannel c = ch) {
+                handle(c);
+            } catch (IOException e) {
+                // The client went away; on to the next one.
+            }
+        }
+    }
+
+    private void handle(SocketChannel ch) throws IOException {
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream(input(ch)));
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(output(ch)));
+        String[] args = new String[in.readInt()];
+        for (int i = 0; i < args.length; i++)
+            args[i] = in.readUTF();
+        PrintStream stdout = new PrintStream(new BufferedOutputStream(new FrameStream(out, OUT)));
+        PrintStream stderr = new PrintStream(new BufferedOutputStream(new FrameStream(out, ERR)));
+        PrintStream savedOut = System.out;
+        PrintStream savedErr = System.err;
+        System.setOut(stdout);
+        System.setErr(stderr);
+        int status = 0;
+        try {
+            Interpreter.execute(args, in);
+        } catch (Exception | StackOverflowError e) {
+            stderr.print("Exception in thread \"main\" ");
+            e.printStackTrace(stderr);
+            status = 1;
+        } finally {
+            stdout.flush();
+            stderr.flush();
+            System.setOut(savedOut);
+            System.setErr(savedErr);
+        }
+        out.writeByte(EXIT);
+        out.writeInt(status);
+        out.flush();
+    }
+
+    /**
+     * A stream that reads from a socket channel. Unlike one from
+     * Channels, it does not stop another thread writing to the channel
+     * while it waits.
+     */
+    static InputStream input(SocketChannel ch) {
+        return new InputStream() {
+            @Override
+            public int read() throws IOException {
+                byte[] b = new byte[1];
+                return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) return 0;
+                return ch.read(ByteBuffer.wrap(b, off, len));
+            }
+        };
+    }
+
+    /** A stream that writes to a socket channel; see input. */
+    static OutputStream output(SocketChannel ch) {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] { (byte) b }, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                ByteBuffer buf = ByteBuffer.wrap(b, off, len);
+                while (buf.hasRemaining())
+                    ch.write(buf);
+            }
+        };
+    }
+
+    /**
+     * Stops serving, and removes the socket.
+     */
+    @Override
+    public void close() throws IOException {
+        server.close();
+        Files.deleteIfExists(socket);
+    }
+
+    /**
+     * Sends everything written to it to the client as frames of one
+     * kind, as soon as it is written.
+     */
+    private static class FrameStream extends OutputStream {
+        private final DataOutputStream out;
+        private final int kind;
+
+        FrameStream(DataOutputStream out, int kind) {
+            this.out = out;
+            this.kind = kind;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.writeByte(kind);
+            out.writeInt(len);
+            out.write(b, off, len);
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package edu.sjsu.fwjs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Runs a script on a Daemon, copying its output to standard output and
+ * standard error as it arrives, and exits with the script's status.
+ *
+ * Usage: DaemonClient [Interpreter options] [file]
+ *        (reads the program from standard input without a file)
+ */
+public class DaemonClient {
+
+    public static void main(String[] args) throws IOException {
+        System.exit(run(Daemon.socketPath(), args, System.in, System.out, System.err));
+    }
+
+    /**
+     * Sends one request, and returns the status of the script.
+     */
+    static int run(Path socket, String[] args, InputStream in, OutputStream out,
+            OutputStream err) throws IOException {
+        try (SocketChannel ch = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+            DataOutputStream req = new DataOutputStream(
+                    new BufferedOutputStream(Daemon.output(ch)));
+            boolean file = false;
+            req.writeInt(args.length);
+            for (String arg : args) {
+                if (!arg.startsWith("-")) {
+                    arg = Paths.get(arg).toAbsolutePath().toString();
+                    file = true;
+                }
+                req.writeUTF(arg);
+            }
+            req.flush();
+            if (!file) {
+                // Send the program while the output comes back, which
+                // it may do before the end of the program with -stream.
+                Thread send = new Thread(() -> {
+                    try {
+                        in.transferTo(req);
+                        req.flush();
+                        ch.shutdownOutput();
+                    } catch (IOException e) {
+                        // The daemon stopped reading; its reply says why.
+                    }
+                });
+                send.setDaemon(true);
+                send.start();
+            }
+            DataInputStream reply = new DataInputStream(
+                    new BufferedInputStream(Daemon.input(ch)));
+            byte[] buf = new byte[8192];
+            while (true) {
+                int kind = reply.readByte();
+                if (kind == Daemon.EXIT)
+                    return reply.readInt();
+                OutputStream to = kind == Daemon.OUT ? out : err;
+                for (int n = reply.readInt(); n > 0; ) {
+                    int r = reply.read(buf, 0, Math.min(n, buf.length));
+                    if (r < 0) throw new EOFException();
+                    to.write(buf, 0, r);
+                    n -= r;
+                }
+                to.flush();
+            }
+        }
+    }
+}
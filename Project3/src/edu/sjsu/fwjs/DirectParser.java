@@ -0,0 +1,424 @@
+package edu.sjsu.fwjs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A recursive descent parser for FeatherweightJavaScript.g4 that builds
+ * Expressions in a single pass, without a parse tree and without the
+ * ANTLR runtime. Binary operators are parsed by precedence climbing.
+ *
+ * It builds the same trees as the ExpressionBuilderVisitor does from
+ * the ANTLR parse, but it does not recover from errors: it throws a
+ * SyntaxError at the first one.
+ */
+public class DirectParser {
+    /**
+     * Binding strength of function application, indexing and property
+     * access, the tightest operators.
+     */
+    private static final int CALL_PRECEDENCE = 5;
+    /** Binding strength of a[i] = e and o.x = e, the loosest operators. */
+    private static final int STORE_PRECEDENCE = 1;
+
+    /**
+     * Thrown for a program that does not match the grammar.
+     */
+    public static class SyntaxError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        public SyntaxError(String msg) {
+            super(msg);
+        }
+    }
+
+    private final Tokenizer lex;
+
+    private DirectParser(CharSequence src) {
+        lex = new Tokenizer(src);
+    }
+
+    /**
+     * Parses a whole program. Like the ANTLR front end, returns null for
+     * a program whose statements are all empty.
+     */
+    public static Expression parse(CharSequence src) {
+        DirectParser p = new DirectParser(src);
+        if (p.lex.type == Tokenizer.EOF)
+            throw p.lex.error("missing statement at '<EOF>'");
+        List<Expression> stmts = new ArrayList<Expression>();
+        while (p.lex.type != Tokenizer.EOF)
+            p.statement(stmts);
+        return block(stmts);
+    }
+
+    /** Parses a statement and adds it to stmts unless it is empty. */
+    private void statement(List<Expression> stmts) {
+        Expression stat = statement();
+        if (stat != null) stmts.add(stat);
+    }
+
+    private Expression statement() {
+        switch (lex.type) {
+            case Tokenizer.IF: {
+                lex.next();
+                Expression cond = condition();
+                Expression thn = orNull(block());
+                if (lex.type != Tokenizer.ELSE)
+                    return new IfExpr(cond, thn, new ValueExpr(NullVal.NULL));
+                lex.next();
+                return new IfExpr(cond, thn, orNull(block()));
+            }
+            case Tokenizer.WHILE: {
+                lex.next();
+                Expression cond = condition();
+                return new WhileExpr(cond, orNull(block()));
+            }
+            case Tokenizer.PRINT: {
+                lex.next();
+                Expression exp = condition();
+                expect(Tokenizer.SEPARATOR, "';'");
+                return new PrintExpr(exp);
+            }
+            case Tokenizer.PAR: {
+                lex.next();
+                if (lex.type == Tokenizer.LPAREN) {
+                    Expression exp = expression(parValues(), 0);
+                    expect(Tokenizer.SEPARATOR, "';'");
+                    return exp;
+                }
+                expect(Tokenizer.LBRACE, "'{'");
+                List<Expression> branches = new ArrayList<Expression>();
+                while (lex.type != Tokenizer.RBRACE) {
+                    if (lex.type == Tokenizer.EOF)
+                        throw lex.error("missing '}' at '<EOF>'");
+                    Expression branch = block();
+                    if (branch != null) branches.add(branch);
+                }
+                lex.next();
+                return new ParExpr(branches);
+            }
+            case Tokenizer.SEPARATOR:
+                lex.next();
+                return null;
+            case Tokenizer.LBRACE:
+                // Only a block starts with '{'; an object literal needs parentheses.
+                throw lex.error("unexpected '{'");
+            default: {
+                Expression exp = expression(0);
+                expect(Tokenizer.SEPARATOR, "';'");
+                return exp;
+            }
+        }
+    }
+
+    /** A parenthesized expression after if, while or print. */
+    private Expression condition() {
+        expect(Tokenizer.LPAREN, "'('");
+        Expression exp = expression(0);
+        expect(Tokenizer.RPAREN, "')'");
+        return exp;
+    }
+
+    /** A block in braces, or a single statement. Null if it is empty. */
+    private Expression block() {
+        if (lex.type != Tokenizer.LBRACE)
+            return statement();
+        lex.next();
+        List<Expression> stmts = new ArrayList<Expression>();
+        while (lex.type != Tokenizer.RBRACE) {
+            if (lex.type == Tokenizer.EOF)
+                throw lex.error("missing '}' at '<EOF>'");
+            statement(stmts);
+        }
+        lex.next();
+        return block(stmts);
+    }
+
+    /**
+     * Parses an expression whose binary operators bind at least as
+     * tightly as minPrecedence. All of them are left associative, but
+     * for the stores into an element or a property, which are right
+     * associative.
+     */
+    private Expression expression(int minPrecedence) {
+        return expression(primary(), minPrecedence);
+    }
+
+    /** The same, for an expression whose first operand lhs was just parsed. */
+    private Expression expression(Expression lhs, int minPrecedence) {
+        // Whether lhs ends with an index or property of its own, which a
+        // store needs: (a[i]) = e does not match the grammar.
+        boolean storable = false;
+        while (true) {
+            int prec = precedence(lex.type);
+            if (prec < minPrecedence || prec == 0)
+                return lhs;
+            if (prec == CALL_PRECEDENCE) {
+                storable = lex.type != Tokenizer.LPAREN;
+                lhs = postfix(lhs);
+                continue;
+            }
+            if (prec == STORE_PRECEDENCE) {
+                if (!storable)
+                    return lhs;
+                lex.next();
+                if (lhs instanceof IndexExpr) {
+                    IndexExpr ie = (IndexExpr) lhs;
+                    lhs = new IndexAssignExpr(ie.array, ie.index, expression(prec));
+                } else {
+                    PropertyExpr pe = (PropertyExpr) lhs;
+                    lhs = new PropertyAssignExpr(pe.obj, pe.name, expression(prec));
+                }
+                storable = false;
+                continue;
+            }
+            Op op = op(lex.type);
+            lex.next();
+            lhs = BinOpExpr.create(op, lhs, expression(prec + 1));
+            storable = false;
+        }
+    }
+
+    /** A call, index or property access of lhs, at the current token. */
+    private Expression postfix(Expression lhs) {
+        switch (lex.type) {
+            case Tokenizer.LPAREN:
+                return new FunctionAppExpr(lhs, arguments());
+            case Tokenizer.LBRACKET: {
+                lex.next();
+                Expression index = expression(0);
+                expect(Tokenizer.RBRACKET, "']'");
+                return new IndexExpr(lhs, index);
+            }
+            default:
+                lex.next();
+                return new PropertyExpr(lhs, identifier());
+        }
+    }
+
+    private Expression primary() {
+        switch (lex.type) {
+            case Tokenizer.FUNCTION: {
+                lex.next();
+                List<String> params = parameters();
+                return new FunctionDeclExpr(params, orNull(block()));
+            }
+            case Tokenizer.VAR: {
+                lex.next();
+                String name = identifier();
+                expect(Tokenizer.ASSIGN, "'='");
+                return new VarDeclExpr(name, expression(0));
+            }
+            case Tokenizer.ID: {
+                String name = lex.text;
+                lex.next();
+                if (lex.type != Tokenizer.ASSIGN)
+                    return new VarExpr(name);
+                lex.next();
+                return new AssignExpr(name, expression(0));
+            }
+            case Tokenizer.INT: {
+                int i = lex.intVal;
+                lex.next();
+                return new ValueExpr(IntVal.valueOf(i));
+            }
+            case Tokenizer.TRUE:
+            case Tokenizer.FALSE: {
+                boolean b = lex.type == Tokenizer.TRUE;
+                lex.next();
+                return new ValueExpr(BoolVal.valueOf(b));
+            }
+            case Tokenizer.NULL:
+                lex.next();
+                return new ValueExpr(NullVal.NULL);
+            case Tokenizer.LPAREN:
+                return condition();
+            case Tokenizer.LBRACKET: {
+                lex.next();
+                List<Expression> elems = new ArrayList<Expression>();
+                if (lex.type != Tokenizer.RBRACKET) {
+                    elems.add(expression(0));
+                    while (lex.type == Tokenizer.COMMA) {
+                        lex.next();
+                        elems.add(expression(0));
+                    }
+                }
+                expect(Tokenizer.RBRACKET, "']'");
+                return new ArrayExpr(elems);
+            }
+            case Tokenizer.LBRACE:
+                lex.next();
+                return object();
+            case Tokenizer.ASYNC:
+                lex.next();
+                return ExpressionBuilderVisitor.asyncExpr(expression(CALL_PRECEDENCE));
+            case Tokenizer.AWAIT:
+                lex.next();
+                return new AwaitExpr(expression(CALL_PRECEDENCE));
+            case Tokenizer.SPAWN: {
+                lex.next();
+                AsyncExpr call = ExpressionBuilderVisitor.asyncExpr(expression(CALL_PRECEDENCE));
+                return new SpawnExpr(call.f, call.args);
+            }
+            case Tokenizer.PAR:
+                lex.next();
+                return parValues();
+            case Tokenizer.CHAN:
+                return channelOp(ChannelExpr.Kind.CHAN, 1);
+            case Tokenizer.SEND:
+                return channelOp(ChannelExpr.Kind.SEND, 2);
+            case Tokenizer.RECV:
+                return channelOp(ChannelExpr.Kind.RECV, 1);
+            case Tokenizer.CLOSE:
+                return channelOp(ChannelExpr.Kind.CLOSE, 1);
+            default:
+                throw lex.error("unexpected " + describe());
+        }
+    }
+
+    /** The rest of an object literal after its '{'. */
+    private Expression object() {
+        List<String> names = new ArrayList<String>();
+        List<Expression> values = new ArrayList<Expression>();
+        if (lex.type != Tokenizer.RBRACE) {
+            while (true) {
+                names.add(identifier());
+                expect(Tokenizer.COLON, "':'");
+                values.add(expression(0));
+                if (lex.type != Tokenizer.COMMA)
+                    break;
+                lex.next();
+            }
+        }
+        expect(Tokenizer.RBRACE, "'}'");
+        return new ObjectExpr(names, values);
+    }
+
+    /** The functions of par(f, g, ...) in parentheses, after par. */
+    private Expression parValues() {
+        List<Expression> fns = new ArrayList<Expression>();
+        expect(Tokenizer.LPAREN, "'('");
+        fns.add(expression(0));
+        while (lex.type == Tokenizer.COMMA) {
+            lex.next();
+            fns.add(expression(0));
+        }
+        expect(Tokenizer.RPAREN, "')'");
+        return ExpressionBuilderVisitor.parValues(fns);
+    }
+
+    /** A channel operation and its n operands in parentheses. */
+    private Expression channelOp(ChannelExpr.Kind kind, int n) {
+        lex.next();
+        expect(Tokenizer.LPAREN, "'('");
+        List<Expression> args = new ArrayList<Expression>(n);
+        args.add(expression(0));
+        for (int i = 1; i < n; i++) {
+            expect(Tokenizer.COMMA, "','");
+            args.add(expression(0));
+        }
+        expect(Tokenizer.RPAREN, "')'");
+        return new ChannelExpr(kind, args);
+    }
+
+    private List<String> parameters() {
+        List<String> params = new ArrayList<String>();
+        expect(Tokenizer.LPAREN, "'('");
+        if (lex.type != Tokenizer.RPAREN) {
+            params.add(identifier());
+            while (lex.type == Tokenizer.COMMA) {
+                lex.next();
+                params.add(identifier());
+            }
+        }
+        expect(Tokenizer.RPAREN, "')'");
+        return params;
+    }
+
+    private List<Expression> arguments() {
+        List<Expression> args = new ArrayList<Expression>();
+        expect(Tokenizer.LPAREN, "'('");
+        if (lex.type != Tokenizer.RPAREN) {
+            args.add(expression(0));
+            while (lex.type == Tokenizer.COMMA) {
+                lex.next();
+                args.add(expression(0));
+            }
+        }
+        expect(Tokenizer.RPAREN, "')'");
+        return args;
+    }
+
+    private String identifier() {
+        if (lex.type != Tokenizer.ID)
+            throw lex.error("expected identifier, found " + describe());
+        String name = lex.text;
+        lex.next();
+        return name;
+    }
+
+    private void expect(int type, String what) {
+        if (lex.type != type)
+            throw lex.error("expected " + what + ", found " + describe());
+        lex.next();
+    }
+
+    private String describe() {
+        switch (lex.type) {
+            case Tokenizer.EOF: return "'<EOF>'";
+            case Tokenizer.INT: return "'" + lex.intVal + "'";
+            default: return lex.text != null ? "'" + lex.text + "'" : "token " + lex.type;
+        }
+    }
+
+    /**
+     * The precedence of a binary operator token: 5 for the argument list
+     * of a call, an index or a property, down to 2 for comparisons and 1
+     * for the = of a store into an element or property, or 0 for
+     * anything else.
+     */
+    private static int precedence(int type) {
+        switch (type) {
+            case Tokenizer.LPAREN: case Tokenizer.LBRACKET: case Tokenizer.DOT:
+                return CALL_PRECEDENCE;
+            case Tokenizer.MUL: case Tokenizer.DIV: case Tokenizer.MOD:
+                return 4;
+            case Tokenizer.ADD: case Tokenizer.SUB:
+                return 3;
+            case Tokenizer.LT: case Tokenizer.LE: case Tokenizer.GT:
+            case Tokenizer.GE: case Tokenizer.EQ:
+                return 2;
+            case Tokenizer.ASSIGN:
+                return STORE_PRECEDENCE;
+            default:
+                return 0;
+        }
+    }
+
+    private static Op op(int type) {
+        switch (type) {
+            case Tokenizer.MUL: return Op.MULTIPLY;
+            case Tokenizer.DIV: return Op.DIVIDE;
+            case Tokenizer.MOD: return Op.MOD;
+            case Tokenizer.ADD: return Op.ADD;
+            case Tokenizer.SUB: return Op.SUBTRACT;
+            case Tokenizer.LT: return Op.LT;
+            case Tokenizer.LE: return Op.LE;
+            case Tokenizer.GT: return Op.GT;
+            case Tokenizer.GE: return Op.GE;
+            default: return Op.EQ;
+        }
+    }
+
+    private static Expression orNull(Expression exp) {
+        if (exp == null) return new ValueExpr(NullVal.NULL);
+        return exp;
+    }
+
+    /** Makes a block of statements, as the ExpressionBuilderVisitor does. */
+    private static Expression block(List<Expression> stmts) {
+        if (stmts.isEmpty()) return null;
+        if (stmts.size() == 1) return stmts.get(0);
+        return new BlockExpr(stmts);
+    }
+}
@@ -1,24 +1,124 @@
 package edu.sjsu.fwjs;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Environment {
-    private Map<String,Value> env = new HashMap<String,Value>();
+    /**
+     * Depth used by resolved references to global variables.
+     */
+    public static final int GLOBAL = -1;
+    /**
+     * Depth used by references that were never resolved; they are
+     * looked up by name through the whole scope chain.
+     */
+    public static final int DYNAMIC = -2;
+
+    private Map<String,Binding> env;
+    private String[] names;
+    private Value[] slots;
     private Environment outerEnv;
+    private Environment globalEnv;
+    /** True for a global environment made by concurrent(). */
+    private boolean concurrent;
+    /** The async calls started in a concurrent global environment. */
+    private Async.Pending pending;
 
     /**
      * Constructor for global environment
      */
     public Environment() {
+        this.env = new HashMap<String,Binding>();
         this.outerEnv = null;
+        this.globalEnv = this;
+    }
+
+    /**
+     * A global environment that several threads may evaluate against at
+     * once. Its variables are in a ConcurrentHashMap, so looking them up
+     * never locks; a binding's value is read with acquire and written
+     * with release semantics, so a thread that reads a closure or other
+     * value also sees everything the writing thread did before storing
+     * it. createVar creates a variable only if no other thread has, and
+     * an assignment to an undeclared variable creates exactly one. The
+     * tree walker and JIT compiled code make an assignment of the form
+     * x = x op e to a global atomic, with updateGlobal, when e is a
+     * constant or a local variable and so cannot change x itself.
+     *
+     * Function frames made under it are not synchronized: a local
+     * variable that closures on several threads update is still racy.
+     */
+    public static Environment concurrent() {
+        Environment e = new Environment();
+        e.env = new ConcurrentHashMap<String,Binding>();
+        e.concurrent = true;
+        e.pending = new Async.Pending();
+        return e;
+    }
+
+    /**
+     * True if the global scope of this environment was made by concurrent().
+     */
+    public boolean isConcurrent() {
+        return globalEnv.concurrent;
+    }
+
+    /**
+     * The global environment of an isolate spawned from this one's global
+     * scope: a concurrent environment with a snapshot of its variables,
+     * each copied as Isolate.transfer copies it, or left out if it cannot
+     * be. Calls started in either are awaited together.
+     */
+    Environment isolate() {
+        Environment from = globalEnv;
+        Environment to = concurrent();
+        if (from.pending != null) to.pending = from.pending;
+        for (Map.Entry<String,Binding> e : from.env.entrySet()) {
+            Value v = Isolate.transfer(e.getValue().get(), from, to);
+            if (v != null) to.env.put(e.getKey(), new SharedBinding(v));
+        }
+        return to;
+    }
+
+    /**
+     * The async calls and isolates started from this global scope, or from
+     * isolates it spawned, that have not finished, or null if it was not
+     * made by concurrent().
+     */
+    Async.Pending pending() {
+        return globalEnv.pending;
     }
 
     /**
      * Constructor for local environment of a function
      */
     public Environment(Environment outerEnv) {
+        this.env = new HashMap<String,Binding>();
+        this.outerEnv = outerEnv;
+        this.globalEnv = outerEnv.globalEnv;
+    }
+
+    /**
+     * Constructor for the array-backed frame of a resolved function.
+     * The names are shared with the function declaration; slot i holds
+     * the variable names[i], or Java null while it is not yet declared.
+     */
+    public Environment(Environment outerEnv, String[] names) {
+        this.names = names;
+        this.slots = new Value[names.length];
         this.outerEnv = outerEnv;
+        this.globalEnv = outerEnv.globalEnv;
+    }
+
+    /**
+     * The outermost (global) scope of this environment chain.
+     */
+    public Environment global() {
+        return globalEnv;
     }
 
     /**
@@ -26,14 +126,22 @@ public class Environment {
      * If the variable name is in the current scope, it is returned.
      * Otherwise, search for the variable in the outer scope.
      * If we are at the outermost scope (AKA the global scope)
-     * new NullVal() is returned (similar to how JS returns undefined/null).
+     * NullVal.NULL is returned (similar to how JS returns undefined/null).
      */
     public Value resolveVar(String varName) {
-        if(env.containsKey(varName))
-            return env.get(varName);
-        else if(outerEnv != null)
-            outerEnv.resolveVar(varName);
-        return new NullVal();
+        if (slots != null) {
+            int i = indexOf(varName);
+            if (i >= 0 && slots[i] != null)
+                return slots[i];
+        }
+        if (env != null) {
+            Binding b = env.get(varName);
+            if (b != null)
+                return b.get();
+        }
+        if (outerEnv != null)
+            return outerEnv.resolveVar(varName);
+        return NullVal.NULL;
     }
 
     /**
@@ -42,10 +150,22 @@ public class Environment {
      * or any of the function's outer scopes, the var is stored in the global scope.
      */
     public void updateVar(String key, Value v) {
-        if(env.containsKey(key))
-            env.put(key, v); // Should be replace...
+        if (slots != null) {
+            int i = indexOf(key);
+            if (i >= 0 && slots[i] != null) {
+                slots[i] = v;
+                return;
+            }
+        }
+        Binding b = env == null ? null : env.get(key);
+        if (b != null)
+            b.set(v);
         else if(outerEnv != null)
             outerEnv.updateVar(key, v);
+        else if (concurrent) {
+            b = env.putIfAbsent(key, new SharedBinding(v));
+            if (b != null) b.set(v);
+        }
         else try {
             createVar(key, v);
         } catch (Exception e) { throw new RuntimeException(); }
@@ -57,15 +177,198 @@ public class Environment {
      * a RuntimeException is thrown.
      */
     public void createVar(String key, Value v) throws Exception {
-        if(env.containsKey(key))
+        if (slots != null) {
+            int i = indexOf(key);
+            if (i >= 0) {
+                declareSlot(i, v);
+                return;
+            }
+            if (env == null)
+                env = new HashMap<String,Binding>();
+        }
+        if (concurrent) {
+            if (env.putIfAbsent(key, new SharedBinding(v)) != null)
+                throw new RuntimeException();
+        }
+        else if(env.containsKey(key))
             throw new RuntimeException();
         else
-            env.put(key, v);
+            env.put(key, new Binding(v));
+    }
+
+    /**
+     * Replaces the value of global variable key with the result of
+     * applying op to it and operand, as key = key op operand would, and
+     * returns the new value; seen is the value of key that the caller
+     * read before evaluating operand. In a concurrent environment the
+     * update is atomic: if another thread has changed the variable since,
+     * op is applied again to its new value. An undeclared variable counts
+     * as null, and is created with the result.
+     */
+    public Value updateGlobal(String key, Op op, Value seen, Value operand) {
+        Map<String,Binding> globals = globalEnv.env;
+        Value old = seen;
+        while (true) {
+            Binding b = globals.get(key);
+            if (b == null) {
+                Value v = BinOpExpr.apply(op, NullVal.NULL, operand);
+                Binding created = globalEnv.concurrent ? new SharedBinding(v) : new Binding(v);
+                if (globals.putIfAbsent(key, created) == null)
+                    return v;
+                continue;
+            }
+            Value v = BinOpExpr.apply(op, old, operand);
+            if (b.compareAndSet(old, v))
+                return v;
+            old = b.get();
+        }
+    }
+
+    /**
+     * The binding of a variable declared in this scope, or null.
+     * A binding is never removed once created, so callers may keep it.
+     */
+    public Binding lookupBinding(String varName) {
+        return env == null ? null : env.get(varName);
+    }
+
+    /**
+     * Reads the variable at a resolved (depth, slot) coordinate.
+     * A slot that has not been declared yet falls back to looking the
+     * name up in the scopes outside of that frame.
+     */
+    public Value getSlot(int depth, int slot, String varName) {
+        Environment e = this;
+        while (depth-- > 0)
+            e = e.outerEnv;
+        Value v = e.slots[slot];
+        if (v != null)
+            return v;
+        return e.outerEnv.resolveVar(varName);
+    }
+
+    /**
+     * Updates the variable at a resolved (depth, slot) coordinate,
+     * with the same fallback as getSlot.
+     */
+    public void setSlot(int depth, int slot, String varName, Value v) {
+        Environment e = this;
+        while (depth-- > 0)
+            e = e.outerEnv;
+        if (e.slots[slot] != null)
+            e.slots[slot] = v;
+        else
+            e.outerEnv.updateVar(varName, v);
+    }
+
+    /**
+     * Declares the variable held in a slot of this frame.
+     * Declaring the same slot twice throws a RuntimeException,
+     * just like createVar.
+     */
+    public void declareSlot(int slot, Value v) {
+        if (slots[slot] != null)
+            throw new RuntimeException();
+        slots[slot] = v;
+    }
+
+    /**
+     * Clears every slot of this frame so a self tail call can reuse it.
+     */
+    public void resetSlots() {
+        Arrays.fill(slots, null);
+    }
+
+    private int indexOf(String varName) {
+        for (int i = 0; i < names.length; i++)
+            if (names[i].equals(varName))
+                return i;
+        return -1;
     }
 
     public String toString() {
+        String s;
+        if (slots != null) {
+            Map<String,Object> m = new HashMap<String,Object>();
+            for (int i = 0; i < slots.length; i++)
+                if (slots[i] != null) m.put(names[i], slots[i]);
+            if (env != null) m.putAll(env);
+            s = m.toString();
+        } else {
+            s = env.toString();
+        }
         if(outerEnv == null)
-            return "{ " + env.toString() + " }";
-        return outerEnv.toString() + " { " + env.toString() + " }";
+            return "{ " + s + " }";
+        return outerEnv.toString() + " { " + s + " }";
+    }
+}
+
+/**
+ * A mutable cell holding the value of a variable in a map-based scope.
+ */
+class Binding {
+    Value value;
+    Binding(Value value) {
+        this.value = value;
+    }
+    Value get() {
+        return value;
+    }
+    void set(Value v) {
+        value = v;
+    }
+    /** Sets the value to v if it is still expected, and says whether it was. */
+    boolean compareAndSet(Value expected, Value v) {
+        if (value != expected)
+            return false;
+        value = v;
+        return true;
+    }
+    public String toString() {
+        return String.valueOf(value);
+    }
+}
+
+/**
+ * The binding of a global variable in one global environment, as call
+ * sites and compiled code cache it. Bindings are never removed, so it
+ * stays valid for that environment.
+ */
+final class GlobalCell {
+    final Environment globals;
+    final Binding binding;
+    GlobalCell(Environment globals, Binding binding) {
+        this.globals = globals;
+        this.binding = binding;
+    }
+}
+
+/**
+ * A binding of a concurrent global environment, whose value is read
+ * with acquire and written with release semantics.
+ */
+final class SharedBinding extends Binding {
+    private static final VarHandle VALUE;
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(Binding.class, "value", Value.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    SharedBinding(Value value) {
+        super(value);
+    }
+    @Override
+    Value get() {
+        return (Value) VALUE.getAcquire(this);
+    }
+    @Override
+    void set(Value v) {
+        VALUE.setRelease(this, v);
+    }
+    @Override
+    boolean compareAndSet(Value expected, Value v) {
+        return VALUE.compareAndSet(this, expected, v);
     }
 }
@@ -1,7 +1,11 @@
 package edu.sjsu.fwjs;
 
-import java.util.ArrayList;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * FWJS expressions.
@@ -20,7 +24,7 @@ public interface Expression {
  * FWJS constants.
  */
 class ValueExpr implements Expression {
-    private Value val;
+    final Value val;
     public ValueExpr(Value v) {
         this.val = v;
     }
@@ -33,11 +37,25 @@ class ValueExpr implements Expression {
  * Expressions that are a FWJS variable.
  */
 class VarExpr implements Expression {
-    private String varName;
+    final String varName;
+    final int depth;
+    final int slot;
     public VarExpr(String varName) {
+        this(varName, Environment.DYNAMIC, -1);
+    }
+    /**
+     * A variable whose (depth, slot) coordinate was computed by the Resolver.
+     */
+    public VarExpr(String varName, int depth, int slot) {
         this.varName = varName;
+        this.depth = depth;
+        this.slot = slot;
     }
     public Value evaluate(Environment env) {
+        if (depth >= 0)
+            return env.getSlot(depth, slot, varName);
+        if (depth == Environment.GLOBAL)
+            return env.global().resolveVar(varName);
         return env.resolveVar(varName);
     }
 }
@@ -46,83 +64,307 @@ class VarExpr implements Expression {
  * A print expression.
  */
 class PrintExpr implements Expression {
-    private Expression exp;
+    final Expression exp;
     public PrintExpr(Expression exp) {
         this.exp = exp;
     }
     public Value evaluate(Environment env) {
         Value v = exp.evaluate(env);
-        System.out.println(v.toString());
+        print(v);
         return v;
     }
+    /**
+     * Where print writes on each thread, or null for System.out; see
+     * Interpreter.execute. Per thread, so that the runs of a BatchRunner
+     * each print to their own buffer.
+     */
+    static final ThreadLocal<OutputSink> sink = new ThreadLocal<OutputSink>();
+    static void print(Value v) {
+        OutputSink s = sink.get();
+        if (s != null)
+            s.print(v);
+        else
+            System.out.println(v.toString());
+    }
 }
 /**
  * Binary operators (+, -, *, etc).
  * Currently only numbers are supported.
+ *
+ * The parser creates one subclass per operator through create(). Each
+ * starts uninitialized, specializes to integer operands (or boolean ones,
+ * for ==) on its first execution, and falls back to the generic apply
+ * for good once it sees anything else. That keeps every evaluate method
+ * small and monomorphic for the JIT.
  */
 class BinOpExpr implements Expression {
-    private Op op;
-    private Expression e1;
-    private Expression e2;
+    static final byte UNINITIALIZED = 0;
+    static final byte INT = 1;
+    static final byte BOOL = 2;
+    static final byte GENERIC = 3;
+    private static final VarHandle STATE;
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(BinOpExpr.class, "state", byte.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    final Op op;
+    final Expression e1;
+    final Expression e2;
+    /**
+     * The specialization state, which only ever moves towards GENERIC.
+     * It is changed by compare-and-set, so a node shared by several
+     * threads never moves back; the fast paths read it plainly, as they
+     * check their operands anyway.
+     */
+    byte state = UNINITIALIZED;
     public BinOpExpr(Op op, Expression e1, Expression e2) {
         this.op = op;
         this.e1 = e1;
         this.e2 = e2;
     }
 
-    @SuppressWarnings("incomplete-switch")
+    /**
+     * Returns a node for the operator that specializes itself.
+     */
+    static BinOpExpr create(Op op, Expression e1, Expression e2) {
+        switch (op) {
+            case ADD: return new AddExpr(e1, e2);
+            case SUBTRACT: return new SubtractExpr(e1, e2);
+            case MULTIPLY: return new MultiplyExpr(e1, e2);
+            case DIVIDE: return new DivideExpr(e1, e2);
+            case MOD: return new ModExpr(e1, e2);
+            case GT: return new GtExpr(e1, e2);
+            case GE: return new GeExpr(e1, e2);
+            case LT: return new LtExpr(e1, e2);
+            case LE: return new LeExpr(e1, e2);
+            default: return new EqExpr(e1, e2);
+        }
+    }
+
     public Value evaluate(Environment env) {
         Value a = e1.evaluate(env);
         Value b = e2.evaluate(env);
+        return apply(op, a, b);
+    }
+
+    /**
+     * The slow path of the specialized subclasses: updates the state for
+     * operands the fast path did not take, and applies the operator.
+     */
+    final Value respecialize(Value a, Value b) {
+        for (;;) {
+            byte s = (byte) STATE.getVolatile(this);
+            byte next;
+            if (s == UNINITIALIZED && a instanceof IntVal && b instanceof IntVal)
+                next = INT;
+            else if (s == UNINITIALIZED && op == Op.EQ
+                    && a instanceof BoolVal && b instanceof BoolVal)
+                next = BOOL;
+            else
+                next = GENERIC;
+            if (s == next || STATE.compareAndSet(this, s, next))
+                break;
+        }
+        return apply(op, a, b);
+    }
+
+    /**
+     * Applies a binary operator to two values that were already evaluated.
+     */
+    @SuppressWarnings("incomplete-switch")
+    static Value apply(Op op, Value a, Value b) {
+        if (op == Op.EQ)
+            return BoolVal.valueOf(a.equals(b));
         if (!((a instanceof IntVal) && (b instanceof IntVal)))
             throw new RuntimeException();
         int n1 = ((IntVal) a).toInt();
         int n2 = ((IntVal) b).toInt();
         switch (op) {
             case ADD:
-                return new IntVal(n1 + n2);
+                return IntVal.valueOf(n1 + n2);
             case SUBTRACT:
-                return new IntVal(n1 - n2);
+                return IntVal.valueOf(n1 - n2);
             case MULTIPLY:
-                return new IntVal(n1 * n2);
+                return IntVal.valueOf(n1 * n2);
             case DIVIDE:
-                return new IntVal(n1 / n2);
+                return IntVal.valueOf(n1 / n2);
             case MOD:
-                return new IntVal(n1 % n2);
+                return IntVal.valueOf(n1 % n2);
             case GT:
-                return new BoolVal(n1 > n2);
+                return BoolVal.valueOf(n1 > n2);
             case GE:
-                return new BoolVal(n1 >= n2);
+                return BoolVal.valueOf(n1 >= n2);
             case LT:
-                return new BoolVal(n1 < n2);
+                return BoolVal.valueOf(n1 < n2);
             case LE:
-                return new BoolVal(n1 <= n2);
-            case EQ:
-                return new BoolVal(a.equals(b));
+                return BoolVal.valueOf(n1 <= n2);
             default:
-                return new NullVal();
+                return NullVal.NULL;
         }
     }
 }
 
+/** The + operator. */
+class AddExpr extends BinOpExpr {
+    AddExpr(Expression e1, Expression e2) {
+        super(Op.ADD, e1, e2);
+    }
+    public Value evaluate(Environment env) {
+        Value a = e1.evaluate(env);
+        Value b = e2.evaluate(env);
+        if (state == INT && a instanceof IntVal && b instanceof IntVal)
+            return IntVal.valueOf(((IntVal) a).toInt() + ((IntVal) b).toInt());
+        return respecialize(a, b);
+    }
+}
+
+/** The - operator. */
+class SubtractExpr extends BinOpExpr {
+    SubtractExpr(Expression e1, Expression e2) {
+        super(Op.SUBTRACT, e1, e2);
+    }
+    public Value evaluate(Environment env) {
+        Value a = e1.evaluate(env);
+        Value b = e2.evaluate(env);
+        if (state == INT && a instanceof IntVal && b instanceof IntVal)
+            return IntVal.valueOf(((IntVal) a).toInt() - ((IntVal) b).toInt());
+        return respecialize(a, b);
+    }
+}
+
+/** The * operator. */
+class MultiplyExpr extends BinOpExpr {
+    MultiplyExpr(Expression e1, Expression e2) {
+        super(Op.MULTIPLY, e1, e2);
+    }
+    public Value evaluate(Environment env) {
+        Value a = e1.evaluate(env);
+        Value b = e2.evaluate(env);
+        if (state == INT && a instanceof IntVal && b instanceof IntVal)
+            return IntVal.valueOf(((IntVal) a).toInt() * ((IntVal) b).toInt());
+        return respecialize(a, b);
+    }
+}
+
+/** The / operator. */
+class DivideExpr extends BinOpExpr {
+    DivideExpr(Expression e1, Expression e2) {
+        super(Op.DIVIDE, e1, e2);
+    }
+    public Value evaluate(Environment env) {
+        Value a = e1.evaluate(env);
+        Value b = e2.evaluate(env);
+        if (state == INT && a instanceof IntVal && b instanceof IntVal)
+            return IntVal.valueOf(((IntVal) a).toInt() / ((IntVal) b).toInt());
+        return respecialize(a, b);
+    }
+}
+
+/** The % operator. */
+class ModExpr extends BinOpExpr {
+    ModExpr(Expression e1, Expression e2) {
+        super(Op.MOD, e1, e2);
+    }
+    public Value evaluate(Environment env) {
+        Value a = e1.evaluate(env);
+        Value b = e2.evaluate(env);
+        if (state == INT && a instanceof IntVal && b instanceof IntVal)
+            return IntVal.valueOf(((IntVal) a).toInt() % ((IntVal) b).toInt());
+        return respecialize(a, b);
+    }
+}
+
+/** The > operator. */
+class GtExpr extends BinOpExpr {
+    GtExpr(Expression e1, Expression e2) {
+        super(Op.GT, e1, e2);
+    }
+    public Value evaluate(Environment env) {
+        Value a = e1.evaluate(env);
+        Value b = e2.evaluate(env);
+        if (state == INT && a instanceof IntVal && b instanceof IntVal)
+            return BoolVal.valueOf(((IntVal) a).toInt() > ((IntVal) b).toInt());
+        return respecialize(a, b);
+    }
+}
+
+/** The >= operator. */
+class GeExpr extends BinOpExpr {
+    GeExpr(Expression e1, Expression e2) {
+        super(Op.GE, e1, e2);
+    }
+    public Value evaluate(Environment env) {
+        Value a = e1.evaluate(env);
+        Value b = e2.evaluate(env);
+        if (state == INT && a instanceof IntVal && b instanceof IntVal)
+            return BoolVal.valueOf(((IntVal) a).toInt() >= ((IntVal) b).toInt());
+        return respecialize(a, b);
+    }
+}
+
+/** The < operator. */
+class LtExpr extends BinOpExpr {
+    LtExpr(Expression e1, Expression e2) {
+        super(Op.LT, e1, e2);
+    }
+    public Value evaluate(Environment env) {
+        Value a = e1.evaluate(env);
+        Value b = e2.evaluate(env);
+        if (state == INT && a instanceof IntVal && b instanceof IntVal)
+            return BoolVal.valueOf(((IntVal) a).toInt() < ((IntVal) b).toInt());
+        return respecialize(a, b);
+    }
+}
+
+/** The <= operator. */
+class LeExpr extends BinOpExpr {
+    LeExpr(Expression e1, Expression e2) {
+        super(Op.LE, e1, e2);
+    }
+    public Value evaluate(Environment env) {
+        Value a = e1.evaluate(env);
+        Value b = e2.evaluate(env);
+        if (state == INT && a instanceof IntVal && b instanceof IntVal)
+            return BoolVal.valueOf(((IntVal) a).toInt() <= ((IntVal) b).toInt());
+        return respecialize(a, b);
+    }
+}
+
+/** The == operator, which also specializes to booleans. */
+class EqExpr extends BinOpExpr {
+    EqExpr(Expression e1, Expression e2) {
+        super(Op.EQ, e1, e2);
+    }
+    public Value evaluate(Environment env) {
+        Value a = e1.evaluate(env);
+        Value b = e2.evaluate(env);
+        if (state == INT && a instanceof IntVal && b instanceof IntVal)
+            return BoolVal.valueOf(((IntVal) a).toInt() == ((IntVal) b).toInt());
+        if (state == BOOL && a instanceof BoolVal && b instanceof BoolVal)
+            return BoolVal.valueOf(((BoolVal) a).toBoolean() == ((BoolVal) b).toBoolean());
+        return respecialize(a, b);
+    }
+}
+
 /**
  * If-then-else expressions.
  * Unlike JS, if expressions return a value.
  */
 class IfExpr implements Expression {
-    private Expression cond;
-    private Expression thn;
-    private Expression els;
+    final Expression cond;
+    final Expression thn;
+    final Expression els;
     public IfExpr(Expression cond, Expression thn, Expression els) {
         this.cond = cond;
         this.thn = thn;
         this.els = els;
     }
     public Value evaluate(Environment env) {
-        Value a = cond.evaluate(env);
-        if (!(a instanceof BoolVal) || (!((((BoolVal) a).toBoolean() == true) || (((BoolVal) a).toBoolean() == false))))
-            throw new RuntimeException();
-        return ((BoolVal) a).toBoolean() ? thn.evaluate(env) : els.evaluate(env);
+        return BoolVal.test(cond.evaluate(env)) ? thn.evaluate(env) : els.evaluate(env);
     }
 }
 
@@ -130,21 +372,21 @@ class IfExpr implements Expression {
  * While statements (treated as expressions in FWJS, unlike JS).
  */
 class WhileExpr implements Expression {
-    private Expression cond;
-    private Expression body;
+    final Expression cond;
+    final Expression body;
     public WhileExpr(Expression cond, Expression body) {
         this.cond = cond;
         this.body = body;
     }
+    /**
+     * Runs the loop iteratively, so the Java stack does not grow with the
+     * number of iterations and nothing is allocated besides what the
+     * condition and body allocate themselves.
+     */
     public Value evaluate(Environment env) {
-        Value a = cond.evaluate(env);
-        if (!(a instanceof BoolVal) || (!((((BoolVal) a).toBoolean() == true) || (((BoolVal) a).toBoolean() == false))))
-            throw new RuntimeException();
-        if(((BoolVal) a).toBoolean()) {
+        while (BoolVal.test(cond.evaluate(env)))
             body.evaluate(env);
-            return (new WhileExpr(cond, body)).evaluate(env);
-        }
-        return new NullVal();
+        return NullVal.NULL;
     }
 }
 
@@ -152,8 +394,8 @@ class WhileExpr implements Expression {
  * Sequence expressions (i.e. 2 back-to-back expressions).
  */
 class SeqExpr implements Expression {
-    private Expression e1;
-    private Expression e2;
+    final Expression e1;
+    final Expression e2;
     public SeqExpr(Expression e1, Expression e2) {
         this.e1 = e1;
         this.e2 = e2;
@@ -161,27 +403,69 @@ class SeqExpr implements Expression {
     public Value evaluate(Environment env) {
         Value a = e1.evaluate(env);
         Value b = e2.evaluate(env);
-        if(b == null || (new NullVal()).equals(b))
+        if(b == null || b instanceof NullVal)
             return a;
+        if (b instanceof TailCall)
+            ((TailCall) b).orElse(a);
         return b;
     }
 }
 
+/**
+ * A block or program: statements evaluated in order. Like a chain of
+ * SeqExprs, its value is that of the last statement that is not null,
+ * or of the first statement if they all are; but it is evaluated in a
+ * loop, however many statements there are.
+ */
+class BlockExpr implements Expression {
+    final Expression[] stmts;
+    public BlockExpr(List<Expression> stmts) {
+        this.stmts = stmts.toArray(new Expression[stmts.size()]);
+    }
+    public Value evaluate(Environment env) {
+        Value a = stmts[0].evaluate(env);
+        for (int i = 1; i < stmts.length; i++) {
+            Value b = stmts[i].evaluate(env);
+            if (b == null || b instanceof NullVal)
+                continue;
+            if (b instanceof TailCall)
+                ((TailCall) b).orElse(a);
+            a = b;
+        }
+        return a;
+    }
+}
+
 /**
  * Declaring a variable in the local scope.
  */
 class VarDeclExpr implements Expression {
-    private String varName;
-    private Expression exp;
+    final String varName;
+    final Expression exp;
+    final int slot;
     public VarDeclExpr(String varName, Expression exp) {
+        this(varName, exp, -1);
+    }
+    /**
+     * A declaration of the given slot of the enclosing function's frame.
+     */
+    public VarDeclExpr(String varName, Expression exp, int slot) {
         this.varName = varName;
         this.exp = exp;
+        this.slot = slot;
     }
     public Value evaluate(Environment env) {
         Value a = exp.evaluate(env);
+        declare(env, a);
+        return a;
+    }
+    void declare(Environment env, Value a) {
+        if (slot >= 0) {
+            env.declareSlot(slot, a);
+            return;
+        }
         try { env.createVar(varName, a); }
         catch (Exception e) { throw new RuntimeException(); }
-        return a;
     }
 }
 
@@ -189,57 +473,679 @@ class VarDeclExpr implements Expression {
  * Updating an existing variable.
  * If the variable is not set already, it is added
  * to the global scope.
+ *
+ * An assignment x = x op e to a global, where e is a constant or a
+ * local variable, is an update; in a concurrent global environment it
+ * is made atomically, so that threads counting in a shared global do
+ * not lose each other's increments. Any other e might assign x itself,
+ * so it is evaluated as usual, after x is read.
  */
 class AssignExpr implements Expression {
-    private String varName;
-    private Expression e;
+    final String varName;
+    final Expression e;
+    final int depth;
+    final int slot;
+    /** The right-hand side if this assignment is an atomic update of a global, or null. */
+    final BinOpExpr update;
     public AssignExpr(String varName, Expression e) {
+        this(varName, e, Environment.DYNAMIC, -1);
+    }
+    /**
+     * An assignment whose target coordinate was computed by the Resolver.
+     */
+    public AssignExpr(String varName, Expression e, int depth, int slot) {
         this.varName = varName;
         this.e = e;
+        this.depth = depth;
+        this.slot = slot;
+        this.update = depth == Environment.GLOBAL && e instanceof BinOpExpr
+            && ((BinOpExpr) e).e1 instanceof VarExpr
+            && ((VarExpr) ((BinOpExpr) e).e1).depth == Environment.GLOBAL
+            && ((VarExpr) ((BinOpExpr) e).e1).varName.equals(varName)
+            && isLocal(((BinOpExpr) e).e2)
+            ? (BinOpExpr) e : null;
+    }
+    /** True for a constant or a variable of a function frame, which has no effects. */
+    private static boolean isLocal(Expression e) {
+        return e instanceof ValueExpr || e instanceof VarExpr && ((VarExpr) e).depth >= 0;
     }
     public Value evaluate(Environment env) {
+        if (update != null && env.isConcurrent()) {
+            Value a = update.e1.evaluate(env);
+            return env.global().updateGlobal(varName, update.op, a, update.e2.evaluate(env));
+        }
         Value a = e.evaluate(env);
-        env.updateVar(varName, a);
+        assign(env, a);
         return a;
     }
+    void assign(Environment env, Value a) {
+        if (depth >= 0)
+            env.setSlot(depth, slot, varName, a);
+        else if (depth == Environment.GLOBAL)
+            env.global().updateVar(varName, a);
+        else
+            env.updateVar(varName, a);
+    }
 }
 
 /**
  * A function declaration, which evaluates to a closure.
  */
 class FunctionDeclExpr implements Expression {
-    private List<String> params;
-    private Expression body;
+    final List<String> params;
+    final Expression body;
+    /** Names of the frame slots, or null if the function was not resolved. */
+    final String[] frameNames;
+    /** The frame slot that each parameter is bound to. */
+    final int[] paramSlots;
+    /** True if closures created in the body may capture its frame. */
+    final boolean capturesFrame;
+    /**
+     * Calls counted by the JitCompiler, or -1 once it has tried compiling.
+     * Updated atomically, as are deopts, since any thread may call.
+     */
+    int calls;
+    /** Failed entry checks of the compiled code. */
+    int deopts;
+    /** JVM code generated for the body, or null. Set by the compiler thread. */
+    volatile CompiledFunction compiled;
     public FunctionDeclExpr(List<String> params, Expression body) {
+        this(params, body, null, null, true);
+    }
+    /**
+     * A function whose locals were laid out in an array-backed frame
+     * by the Resolver.
+     */
+    public FunctionDeclExpr(List<String> params, Expression body,
+            String[] frameNames, int[] paramSlots, boolean capturesFrame) {
         this.params = params;
         this.body = body;
+        this.frameNames = frameNames;
+        this.paramSlots = paramSlots;
+        this.capturesFrame = capturesFrame;
     }
     public Value evaluate(Environment env) {
-        return new ClosureVal(params, body, env);
+        return new ClosureVal(this, env);
     }
 }
 
 /**
  * Function application.
+ *
+ * Each call site has an inline cache of the function declarations it
+ * has called, up to cacheSize of them. A declaration enters the cache
+ * once it is known to fit the site: it is resolved, takes as many
+ * parameters as the site passes, and no two parameters share a slot.
+ * Its entry, a CallTarget, is what calls that hit it run: the compiled
+ * code of the declaration, or else its body, bound into a frame without
+ * checking any of that again. A site that sees more declarations than
+ * the cache holds is megamorphic and takes the generic path from then on.
+ *
+ * A site whose callee is a global variable also caches the variable's
+ * binding, so it is not looked up by name on every call.
  */
 class FunctionAppExpr implements Expression {
-    private Expression f;
-    private List<Expression> args;
+    /**
+     * Entries of the inline caches of call sites created from now on, set
+     * with the fwjs.ic.size system property. With 0, every site is
+     * megamorphic.
+     */
+    static int cacheSize = Integer.getInteger("fwjs.ic.size", 4);
+    /** True to count the statistics below, set by -stats. */
+    static boolean counting;
+    /** Inline cache statistics of all call sites, while counting. */
+    static final LongAdder cacheHits = new LongAdder(), cacheMisses = new LongAdder(),
+        megamorphicCalls = new LongAdder();
+
+    private static final VarHandle ENTRY = MethodHandles.arrayElementVarHandle(CallTarget[].class);
+    private static final VarHandle CALLEE_CELL;
+    static {
+        try {
+            CALLEE_CELL = MethodHandles.lookup().findVarHandle(FunctionAppExpr.class,
+                    "calleeCell", GlobalCell.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    final Expression f;
+    final List<Expression> args;
+    /** True if the call is in tail position of a function body. */
+    final boolean tail;
+    private final Expression[] argExprs;
+    /**
+     * Entries are read with acquire and added with compare-and-set, as
+     * threads running the same code share its call sites; calleeCell is
+     * read and written with acquire and release.
+     */
+    private final CallTarget[] cache = new CallTarget[cacheSize];
+    private volatile boolean megamorphic;
+    /** The name of the callee if it is a global variable, or null. */
+    private final String globalCallee;
+    private GlobalCell calleeCell;
     public FunctionAppExpr(Expression f, List<Expression> args) {
+        this(f, args, false);
+    }
+    public FunctionAppExpr(Expression f, List<Expression> args, boolean tail) {
+        this.f = f;
+        this.args = args;
+        this.tail = tail;
+        this.argExprs = args.toArray(new Expression[args.size()]);
+        this.globalCallee = f instanceof VarExpr && ((VarExpr) f).depth == Environment.GLOBAL
+            ? ((VarExpr) f).varName : null;
+    }
+    /**
+     * Tail calls are not made here; they return a TailCall that the
+     * enclosing ClosureVal.apply runs without growing the Java stack.
+     */
+    public Value evaluate(Environment env) {
+        Value a = globalCallee != null ? globalCallee(env) : f.evaluate(env);
+        if (!(a instanceof ClosureVal))
+            throw new RuntimeException();
+        ClosureVal fn = (ClosureVal) a;
+        Value[] vals = new Value[argExprs.length];
+        for (int i = 0; i < vals.length; i++)
+            vals[i] = argExprs[i].evaluate(env);
+        CallTarget target = lookup(fn.decl());
+        if (tail)
+            return new TailCall(fn, vals, target != null);
+        try {
+            return target != null ? target.call(fn, vals) : fn.call(vals);
+        } catch(Exception e) { throw new RuntimeException(); }
+    }
+
+    /**
+     * Returns the entry of this site's inline cache for the declaration,
+     * adding one if it fits and there is room, or null. An entry is made
+     * again when the compiled code of its declaration has changed.
+     */
+    private CallTarget lookup(FunctionDeclExpr decl) {
+        if (megamorphic) {
+            if (counting) megamorphicCalls.increment();
+            return null;
+        }
+        CallTarget[] c = cache;
+        for (int i = 0; i < c.length; ) {
+            CallTarget t = (CallTarget) ENTRY.getAcquire(c, i);
+            if (t != null && t.decl == decl) {
+                if (counting) cacheHits.increment();
+                CompiledFunction code = decl.compiled;
+                if (t.code != code) {
+                    CallTarget u = new CallTarget(decl, code);
+                    // Another thread may have made a newer one already.
+                    ENTRY.compareAndSet(c, i, t, u);
+                    return u;
+                }
+                return t;
+            }
+            if (t == null) {
+                if (!fits(decl)) {
+                    if (counting) cacheMisses.increment();
+                    return null;
+                }
+                CallTarget u = new CallTarget(decl, decl.compiled);
+                // Look at this entry again if another thread filled it first.
+                if (ENTRY.compareAndSet(c, i, null, u)) {
+                    if (counting) cacheMisses.increment();
+                    return u;
+                }
+                continue;
+            }
+            i++;
+        }
+        if (counting) cacheMisses.increment();
+        megamorphic = true;
+        return null;
+    }
+
+    private Value globalCallee(Environment env) {
+        Environment globals = env.global();
+        GlobalCell c = (GlobalCell) CALLEE_CELL.getAcquire(this);
+        if (c == null || c.globals != globals) {
+            Binding b = globals.lookupBinding(globalCallee);
+            if (b == null)
+                return f.evaluate(env);
+            CALLEE_CELL.setRelease(this, c = new GlobalCell(globals, b));
+        }
+        return c.binding.get();
+    }
+
+    private boolean fits(FunctionDeclExpr decl) {
+        if (decl.frameNames == null || decl.paramSlots.length != argExprs.length)
+            return false;
+        for (int i = 0; i < decl.paramSlots.length; i++)
+            for (int j = 0; j < i; j++)
+                if (decl.paramSlots[i] == decl.paramSlots[j])
+                    return false;
+        return true;
+    }
+}
+
+/**
+ * An entry of a call site's inline cache: what calls of one function
+ * declaration that fits the site run. That is the compiled code of the
+ * declaration if it had some when the entry was made, or else the body.
+ */
+final class CallTarget {
+    final FunctionDeclExpr decl;
+    /** The compiled code of decl, or null. */
+    final CompiledFunction code;
+    CallTarget(FunctionDeclExpr decl, CompiledFunction code) {
+        this.decl = decl;
+        this.code = code;
+    }
+    /** Calls fn, a closure of decl, with arguments that fit it. */
+    Value call(ClosureVal fn, Value[] args) {
+        CompiledFunction c = code != null ? code : JitCompiler.codeFor(decl, args);
+        if (c != null) {
+            Value r = c.call(args, fn.env());
+            if (r != null)
+                return fn.finish(r, null);
+            JitCompiler.deoptimize(decl);
+        }
+        Environment frame = fn.bindChecked(args);
+        return fn.finish(decl.body.evaluate(frame), frame);
+    }
+}
+
+/**
+ * async f(args): evaluates the function and its arguments, then calls it
+ * on another thread and returns the future of the result. See Async.
+ */
+class AsyncExpr implements Expression {
+    final Expression f;
+    final List<Expression> args;
+    public AsyncExpr(Expression f, List<Expression> args) {
         this.f = f;
         this.args = args;
     }
     public Value evaluate(Environment env) {
         Value a = f.evaluate(env);
-        if (!(a instanceof ClosureVal) || a == null)
+        if (!(a instanceof ClosureVal))
             throw new RuntimeException();
-        Value b = new NullVal();
-        List<Value> valueList = new ArrayList<Value>();
-        for(int i = 0; i < args.size(); i++)
-            valueList.add((args.get(i)).evaluate(env));
+        Value[] vals = new Value[args.size()];
+        for (int i = 0; i < vals.length; i++)
+            vals[i] = args.get(i).evaluate(env);
+        return Async.start((ClosureVal) a, vals);
+    }
+}
+
+/**
+ * await e: waits for the future e and returns its result, or rethrows
+ * what the call threw. Any other value is returned as it is.
+ */
+class AwaitExpr implements Expression {
+    final Expression exp;
+    public AwaitExpr(Expression exp) {
+        this.exp = exp;
+    }
+    public Value evaluate(Environment env) {
+        Value v = exp.evaluate(env);
+        if (v instanceof FutureVal)
+            return ((FutureVal) v).await();
+        return v;
+    }
+}
+
+/**
+ * par { b1 b2 ... }: runs its branches in parallel, and ends when all of
+ * them have; its value is null. Each branch is a statement or a block,
+ * and hands its results back in variables, which it may declare: they
+ * belong to the enclosing function, as vars in any other block do.
+ *
+ * All branches but the first are forked as ForkJoinTasks, and the first
+ * runs on the current thread, which then joins the others, running any
+ * that no idle worker stole. Tasks are forked to the pool the current
+ * thread works for, or else to the common pool.
+ *
+ * A par that finds its thread still has more than -Dfwjs.par.surplus
+ * (default 3) forked tasks that nobody stole runs its branches one after
+ * the other instead: the pool is busy enough, and a fork would only add
+ * overhead. Recursive code should still stop using par below some size
+ * of problem, by calling a plain version of itself; functions with a par
+ * are left to the tree walker, while the JitCompiler compiles that one.
+ *
+ * If branches fail, the par still waits for all of them, then rethrows
+ * the error of the first.
+ *
+ * par(f, g, ...) is the same with a call of each function, without
+ * arguments, as the branches, and its value is an array of their results.
+ */
+class ParExpr implements Expression {
+    static int surplus = Integer.getInteger("fwjs.par.surplus", 3);
+
+    final List<Expression> branches;
+    /** True for par(f, g, ...), whose value is an array of the branch values. */
+    final boolean values;
+    private final Expression[] branchExprs;
+    public ParExpr(List<Expression> branches) {
+        this(branches, false);
+    }
+    public ParExpr(List<Expression> branches, boolean values) {
+        this.branches = branches;
+        this.values = values;
+        this.branchExprs = branches.toArray(new Expression[branches.size()]);
+    }
+    public Value evaluate(Environment env) {
+        Value[] results = new Value[branchExprs.length];
+        if (branchExprs.length > 1 && ForkJoinTask.getSurplusQueuedTaskCount() <= surplus)
+            fork(env, results);
+        else
+            for (int i = 0; i < results.length; i++)
+                results[i] = branchExprs[i].evaluate(env);
+        return values ? ArrayVal.of(results) : NullVal.NULL;
+    }
+
+    private void fork(Environment env, Value[] results) {
+        OutputSink sink = PrintExpr.sink.get();
+        ForkJoinTask<Value>[] tasks = newTasks(branchExprs.length);
+        for (int i = tasks.length - 1; i > 0; i--)
+            tasks[i] = task(branchExprs[i], env, sink).fork();
+        Throwable failure = null;
         try {
-            b = ((ClosureVal) a).apply(valueList);
-        } catch(Exception e) { throw new RuntimeException(); }
-        return b;
+            results[0] = branchExprs[0].evaluate(env);
+        } catch (RuntimeException | Error e) {
+            failure = e;
+        }
+        // In the reverse order of the forks, so that each task not yet
+        // stolen is on top of this thread's deque, and runs right here.
+        for (int i = 1; i < tasks.length; i++) {
+            try {
+                results[i] = tasks[i].join();
+            } catch (RuntimeException | Error e) {
+                if (failure == null) failure = e;
+            }
+        }
+        if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+        if (failure != null) throw (Error) failure;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ForkJoinTask<Value>[] newTasks(int n) {
+        return (ForkJoinTask<Value>[]) new ForkJoinTask<?>[n];
+    }
+
+    /** A task evaluating exp, which prints to the given sink. */
+    private static ForkJoinTask<Value> task(Expression exp, Environment env, OutputSink sink) {
+        return ForkJoinTask.adapt(() -> {
+            OutputSink saved = PrintExpr.sink.get();
+            PrintExpr.sink.set(sink);
+            try {
+                return exp.evaluate(env);
+            } finally {
+                PrintExpr.sink.set(saved);
+            }
+        });
+    }
+}
+
+/**
+ * spawn f(args): calls the top-level function f in a new isolate, and
+ * returns the future of its result. See Isolate.
+ */
+class SpawnExpr implements Expression {
+    final Expression f;
+    final List<Expression> args;
+    public SpawnExpr(Expression f, List<Expression> args) {
+        this.f = f;
+        this.args = args;
     }
-}
\ No newline at end of file
+    public Value evaluate(Environment env) {
+        Value a = f.evaluate(env);
+        if (!(a instanceof ClosureVal))
+            throw new RuntimeException();
+        Value[] vals = new Value[args.size()];
+        for (int i = 0; i < vals.length; i++)
+            vals[i] = args.get(i).evaluate(env);
+        return Isolate.spawn((ClosureVal) a, vals);
+    }
+}
+
+/**
+ * The channel operations chan(n), send(c, v), recv(c) and close(c). See
+ * ChannelVal. send and close evaluate to null.
+ */
+class ChannelExpr implements Expression {
+    enum Kind { CHAN, SEND, RECV, CLOSE }
+
+    final Kind kind;
+    final List<Expression> args;
+    public ChannelExpr(Kind kind, List<Expression> args) {
+        this.kind = kind;
+        this.args = args;
+    }
+    public Value evaluate(Environment env) {
+        Value a = args.get(0).evaluate(env);
+        if (kind == Kind.CHAN) {
+            if (!(a instanceof IntVal))
+                throw new RuntimeException();
+            return new ChannelVal(((IntVal) a).toInt());
+        }
+        if (!(a instanceof ChannelVal))
+            throw new RuntimeException();
+        ChannelVal c = (ChannelVal) a;
+        switch (kind) {
+            case SEND:
+                c.send(args.get(1).evaluate(env));
+                return NullVal.NULL;
+            case RECV:
+                return c.recv();
+            default:
+                c.close();
+                return NullVal.NULL;
+        }
+    }
+}
+
+/**
+ * An array literal [e1, ..., en], which makes a new ArrayVal each time
+ * it is evaluated. The elements of a literal that are all integer
+ * constants are kept in an int[], which each evaluation only copies.
+ */
+class ArrayExpr implements Expression {
+    final List<Expression> elems;
+    private final int[] constants;
+    public ArrayExpr(List<Expression> elems) {
+        this.elems = elems;
+        this.constants = constants(elems);
+    }
+    private static int[] constants(List<Expression> elems) {
+        int[] ints = new int[elems.size()];
+        for (int i = 0; i < ints.length; i++) {
+            Expression e = elems.get(i);
+            if (!(e instanceof ValueExpr && ((ValueExpr) e).val instanceof IntVal))
+                return null;
+            ints[i] = ((IntVal) ((ValueExpr) e).val).toInt();
+        }
+        return ints;
+    }
+    public Value evaluate(Environment env) {
+        if (constants != null)
+            return new ArrayVal(constants.clone());
+        Value[] vals = new Value[elems.size()];
+        for (int i = 0; i < vals.length; i++)
+            vals[i] = elems.get(i).evaluate(env);
+        return ArrayVal.of(vals);
+    }
+    /** True if the elements are integer constants, which need no evaluation. */
+    boolean isConstant() {
+        return constants != null;
+    }
+    /** A new array of the constants, or of the values vals[from] onwards. */
+    ArrayVal make(Value[] vals, int from) {
+        if (constants != null)
+            return new ArrayVal(constants.clone());
+        return ArrayVal.of(Arrays.copyOfRange(vals, from, from + elems.size()));
+    }
+}
+
+/**
+ * Reading an element of an array, a[i].
+ */
+class IndexExpr implements Expression {
+    final Expression array;
+    final Expression index;
+    public IndexExpr(Expression array, Expression index) {
+        this.array = array;
+        this.index = index;
+    }
+    public Value evaluate(Environment env) {
+        Value a = array.evaluate(env);
+        Value i = index.evaluate(env);
+        if (!(a instanceof ArrayVal) || !(i instanceof IntVal))
+            throw new RuntimeException();
+        return ((ArrayVal) a).get(((IntVal) i).toInt());
+    }
+}
+
+/**
+ * Storing into an element of an array, a[i] = e. Like an assignment to
+ * a variable, it evaluates to the value stored.
+ */
+class IndexAssignExpr implements Expression {
+    final Expression array;
+    final Expression index;
+    final Expression e;
+    public IndexAssignExpr(Expression array, Expression index, Expression e) {
+        this.array = array;
+        this.index = index;
+        this.e = e;
+    }
+    public Value evaluate(Environment env) {
+        Value a = array.evaluate(env);
+        Value i = index.evaluate(env);
+        Value v = e.evaluate(env);
+        if (!(a instanceof ArrayVal) || !(i instanceof IntVal))
+            throw new RuntimeException();
+        ((ArrayVal) a).set(((IntVal) i).toInt(), v);
+        return v;
+    }
+}
+
+/**
+ * An object literal {n1: e1, ..., nk: ek}, which makes a new ObjectVal
+ * each time it is evaluated. Its shape is worked out once, here, so
+ * every object of a literal has the same one. A name given twice keeps
+ * its first place and its last value.
+ */
+class ObjectExpr implements Expression {
+    final List<String> names;
+    final List<Expression> values;
+    private final Shape shape;
+    /** The slot of each value. */
+    private final int[] slots;
+    public ObjectExpr(List<String> names, List<Expression> values) {
+        this.names = names;
+        this.values = values;
+        Shape s = Shape.EMPTY;
+        slots = new int[names.size()];
+        for (int i = 0; i < slots.length; i++) {
+            int slot = s.slot(names.get(i));
+            if (slot < 0) {
+                slot = s.size();
+                s = s.with(names.get(i));
+            }
+            slots[i] = slot;
+        }
+        shape = s;
+    }
+    public Value evaluate(Environment env) {
+        Value[] vals = new Value[slots.length];
+        for (int i = 0; i < vals.length; i++)
+            vals[i] = values.get(i).evaluate(env);
+        return make(vals);
+    }
+    /** A new object with the values of the properties, in source order. */
+    ObjectVal make(Value[] vals) {
+        return make(vals, 0);
+    }
+    /** Like make(vals), with the values from vals[from] onwards. */
+    ObjectVal make(Value[] vals, int from) {
+        Value[] slotVals = new Value[shape.size()];
+        for (int i = 0; i < slots.length; i++)
+            slotVals[slots[i]] = vals[from + i];
+        return new ObjectVal(shape, slotVals);
+    }
+}
+
+/**
+ * Reading a property, e.name: of an object, or the length of an array.
+ * The node keeps an inline cache of the slot the property has in the
+ * shapes of the last objects it read, so reading the same property of
+ * objects of a few shapes looks nothing up.
+ */
+class PropertyExpr implements Expression {
+    final Expression obj;
+    final String name;
+    private final boolean isLength;
+    private Shape.Cache cache;
+    public PropertyExpr(Expression obj, String name) {
+        this.obj = obj;
+        this.name = name;
+        this.isLength = name.equals("length");
+    }
+    public Value evaluate(Environment env) {
+        return get(obj.evaluate(env));
+    }
+    /** The property of v. */
+    Value get(Value v) {
+        if (v instanceof ObjectVal) {
+            ObjectVal o = (ObjectVal) v;
+            Shape s = o.shape();
+            Shape.Cache c = Shape.Cache.find(cache, s);
+            if (c != null)
+                return o.slot(c.slot);
+            if (s == null)
+                return o.get(name);
+            int slot = s.slot(name);
+            cache = Shape.Cache.add(cache, s, slot, s);
+            return o.slot(slot);
+        }
+        if (isLength && v instanceof ArrayVal)
+            return IntVal.valueOf(((ArrayVal) v).length());
+        throw new RuntimeException("no property " + name);
+    }
+}
+
+/**
+ * Storing into a property of an object, o.name = e, which adds it if the
+ * object does not have it. Like an assignment to a variable, it evaluates
+ * to the value stored. The node caches, for the shapes of the last
+ * objects it stored into, the slot of the property and the shape after
+ * the store.
+ */
+class PropertyAssignExpr implements Expression {
+    final Expression obj;
+    final String name;
+    final Expression e;
+    private Shape.Cache cache;
+    public PropertyAssignExpr(Expression obj, String name, Expression e) {
+        this.obj = obj;
+        this.name = name;
+        this.e = e;
+    }
+    public Value evaluate(Environment env) {
+        Value o = obj.evaluate(env);
+        return put(o, e.evaluate(env));
+    }
+    /** Stores v into the property of o, and returns v. */
+    Value put(Value o, Value v) {
+        if (!(o instanceof ObjectVal))
+            throw new RuntimeException("cannot set property " + name);
+        ObjectVal ov = (ObjectVal) o;
+        Shape s = ov.shape();
+        Shape.Cache c = Shape.Cache.find(cache, s);
+        if (c == null) {
+            if (s == null) {
+                ov.put(name, v);
+                return v;
+            }
+            int slot = s.slot(name);
+            c = slot >= 0 ? Shape.Cache.add(cache, s, slot, s)
+                : Shape.Cache.add(cache, s, s.size(), s.with(name));
+            cache = c;
+        }
+        ov.store(c.slot, c.next, v);
+        return v;
+    }
+}
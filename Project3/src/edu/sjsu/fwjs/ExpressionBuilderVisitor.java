@@ -3,6 +3,8 @@ package edu.sjsu.fwjs;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.antlr.v4.runtime.tree.TerminalNode;
+
 import edu.sjsu.fwjs.parser.FeatherweightJavaScriptBaseVisitor;
 import edu.sjsu.fwjs.parser.FeatherweightJavaScriptParser;
 
@@ -10,11 +12,11 @@ public class ExpressionBuilderVisitor extends FeatherweightJavaScriptBaseVisitor
     @Override
     public Expression visitProg(FeatherweightJavaScriptParser.ProgContext ctx) {
         List<Expression> stmts = new ArrayList<Expression>();
-        for (int i=0; i<ctx.stat().size(); i++) {
-            Expression exp = visit(ctx.stat(i));
+        for (FeatherweightJavaScriptParser.StatContext stat : ctx.stat()) {
+            Expression exp = visit(stat);
             if (exp != null) stmts.add(exp);
         }
-        return listToSeqExp(stmts);
+        return listToBlock(stmts);
     }
 
     @Override
@@ -25,22 +27,17 @@ public class ExpressionBuilderVisitor extends FeatherweightJavaScriptBaseVisitor
     @Override
     public Expression visitIfThenElse(FeatherweightJavaScriptParser.IfThenElseContext ctx) {
         Expression cond = visit(ctx.expr());
-        Expression thn = visit(ctx.block(0));
-        Expression els = visit(ctx.block(1));
+        Expression thn = orNull(visit(ctx.block(0)));
+        if (ctx.block().size() < 2)
+            return new IfExpr(cond, thn, new ValueExpr(NullVal.NULL));
+        Expression els = orNull(visit(ctx.block(1)));
         return new IfExpr(cond, thn, els);
     }
 
-    @Override
-    public Expression visitIfThen(FeatherweightJavaScriptParser.IfThenContext ctx) {
-        Expression cond = visit(ctx.expr());
-        Expression thn = visit(ctx.block());
-        return new IfExpr(cond, thn, null);
-    }
-
     @Override
     public Expression visitInt(FeatherweightJavaScriptParser.IntContext ctx) {
         int val = Integer.valueOf(ctx.INT().getText());
-        return new ValueExpr(new IntVal(val));
+        return new ValueExpr(IntVal.valueOf(val));
     }
 
     @Override
@@ -53,9 +50,9 @@ public class ExpressionBuilderVisitor extends FeatherweightJavaScriptBaseVisitor
         List<Expression> stmts = new ArrayList<Expression>();
         for (int i=1; i<ctx.getChildCount()-1; i++) {
             Expression exp = visit(ctx.getChild(i));
-            stmts.add(exp);
+            if (exp != null) stmts.add(exp);
         }
-        return listToSeqExp(stmts);
+        return listToBlock(stmts);
     }
 
      @Override
@@ -66,7 +63,7 @@ public class ExpressionBuilderVisitor extends FeatherweightJavaScriptBaseVisitor
     @Override
     public Expression visitWhile(FeatherweightJavaScriptParser.WhileContext ctx){
         Expression cond = visit(ctx.expr());
-        Expression body = visit(ctx.block());
+        Expression body = orNull(visit(ctx.block()));
         return new WhileExpr(cond, body);
     }
 
@@ -76,6 +73,16 @@ public class ExpressionBuilderVisitor extends FeatherweightJavaScriptBaseVisitor
     	return new PrintExpr(expr);
     }
 
+    @Override
+    public Expression visitPar(FeatherweightJavaScriptParser.ParContext ctx){
+        List<Expression> branches = new ArrayList<Expression>();
+        for (FeatherweightJavaScriptParser.BlockContext b : ctx.block()) {
+            Expression exp = visit(b);
+            if (exp != null) branches.add(exp);
+        }
+        return new ParExpr(branches);
+    }
+
     @Override
     public Expression visitMulDivMod(FeatherweightJavaScriptParser.MulDivModContext ctx){
         Expression lhs = visit(ctx.expr(0));
@@ -133,45 +140,107 @@ public class ExpressionBuilderVisitor extends FeatherweightJavaScriptBaseVisitor
                 default: op= null;
                          break;
         }
-        return new BinOpExpr(op, lhs, rhs);
+        return BinOpExpr.create(op, lhs, rhs);
     }
 
 
      @Override
      public Expression visitFunctionDeclrExpr(FeatherweightJavaScriptParser.FunctionDeclrExprContext ctx){
-         List<String> params = new ArrayList<String>();
-         for (int i = 0; i < ctx.getChildCount(); i++) {
-             String param = String.valueOf(ctx.getChild(i));
-             if (param != null) params.add(param);
-         }
+         List<String> params = paramNames(ctx.parameter());
        	Expression body = visit(ctx.block());
-       	return new FunctionDeclExpr(params, body);
+       	return new FunctionDeclExpr(params, orNull(body));
      }
 
     @Override
     public Expression visitVarDeclrExpr(FeatherweightJavaScriptParser.VarDeclrExprContext ctx){
     	Expression expr = visit(ctx.expr());
     	String varName = ctx.ID().getText();
-        int op = ctx.op.getType();
-        if (op == FeatherweightJavaScriptParser.EQ) {
-          return new VarDeclExpr(varName, expr);
-        }
-        return null;
-
+        return new VarDeclExpr(varName, expr);
     }
 
     @Override
     public Expression visitFuncApp(FeatherweightJavaScriptParser.FuncAppContext ctx){
         Expression f = visit(ctx.expr());
+        List<Expression> args = argExprs(ctx.argument());
+        return new FunctionAppExpr(f, args);
+    }
+
+    @Override
+    public Expression visitIndex(FeatherweightJavaScriptParser.IndexContext ctx){
+        return new IndexExpr(visit(ctx.expr(0)), visit(ctx.expr(1)));
+    }
+
+    @Override
+    public Expression visitStore(FeatherweightJavaScriptParser.StoreContext ctx){
+        if (ctx.ID() != null)
+            return new PropertyAssignExpr(visit(ctx.expr(0)), ctx.ID().getText(), visit(ctx.expr(1)));
+        return new IndexAssignExpr(visit(ctx.expr(0)), visit(ctx.expr(1)), visit(ctx.expr(2)));
+    }
+
+    @Override
+    public Expression visitProperty(FeatherweightJavaScriptParser.PropertyContext ctx){
+        return new PropertyExpr(visit(ctx.expr()), ctx.ID().getText());
+    }
+
+    @Override
+    public Expression visitAsyncCall(FeatherweightJavaScriptParser.AsyncCallContext ctx){
+        return asyncExpr(visit(ctx.expr()));
+    }
+
+    /**
+     * async f(args) calls f on another thread; async e on anything but a
+     * call calls the function e with no arguments.
+     */
+    static AsyncExpr asyncExpr(Expression e) {
+        if (e instanceof FunctionAppExpr) {
+            FunctionAppExpr call = (FunctionAppExpr) e;
+            return new AsyncExpr(call.f, call.args);
+        }
+        return new AsyncExpr(e, new ArrayList<Expression>());
+    }
+
+    @Override
+    public Expression visitSpawnCall(FeatherweightJavaScriptParser.SpawnCallContext ctx){
+        AsyncExpr call = asyncExpr(visit(ctx.expr()));
+        return new SpawnExpr(call.f, call.args);
+    }
+
+    @Override
+    public Expression visitChannelOp(FeatherweightJavaScriptParser.ChannelOpContext ctx){
         List<Expression> args = new ArrayList<Expression>();
+        for (FeatherweightJavaScriptParser.ExprContext e : ctx.expr())
+            args.add(visit(e));
+        return new ChannelExpr(channelKind(ctx.op.getType()), args);
+    }
 
-        for(int i = 1; i < ctx.getChildCount()-1; i++)
-        {
-            Expression exp = visit(ctx.getChild(i));
-            args.add(exp);
+    private static ChannelExpr.Kind channelKind(int type) {
+        switch (type) {
+            case FeatherweightJavaScriptParser.CHAN: return ChannelExpr.Kind.CHAN;
+            case FeatherweightJavaScriptParser.SEND: return ChannelExpr.Kind.SEND;
+            case FeatherweightJavaScriptParser.RECV: return ChannelExpr.Kind.RECV;
+            default: return ChannelExpr.Kind.CLOSE;
         }
+    }
 
-        return new FunctionAppExpr(f, args);
+    @Override
+    public Expression visitParValues(FeatherweightJavaScriptParser.ParValuesContext ctx){
+        List<Expression> fns = new ArrayList<Expression>();
+        for (FeatherweightJavaScriptParser.ExprContext e : ctx.expr())
+            fns.add(visit(e));
+        return parValues(fns);
+    }
+
+    /** par(f, g, ...), whose branches call each function without arguments. */
+    static ParExpr parValues(List<Expression> fns) {
+        List<Expression> branches = new ArrayList<Expression>(fns.size());
+        for (Expression f : fns)
+            branches.add(new FunctionAppExpr(f, new ArrayList<Expression>()));
+        return new ParExpr(branches, true);
+    }
+
+    @Override
+    public Expression visitAwaitExpr(FeatherweightJavaScriptParser.AwaitExprContext ctx){
+        return new AwaitExpr(visit(ctx.expr()));
     }
 
     @Override
@@ -190,55 +259,79 @@ public class ExpressionBuilderVisitor extends FeatherweightJavaScriptBaseVisitor
     @Override
     public Expression visitBool(FeatherweightJavaScriptParser.BoolContext ctx){
         boolean val = Boolean.valueOf(ctx.BOOL().getText());
-        return new ValueExpr(new BoolVal(val));
+        return new ValueExpr(BoolVal.valueOf(val));
     }
 
     @Override
     public Expression visitNull(FeatherweightJavaScriptParser.NullContext ctx){
-        Object val = ctx.getText();
-        return new ValueExpr(null);
+        return new ValueExpr(NullVal.NULL);
     }
 
     @Override
-    public Expression visitWithParam(FeatherweightJavaScriptParser.WithParamContext ctx){
-        List<String> params = new ArrayList<String>();
-        for (int i=0; i<ctx.ID().size(); i++) {
-            String param = String.valueOf(ctx.ID(i));
-            if (param != null) params.add(param);
-        }
-        return new FunctionDeclExpr(params, null);    }
+    public Expression visitArrayLit(FeatherweightJavaScriptParser.ArrayLitContext ctx){
+        List<Expression> elems = new ArrayList<Expression>();
+        for (FeatherweightJavaScriptParser.ExprContext e : ctx.expr())
+            elems.add(visit(e));
+        return new ArrayExpr(elems);
+    }
 
     @Override
-    public Expression visitEmptyParam(FeatherweightJavaScriptParser.EmptyParamContext ctx){
-    	return null;
+    public Expression visitObjectLit(FeatherweightJavaScriptParser.ObjectLitContext ctx){
+        List<String> names = new ArrayList<String>();
+        List<Expression> values = new ArrayList<Expression>();
+        for (TerminalNode id : ctx.ID())
+            names.add(id.getText());
+        for (FeatherweightJavaScriptParser.ExprContext e : ctx.expr())
+            values.add(visit(e));
+        return new ObjectExpr(names, values);
     }
 
-    @Override
-    public Expression visitWithArg(FeatherweightJavaScriptParser.WithArgContext ctx){
+    /**
+     * Collects the parameter names of a function declaration.
+     */
+    private List<String> paramNames(FeatherweightJavaScriptParser.ParameterContext ctx) {
+        List<String> params = new ArrayList<String>();
+        if (ctx instanceof FeatherweightJavaScriptParser.WithParamContext) {
+            FeatherweightJavaScriptParser.WithParamContext wp =
+                (FeatherweightJavaScriptParser.WithParamContext) ctx;
+            for (TerminalNode id : wp.ID()) {
+                params.add(id.getText());
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Builds the argument expressions of a function application.
+     */
+    private List<Expression> argExprs(FeatherweightJavaScriptParser.ArgumentContext ctx) {
         List<Expression> exprs = new ArrayList<Expression>();
-        for (int i=0; i<ctx.expr().size(); i++) {
-            Expression expr = visit(ctx.expr(i));
-            exprs.add(expr);
+        if (ctx instanceof FeatherweightJavaScriptParser.WithArgContext) {
+            FeatherweightJavaScriptParser.WithArgContext wa =
+                (FeatherweightJavaScriptParser.WithArgContext) ctx;
+            for (FeatherweightJavaScriptParser.ExprContext arg : wa.expr()) {
+                exprs.add(visit(arg));
+            }
         }
-        return new FunctionAppExpr(null, exprs);
+        return exprs;
     }
 
-    @Override
-    public Expression visitEmptyArg(FeatherweightJavaScriptParser.EmptyArgContext ctx){
-    	return null;
+    /**
+     * Empty blocks build to no expression at all; they evaluate to null.
+     */
+    private Expression orNull(Expression exp) {
+        if (exp == null) return new ValueExpr(NullVal.NULL);
+        return exp;
     }
 
     /**
-     * Converts a list of expressions to one sequence expression,
+     * Converts a list of expressions to one block expression,
      * if the list contained more than one expression.
      */
-    private Expression listToSeqExp(List<Expression> stmts) {
+    private Expression listToBlock(List<Expression> stmts) {
         if (stmts.isEmpty()) return null;
-        Expression exp = stmts.get(0);
-        for (int i=1; i<stmts.size(); i++) {
-            exp = new SeqExpr(exp, stmts.get(i));
-        }
-        return exp;
+        if (stmts.size() == 1) return stmts.get(0);
+        return new BlockExpr(stmts);
     }
 
     @Override
@@ -1,31 +1,283 @@
 package edu.sjsu.fwjs;
 
 import org.antlr.v4.runtime.*;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.antlr.v4.runtime.tree.ParseTree;
 
 import edu.sjsu.fwjs.parser.FeatherweightJavaScriptLexer;
 import edu.sjsu.fwjs.parser.FeatherweightJavaScriptParser;
 
+import java.io.BufferedOutputStream;
 import java.io.FileInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 public class Interpreter {
+    /** False to parse with full LL prediction only, set by -Dfwjs.parser.ll=true. */
+    static boolean sllFirst = !Boolean.getBoolean("fwjs.parser.ll");
 
+    /**
+     * Usage: Interpreter [-stack] [-direct | -stream] [-stats]
+     *                    [-out output] [file]
+     *        Interpreter -batch [-stack] [-direct] [-stats]
+     *                    [-out output] (file | @manifest)...
+     *
+     *   -stack   evaluate with the StackMachine, which keeps continuations
+     *            on the heap so recursion depth is only limited by memory
+     *   -direct  parse with the hand-written DirectParser instead of
+     *            ANTLR, which is still used to report syntax errors
+     *   -stream  parse and run one top-level statement at a time, in
+     *            constant memory, for very long or endless input; a
+     *            syntax error is only found once the statements before
+     *            it have run
+     *   -stats   print the number of nodes the Optimizer removed, and
+     *            inline cache hits and misses of call sites, to standard
+     *            error when the program ends
+     *   -out     print to the output file, through a FileChannel,
+     *            instead of to standard output
+     *   -batch   run every file, and every job of the manifests, on a
+     *            pool of -Dfwjs.batch.threads threads, and print their
+     *            output in order; see BatchRunner. -stats prints how long
+     *            the batch took
+     *
+     * A program with async calls or par runs them on other threads, in a
+     * concurrent global Environment, and ends once they all have; see
+     * Async and ParExpr.
+     *
+     * The tree walker compiles hot functions with the JitCompiler; set
+     * -Dfwjs.jit.threshold=-1 to turn that off.
+     *
+     * With -Dfwjs.cache.dir=DIR, parsed programs are kept in an AstCache
+     * in DIR, so that an unchanged script is not parsed again.
+     *
+     * What the program prints goes through an OutputSink, which is
+     * flushed when the program ends or fails.
+     *
+     * To run many short scripts without starting a JVM for each, see
+     * Daemon and DaemonClient.
+     */
     public static void main(String[] args) throws Exception {
+        execute(args, System.in);
+    }
+
+    /**
+     * Runs the Interpreter with the given arguments, reading the program
+     * from in if they do not name a file.
+     */
+    static void execute(String[] args, InputStream in) throws Exception {
         String inputFile = null;
-        if (args.length>0) inputFile = args[0];
-        InputStream is = System.in;
-        if (inputFile!=null) is = new FileInputStream(inputFile);
+        String outputFile = null;
+        boolean stack = false;
+        boolean stats = false;
+        boolean direct = false;
+        boolean stream = false;
+        boolean batch = false;
+        List<String> inputs = new ArrayList<String>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("-stack")) stack = true;
+            else if (arg.equals("-stats")) stats = true;
+            else if (arg.equals("-direct")) direct = true;
+            else if (arg.equals("-stream")) stream = true;
+            else if (arg.equals("-batch")) batch = true;
+            else if (arg.equals("-out") && i + 1 < args.length) outputFile = args[++i];
+            else inputs.add(inputFile = arg);
+        }
+        if (batch) {
+            runBatch(inputs, outputFile, stack, direct, stats);
+            return;
+        }
+        FunctionAppExpr.counting = stats;
+        OutputSink sink = outputFile != null ? OutputSink.open(Paths.get(outputFile))
+                : OutputSink.BUFFER_SIZE > 0 ? OutputSink.of(System.out) : null;
+        OutputSink savedSink = PrintExpr.sink.get();
+        PrintExpr.sink.set(sink);
+        try {
+            Optimizer optimizer = new Optimizer();
+            if (stream) {
+                InputStream is = inputFile != null ? new FileInputStream(inputFile) : in;
+                StatementStream stmts = new StatementStream(is);
+                // Any statement may start async calls.
+                Environment env = Environment.concurrent();
+                StackMachine sm = stack ? new StackMachine() : null;
+                for (Expression stat; (stat = stmts.next()) != null; )
+                    run(new Resolver().resolve(optimizer.optimize(stat)), env, sm);
+                Async.quiesce(env);
+                if (stats) printStats(false, optimizer);
+                return;
+            }
+            // Files are mapped rather than read, so even very large scripts
+            // are not copied into the heap before lexing.
+            MappedCharStream input = inputFile != null
+                    ? MappedCharStream.open(Paths.get(inputFile))
+                    : new MappedCharStream(ByteBuffer.wrap(in.readAllBytes()), "<stdin>");
+            AstCache cache = AstCache.fromProperties();
+            Expression prog = cache == null ? null : cache.load(input.bytes());
+            boolean cached = prog != null;
+            if (!cached) {
+                ErrorCounter errors = new ErrorCounter();
+                prog = direct ? parseDirect(input) : null;
+                if (prog == null) {
+                    input.seek(0);
+                    prog = build(input, errors);
+                }
+                if (prog == null) return;
+                prog = optimizer.optimize(prog);
+                // Keep reporting syntax errors on every run.
+                if (cache != null && errors.count == 0) cache.store(input.bytes(), prog);
+            }
+            Resolver resolver = new Resolver();
+            prog = resolver.resolve(prog);
+            Environment env = resolver.spawnsThreads() ? Environment.concurrent()
+                    : new Environment();
+            run(prog, env, stack ? new StackMachine() : null);
+            Async.quiesce(env);
+            if (stats) printStats(cached, optimizer);
+        } finally {
+            PrintExpr.sink.set(savedSink);
+            if (outputFile != null)
+                sink.close();
+            else if (sink != null)
+                sink.flush();
+        }
+    }
+
+    /**
+     * Runs a resolved program with the StackMachine if there is one, or
+     * else with the tree walker.
+     */
+    private static void run(Expression prog, Environment env, StackMachine sm) {
+        if (sm != null)
+            sm.run(prog, env);
+        else
+            prog.evaluate(env);
+    }
+
+    private static void runBatch(List<String> inputs, String outputFile, boolean stack,
+            boolean direct, boolean stats) throws IOException {
+        List<BatchRunner.Job> jobs = BatchRunner.jobs(inputs);
+        long start = System.nanoTime();
+        try (BatchRunner runner = new BatchRunner(BatchRunner.THREADS, stack, direct);
+                OutputStream out = outputFile != null
+                        ? new BufferedOutputStream(Files.newOutputStream(Paths.get(outputFile)))
+                        : new FilterOutputStream(System.out) {
+                            // Leave standard output open.
+                            @Override
+                            public void close() throws IOException {
+                                flush();
+                            }
+                        }) {
+            int failed = runner.run(jobs, out, System.err);
+            if (stats)
+                System.err.printf("batch: %d runs, %d failed, on %d threads in %d ms%n",
+                        jobs.size(), failed, BatchRunner.THREADS,
+                        (System.nanoTime() - start) / 1000000);
+        }
+    }
+
+    private static void printStats(boolean cached, Optimizer optimizer) {
+        if (cached)
+            System.err.println("ast cache: hit");
+        else
+            System.err.println("optimizer: " + optimizer.nodesRemoved() + " nodes removed");
+        System.err.println("inline caches: " + FunctionAppExpr.cacheHits.sum() + " hits, "
+                + FunctionAppExpr.cacheMisses.sum() + " misses, "
+                + FunctionAppExpr.megamorphicCalls.sum() + " megamorphic calls");
+    }
+
+    /**
+     * Parses a FWJS program, optimizes it and resolves its variables.
+     * Returns null for a program without any statements.
+     */
+    public static Expression parse(CharStream input) {
+        return parse(input, new Optimizer());
+    }
 
-        ANTLRInputStream input = new ANTLRInputStream(is);
+    /**
+     * Like parse(input), optimizing with the given Optimizer.
+     */
+    public static Expression parse(CharStream input, Optimizer optimizer) {
+        Expression prog = build(input, null);
+        if (prog == null) return null;
+        return new Resolver().resolve(optimizer.optimize(prog));
+    }
+
+    /**
+     * Parses a program with the DirectParser. Returns null if it has a
+     * syntax error, or no statements.
+     */
+    private static Expression parseDirect(CharSequence source) {
+        try {
+            return DirectParser.parse(source);
+        } catch (DirectParser.SyntaxError e) {
+            // Parse again with ANTLR, which reports and recovers.
+            return null;
+        }
+    }
+
+    /**
+     * Parses a program with ANTLR and builds its Expression. Syntax
+     * errors are also reported to the listener, if there is one.
+     */
+    static Expression build(CharStream input, ANTLRErrorListener listener) {
+        ParseTree tree = parseTree(input, listener);
+        return new ExpressionBuilderVisitor().visit(tree);
+    }
+
+    /**
+     * Runs the lexer and parser. The parser first tries the faster SLL
+     * prediction, giving up at the first syntax error, and only parses
+     * again with full LL prediction and error recovery if that fails.
+     * For valid programs the two produce the same tree.
+     */
+    static ParseTree parseTree(CharStream input, ANTLRErrorListener listener) {
+        return parseTree(input, listener, ConsoleErrorListener.INSTANCE);
+    }
+
+    /**
+     * Like parseTree(input, listener), reporting syntax errors to report
+     * instead of to standard error.
+     */
+    static ParseTree parseTree(CharStream input, ANTLRErrorListener listener,
+            ANTLRErrorListener report) {
         FeatherweightJavaScriptLexer lexer = new FeatherweightJavaScriptLexer(input);
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(report);
+        if (listener != null) lexer.addErrorListener(listener);
         CommonTokenStream tokens = new CommonTokenStream(lexer);
         FeatherweightJavaScriptParser parser = new FeatherweightJavaScriptParser(tokens);
-        ParseTree tree = parser.prog(); // parse
-
-        ExpressionBuilderVisitor builder = new ExpressionBuilderVisitor();
-        Expression prog = builder.visit(tree);
-        prog.evaluate(new Environment());
+        parser.removeErrorListeners();
+        if (sllFirst) {
+            parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+            parser.setErrorHandler(new BailErrorStrategy());
+            try {
+                return parser.prog();
+            } catch (ParseCancellationException e) {
+                tokens.seek(0);
+                parser.reset();
+                parser.setErrorHandler(new DefaultErrorStrategy());
+                parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            }
+        }
+        parser.addErrorListener(report);
+        if (listener != null) parser.addErrorListener(listener);
+        return parser.prog();
     }
 
+    private static class ErrorCounter extends BaseErrorListener {
+        int count;
+        @Override
+        public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol,
+                int line, int charPositionInLine, String msg, RecognitionException e) {
+            count++;
+        }
+    }
 }
@@ -0,0 +1,66 @@
+package edu.sjsu.fwjs;
+
+import java.util.concurrent.FutureTask;
+
+/**
+ * Runs the functions of spawn expressions in isolates: shared-nothing
+ * workers with globals of their own, which talk only through channels.
+ */
+final class Isolate {
+    private Isolate() {}
+
+    /**
+     * Calls fn with the arguments in a new isolate, and returns the
+     * future of its result, which await rethrows the isolate's error from.
+     */
+    static FutureVal spawn(ClosureVal fn, Value[] args) {
+        Environment from = fn.env();
+        if (from != from.global())
+            throw new RuntimeException("spawn: not a top-level function");
+        Value[] copies = new Value[args.length];
+        for (int i = 0; i < args.length; i++)
+            copies[i] = copy(args[i]);
+        Environment globals = from.isolate();
+        ClosureVal f = new ClosureVal(fn.decl(), globals);
+        Async.Pending pending = globals.pending();
+        OutputSink sink = PrintExpr.sink.get();
+        pending.add();
+        FutureTask<Value> task = new FutureTask<Value>(() -> {
+            PrintExpr.sink.set(sink);
+            try {
+                return copy(f.call(copies));
+            } finally {
+                PrintExpr.sink.remove();
+                pending.done();
+            }
+        });
+        Async.thread(task);
+        return new FutureVal(task);
+    }
+
+    /**
+     * A value that may cross between isolates, which is v itself: an
+     * integer, boolean, null or channel. Throws for any other value.
+     */
+    static Value copy(Value v) {
+        if (v instanceof IntVal || v instanceof BoolVal || v instanceof NullVal
+                || v instanceof ChannelVal)
+            return v;
+        throw new RuntimeException("cannot pass " + v + " between isolates");
+    }
+
+    /**
+     * The value of a global of from in the isolate whose globals are to,
+     * or null if it is left out.
+     */
+    static Value transfer(Value v, Environment from, Environment to) {
+        if (v instanceof ClosureVal) {
+            ClosureVal c = (ClosureVal) v;
+            return c.env() == from ? new ClosureVal(c.decl(), to) : null;
+        }
+        if (v instanceof IntVal || v instanceof BoolVal || v instanceof NullVal
+                || v instanceof ChannelVal)
+            return v;
+        return null;
+    }
+}
@@ -0,0 +1,862 @@
+package edu.sjsu.fwjs;
+
+import static edu.sjsu.fwjs.ClassFile.*;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Compiles the bodies of hot functions to JVM classes, so that HotSpot
+ * can compile them like any other Java code.
+ *
+ * ClosureVal.apply counts the calls of every resolved function. When a
+ * function reaches the threshold, its body is translated to JVM bytecode
+ * in which variables that only ever hold integers or booleans are JVM
+ * ints, so arithmetic on them is plain iadd and if_icmp.
+ * Parameters are specialized to the types of the arguments of that call;
+ * the generated code checks them on entry and hands the call back to the
+ * tree walker when they differ. Everything else goes through the same
+ * Value operations the tree walker uses; property accesses call their
+ * nodes, so compiled code and the tree walker share one inline cache.
+ *
+ * The class is written directly with ClassFile, so no Java compiler is
+ * needed, and defined as a hidden class in this package. That happens on
+ * a background thread, so the interpreter keeps running the function
+ * meanwhile, and a short script never waits for the compiler. Functions
+ * with nodes the translation does not handle, or closures over their own
+ * frame, are never compiled and stay on the tree walker.
+ */
+public class JitCompiler {
+    /**
+     * Calls after which a function is compiled, set with the
+     * fwjs.jit.threshold system property. A negative value disables
+     * compilation.
+     */
+    static int threshold = Integer.getInteger("fwjs.jit.threshold", 1000);
+
+    /** Failed entry checks after which compiled code is thrown away. */
+    static final int MAX_DEOPTS = 100;
+
+    /** FunctionDeclExpr.calls and deopts, which calls on any thread update. */
+    private static final VarHandle CALLS, DEOPTS;
+    static {
+        try {
+            CALLS = MethodHandles.lookup().findVarHandle(FunctionDeclExpr.class, "calls", int.class);
+            DEOPTS = MethodHandles.lookup().findVarHandle(FunctionDeclExpr.class, "deopts", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /** Classes kept for reuse, set with the fwjs.jit.classes system property. */
+    static final int MAX_CLASSES = Integer.getInteger("fwjs.jit.classes", 256);
+
+    /**
+     * Classes defined so far, by their class file, least recently used
+     * first. Functions that compile to the same bytes, such as the copies
+     * of one script that BatchRunner resolves for each thread or the runs
+     * of a script in the Daemon, share one class, which HotSpot then only
+     * compiles once.
+     */
+    private static final Map<ByteBuffer, Class<?>> classes =
+        new LinkedHashMap<ByteBuffer, Class<?>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Class<?>> eldest) {
+                return size() > MAX_CLASSES;
+            }
+        };
+
+    private static final ExecutorService background =
+        Executors.newSingleThreadExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "fwjs-jit");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+
+    /**
+     * Counts a call of the function and returns its compiled code, or
+     * null if it has none yet. The call that reaches the threshold queues
+     * the function for compilation, specialized to its arguments.
+     */
+    static CompiledFunction codeFor(final FunctionDeclExpr decl, Value[] args) {
+        CompiledFunction code = decl.compiled;
+        if (code != null)
+            return code;
+        if (threshold < 0)
+            return null;
+        // Whatever the outcome, the function is only compiled once.
+        for (;;) {
+            int calls = (int) CALLS.getVolatile(decl);
+            if (calls < 0)
+                return null;
+            int next = calls + 1 < threshold ? calls + 1 : -1;
+            if (CALLS.compareAndSet(decl, calls, next)) {
+                if (next >= 0)
+                    return null;
+                break;
+            }
+        }
+        final Value[] sample = args.clone();
+        background.execute(new Runnable() {
+            public void run() {
+                decl.compiled = compile(decl, sample);
+            }
+        });
+        return null;
+    }
+
+    /**
+     * Waits until every function queued so far has been compiled.
+     */
+    static void awaitCompilations() {
+        try {
+            background.submit(new Runnable() { public void run() {} }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Records that compiled code of the function rejected its arguments,
+     * and drops the code if that keeps happening.
+     */
+    static void deoptimize(FunctionDeclExpr decl) {
+        if ((int) DEOPTS.getAndAdd(decl, 1) + 1 >= MAX_DEOPTS)
+            decl.compiled = null;
+    }
+
+    /**
+     * Compiles the body of a function, specialized to the types of the
+     * sample arguments. Returns null if the function cannot be compiled.
+     */
+    static CompiledFunction compile(FunctionDeclExpr decl, Value[] sample) {
+        if (decl.frameNames == null || decl.capturesFrame
+                || sample.length != decl.params.size())
+            return null;
+        Generator g = new Generator(decl);
+        byte[] bytes = g.generate("edu/sjsu/fwjs/JitFunction", sample);
+        if (bytes == null)
+            return null;
+        try {
+            Class<?> c;
+            synchronized (classes) {
+                c = classes.get(ByteBuffer.wrap(bytes));
+                if (c == null) {
+                    c = MethodHandles.lookup().defineHiddenClass(bytes, true).lookupClass();
+                    classes.put(ByteBuffer.wrap(bytes), c);
+                }
+            }
+            Value[] consts = g.consts.toArray(new Value[g.consts.size()]);
+            Expression[] sites = g.sites.toArray(new Expression[g.sites.size()]);
+            return (CompiledFunction) c.getDeclaredConstructor(FunctionDeclExpr.class,
+                    Value[].class, Expression[].class).newInstance(decl, consts, sites);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /** Static types of compiled expressions. */
+    private enum Type {
+        INT, BOOL, VALUE;
+
+        /** The least upper bound, where null stands for "no value yet". */
+        static Type join(Type a, Type b) {
+            if (a == null) return b;
+            if (b == null || a == b) return a;
+            return VALUE;
+        }
+    }
+
+    private static final String VALUE = "edu/sjsu/fwjs/Value";
+    private static final String SELF = "edu/sjsu/fwjs/CompiledFunction";
+    private static final String V = "L" + VALUE + ";";
+    private static final String ENV = "Ledu/sjsu/fwjs/Environment;";
+
+    /** JVM locals of call: this, the arguments and the outer environment, then the frame slots. */
+    private static final int ARGS = 1, OUTER = 2, FIRST_SLOT = 3;
+
+    /**
+     * Translates one function body to the bytecode of a subclass of
+     * CompiledFunction. Locals of the frame become JVM locals after their
+     * slots, and every expression leaves its value on the operand stack,
+     * which keeps FWJS evaluation order.
+     */
+    private static class Generator {
+        final FunctionDeclExpr decl;
+        final Type[] types;
+        final List<Value> consts = new ArrayList<Value>();
+        final List<Expression> sites = new ArrayList<Expression>();
+        ClassFile cf;
+        ClassFile.Code code;
+
+        Generator(FunctionDeclExpr decl) {
+            this.decl = decl;
+            this.types = new Type[decl.frameNames.length];
+        }
+
+        /**
+         * The class file of a class with the given internal name, or null
+         * if the body cannot be compiled.
+         */
+        byte[] generate(String name, Value[] sample) {
+            boolean[] declared = new boolean[types.length];
+            for (int i = 0; i < decl.paramSlots.length; i++) {
+                int slot = decl.paramSlots[i];
+                if (declared[slot])
+                    return null;
+                declared[slot] = true;
+                types[slot] = typeOfValue(sample[i]);
+            }
+            if (!check(decl.body, declared, true))
+                return null;
+            inferLocalTypes();
+
+            cf = new ClassFile(ACC_FINAL | ACC_SUPER, name, SELF);
+            String init = "(Ledu/sjsu/fwjs/FunctionDeclExpr;[" + V
+                    + "[Ledu/sjsu/fwjs/Expression;)V";
+            code = cf.new Code(4);
+            for (int i = 0; i < 4; i++)
+                code.local(ALOAD, i);
+            code.invoke(INVOKESPECIAL, SELF, "<init>", init);
+            code.ret(RETURN);
+            cf.method(0, "<init>", init, code);
+
+            code = cf.new Code(FIRST_SLOT + types.length);
+            ClassFile.Label fits = new ClassFile.Label();
+            code.local(ALOAD, ARGS);
+            code.op(ARRAYLENGTH, 1, 1);
+            code.iconst(decl.paramSlots.length);
+            code.jump(IF_ICMPEQ, fits);
+            code.op(ACONST_NULL, 0, 1);
+            code.ret(ARETURN);
+            code.mark(fits);
+            boolean[] isParam = new boolean[types.length];
+            for (int i = 0; i < decl.paramSlots.length; i++) {
+                int slot = decl.paramSlots[i];
+                isParam[slot] = true;
+                code.local(ALOAD, ARGS);
+                code.iconst(i);
+                code.op(AALOAD, 2, 1);
+                if (types[slot] == Type.VALUE) {
+                    code.local(ASTORE, FIRST_SLOT + slot);
+                    continue;
+                }
+                String box = types[slot] == Type.INT ? "edu/sjsu/fwjs/IntVal"
+                        : "edu/sjsu/fwjs/BoolVal";
+                ClassFile.Label ok = new ClassFile.Label();
+                code.op(DUP, 1, 2);
+                code.type(INSTANCEOF, box);
+                code.jump(IFNE, ok);
+                code.op(ACONST_NULL, 0, 1);
+                code.ret(ARETURN);
+                code.mark(ok);
+                code.type(CHECKCAST, box);
+                code.invoke(INVOKEVIRTUAL, box, types[slot] == Type.INT ? "toInt" : "toBoolean",
+                        types[slot] == Type.INT ? "()I" : "()Z");
+                code.local(ISTORE, FIRST_SLOT + slot);
+            }
+            for (int slot = 0; slot < types.length; slot++) {
+                if (isParam[slot]) continue;
+                if (types[slot] == Type.VALUE) {
+                    code.op(ACONST_NULL, 0, 1);
+                    code.local(ASTORE, FIRST_SLOT + slot);
+                } else {
+                    code.iconst(0);
+                    code.local(ISTORE, FIRST_SLOT + slot);
+                }
+            }
+            box(gen(decl.body));
+            code.ret(ARETURN);
+            cf.method(0, "call", "([" + V + ENV + ")" + V, code);
+            return cf.toBytes();
+        }
+
+        /**
+         * Says whether the translation handles every node, and no local
+         * could be read before it is declared or be declared twice, which
+         * the tree walker handles by looking further out or by throwing.
+         * To keep this simple, declarations are only accepted directly in
+         * the top-level sequence of the body.
+         */
+        boolean check(Expression exp, boolean[] declared, boolean top) {
+            if (exp instanceof ValueExpr) {
+                return true;
+            } else if (exp instanceof VarExpr) {
+                VarExpr ve = (VarExpr) exp;
+                return ve.depth != Environment.DYNAMIC && (ve.depth != 0 || declared[ve.slot]);
+            } else if (exp instanceof AssignExpr) {
+                AssignExpr ae = (AssignExpr) exp;
+                return check(ae.e, declared, false) && ae.depth != Environment.DYNAMIC
+                    && (ae.depth != 0 || declared[ae.slot]);
+            } else if (exp instanceof VarDeclExpr) {
+                VarDeclExpr vd = (VarDeclExpr) exp;
+                if (!check(vd.exp, declared, false) || !top || vd.slot < 0 || declared[vd.slot])
+                    return false;
+                declared[vd.slot] = true;
+                return true;
+            } else if (exp instanceof BinOpExpr) {
+                return check(((BinOpExpr) exp).e1, declared, false)
+                    && check(((BinOpExpr) exp).e2, declared, false);
+            } else if (exp instanceof IfExpr) {
+                return check(((IfExpr) exp).cond, declared, false)
+                    && check(((IfExpr) exp).thn, declared, false)
+                    && check(((IfExpr) exp).els, declared, false);
+            } else if (exp instanceof WhileExpr) {
+                return check(((WhileExpr) exp).cond, declared, false)
+                    && check(((WhileExpr) exp).body, declared, false);
+            } else if (exp instanceof SeqExpr) {
+                return check(((SeqExpr) exp).e1, declared, top)
+                    && check(((SeqExpr) exp).e2, declared, top);
+            } else if (exp instanceof BlockExpr) {
+                for (Expression stat : ((BlockExpr) exp).stmts)
+                    if (!check(stat, declared, top)) return false;
+                return true;
+            } else if (exp instanceof PrintExpr) {
+                return check(((PrintExpr) exp).exp, declared, false);
+            } else if (exp instanceof FunctionAppExpr) {
+                FunctionAppExpr fa = (FunctionAppExpr) exp;
+                if (!check(fa.f, declared, false)) return false;
+                for (Expression arg : fa.args)
+                    if (!check(arg, declared, false)) return false;
+                return true;
+            } else if (exp instanceof ArrayExpr) {
+                for (Expression e : ((ArrayExpr) exp).elems)
+                    if (!check(e, declared, false)) return false;
+                return true;
+            } else if (exp instanceof IndexExpr) {
+                return check(((IndexExpr) exp).array, declared, false)
+                    && check(((IndexExpr) exp).index, declared, false);
+            } else if (exp instanceof IndexAssignExpr) {
+                IndexAssignExpr ia = (IndexAssignExpr) exp;
+                return check(ia.array, declared, false) && check(ia.index, declared, false)
+                    && check(ia.e, declared, false);
+            } else if (exp instanceof PropertyExpr) {
+                return check(((PropertyExpr) exp).obj, declared, false);
+            } else if (exp instanceof ObjectExpr) {
+                for (Expression e : ((ObjectExpr) exp).values)
+                    if (!check(e, declared, false)) return false;
+                return true;
+            } else if (exp instanceof PropertyAssignExpr) {
+                return check(((PropertyAssignExpr) exp).obj, declared, false)
+                    && check(((PropertyAssignExpr) exp).e, declared, false);
+            }
+            return false;
+        }
+
+        /**
+         * Gives every local the join of the types of the values stored
+         * in it, iterating until no type changes.
+         */
+        void inferLocalTypes() {
+            boolean changed = true;
+            while (changed)
+                changed = inferStores(decl.body);
+            for (int slot = 0; slot < types.length; slot++)
+                if (types[slot] == null) types[slot] = Type.VALUE;
+        }
+
+        private boolean inferStores(Expression exp) {
+            boolean changed = false;
+            if (exp instanceof AssignExpr) {
+                AssignExpr ae = (AssignExpr) exp;
+                changed = inferStores(ae.e);
+                if (ae.depth == 0)
+                    changed |= widen(ae.slot, typeOf(ae.e));
+            } else if (exp instanceof VarDeclExpr) {
+                VarDeclExpr vd = (VarDeclExpr) exp;
+                changed = inferStores(vd.exp);
+                changed |= widen(vd.slot, typeOf(vd.exp));
+            } else if (exp instanceof BinOpExpr) {
+                changed = inferStores(((BinOpExpr) exp).e1);
+                changed |= inferStores(((BinOpExpr) exp).e2);
+            } else if (exp instanceof IfExpr) {
+                changed = inferStores(((IfExpr) exp).cond);
+                changed |= inferStores(((IfExpr) exp).thn);
+                changed |= inferStores(((IfExpr) exp).els);
+            } else if (exp instanceof WhileExpr) {
+                changed = inferStores(((WhileExpr) exp).cond);
+                changed |= inferStores(((WhileExpr) exp).body);
+            } else if (exp instanceof SeqExpr) {
+                changed = inferStores(((SeqExpr) exp).e1);
+                changed |= inferStores(((SeqExpr) exp).e2);
+            } else if (exp instanceof BlockExpr) {
+                for (Expression stat : ((BlockExpr) exp).stmts)
+                    changed |= inferStores(stat);
+            } else if (exp instanceof PrintExpr) {
+                changed = inferStores(((PrintExpr) exp).exp);
+            } else if (exp instanceof FunctionAppExpr) {
+                FunctionAppExpr fa = (FunctionAppExpr) exp;
+                changed = inferStores(fa.f);
+                for (Expression arg : fa.args)
+                    changed |= inferStores(arg);
+            } else if (exp instanceof ArrayExpr) {
+                for (Expression e : ((ArrayExpr) exp).elems)
+                    changed |= inferStores(e);
+            } else if (exp instanceof IndexExpr) {
+                changed = inferStores(((IndexExpr) exp).array);
+                changed |= inferStores(((IndexExpr) exp).index);
+            } else if (exp instanceof IndexAssignExpr) {
+                IndexAssignExpr ia = (IndexAssignExpr) exp;
+                changed = inferStores(ia.array);
+                changed |= inferStores(ia.index);
+                changed |= inferStores(ia.e);
+            } else if (exp instanceof PropertyExpr) {
+                changed = inferStores(((PropertyExpr) exp).obj);
+            } else if (exp instanceof ObjectExpr) {
+                for (Expression e : ((ObjectExpr) exp).values)
+                    changed |= inferStores(e);
+            } else if (exp instanceof PropertyAssignExpr) {
+                changed = inferStores(((PropertyAssignExpr) exp).obj);
+                changed |= inferStores(((PropertyAssignExpr) exp).e);
+            }
+            return changed;
+        }
+
+        private boolean widen(int slot, Type t) {
+            Type joined = Type.join(types[slot], t);
+            if (joined == types[slot]) return false;
+            types[slot] = joined;
+            return true;
+        }
+
+        /** The static type of an expression, or null if not known yet. */
+        Type typeOf(Expression exp) {
+            if (exp instanceof ValueExpr)
+                return typeOfValue(((ValueExpr) exp).val);
+            if (exp instanceof VarExpr) {
+                VarExpr ve = (VarExpr) exp;
+                return ve.depth == 0 ? types[ve.slot] : Type.VALUE;
+            }
+            if (exp instanceof AssignExpr) {
+                AssignExpr ae = (AssignExpr) exp;
+                return ae.update != null ? Type.VALUE : typeOf(ae.e);
+            }
+            if (exp instanceof VarDeclExpr)
+                return typeOf(((VarDeclExpr) exp).exp);
+            if (exp instanceof BinOpExpr)
+                return isArithmetic(((BinOpExpr) exp).op) ? Type.INT : Type.BOOL;
+            if (exp instanceof IfExpr)
+                return Type.join(typeOf(((IfExpr) exp).thn), typeOf(((IfExpr) exp).els));
+            if (exp instanceof SeqExpr) {
+                // A sequence only falls back to its first value if the second is null.
+                Type t = typeOf(((SeqExpr) exp).e2);
+                return t == Type.INT || t == Type.BOOL ? t : t == null ? null : Type.VALUE;
+            }
+            if (exp instanceof BlockExpr) {
+                Expression[] stmts = ((BlockExpr) exp).stmts;
+                Type t = typeOf(stmts[stmts.length - 1]);
+                return t == Type.INT || t == Type.BOOL ? t : t == null ? null : Type.VALUE;
+            }
+            if (exp instanceof PrintExpr)
+                return typeOf(((PrintExpr) exp).exp);
+            if (exp instanceof IndexAssignExpr)
+                return typeOf(((IndexAssignExpr) exp).e);
+            if (exp instanceof PropertyAssignExpr)
+                return typeOf(((PropertyAssignExpr) exp).e);
+            return Type.VALUE;
+        }
+
+        /** Emits code leaving the value of an expression on the stack, and returns its type. */
+        Type gen(Expression exp) {
+            if (exp instanceof ValueExpr) {
+                Value v = ((ValueExpr) exp).val;
+                if (v instanceof IntVal) {
+                    code.iconst(((IntVal) v).toInt());
+                    return Type.INT;
+                }
+                if (v instanceof BoolVal) {
+                    code.iconst(((BoolVal) v).toBoolean() ? 1 : 0);
+                    return Type.BOOL;
+                }
+                consts.add(v);
+                code.local(ALOAD, 0);
+                code.field(GETFIELD, SELF, "consts", "[" + V);
+                code.iconst(consts.size() - 1);
+                code.op(AALOAD, 2, 1);
+                return Type.VALUE;
+            }
+            if (exp instanceof VarExpr) {
+                VarExpr ve = (VarExpr) exp;
+                if (ve.depth == 0) {
+                    load(ve.slot);
+                    return types[ve.slot];
+                }
+                if (ve.depth > 0) {
+                    code.local(ALOAD, OUTER);
+                    code.iconst(ve.depth - 1);
+                    code.iconst(ve.slot);
+                    code.ldcString(ve.varName);
+                    code.invoke(INVOKEVIRTUAL, "edu/sjsu/fwjs/Environment", "getSlot",
+                            "(IILjava/lang/String;)" + V);
+                    return Type.VALUE;
+                }
+                code.local(ALOAD, 0);
+                code.iconst(site(exp));
+                code.local(ALOAD, OUTER);
+                code.invoke(INVOKEVIRTUAL, SELF, "global", "(I" + ENV + ")" + V);
+                return Type.VALUE;
+            }
+            if (exp instanceof AssignExpr) {
+                AssignExpr ae = (AssignExpr) exp;
+                if (ae.update != null) {
+                    code.local(ALOAD, 0);
+                    box(gen(ae.update.e1));
+                    box(gen(ae.update.e2));
+                    code.iconst(site(exp));
+                    code.local(ALOAD, OUTER);
+                    code.invoke(INVOKEVIRTUAL, SELF, "update", "(" + V + V + "I" + ENV + ")" + V);
+                    return Type.VALUE;
+                }
+                if (ae.depth == 0)
+                    return store(ae.slot, gen(ae.e));
+                code.local(ALOAD, 0);
+                Type t = gen(ae.e);
+                code.op(DUP_X1, 2, 3);
+                box(t);
+                code.iconst(site(exp));
+                code.local(ALOAD, OUTER);
+                code.invoke(INVOKEVIRTUAL, SELF, "assign", "(" + V + "I" + ENV + ")V");
+                return t;
+            }
+            if (exp instanceof VarDeclExpr) {
+                VarDeclExpr vd = (VarDeclExpr) exp;
+                return store(vd.slot, gen(vd.exp));
+            }
+            if (exp instanceof BinOpExpr) {
+                BinOpExpr be = (BinOpExpr) exp;
+                if (isArithmetic(be.op)) {
+                    ints(be);
+                    code.op(ARITHMETIC[be.op.ordinal()], 2, 1);
+                    return Type.INT;
+                }
+                ClassFile.Label no = new ClassFile.Label(), end = new ClassFile.Label();
+                branch(exp, false, no);
+                code.iconst(1);
+                code.jump(GOTO, end);
+                code.mark(no);
+                code.iconst(0);
+                code.mark(end);
+                return Type.BOOL;
+            }
+            if (exp instanceof IfExpr) {
+                IfExpr ie = (IfExpr) exp;
+                Type t = typeOf(ie);
+                if (t == null) t = Type.VALUE;
+                ClassFile.Label els = new ClassFile.Label(), end = new ClassFile.Label();
+                branch(ie.cond, false, els);
+                as(t, gen(ie.thn));
+                code.jump(GOTO, end);
+                code.mark(els);
+                as(t, gen(ie.els));
+                code.mark(end);
+                return t;
+            }
+            if (exp instanceof WhileExpr) {
+                WhileExpr we = (WhileExpr) exp;
+                ClassFile.Label top = new ClassFile.Label(), end = new ClassFile.Label();
+                code.mark(top);
+                branch(we.cond, false, end);
+                gen(we.body);
+                code.op(POP, 1, 0);
+                code.jump(GOTO, top);
+                code.mark(end);
+                code.field(GETSTATIC, "edu/sjsu/fwjs/NullVal", "NULL", "Ledu/sjsu/fwjs/NullVal;");
+                return Type.VALUE;
+            }
+            if (exp instanceof SeqExpr) {
+                SeqExpr se = (SeqExpr) exp;
+                Type a = gen(se.e1);
+                return seq(a, gen(se.e2));
+            }
+            if (exp instanceof BlockExpr) {
+                Expression[] stmts = ((BlockExpr) exp).stmts;
+                Type a = gen(stmts[0]);
+                for (int i = 1; i < stmts.length; i++)
+                    a = seq(a, gen(stmts[i]));
+                return a;
+            }
+            if (exp instanceof PrintExpr) {
+                Type t = gen(((PrintExpr) exp).exp);
+                code.op(DUP, 1, 2);
+                box(t);
+                code.invoke(INVOKESTATIC, "edu/sjsu/fwjs/PrintExpr", "print", "(" + V + ")V");
+                return t;
+            }
+            if (exp instanceof FunctionAppExpr) {
+                FunctionAppExpr fa = (FunctionAppExpr) exp;
+                if (!fa.tail)
+                    code.local(ALOAD, 0);
+                box(gen(fa.f));
+                code.invoke(INVOKESTATIC, SELF, "fn", "(" + V + ")Ledu/sjsu/fwjs/ClosureVal;");
+                values(fa.args);
+                code.invoke(fa.tail ? INVOKESTATIC : INVOKEVIRTUAL, SELF,
+                        fa.tail ? "tailCall" : "invoke",
+                        "(Ledu/sjsu/fwjs/ClosureVal;[" + V + ")" + V);
+                return Type.VALUE;
+            }
+            if (exp instanceof ArrayExpr) {
+                List<Expression> elems = ((ArrayExpr) exp).elems;
+                boolean ints = true;
+                for (Expression e : elems)
+                    ints &= typeOf(e) == Type.INT;
+                if (!ints) {
+                    values(elems);
+                    code.invoke(INVOKESTATIC, "edu/sjsu/fwjs/ArrayVal", "of",
+                            "([" + V + ")Ledu/sjsu/fwjs/ArrayVal;");
+                    return Type.VALUE;
+                }
+                code.iconst(elems.size());
+                code.newIntArray();
+                for (int i = 0; i < elems.size(); i++) {
+                    code.op(DUP, 1, 2);
+                    code.iconst(i);
+                    as(Type.INT, gen(elems.get(i)));
+                    code.op(IASTORE, 3, 0);
+                }
+                code.invoke(INVOKESTATIC, SELF, "newArray", "([I)" + V);
+                return Type.VALUE;
+            }
+            if (exp instanceof IndexExpr) {
+                IndexExpr ie = (IndexExpr) exp;
+                box(gen(ie.array));
+                genInt(ie.index);
+                code.invoke(INVOKESTATIC, SELF, "at", "(" + V + "I)" + V);
+                return Type.VALUE;
+            }
+            if (exp instanceof IndexAssignExpr) {
+                IndexAssignExpr ia = (IndexAssignExpr) exp;
+                box(gen(ia.array));
+                boolean late = intBefore(ia.index, ia.e);
+                Type t = gen(ia.e);
+                if (late) {
+                    code.op(SWAP, 2, 2);
+                    code.invoke(INVOKESTATIC, SELF, "toInt", "(" + V + ")I");
+                    code.op(SWAP, 2, 2);
+                }
+                code.op(DUP_X2, 3, 4);
+                if (t != Type.INT) box(t);
+                code.invoke(INVOKESTATIC, SELF, "store",
+                        "(" + V + "I" + (t == Type.INT ? "I" : V) + ")V");
+                return t;
+            }
+            if (exp instanceof ObjectExpr) {
+                code.local(ALOAD, 0);
+                code.iconst(site(exp));
+                values(((ObjectExpr) exp).values);
+                code.invoke(INVOKEVIRTUAL, SELF, "make", "(I[" + V + ")" + V);
+                return Type.VALUE;
+            }
+            if (exp instanceof PropertyExpr) {
+                code.local(ALOAD, 0);
+                box(gen(((PropertyExpr) exp).obj));
+                code.iconst(site(exp));
+                code.invoke(INVOKEVIRTUAL, SELF, "get", "(" + V + "I)" + V);
+                return Type.VALUE;
+            }
+            if (exp instanceof PropertyAssignExpr) {
+                PropertyAssignExpr pa = (PropertyAssignExpr) exp;
+                code.local(ALOAD, 0);
+                box(gen(pa.obj));
+                Type t = gen(pa.e);
+                code.op(DUP_X2, 3, 4);
+                box(t);
+                code.iconst(site(exp));
+                code.invoke(INVOKEVIRTUAL, SELF, "put", "(" + V + V + "I)V");
+                return t;
+            }
+            throw new IllegalStateException("check accepted " + exp.getClass().getSimpleName());
+        }
+
+        /**
+         * Emits a jump to target if the condition is when, and falls
+         * through otherwise. Comparisons of integers jump with if_icmp,
+         * without making a boolean first.
+         */
+        private void branch(Expression cond, boolean when, ClassFile.Label target) {
+            if (cond instanceof BinOpExpr && !isArithmetic(((BinOpExpr) cond).op)) {
+                BinOpExpr be = (BinOpExpr) cond;
+                if (be.op != Op.EQ) {
+                    ints(be);
+                    code.jump(when ? IF_CMP[be.op.ordinal()] : IF_NOT_CMP[be.op.ordinal()],
+                            target);
+                    return;
+                }
+                Type a = gen(be.e1);
+                Type b = gen(be.e2);
+                if (a == b && a != Type.VALUE) {
+                    code.jump(when ? IF_ICMPEQ : IF_ICMPNE, target);
+                    return;
+                }
+                if (a != Type.VALUE) {
+                    code.op(SWAP, 2, 2);
+                    box(a);
+                    code.op(SWAP, 2, 2);
+                }
+                box(b);
+                code.invoke(INVOKEVIRTUAL, "java/lang/Object", "equals", "(Ljava/lang/Object;)Z");
+            } else {
+                as(Type.BOOL, gen(cond));
+            }
+            code.jump(when ? IFNE : IFEQ, target);
+        }
+
+        /** Emits the operands of an integer operator, as two ints. */
+        private void ints(BinOpExpr be) {
+            boolean late = intBefore(be.e1, be.e2);
+            genInt(be.e2);
+            if (late) {
+                code.op(SWAP, 2, 2);
+                code.invoke(INVOKESTATIC, SELF, "toInt", "(" + V + ")I");
+                code.op(SWAP, 2, 2);
+            }
+        }
+
+        /**
+         * Emits an expression that must be an integer, leaving an int. An
+         * element of an array is read without boxing it, and so is the
+         * length of an array.
+         */
+        private void genInt(Expression exp) {
+            if (exp instanceof IndexExpr) {
+                IndexExpr ie = (IndexExpr) exp;
+                box(gen(ie.array));
+                genInt(ie.index);
+                code.invoke(INVOKESTATIC, SELF, "intAt", "(" + V + "I)I");
+            } else if (exp instanceof PropertyExpr && isLength((PropertyExpr) exp)) {
+                code.local(ALOAD, 0);
+                box(gen(((PropertyExpr) exp).obj));
+                code.iconst(site(exp));
+                code.invoke(INVOKEVIRTUAL, SELF, "length", "(" + V + "I)I");
+            } else {
+                as(Type.INT, gen(exp));
+            }
+        }
+
+        /**
+         * Emits an integer operand that is followed by another. genInt
+         * checks an element it reads unboxed right away, so unless the
+         * next operand has no effects, this leaves a Value and returns
+         * true: the caller converts it after the next operand runs, to
+         * fail then, as on the tree walker.
+         */
+        private boolean intBefore(Expression exp, Expression next) {
+            if (next instanceof ValueExpr || next instanceof VarExpr) {
+                genInt(exp);
+                return false;
+            }
+            Type t = gen(exp);
+            if (t == Type.INT)
+                return false;
+            box(t);
+            return true;
+        }
+
+        /** The value of a sequence of a and b, which are on the stack. */
+        private Type seq(Type a, Type b) {
+            if (b != Type.VALUE) {
+                code.op(SWAP, 2, 2);
+                code.op(POP, 1, 0);
+                return b;
+            }
+            if (a != Type.VALUE) {
+                code.op(SWAP, 2, 2);
+                box(a);
+                code.op(SWAP, 2, 2);
+            }
+            code.invoke(INVOKESTATIC, SELF, "seq", "(" + V + V + ")" + V);
+            return Type.VALUE;
+        }
+
+        /** Emits a Value[] of the boxed values of the expressions. */
+        private void values(List<Expression> exps) {
+            code.iconst(exps.size());
+            code.type(ANEWARRAY, VALUE);
+            for (int i = 0; i < exps.size(); i++) {
+                code.op(DUP, 1, 2);
+                code.iconst(i);
+                box(gen(exps.get(i)));
+                code.op(AASTORE, 3, 0);
+            }
+        }
+
+        /**
+         * A node of the body for the generated code to pass to the
+         * helpers of CompiledFunction, which share its inline cache.
+         */
+        private int site(Expression exp) {
+            sites.add(exp);
+            return sites.size() - 1;
+        }
+
+        private void load(int slot) {
+            code.local(types[slot] == Type.VALUE ? ALOAD : ILOAD, FIRST_SLOT + slot);
+        }
+
+        /**
+         * Stores the value on the stack in a local, whose type is at least
+         * as wide as the value's, and leaves the value.
+         */
+        private Type store(int slot, Type t) {
+            code.op(DUP, 1, 2);
+            as(types[slot], t);
+            code.local(types[slot] == Type.VALUE ? ASTORE : ISTORE, FIRST_SLOT + slot);
+            return t;
+        }
+
+        /**
+         * Converts the value on the stack to a type. Values that do not
+         * fit throw a RuntimeException, as they would in the tree walker.
+         */
+        private void as(Type to, Type t) {
+            if (to == t) return;
+            box(t);
+            if (to == Type.INT)
+                code.invoke(INVOKESTATIC, SELF, "toInt", "(" + V + ")I");
+            else if (to == Type.BOOL)
+                code.invoke(INVOKESTATIC, "edu/sjsu/fwjs/BoolVal", "test", "(" + V + ")Z");
+        }
+
+        private void box(Type t) {
+            if (t == Type.INT)
+                code.invoke(INVOKESTATIC, "edu/sjsu/fwjs/IntVal", "valueOf",
+                        "(I)Ledu/sjsu/fwjs/IntVal;");
+            else if (t == Type.BOOL)
+                code.invoke(INVOKESTATIC, "edu/sjsu/fwjs/BoolVal", "valueOf",
+                        "(Z)Ledu/sjsu/fwjs/BoolVal;");
+        }
+
+        private static Type typeOfValue(Value v) {
+            if (v instanceof IntVal) return Type.INT;
+            if (v instanceof BoolVal) return Type.BOOL;
+            return Type.VALUE;
+        }
+
+        private static boolean isLength(PropertyExpr pe) {
+            return pe.name.equals("length");
+        }
+
+        private static boolean isArithmetic(Op op) {
+            return op.ordinal() <= Op.MOD.ordinal();
+        }
+
+        /** Instructions of the operators, in the order of the Op enum. */
+        private static final int[] ARITHMETIC = { IADD, ISUB, IMUL, IDIV, IREM };
+        private static final int[] IF_CMP = { 0, 0, 0, 0, 0,
+            IF_ICMPGT, IF_ICMPGE, IF_ICMPLT, IF_ICMPLE, IF_ICMPEQ };
+        private static final int[] IF_NOT_CMP = { 0, 0, 0, 0, 0,
+            IF_ICMPLE, IF_ICMPLT, IF_ICMPGE, IF_ICMPGT, IF_ICMPNE };
+    }
+}
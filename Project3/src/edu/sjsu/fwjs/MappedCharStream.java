@@ -0,0 +1,147 @@
+package edu.sjsu.fwjs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+/**
+ * Script source read straight from a ByteBuffer, usually a memory mapped
+ * file, for both the ANTLR lexer and the DirectParser. Nothing is copied
+ * up front: characters are decoded from the buffer as the lexer reads
+ * them, a small window at a time, and token text only when a token asks
+ * for it.
+ *
+ * Every byte is one character. FWJS programs are ASCII outside of
+ * comments, so this decodes them exactly; any other byte reads as
+ * U+FFFD, which can only show up in comments or syntax errors.
+ */
+public class MappedCharStream implements CharStream, CharSequence {
+    private static final int WINDOW = 1 << 16;
+
+    private final ByteBuffer buf;
+    private final int size;
+    private final String name;
+    private int p;
+    /** The bytes from windowStart on, copied from buf. */
+    private final byte[] window = new byte[WINDOW];
+    private int windowStart;
+    private int windowLength;
+
+    public MappedCharStream(ByteBuffer buf, String name) {
+        this.buf = buf;
+        this.size = buf.limit();
+        this.name = name;
+    }
+
+    /**
+     * Maps a file read-only. The mapping stays valid after the channel
+     * is closed.
+     */
+    public static MappedCharStream open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() > Integer.MAX_VALUE)
+                throw new IOException(file + " is larger than 2 GB");
+            return new MappedCharStream(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()),
+                    file.toString());
+        }
+    }
+
+    /** The underlying bytes, for hashing the whole source. */
+    ByteBuffer bytes() {
+        return buf.duplicate();
+    }
+
+    // CharSequence, for the DirectParser
+
+    public int length() {
+        return size;
+    }
+
+    public char charAt(int i) {
+        int off = i - windowStart;
+        if (off < 0 || off >= windowLength) {
+            if (i < 0 || i >= size)
+                throw new IndexOutOfBoundsException(Integer.toString(i));
+            windowStart = i & -WINDOW;
+            windowLength = Math.min(WINDOW, size - windowStart);
+            buf.get(windowStart, window, 0, windowLength);
+            off = i - windowStart;
+        }
+        byte b = window[off];
+        return b >= 0 ? (char) b : '\uFFFD';
+    }
+
+    public CharSequence subSequence(int start, int end) {
+        return text(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return text(0, size);
+    }
+
+    private String text(int start, int end) {
+        int off = start - windowStart;
+        if (off >= 0 && end - windowStart <= windowLength)
+            return new String(window, off, end - start, StandardCharsets.US_ASCII);
+        byte[] bytes = new byte[end - start];
+        buf.get(start, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    // CharStream, for ANTLR; this follows ANTLRInputStream
+
+    public void consume() {
+        if (p >= size)
+            throw new IllegalStateException("cannot consume EOF");
+        p++;
+    }
+
+    public int LA(int i) {
+        if (i == 0) return 0;
+        if (i < 0) {
+            i++;
+            if (p + i - 1 < 0) return IntStream.EOF;
+        }
+        int at = p + i - 1;
+        if (at >= size) return IntStream.EOF;
+        return charAt(at);
+    }
+
+    public int mark() {
+        return -1;
+    }
+
+    public void release(int marker) {
+    }
+
+    public int index() {
+        return p;
+    }
+
+    public void seek(int index) {
+        p = Math.min(index, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getSourceName() {
+        return name;
+    }
+
+    public String getText(Interval interval) {
+        int start = interval.a;
+        int stop = Math.min(interval.b, size - 1);
+        if (start >= size) return "";
+        return text(start, stop + 1);
+    }
+}
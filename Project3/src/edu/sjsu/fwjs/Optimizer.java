@@ -0,0 +1,327 @@
+package edu.sjsu.fwjs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Constant folding and dead code elimination, run between the
+ * ExpressionBuilderVisitor and the Resolver.
+ *
+ * Binary operators over constants are folded, ifs with a constant
+ * condition are replaced by the branch they take, while loops whose
+ * condition is false are dropped, and side-effect free expressions
+ * whose values are never used are removed from sequences. An operator
+ * that fails on its constants, such as a division by zero, is left in
+ * place so the program still fails when it gets there.
+ */
+public class Optimizer {
+    private int removed;
+
+    /**
+     * Returns an optimized copy of the expression.
+     */
+    public Expression optimize(Expression exp) {
+        Expression result = optimize(exp, true);
+        removed += size(exp) - size(result);
+        return result;
+    }
+
+    /**
+     * The number of nodes that optimize removed so far.
+     */
+    public int nodesRemoved() {
+        return removed;
+    }
+
+    /**
+     * Optimizes an expression. If used is false, its value is discarded
+     * and only its side effects matter.
+     */
+    private Expression optimize(Expression exp, boolean used) {
+        if (exp == null) return null;
+        if (exp instanceof BinOpExpr) {
+            BinOpExpr be = (BinOpExpr) exp;
+            Expression e1 = optimize(be.e1, true);
+            Expression e2 = optimize(be.e2, true);
+            if (e1 instanceof ValueExpr && e2 instanceof ValueExpr) {
+                try {
+                    return new ValueExpr(BinOpExpr.apply(be.op,
+                            ((ValueExpr) e1).val, ((ValueExpr) e2).val));
+                } catch (RuntimeException e) {
+                    // Leave the error to run time.
+                }
+            }
+            return BinOpExpr.create(be.op, e1, e2);
+        }
+        if (exp instanceof IfExpr) {
+            IfExpr ie = (IfExpr) exp;
+            Expression cond = optimize(ie.cond, true);
+            if (cond instanceof ValueExpr && ((ValueExpr) cond).val instanceof BoolVal)
+                return BoolVal.test(((ValueExpr) cond).val)
+                        ? optimize(ie.thn, used) : optimize(ie.els, used);
+            return new IfExpr(cond, optimize(ie.thn, used), optimize(ie.els, used));
+        }
+        if (exp instanceof WhileExpr) {
+            WhileExpr we = (WhileExpr) exp;
+            Expression cond = optimize(we.cond, true);
+            if (cond instanceof ValueExpr && ((ValueExpr) cond).val == BoolVal.FALSE)
+                return new ValueExpr(NullVal.NULL);
+            return new WhileExpr(cond, optimize(we.body, false));
+        }
+        if (exp instanceof SeqExpr) {
+            SeqExpr se = (SeqExpr) exp;
+            // The sequence has the value of e1 when e2 evaluates to null.
+            Expression e2 = optimize(se.e2, used);
+            Expression e1 = optimize(se.e1, used && !neverNull(e2));
+            if (isPure(e1) && (!used || neverNull(e2)))
+                return e2;
+            if (isPure(e2) && (!used || isNull(e2)))
+                return e1;
+            return new SeqExpr(e1, e2);
+        }
+        if (exp instanceof BlockExpr) {
+            // The same as for a chain of SeqExprs, from the last statement
+            // back: a statement's value is only used if every statement
+            // after it can be null.
+            Expression[] stmts = ((BlockExpr) exp).stmts;
+            List<Expression> kept = new ArrayList<Expression>(stmts.length);
+            boolean valueUsed = used;
+            for (int i = stmts.length - 1; i >= 0; i--) {
+                Expression stat = optimize(stmts[i], valueUsed);
+                if (isPure(stat) && (!valueUsed || isNull(stat)))
+                    continue;
+                kept.add(stat);
+                valueUsed &= !neverNull(stat);
+            }
+            if (kept.isEmpty())
+                return new ValueExpr(NullVal.NULL);
+            Collections.reverse(kept);
+            return kept.size() == 1 ? kept.get(0) : new BlockExpr(kept);
+        }
+        if (exp instanceof VarDeclExpr) {
+            VarDeclExpr vd = (VarDeclExpr) exp;
+            return new VarDeclExpr(vd.varName, optimize(vd.exp, true));
+        }
+        if (exp instanceof AssignExpr) {
+            AssignExpr ae = (AssignExpr) exp;
+            return new AssignExpr(ae.varName, optimize(ae.e, true));
+        }
+        if (exp instanceof FunctionDeclExpr) {
+            FunctionDeclExpr fd = (FunctionDeclExpr) exp;
+            return new FunctionDeclExpr(fd.params, optimize(fd.body, true));
+        }
+        if (exp instanceof FunctionAppExpr) {
+            FunctionAppExpr fa = (FunctionAppExpr) exp;
+            List<Expression> args = new ArrayList<Expression>();
+            for (Expression arg : fa.args)
+                args.add(optimize(arg, true));
+            return new FunctionAppExpr(optimize(fa.f, true), args);
+        }
+        if (exp instanceof PrintExpr) {
+            return new PrintExpr(optimize(((PrintExpr) exp).exp, true));
+        }
+        if (exp instanceof AsyncExpr) {
+            AsyncExpr ae = (AsyncExpr) exp;
+            List<Expression> args = new ArrayList<Expression>();
+            for (Expression arg : ae.args)
+                args.add(optimize(arg, true));
+            return new AsyncExpr(optimize(ae.f, true), args);
+        }
+        if (exp instanceof AwaitExpr) {
+            return new AwaitExpr(optimize(((AwaitExpr) exp).exp, true));
+        }
+        if (exp instanceof SpawnExpr) {
+            SpawnExpr se = (SpawnExpr) exp;
+            List<Expression> args = new ArrayList<Expression>();
+            for (Expression arg : se.args)
+                args.add(optimize(arg, true));
+            return new SpawnExpr(optimize(se.f, true), args);
+        }
+        if (exp instanceof ChannelExpr) {
+            ChannelExpr ce = (ChannelExpr) exp;
+            List<Expression> args = new ArrayList<Expression>();
+            for (Expression arg : ce.args)
+                args.add(optimize(arg, true));
+            return new ChannelExpr(ce.kind, args);
+        }
+        if (exp instanceof ArrayExpr) {
+            List<Expression> elems = new ArrayList<Expression>();
+            for (Expression e : ((ArrayExpr) exp).elems)
+                elems.add(optimize(e, true));
+            return new ArrayExpr(elems);
+        }
+        if (exp instanceof IndexExpr) {
+            IndexExpr ie = (IndexExpr) exp;
+            return new IndexExpr(optimize(ie.array, true), optimize(ie.index, true));
+        }
+        if (exp instanceof IndexAssignExpr) {
+            IndexAssignExpr ia = (IndexAssignExpr) exp;
+            return new IndexAssignExpr(optimize(ia.array, true), optimize(ia.index, true),
+                    optimize(ia.e, true));
+        }
+        if (exp instanceof PropertyExpr) {
+            PropertyExpr pe = (PropertyExpr) exp;
+            return new PropertyExpr(optimize(pe.obj, true), pe.name);
+        }
+        if (exp instanceof ObjectExpr) {
+            ObjectExpr oe = (ObjectExpr) exp;
+            List<Expression> values = new ArrayList<Expression>();
+            for (Expression e : oe.values)
+                values.add(optimize(e, true));
+            return new ObjectExpr(oe.names, values);
+        }
+        if (exp instanceof PropertyAssignExpr) {
+            PropertyAssignExpr pa = (PropertyAssignExpr) exp;
+            return new PropertyAssignExpr(optimize(pa.obj, true), pa.name, optimize(pa.e, true));
+        }
+        if (exp instanceof ParExpr) {
+            ParExpr pe = (ParExpr) exp;
+            List<Expression> branches = new ArrayList<Expression>();
+            for (Expression b : pe.branches) {
+                // The branches of par(f, g, ...) are its value.
+                Expression branch = optimize(b, pe.values);
+                if (pe.values || !isPure(branch)) branches.add(branch);
+            }
+            return new ParExpr(branches, pe.values);
+        }
+        return exp;
+    }
+
+    /**
+     * True if evaluating the expression has no side effects and cannot fail.
+     */
+    private static boolean isPure(Expression exp) {
+        if (exp instanceof ValueExpr || exp instanceof VarExpr
+                || exp instanceof FunctionDeclExpr)
+            return true;
+        if (exp instanceof EqExpr)
+            return isPure(((EqExpr) exp).e1) && isPure(((EqExpr) exp).e2);
+        return false;
+    }
+
+    private static boolean isNull(Expression exp) {
+        return exp instanceof ValueExpr && ((ValueExpr) exp).val instanceof NullVal;
+    }
+
+    /**
+     * True if the expression cannot evaluate to null, so a sequence that
+     * ends with it never takes the value of its first part.
+     */
+    private static boolean neverNull(Expression exp) {
+        if (exp instanceof ValueExpr)
+            return !isNull(exp);
+        if (exp instanceof BinOpExpr || exp instanceof FunctionDeclExpr
+                || exp instanceof AsyncExpr || exp instanceof SpawnExpr
+                || exp instanceof ArrayExpr || exp instanceof ObjectExpr)
+            return true;
+        if (exp instanceof ChannelExpr)
+            return ((ChannelExpr) exp).kind == ChannelExpr.Kind.CHAN;
+        if (exp instanceof SeqExpr)
+            return neverNull(((SeqExpr) exp).e1) || neverNull(((SeqExpr) exp).e2);
+        if (exp instanceof BlockExpr) {
+            for (Expression stat : ((BlockExpr) exp).stmts)
+                if (neverNull(stat)) return true;
+            return false;
+        }
+        if (exp instanceof IfExpr)
+            return neverNull(((IfExpr) exp).thn) && neverNull(((IfExpr) exp).els);
+        if (exp instanceof VarDeclExpr)
+            return neverNull(((VarDeclExpr) exp).exp);
+        if (exp instanceof AssignExpr)
+            return neverNull(((AssignExpr) exp).e);
+        if (exp instanceof IndexAssignExpr)
+            return neverNull(((IndexAssignExpr) exp).e);
+        if (exp instanceof PropertyAssignExpr)
+            return neverNull(((PropertyAssignExpr) exp).e);
+        if (exp instanceof PrintExpr)
+            return neverNull(((PrintExpr) exp).exp);
+        return false;
+    }
+
+    /**
+     * The number of nodes in an expression tree.
+     */
+    static int size(Expression exp) {
+        if (exp == null) return 0;
+        if (exp instanceof BinOpExpr)
+            return 1 + size(((BinOpExpr) exp).e1) + size(((BinOpExpr) exp).e2);
+        if (exp instanceof IfExpr) {
+            IfExpr ie = (IfExpr) exp;
+            return 1 + size(ie.cond) + size(ie.thn) + size(ie.els);
+        }
+        if (exp instanceof WhileExpr)
+            return 1 + size(((WhileExpr) exp).cond) + size(((WhileExpr) exp).body);
+        if (exp instanceof SeqExpr)
+            return 1 + size(((SeqExpr) exp).e1) + size(((SeqExpr) exp).e2);
+        if (exp instanceof BlockExpr) {
+            int n = 1;
+            for (Expression stat : ((BlockExpr) exp).stmts)
+                n += size(stat);
+            return n;
+        }
+        if (exp instanceof VarDeclExpr)
+            return 1 + size(((VarDeclExpr) exp).exp);
+        if (exp instanceof AssignExpr)
+            return 1 + size(((AssignExpr) exp).e);
+        if (exp instanceof FunctionDeclExpr)
+            return 1 + size(((FunctionDeclExpr) exp).body);
+        if (exp instanceof FunctionAppExpr) {
+            int n = 1 + size(((FunctionAppExpr) exp).f);
+            for (Expression arg : ((FunctionAppExpr) exp).args)
+                n += size(arg);
+            return n;
+        }
+        if (exp instanceof PrintExpr)
+            return 1 + size(((PrintExpr) exp).exp);
+        if (exp instanceof AsyncExpr) {
+            int n = 1 + size(((AsyncExpr) exp).f);
+            for (Expression arg : ((AsyncExpr) exp).args)
+                n += size(arg);
+            return n;
+        }
+        if (exp instanceof AwaitExpr)
+            return 1 + size(((AwaitExpr) exp).exp);
+        if (exp instanceof SpawnExpr) {
+            int n = 1 + size(((SpawnExpr) exp).f);
+            for (Expression arg : ((SpawnExpr) exp).args)
+                n += size(arg);
+            return n;
+        }
+        if (exp instanceof ChannelExpr) {
+            int n = 1;
+            for (Expression arg : ((ChannelExpr) exp).args)
+                n += size(arg);
+            return n;
+        }
+        if (exp instanceof ArrayExpr) {
+            int n = 1;
+            for (Expression e : ((ArrayExpr) exp).elems)
+                n += size(e);
+            return n;
+        }
+        if (exp instanceof IndexExpr)
+            return 1 + size(((IndexExpr) exp).array) + size(((IndexExpr) exp).index);
+        if (exp instanceof IndexAssignExpr) {
+            IndexAssignExpr ia = (IndexAssignExpr) exp;
+            return 1 + size(ia.array) + size(ia.index) + size(ia.e);
+        }
+        if (exp instanceof PropertyExpr)
+            return 1 + size(((PropertyExpr) exp).obj);
+        if (exp instanceof ObjectExpr) {
+            int n = 1;
+            for (Expression e : ((ObjectExpr) exp).values)
+                n += size(e);
+            return n;
+        }
+        if (exp instanceof PropertyAssignExpr)
+            return 1 + size(((PropertyAssignExpr) exp).obj) + size(((PropertyAssignExpr) exp).e);
+        if (exp instanceof ParExpr) {
+            int n = 1;
+            for (Expression b : ((ParExpr) exp).branches)
+                n += size(b);
+            return n;
+        }
+        return 1;
+    }
+}
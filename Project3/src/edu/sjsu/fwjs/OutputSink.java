@@ -0,0 +1,138 @@
+package edu.sjsu.fwjs;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Where print writes while the Interpreter runs a program: a large byte
+ * buffer in front of a channel, written out only when it is full and
+ * when the Interpreter flushes it at the end of the program, or when the
+ * program fails. Integers are encoded straight into the buffer, without
+ * a String; other values as their toString().
+ *
+ * The buffer size is set with -Dfwjs.output.buffer (default 64 KB); 0
+ * leaves print writing each value to System.out, as it did before.
+ *
+ * Async calls print to the sink of the code that started them, so its
+ * methods are synchronized; a value and its line separator are never
+ * split by another thread's.
+ */
+public class OutputSink {
+    static final int BUFFER_SIZE = Integer.getInteger("fwjs.output.buffer", 1 << 16);
+    private static final byte[] NEWLINE =
+            System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    /** The longest an int gets: "-2147483648". */
+    private static final int MAX_INT_LENGTH = 11;
+
+    private final WritableByteChannel out;
+    private final byte[] buf;
+    private final ByteBuffer wrapped;
+    private int pos;
+
+    public OutputSink(WritableByteChannel out, int size) {
+        this.out = out;
+        this.buf = new byte[Math.max(size, MAX_INT_LENGTH + NEWLINE.length)];
+        this.wrapped = ByteBuffer.wrap(buf);
+    }
+
+    /** A sink for a stream, such as System.out. */
+    public static OutputSink of(OutputStream out) {
+        return new OutputSink(Channels.newChannel(out), BUFFER_SIZE);
+    }
+
+    /** A sink that replaces the contents of a file, written with a FileChannel. */
+    public static OutputSink open(Path file) throws IOException {
+        return new OutputSink(FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING), BUFFER_SIZE);
+    }
+
+    /** Writes a value and a line separator, as println would. */
+    public synchronized void print(Value v) {
+        if (v instanceof IntVal)
+            printInt(((IntVal) v).toInt());
+        else
+            printString(v.toString());
+        if (buf.length - pos < NEWLINE.length) flush();
+        for (byte b : NEWLINE)
+            buf[pos++] = b;
+    }
+
+    private void printInt(int i) {
+        if (buf.length - pos < MAX_INT_LENGTH) flush();
+        if (i == Integer.MIN_VALUE) {
+            printString("-2147483648");
+            return;
+        }
+        if (i < 0) {
+            buf[pos++] = '-';
+            i = -i;
+        }
+        int end = pos + digits(i);
+        for (int p = end; p > pos; i /= 10)
+            buf[--p] = (byte) ('0' + i % 10);
+        pos = end;
+    }
+
+    private static int digits(int i) {
+        int n = 1;
+        for (int limit = 10; n < 10 && i >= limit; limit *= 10)
+            n++;
+        return n;
+    }
+
+    private void printString(String s) {
+        int n = s.length();
+        for (int i = 0; i < n; i++) {
+            if (s.charAt(i) >= 0x80) {
+                write(s.getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+        }
+        for (int i = 0; i < n; ) {
+            if (pos == buf.length) flush();
+            int end = Math.min(n, i + buf.length - pos);
+            while (i < end)
+                buf[pos++] = (byte) s.charAt(i++);
+        }
+    }
+
+    private void write(byte[] bytes) {
+        for (int i = 0; i < bytes.length; ) {
+            if (pos == buf.length) flush();
+            int len = Math.min(bytes.length - i, buf.length - pos);
+            System.arraycopy(bytes, i, buf, pos, len);
+            pos += len;
+            i += len;
+        }
+    }
+
+    /** Writes out everything printed so far. */
+    public synchronized void flush() {
+        try {
+            wrapped.clear().limit(pos);
+            while (wrapped.hasRemaining())
+                out.write(wrapped);
+            pos = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Flushes the sink and closes its channel. */
+    public synchronized void close() {
+        flush();
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
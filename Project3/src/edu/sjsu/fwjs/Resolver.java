@@ -0,0 +1,287 @@
+package edu.sjsu.fwjs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Static scope resolution, run between the ExpressionBuilderVisitor
+ * and evaluation.
+ *
+ * Every parameter and every var declared inside a function gets a slot
+ * in that function's array-backed frame. References to those variables
+ * are rewritten to a (depth, slot) coordinate, where depth counts the
+ * function frames between the reference and the declaring function.
+ * Variables that no enclosing function declares are globals; they keep
+ * their dynamic "create on assignment" behavior and are looked up by
+ * name in the global environment.
+ *
+ * The resolver also marks tail calls: a call that is the body of a
+ * function, the last expression of a sequence or block in tail position, or a
+ * branch of an if in tail position.
+ */
+public class Resolver {
+    /**
+     * The frame layout of a function being resolved.
+     */
+    private static class Scope {
+        final List<String> names = new ArrayList<String>();
+        boolean hasInnerFunctions;
+        int slotOf(String name) {
+            return names.indexOf(name);
+        }
+        int declare(String name) {
+            int i = names.indexOf(name);
+            if (i >= 0) return i;
+            names.add(name);
+            return names.size() - 1;
+        }
+    }
+
+    /** Enclosing function scopes, innermost last. */
+    private List<Scope> scopes = new ArrayList<Scope>();
+    private boolean spawnsThreads;
+
+    /**
+     * True if an expression resolved so far has an async call, a par or
+     * a spawn, so that the program needs a concurrent global Environment.
+     */
+    public boolean spawnsThreads() {
+        return spawnsThreads;
+    }
+
+    /**
+     * Returns a copy of the expression with every variable reference resolved.
+     */
+    public Expression resolve(Expression exp) {
+        return resolve(exp, false);
+    }
+
+    private Expression resolve(Expression exp, boolean tail) {
+        if (exp == null) return null;
+        if (exp instanceof VarExpr) {
+            VarExpr ve = (VarExpr) exp;
+            int depth = depthOf(ve.varName);
+            if (depth < 0) return new VarExpr(ve.varName, Environment.GLOBAL, -1);
+            return new VarExpr(ve.varName, depth, slotAt(depth, ve.varName));
+        }
+        if (exp instanceof AssignExpr) {
+            AssignExpr ae = (AssignExpr) exp;
+            Expression e = resolve(ae.e);
+            int depth = depthOf(ae.varName);
+            if (depth < 0) return new AssignExpr(ae.varName, e, Environment.GLOBAL, -1);
+            return new AssignExpr(ae.varName, e, depth, slotAt(depth, ae.varName));
+        }
+        if (exp instanceof VarDeclExpr) {
+            VarDeclExpr vd = (VarDeclExpr) exp;
+            Expression e = resolve(vd.exp);
+            if (scopes.isEmpty()) return new VarDeclExpr(vd.varName, e);
+            return new VarDeclExpr(vd.varName, e, slotAt(0, vd.varName));
+        }
+        if (exp instanceof FunctionDeclExpr) {
+            FunctionDeclExpr fd = (FunctionDeclExpr) exp;
+            Scope scope = new Scope();
+            int[] paramSlots = new int[fd.params.size()];
+            for (int i = 0; i < paramSlots.length; i++)
+                paramSlots[i] = scope.declare(fd.params.get(i));
+            collectDecls(fd.body, scope);
+            scopes.add(scope);
+            Expression body;
+            try {
+                body = resolve(fd.body, true);
+            } finally {
+                scopes.remove(scopes.size() - 1);
+            }
+            String[] frameNames = scope.names.toArray(new String[scope.names.size()]);
+            return new FunctionDeclExpr(fd.params, body, frameNames, paramSlots,
+                    scope.hasInnerFunctions);
+        }
+        if (exp instanceof FunctionAppExpr) {
+            FunctionAppExpr fa = (FunctionAppExpr) exp;
+            List<Expression> args = new ArrayList<Expression>();
+            for (Expression arg : fa.args)
+                args.add(resolve(arg));
+            return new FunctionAppExpr(resolve(fa.f), args, tail);
+        }
+        if (exp instanceof BinOpExpr) {
+            BinOpExpr be = (BinOpExpr) exp;
+            return BinOpExpr.create(be.op, resolve(be.e1), resolve(be.e2));
+        }
+        if (exp instanceof IfExpr) {
+            IfExpr ie = (IfExpr) exp;
+            return new IfExpr(resolve(ie.cond), resolve(ie.thn, tail), resolve(ie.els, tail));
+        }
+        if (exp instanceof WhileExpr) {
+            WhileExpr we = (WhileExpr) exp;
+            return new WhileExpr(resolve(we.cond), resolve(we.body));
+        }
+        if (exp instanceof SeqExpr) {
+            SeqExpr se = (SeqExpr) exp;
+            return new SeqExpr(resolve(se.e1), resolve(se.e2, tail));
+        }
+        if (exp instanceof BlockExpr) {
+            Expression[] stmts = ((BlockExpr) exp).stmts;
+            List<Expression> resolved = new ArrayList<Expression>(stmts.length);
+            for (int i = 0; i < stmts.length; i++)
+                resolved.add(resolve(stmts[i], tail && i == stmts.length - 1));
+            return new BlockExpr(resolved);
+        }
+        if (exp instanceof PrintExpr) {
+            return new PrintExpr(resolve(((PrintExpr) exp).exp));
+        }
+        if (exp instanceof AsyncExpr) {
+            AsyncExpr ae = (AsyncExpr) exp;
+            spawnsThreads = true;
+            List<Expression> args = new ArrayList<Expression>();
+            for (Expression arg : ae.args)
+                args.add(resolve(arg));
+            return new AsyncExpr(resolve(ae.f), args);
+        }
+        if (exp instanceof AwaitExpr) {
+            return new AwaitExpr(resolve(((AwaitExpr) exp).exp));
+        }
+        if (exp instanceof SpawnExpr) {
+            SpawnExpr se = (SpawnExpr) exp;
+            spawnsThreads = true;
+            List<Expression> args = new ArrayList<Expression>();
+            for (Expression arg : se.args)
+                args.add(resolve(arg));
+            return new SpawnExpr(resolve(se.f), args);
+        }
+        if (exp instanceof ChannelExpr) {
+            ChannelExpr ce = (ChannelExpr) exp;
+            List<Expression> args = new ArrayList<Expression>();
+            for (Expression arg : ce.args)
+                args.add(resolve(arg));
+            return new ChannelExpr(ce.kind, args);
+        }
+        if (exp instanceof ArrayExpr) {
+            List<Expression> elems = new ArrayList<Expression>();
+            for (Expression e : ((ArrayExpr) exp).elems)
+                elems.add(resolve(e));
+            return new ArrayExpr(elems);
+        }
+        if (exp instanceof IndexExpr) {
+            IndexExpr ie = (IndexExpr) exp;
+            return new IndexExpr(resolve(ie.array), resolve(ie.index));
+        }
+        if (exp instanceof IndexAssignExpr) {
+            IndexAssignExpr ia = (IndexAssignExpr) exp;
+            return new IndexAssignExpr(resolve(ia.array), resolve(ia.index), resolve(ia.e));
+        }
+        if (exp instanceof PropertyExpr) {
+            PropertyExpr pe = (PropertyExpr) exp;
+            return new PropertyExpr(resolve(pe.obj), pe.name);
+        }
+        if (exp instanceof ObjectExpr) {
+            ObjectExpr oe = (ObjectExpr) exp;
+            List<Expression> values = new ArrayList<Expression>();
+            for (Expression e : oe.values)
+                values.add(resolve(e));
+            return new ObjectExpr(oe.names, values);
+        }
+        if (exp instanceof PropertyAssignExpr) {
+            PropertyAssignExpr pa = (PropertyAssignExpr) exp;
+            return new PropertyAssignExpr(resolve(pa.obj), pa.name, resolve(pa.e));
+        }
+        if (exp instanceof ParExpr) {
+            spawnsThreads = true;
+            List<Expression> branches = new ArrayList<Expression>();
+            for (Expression b : ((ParExpr) exp).branches)
+                branches.add(resolve(b));
+            return new ParExpr(branches, ((ParExpr) exp).values);
+        }
+        return exp;
+    }
+
+    /**
+     * Adds every var declared directly in a function body to its scope.
+     * Nested functions get scopes of their own.
+     */
+    private void collectDecls(Expression exp, Scope scope) {
+        if (exp == null) return;
+        if (exp instanceof FunctionDeclExpr) {
+            scope.hasInnerFunctions = true;
+        } else if (exp instanceof VarDeclExpr) {
+            VarDeclExpr vd = (VarDeclExpr) exp;
+            scope.declare(vd.varName);
+            collectDecls(vd.exp, scope);
+        } else if (exp instanceof AssignExpr) {
+            collectDecls(((AssignExpr) exp).e, scope);
+        } else if (exp instanceof FunctionAppExpr) {
+            FunctionAppExpr fa = (FunctionAppExpr) exp;
+            collectDecls(fa.f, scope);
+            for (Expression arg : fa.args)
+                collectDecls(arg, scope);
+        } else if (exp instanceof BinOpExpr) {
+            collectDecls(((BinOpExpr) exp).e1, scope);
+            collectDecls(((BinOpExpr) exp).e2, scope);
+        } else if (exp instanceof IfExpr) {
+            collectDecls(((IfExpr) exp).cond, scope);
+            collectDecls(((IfExpr) exp).thn, scope);
+            collectDecls(((IfExpr) exp).els, scope);
+        } else if (exp instanceof WhileExpr) {
+            collectDecls(((WhileExpr) exp).cond, scope);
+            collectDecls(((WhileExpr) exp).body, scope);
+        } else if (exp instanceof SeqExpr) {
+            collectDecls(((SeqExpr) exp).e1, scope);
+            collectDecls(((SeqExpr) exp).e2, scope);
+        } else if (exp instanceof BlockExpr) {
+            for (Expression stat : ((BlockExpr) exp).stmts)
+                collectDecls(stat, scope);
+        } else if (exp instanceof PrintExpr) {
+            collectDecls(((PrintExpr) exp).exp, scope);
+        } else if (exp instanceof AsyncExpr) {
+            AsyncExpr ae = (AsyncExpr) exp;
+            collectDecls(ae.f, scope);
+            for (Expression arg : ae.args)
+                collectDecls(arg, scope);
+        } else if (exp instanceof AwaitExpr) {
+            collectDecls(((AwaitExpr) exp).exp, scope);
+        } else if (exp instanceof ParExpr) {
+            for (Expression b : ((ParExpr) exp).branches)
+                collectDecls(b, scope);
+        } else if (exp instanceof SpawnExpr) {
+            SpawnExpr se = (SpawnExpr) exp;
+            collectDecls(se.f, scope);
+            for (Expression arg : se.args)
+                collectDecls(arg, scope);
+        } else if (exp instanceof ChannelExpr) {
+            for (Expression arg : ((ChannelExpr) exp).args)
+                collectDecls(arg, scope);
+        } else if (exp instanceof ArrayExpr) {
+            for (Expression e : ((ArrayExpr) exp).elems)
+                collectDecls(e, scope);
+        } else if (exp instanceof IndexExpr) {
+            collectDecls(((IndexExpr) exp).array, scope);
+            collectDecls(((IndexExpr) exp).index, scope);
+        } else if (exp instanceof IndexAssignExpr) {
+            IndexAssignExpr ia = (IndexAssignExpr) exp;
+            collectDecls(ia.array, scope);
+            collectDecls(ia.index, scope);
+            collectDecls(ia.e, scope);
+        } else if (exp instanceof PropertyExpr) {
+            collectDecls(((PropertyExpr) exp).obj, scope);
+        } else if (exp instanceof ObjectExpr) {
+            for (Expression e : ((ObjectExpr) exp).values)
+                collectDecls(e, scope);
+        } else if (exp instanceof PropertyAssignExpr) {
+            collectDecls(((PropertyAssignExpr) exp).obj, scope);
+            collectDecls(((PropertyAssignExpr) exp).e, scope);
+        }
+    }
+
+    /**
+     * The number of frames between the current scope and the innermost
+     * function that declares the variable, or -1 for a global.
+     */
+    private int depthOf(String varName) {
+        for (int d = 0; d < scopes.size(); d++) {
+            if (slotAt(d, varName) >= 0) return d;
+        }
+        return -1;
+    }
+
+    private int slotAt(int depth, String varName) {
+        return scopes.get(scopes.size() - 1 - depth).slotOf(varName);
+    }
+}
@@ -0,0 +1,108 @@
+package edu.sjsu.fwjs;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The layout of an ObjectVal, a hidden class: the names of its
+ * properties, in the order they were added, each at the index of the
+ * slot that holds its value.
+ *
+ * Shapes form a tree rooted at EMPTY. Adding a property to an object
+ * moves it to a child of its shape, which is made the first time that
+ * property is added to an object of that shape and shared after, so
+ * objects built by adding the same properties in the same order have
+ * the same Shape, and a property read can cache the slot it found for
+ * a shape (see Cache).
+ *
+ * Shapes are immutable but for the table of their children, which is
+ * concurrent, so objects built on any thread share one tree.
+ */
+final class Shape {
+    /** The shape of an object without properties. */
+    static final Shape EMPTY = new Shape(new String[0]);
+
+    private final String[] names;
+    private final ConcurrentHashMap<String, Shape> children =
+        new ConcurrentHashMap<String, Shape>();
+
+    private Shape(String[] names) {
+        this.names = names;
+    }
+
+    /** The number of properties, and of slots an object of this shape uses. */
+    int size() {
+        return names.length;
+    }
+
+    /** The name of the property in a slot. */
+    String name(int slot) {
+        return names[slot];
+    }
+
+    /** The slot of a property, or -1 if objects of this shape do not have it. */
+    int slot(String name) {
+        for (int i = names.length - 1; i >= 0; i--)
+            if (names[i].equals(name))
+                return i;
+        return -1;
+    }
+
+    /**
+     * The shape after adding a property that this one does not have,
+     * which holds it in slot size().
+     */
+    Shape with(String name) {
+        Shape child = children.get(name);
+        if (child != null)
+            return child;
+        String[] more = Arrays.copyOf(names, names.length + 1);
+        more[names.length] = name;
+        child = new Shape(more);
+        Shape raced = children.putIfAbsent(name, child);
+        return raced != null ? raced : child;
+    }
+
+    /**
+     * What a property access found for objects of one shape, which it
+     * keeps as its inline cache: the slot of the property, or -1 if they
+     * do not have it, and the shape after storing into it, which is a
+     * child of shape when the store adds the property. The next access
+     * to an object of the same shape needs no lookup.
+     *
+     * A cache is polymorphic: each entry links to the one before, up to
+     * MAX shapes, after which the access starts over with the newest.
+     * Entries are immutable and an access replaces its whole chain at
+     * once, so it stays consistent even when threads share the node.
+     */
+    static final class Cache {
+        static final int MAX = 4;
+
+        final Shape shape;
+        final int slot;
+        final Shape next;
+        private final Cache older;
+        private final int size;
+
+        private Cache(Shape shape, int slot, Shape next, Cache older) {
+            this.shape = shape;
+            this.slot = slot;
+            this.next = next;
+            this.older = older;
+            this.size = older == null ? 1 : older.size + 1;
+        }
+
+        /** The entry of a cache for a shape, or null if it has none. */
+        static Cache find(Cache cache, Shape shape) {
+            for (Cache c = cache; c != null; c = c.older)
+                if (c.shape == shape)
+                    return c;
+            return null;
+        }
+
+        /** The cache with an entry for one more shape. */
+        static Cache add(Cache cache, Shape shape, int slot, Shape next) {
+            return new Cache(shape, slot, next, cache != null && cache.size < MAX ? cache : null);
+        }
+    }
+}
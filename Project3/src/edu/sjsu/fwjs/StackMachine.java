@@ -0,0 +1,224 @@
+package edu.sjsu.fwjs;
+
+import java.util.Arrays;
+
+/**
+ * An evaluator that keeps FWJS continuations on an explicit stack in the
+ * heap instead of on the Java stack.
+ *
+ * Expression.evaluate nests several Java frames per FWJS call, so deep
+ * non-tail recursion overflows the thread stack after a few thousand
+ * calls. This machine walks the same Expression trees, but every pending
+ * step is a task on its own control stack and every intermediate result
+ * sits on its value stack. Recursion depth is then only limited by heap.
+ */
+public class StackMachine {
+    // Task kinds. EVAL evaluates a node; the others continue a node
+    // once the values of its children are on the value stack.
+    private static final int EVAL = 0;
+    private static final int BINOP = 1;
+    private static final int IF = 2;
+    private static final int WHILE_TEST = 3;
+    private static final int WHILE_BODY = 4;
+    private static final int SEQ = 5;
+    private static final int PRINT = 6;
+    private static final int VARDECL = 7;
+    private static final int ASSIGN = 8;
+    private static final int CALL = 9;
+    private static final int POP = 10;
+
+    private int[] kinds = new int[64];
+    private Expression[] nodes = new Expression[64];
+    private Environment[] envs = new Environment[64];
+    private int ksp = 0;
+
+    private Value[] vals = new Value[64];
+    private int vsp = 0;
+
+    /**
+     * Evaluates the expression in the context of the specified environment.
+     */
+    public Value run(Expression exp, Environment env) {
+        int base = ksp;
+        int vbase = vsp;
+        try {
+            loop(exp, env, base);
+        } catch (RuntimeException ex) {
+            while (ksp > base) {
+                ksp--;
+                nodes[ksp] = null;
+                envs[ksp] = null;
+            }
+            while (vsp > vbase)
+                vals[--vsp] = null;
+            throw ex;
+        }
+        return popVal();
+    }
+
+    private void loop(Expression exp, Environment env, int base) {
+        push(EVAL, exp, env);
+        while (ksp > base) {
+            ksp--;
+            int kind = kinds[ksp];
+            Expression node = nodes[ksp];
+            Environment e = envs[ksp];
+            nodes[ksp] = null;
+            envs[ksp] = null;
+            switch (kind) {
+                case EVAL:
+                    eval(node, e);
+                    break;
+                case BINOP: {
+                    Value b = popVal();
+                    Value a = popVal();
+                    pushVal(BinOpExpr.apply(((BinOpExpr) node).op, a, b));
+                    break;
+                }
+                case IF: {
+                    IfExpr ie = (IfExpr) node;
+                    push(EVAL, BoolVal.test(popVal()) ? ie.thn : ie.els, e);
+                    break;
+                }
+                case WHILE_TEST: {
+                    WhileExpr we = (WhileExpr) node;
+                    if (BoolVal.test(popVal())) {
+                        push(WHILE_BODY, we, e);
+                        push(POP, null, null);
+                        push(EVAL, we.body, e);
+                    } else {
+                        pushVal(NullVal.NULL);
+                    }
+                    break;
+                }
+                case WHILE_BODY:
+                    push(WHILE_TEST, node, e);
+                    push(EVAL, ((WhileExpr) node).cond, e);
+                    break;
+                case POP:
+                    popVal();
+                    break;
+                case SEQ: {
+                    Value b = popVal();
+                    Value a = popVal();
+                    pushVal(b == null || b instanceof NullVal ? a : b);
+                    break;
+                }
+                case PRINT: {
+                    Value v = popVal();
+                    PrintExpr.print(v);
+                    pushVal(v);
+                    break;
+                }
+                case VARDECL:
+                    ((VarDeclExpr) node).declare(e, vals[vsp - 1]);
+                    break;
+                case ASSIGN:
+                    ((AssignExpr) node).assign(e, vals[vsp - 1]);
+                    break;
+                case CALL:
+                    call((FunctionAppExpr) node);
+                    break;
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+    }
+
+    /**
+     * Leaves the value of a node on the value stack, either directly or
+     * by scheduling the tasks that compute it.
+     */
+    private void eval(Expression node, Environment e) {
+        if (node instanceof ValueExpr || node instanceof VarExpr
+                || node instanceof FunctionDeclExpr) {
+            pushVal(node.evaluate(e));
+        } else if (node instanceof BinOpExpr) {
+            BinOpExpr be = (BinOpExpr) node;
+            push(BINOP, be, e);
+            push(EVAL, be.e2, e);
+            push(EVAL, be.e1, e);
+        } else if (node instanceof IfExpr) {
+            IfExpr ie = (IfExpr) node;
+            push(IF, ie, e);
+            push(EVAL, ie.cond, e);
+        } else if (node instanceof WhileExpr) {
+            WhileExpr we = (WhileExpr) node;
+            push(WHILE_TEST, we, e);
+            push(EVAL, we.cond, e);
+        } else if (node instanceof SeqExpr) {
+            SeqExpr se = (SeqExpr) node;
+            push(SEQ, se, e);
+            push(EVAL, se.e2, e);
+            push(EVAL, se.e1, e);
+        } else if (node instanceof BlockExpr) {
+            // Scheduled as the chain of SeqExprs it stands for.
+            Expression[] stmts = ((BlockExpr) node).stmts;
+            for (int i = stmts.length - 1; i > 0; i--) {
+                push(SEQ, node, e);
+                push(EVAL, stmts[i], e);
+            }
+            push(EVAL, stmts[0], e);
+        } else if (node instanceof PrintExpr) {
+            push(PRINT, node, e);
+            push(EVAL, ((PrintExpr) node).exp, e);
+        } else if (node instanceof VarDeclExpr) {
+            push(VARDECL, node, e);
+            push(EVAL, ((VarDeclExpr) node).exp, e);
+        } else if (node instanceof AssignExpr) {
+            push(ASSIGN, node, e);
+            push(EVAL, ((AssignExpr) node).e, e);
+        } else if (node instanceof FunctionAppExpr) {
+            FunctionAppExpr fa = (FunctionAppExpr) node;
+            push(CALL, fa, e);
+            for (int i = fa.args.size() - 1; i >= 0; i--)
+                push(EVAL, fa.args.get(i), e);
+            push(EVAL, fa.f, e);
+        } else {
+            pushVal(TailCall.complete(node.evaluate(e)));
+        }
+    }
+
+    /**
+     * The callee and arguments are on the value stack. The body is
+     * scheduled in place of the call, so a call leaves nothing behind on
+     * the control stack and tail calls need no special treatment.
+     */
+    private void call(FunctionAppExpr fa) {
+        int n = fa.args.size();
+        Value[] argVals = Arrays.copyOfRange(vals, vsp - n, vsp);
+        for (int i = 0; i < n; i++)
+            vals[--vsp] = null;
+        Value f = popVal();
+        if (!(f instanceof ClosureVal))
+            throw new RuntimeException();
+        ClosureVal fn = (ClosureVal) f;
+        Environment frame = fn.bind(argVals, null);
+        push(EVAL, fn.decl().body, frame);
+    }
+
+    private void push(int kind, Expression node, Environment env) {
+        if (ksp == kinds.length) {
+            int n = kinds.length * 2;
+            kinds = Arrays.copyOf(kinds, n);
+            nodes = Arrays.copyOf(nodes, n);
+            envs = Arrays.copyOf(envs, n);
+        }
+        kinds[ksp] = kind;
+        nodes[ksp] = node;
+        envs[ksp] = env;
+        ksp++;
+    }
+
+    private void pushVal(Value v) {
+        if (vsp == vals.length)
+            vals = Arrays.copyOf(vals, vals.length * 2);
+        vals[vsp++] = v;
+    }
+
+    private Value popVal() {
+        Value v = vals[--vsp];
+        vals[vsp] = null;
+        return v;
+    }
+}
@@ -0,0 +1,63 @@
+package edu.sjsu.fwjs;
+
+import java.io.InputStream;
+
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.UnbufferedCharStream;
+import org.antlr.v4.runtime.UnbufferedTokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+
+import edu.sjsu.fwjs.parser.FeatherweightJavaScriptLexer;
+import edu.sjsu.fwjs.parser.FeatherweightJavaScriptParser;
+
+/**
+ * Parses a program one top-level statement at a time, so it can run each
+ * statement before the next one is even read. Characters and tokens are
+ * only buffered as far as the statement being parsed needs, and nothing
+ * refers to a statement once the caller drops it, so memory does not
+ * grow with the length of the program.
+ *
+ * Parsing stat on its own, rather than from prog, the parser thinks a
+ * statement can only be followed by the end of the input. So prediction
+ * uses SLL, which allows anything that can follow a statement anywhere
+ * in the grammar (the grammar needs nothing more; see
+ * ParserTest.testSllMatchesLl), and the error strategy does not check
+ * ahead of each subrule, which would take the statement after an if for
+ * a missing else. There is no falling back to LL after a syntax error,
+ * as there is in Interpreter.parseTree, since the tokens are gone.
+ */
+public class StatementStream {
+    private final UnbufferedTokenStream<Token> tokens;
+    private final FeatherweightJavaScriptParser parser;
+    private final ExpressionBuilderVisitor builder = new ExpressionBuilderVisitor();
+
+    public StatementStream(InputStream in) {
+        FeatherweightJavaScriptLexer lexer = new FeatherweightJavaScriptLexer(
+                new UnbufferedCharStream(in));
+        // The characters are gone by the time the parser wants the text.
+        lexer.setTokenFactory(new CommonTokenFactory(true));
+        tokens = new UnbufferedTokenStream<Token>(lexer);
+        parser = new FeatherweightJavaScriptParser(tokens);
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        parser.setErrorHandler(new DefaultErrorStrategy() {
+            @Override
+            public void sync(Parser recognizer) {
+            }
+        });
+    }
+
+    /**
+     * Returns the next statement that is not empty, not yet resolved, or
+     * null at the end of the input.
+     */
+    public Expression next() {
+        while (tokens.LA(1) != Token.EOF) {
+            Expression stat = builder.visit(parser.stat());
+            if (stat != null) return stat;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,202 @@
+package edu.sjsu.fwjs;
+
+/**
+ * A hand-written lexer for the tokens of FeatherweightJavaScript.g4,
+ * used by the DirectParser. It scans one token at a time, on demand:
+ * type holds the kind of the current token, and text or intVal its
+ * value for identifiers and integers.
+ */
+class Tokenizer {
+    static final int EOF = 0;
+    static final int IF = 1;
+    static final int ELSE = 2;
+    static final int WHILE = 3;
+    static final int FUNCTION = 4;
+    static final int VAR = 5;
+    static final int PRINT = 6;
+    static final int INT = 7;
+    static final int TRUE = 8;
+    static final int FALSE = 9;
+    static final int NULL = 10;
+    static final int ID = 11;
+    static final int MUL = 12;
+    static final int DIV = 13;
+    static final int MOD = 14;
+    static final int ADD = 15;
+    static final int SUB = 16;
+    static final int GT = 17;
+    static final int GE = 18;
+    static final int LT = 19;
+    static final int LE = 20;
+    static final int EQ = 21;
+    static final int ASSIGN = 22;
+    static final int SEPARATOR = 23;
+    static final int LPAREN = 24;
+    static final int RPAREN = 25;
+    static final int LBRACE = 26;
+    static final int RBRACE = 27;
+    static final int COMMA = 28;
+    static final int ASYNC = 29;
+    static final int AWAIT = 30;
+    static final int PAR = 31;
+    static final int SPAWN = 32;
+    static final int CHAN = 33;
+    static final int SEND = 34;
+    static final int RECV = 35;
+    static final int CLOSE = 36;
+    static final int LBRACKET = 37;
+    static final int RBRACKET = 38;
+    static final int DOT = 39;
+    static final int COLON = 40;
+
+    private final CharSequence src;
+    private final int length;
+    private int pos;
+    private int line = 1;
+    private int lineStart;
+
+    /** The current token. */
+    int type;
+    String text;
+    int intVal;
+    /** Where the current token starts, for error messages. */
+    int tokenLine;
+    int tokenColumn;
+
+    Tokenizer(CharSequence src) {
+        this.src = src;
+        this.length = src.length();
+        next();
+    }
+
+    /**
+     * Advances to the next token.
+     */
+    void next() {
+        skipSpace();
+        tokenLine = line;
+        tokenColumn = pos - lineStart;
+        text = null;
+        if (pos == length) {
+            type = EOF;
+            return;
+        }
+        char c = src.charAt(pos);
+        if (c >= '0' && c <= '9') {
+            int start = pos++;
+            // Like the grammar, "012" is the three integers 0, 1 and 2.
+            if (c != '0')
+                while (pos < length && src.charAt(pos) >= '0' && src.charAt(pos) <= '9') pos++;
+            intVal = Integer.parseInt(src, start, pos, 10);
+            type = INT;
+            return;
+        }
+        if (isIdStart(c)) {
+            int start = pos++;
+            while (pos < length && (isIdStart(src.charAt(pos))
+                    || (src.charAt(pos) >= '0' && src.charAt(pos) <= '9'))) pos++;
+            text = src.subSequence(start, pos).toString();
+            type = keyword(text);
+            return;
+        }
+        pos++;
+        switch (c) {
+            case '*': type = MUL; return;
+            case '/': type = DIV; return;
+            case '%': type = MOD; return;
+            case '+': type = ADD; return;
+            case '-': type = SUB; return;
+            case ';': type = SEPARATOR; return;
+            case '(': type = LPAREN; return;
+            case ')': type = RPAREN; return;
+            case '{': type = LBRACE; return;
+            case '}': type = RBRACE; return;
+            case ',': type = COMMA; return;
+            case '[': type = LBRACKET; return;
+            case ']': type = RBRACKET; return;
+            case '.': type = DOT; return;
+            case ':': type = COLON; return;
+            case '>': type = match('=') ? GE : GT; return;
+            case '<': type = match('=') ? LE : LT; return;
+            case '=': type = match('=') ? EQ : ASSIGN; return;
+            default:
+                pos--;
+                throw error("token recognition error at: '" + c + "'");
+        }
+    }
+
+    DirectParser.SyntaxError error(String msg) {
+        return new DirectParser.SyntaxError("line " + tokenLine + ":" + tokenColumn + " " + msg);
+    }
+
+    private boolean match(char c) {
+        if (pos < length && src.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipSpace() {
+        while (pos < length) {
+            char c = src.charAt(pos);
+            if (c == ' ' || c == '\t') {
+                pos++;
+            } else if (c == '\n' || (c == '\r' && pos + 1 < length && src.charAt(pos + 1) == '\n')) {
+                pos += c == '\r' ? 2 : 1;
+                newLine();
+            } else if (c == '/' && pos + 1 < length && src.charAt(pos + 1) == '/') {
+                while (pos < length && src.charAt(pos) != '\n' && src.charAt(pos) != '\r') pos++;
+            } else if (c == '/' && pos + 1 < length && src.charAt(pos + 1) == '*') {
+                int end = pos + 2;
+                while (end + 1 < length && !(src.charAt(end) == '*' && src.charAt(end + 1) == '/')) end++;
+                if (end + 1 >= length) {
+                    tokenLine = line;
+                    tokenColumn = pos - lineStart;
+                    throw error("unterminated comment");
+                }
+                for (int i = pos; i < end; i++) {
+                    if (src.charAt(i) == '\n') {
+                        line++;
+                        lineStart = i + 1;
+                    }
+                }
+                pos = end + 2;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void newLine() {
+        line++;
+        lineStart = pos;
+    }
+
+    private static boolean isIdStart(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+
+    private static int keyword(String s) {
+        switch (s) {
+            case "if": return IF;
+            case "else": return ELSE;
+            case "while": return WHILE;
+            case "function": return FUNCTION;
+            case "var": return VAR;
+            case "print": return PRINT;
+            case "async": return ASYNC;
+            case "await": return AWAIT;
+            case "par": return PAR;
+            case "spawn": return SPAWN;
+            case "chan": return CHAN;
+            case "send": return SEND;
+            case "recv": return RECV;
+            case "close": return CLOSE;
+            case "true": return TRUE;
+            case "false": return FALSE;
+            case "null": return NULL;
+            default: return ID;
+        }
+    }
+}
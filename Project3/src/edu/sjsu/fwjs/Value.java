@@ -1,6 +1,15 @@
 package edu.sjsu.fwjs;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Values in FWJS.
@@ -15,15 +24,36 @@ public interface Value {}
  * Boolean values.
  */
 class BoolVal implements Value {
-    private boolean boolVal;
+    public static final BoolVal TRUE = new BoolVal(true);
+    public static final BoolVal FALSE = new BoolVal(false);
+    private final boolean boolVal;
     public BoolVal(boolean b) { this.boolVal = b; }
+    /**
+     * Returns one of the shared TRUE and FALSE instances.
+     */
+    public static BoolVal valueOf(boolean b) { return b ? TRUE : FALSE; }
+    /**
+     * The truth value of a condition, which must be a boolean.
+     */
+    static boolean test(Value v) {
+        if (v == TRUE) return true;
+        if (v == FALSE) return false;
+        if (!(v instanceof BoolVal))
+            throw new RuntimeException();
+        return ((BoolVal) v).boolVal;
+    }
     public boolean toBoolean() { return this.boolVal; }
     @Override
     public boolean equals(Object that) {
+        if (that == this) return true;
         if (!(that instanceof BoolVal)) return false;
         return this.boolVal == ((BoolVal) that).boolVal;
     }
     @Override
+    public int hashCode() {
+        return this.boolVal ? 1231 : 1237;
+    }
+    @Override
     public String toString() {
         return "" + this.boolVal;
     }
@@ -33,26 +63,61 @@ class BoolVal implements Value {
  * Numbers.  Only integers are supported.
  */
 class IntVal implements Value {
-    private int i;
+    /**
+     * Range of cached instances, which can be changed with the
+     * fwjs.intcache.low and fwjs.intcache.high system properties.
+     */
+    static final int CACHE_LOW = Integer.getInteger("fwjs.intcache.low", -128);
+    static final int CACHE_HIGH = Integer.getInteger("fwjs.intcache.high", 1023);
+    private static final IntVal[] cache =
+        new IntVal[Math.max(0, CACHE_HIGH - CACHE_LOW + 1)];
+    static {
+        for (int k = 0; k < cache.length; k++)
+            cache[k] = new IntVal(CACHE_LOW + k);
+    }
+
+    private final int i;
     public IntVal(int i) { this.i = i; }
+    /**
+     * Returns a shared instance for small integers, and a new one otherwise.
+     */
+    public static IntVal valueOf(int i) {
+        if (i >= CACHE_LOW && i <= CACHE_HIGH)
+            return cache[i - CACHE_LOW];
+        return new IntVal(i);
+    }
     public int toInt() { return this.i; }
     @Override
     public boolean equals(Object that) {
+        if (that == this) return true;
         if (!(that instanceof IntVal)) return false;
         return this.i == ((IntVal) that).i;
     }
     @Override
+    public int hashCode() {
+        return this.i;
+    }
+    @Override
     public String toString() {
         return "" + this.i;
     }
 }
 
 class NullVal implements Value {
+    /**
+     * The shared null value. Other instances may exist, so test for null
+     * with instanceof rather than by identity.
+     */
+    public static final NullVal NULL = new NullVal();
     @Override
     public boolean equals(Object that) {
         return (that instanceof NullVal);
     }
     @Override
+    public int hashCode() {
+        return 0;
+    }
+    @Override
     public String toString() {
         return "null";
     }
@@ -63,18 +128,29 @@ class NullVal implements Value {
  * Note that a closure remembers its surrounding scope.
  */
 class ClosureVal implements Value {
-    private List<String> params;
-    private Expression body;
-    private Environment outerEnv;
+    private final FunctionDeclExpr decl;
+    private final List<String> params;
+    private final Expression body;
+    private final Environment outerEnv;
     /**
      * The environment is the environment where the function was created.
      * This design is what makes this expression a closure.
      */
     public ClosureVal(List<String> params, Expression body, Environment env) {
-        this.params = params;
-        this.body = body;
+        this(new FunctionDeclExpr(params, body), env);
+    }
+    public ClosureVal(FunctionDeclExpr decl, Environment env) {
+        this.decl = decl;
+        this.params = decl.params;
+        this.body = decl.body;
         this.outerEnv = env;
     }
+    FunctionDeclExpr decl() {
+        return decl;
+    }
+    Environment env() {
+        return outerEnv;
+    }
     public String toString() {
         String s = "function(";
         String sep = "";
@@ -89,16 +165,466 @@ class ClosureVal implements Value {
      * To apply a closure, first create a new local environment, with an outer scope
      * of the environment where the function was created. Each parameter should
      * be bound to its matching argument and added to the new local environment.
+     *
+     * Calls in tail position of the body come back as a TailCall, which
+     * is run by the loop here instead of on a new Java stack frame.
+     * Functions called often enough run as JVM code from the JitCompiler.
      */
     public Value apply(List<Value> argVals) {
-        Environment localNew = new Environment(outerEnv);
-        if(params.size() != argVals.size())
+        return call(argVals.toArray(new Value[argVals.size()]));
+    }
+
+    /**
+     * Like apply, with the arguments in an array.
+     */
+    Value call(Value[] argVals) {
+        return run(argVals, false);
+    }
+
+    /**
+     * Like call, from a call site whose inline cache has already checked
+     * that the arguments fit this closure's declaration.
+     */
+    Value callChecked(Value[] argVals) {
+        return run(argVals, true);
+    }
+
+    private Value run(Value[] argVals, boolean checked) {
+        Environment frame = null;
+        Value r = runCompiled(argVals);
+        if (r == null) {
+            frame = checked ? bindChecked(argVals) : bind(argVals, null);
+            r = body.evaluate(frame);
+        }
+        return finish(r, frame);
+    }
+
+    /**
+     * Runs the tail calls that a result of this closure's body asks for,
+     * and returns the value of the call. frame is the frame the body ran
+     * in, or null if it ran as compiled code.
+     */
+    Value finish(Value r, Environment frame) {
+        ClosureVal fn = this;
+        Value fallback = null;
+        while (r instanceof TailCall) {
+            TailCall tc = (TailCall) r;
+            if (tc.fallback != null)
+                fallback = tc.fallback;
+            // A self tail call reuses the frame, unless a closure may have captured it.
+            if (tc.fn.decl != fn.decl || tc.fn.outerEnv != fn.outerEnv || fn.decl.capturesFrame)
+                frame = null;
+            fn = tc.fn;
+            r = fn.runCompiled(tc.args);
+            if (r == null) {
+                frame = tc.checked ? fn.bindChecked(tc.args) : fn.bind(tc.args, frame);
+                r = fn.body.evaluate(frame);
+            }
+        }
+        if (fallback != null && r instanceof NullVal)
+            return fallback;
+        return r;
+    }
+
+    /**
+     * Runs the compiled code of the body, if there is any and it accepts
+     * the arguments. Returns null otherwise.
+     */
+    private Value runCompiled(Value[] argVals) {
+        if (decl.frameNames == null)
+            return null;
+        CompiledFunction code = JitCompiler.codeFor(decl, argVals);
+        if (code == null)
+            return null;
+        Value r = code.call(argVals, outerEnv);
+        if (r == null)
+            JitCompiler.deoptimize(decl);
+        return r;
+    }
+
+    /**
+     * Creates the local environment for a call, or clears and reuses
+     * the given frame if it is not null.
+     */
+    Environment bind(Value[] argVals, Environment reuse) {
+        if(params.size() != argVals.length)
             throw new RuntimeException();
-        int l = argVals.size();
+        int l = argVals.length;
+        if (decl.frameNames != null) {
+            Environment frame = reuse;
+            if (frame == null)
+                frame = new Environment(outerEnv, decl.frameNames);
+            else
+                frame.resetSlots();
+            for(int i = 0; i < l; i++)
+                frame.declareSlot(decl.paramSlots[i], argVals[i]);
+            return frame;
+        }
+        Environment localNew = new Environment(outerEnv);
         try {
             for(int i = 0; i < l; i++)
-                localNew.createVar(params.get(i), argVals.get(i));
+                localNew.createVar(params.get(i), argVals[i]);
         } catch(Exception e) { throw new RuntimeException(); }
-        return body.evaluate(localNew);
+        return localNew;
+    }
+
+    /**
+     * Creates the frame for a call whose arguments were checked to fit
+     * the declaration: it is resolved, the number of arguments matches
+     * and no two parameters share a slot.
+     */
+    Environment bindChecked(Value[] argVals) {
+        Environment frame = new Environment(outerEnv, decl.frameNames);
+        int[] slots = decl.paramSlots;
+        for (int i = 0; i < argVals.length; i++)
+            frame.declareSlot(slots[i], argVals[i]);
+        return frame;
+    }
+}
+
+/**
+ * A call in tail position, waiting to be run by ClosureVal.apply.
+ * FWJS programs never see these values.
+ */
+class TailCall implements Value {
+    final ClosureVal fn;
+    final Value[] args;
+    /** True if the call site's inline cache checked the arguments. */
+    final boolean checked;
+    /** The value of the enclosing sequence, in case the call returns null. */
+    Value fallback;
+    public TailCall(ClosureVal fn, Value[] args) {
+        this(fn, args, false);
+    }
+    public TailCall(ClosureVal fn, Value[] args, boolean checked) {
+        this.fn = fn;
+        this.args = args;
+        this.checked = checked;
+    }
+    /**
+     * Records the value a sequence ending in this call returns if the call
+     * itself returns null. An inner sequence's value takes precedence.
+     */
+    public void orElse(Value v) {
+        if (fallback == null && !(v instanceof NullVal))
+            fallback = v;
+    }
+    /**
+     * Runs the call if v is a TailCall that escaped a function body,
+     * which happens when evaluate is called on a body from outside of
+     * ClosureVal.apply. Other values are returned unchanged.
+     */
+    static Value complete(Value v) {
+        if (!(v instanceof TailCall))
+            return v;
+        TailCall tc = (TailCall) v;
+        Value r = tc.checked ? tc.fn.callChecked(tc.args) : tc.fn.call(tc.args);
+        if (tc.fallback != null && r instanceof NullVal)
+            return tc.fallback;
+        return r;
+    }
+}
+
+/**
+ * The result of an async call, which await waits for. See Async.
+ */
+class FutureVal implements Value {
+    private final Future<Value> future;
+    FutureVal(Future<Value> future) {
+        this.future = future;
+    }
+    /**
+     * Waits for the call to finish and returns its value, or throws what
+     * it threw. On a ForkJoinPool thread, join runs other tasks while it
+     * waits rather than blocking the thread.
+     */
+    Value await() {
+        if (future instanceof ForkJoinTask)
+            return ((ForkJoinTask<Value>) future).join();
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new RuntimeException(cause);
+        } catch (CancellationException e) {
+            throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+    public boolean isDone() {
+        return future.isDone();
+    }
+    @Override
+    public String toString() {
+        return "future";
+    }
+}
+
+/**
+ * A bounded channel, made by chan(n): a first-in first-out buffer of up
+ * to n values, which send blocks on while it is full and recv while it
+ * is empty. Blocked threads park on a ReentrantLock's conditions, which
+ * unmounts a virtual thread from its carrier rather than pinning it.
+ *
+ * Once closed, send fails, and recv returns the values still buffered
+ * and then null. Only values that may cross between isolates are sent;
+ * see Isolate.
+ */
+class ChannelVal implements Value {
+    private final Value[] buf;
+    private int head;
+    private int count;
+    private boolean closed;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    ChannelVal(int capacity) {
+        if (capacity < 1)
+            throw new RuntimeException("chan: capacity must be positive");
+        this.buf = new Value[capacity];
+    }
+    void send(Value v) {
+        v = Isolate.copy(v);
+        lock.lock();
+        try {
+            while (count == buf.length && !closed)
+                notFull.await();
+            if (closed)
+                throw new RuntimeException("send on a closed channel");
+            int tail = head + count;
+            buf[tail < buf.length ? tail : tail - buf.length] = v;
+            count++;
+            notEmpty.signal();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+    Value recv() {
+        lock.lock();
+        try {
+            while (count == 0 && !closed)
+                notEmpty.await();
+            if (count == 0)
+                return NullVal.NULL;
+            Value v = buf[head];
+            buf[head] = null;
+            head = head + 1 < buf.length ? head + 1 : 0;
+            count--;
+            notFull.signal();
+            return v;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+    @Override
+    public String toString() {
+        return "channel";
+    }
+}
+
+/**
+ * An array, made by a literal [a, b, ...]. While every element is an
+ * integer, the elements are kept unboxed in an int[], which takes 4
+ * bytes each; storing anything else converts it, for good, to a
+ * Value[]. An index out of bounds fails like any Java array's.
+ *
+ * Arrays are mutable, like objects. Like frames, they are not
+ * synchronized: threads storing into the same array at once race, and
+ * they cannot be passed between isolates.
+ */
+class ArrayVal implements Value {
+    /** An int[] while the elements are all integers, and a Value[] after. */
+    private Object elems;
+    ArrayVal(int[] ints) {
+        this.elems = ints;
+    }
+    private ArrayVal(Value[] vals) {
+        this.elems = vals;
+    }
+    /**
+     * An array of the values, backed by an int[] if they are all
+     * integers, and by vals itself otherwise.
+     */
+    static ArrayVal of(Value[] vals) {
+        int[] ints = new int[vals.length];
+        for (int i = 0; i < vals.length; i++) {
+            if (!(vals[i] instanceof IntVal))
+                return new ArrayVal(vals);
+            ints[i] = ((IntVal) vals[i]).toInt();
+        }
+        return new ArrayVal(ints);
+    }
+    int length() {
+        Object e = elems;
+        return e instanceof int[] ? ((int[]) e).length : ((Value[]) e).length;
+    }
+    /** True while the elements are kept in an int[]. */
+    boolean isIntArray() {
+        return elems instanceof int[];
+    }
+    Value get(int i) {
+        Object e = elems;
+        if (e instanceof int[])
+            return IntVal.valueOf(((int[]) e)[i]);
+        return ((Value[]) e)[i];
+    }
+    /** Like get, for an element that must be an integer, without boxing it. */
+    int getInt(int i) {
+        Object e = elems;
+        if (e instanceof int[])
+            return ((int[]) e)[i];
+        Value v = ((Value[]) e)[i];
+        if (!(v instanceof IntVal))
+            throw new RuntimeException();
+        return ((IntVal) v).toInt();
+    }
+    /** Like set, for an integer, which is only boxed if the array is not an int[]. */
+    void setInt(int i, int v) {
+        Object e = elems;
+        if (e instanceof int[])
+            ((int[]) e)[i] = v;
+        else
+            ((Value[]) e)[i] = IntVal.valueOf(v);
+    }
+    void set(int i, Value v) {
+        Object e = elems;
+        if (e instanceof int[]) {
+            int[] ints = (int[]) e;
+            if (v instanceof IntVal) {
+                ints[i] = ((IntVal) v).toInt();
+                return;
+            }
+            if (i < 0 || i >= ints.length)
+                throw new ArrayIndexOutOfBoundsException(i);
+            Value[] vals = new Value[ints.length];
+            for (int k = 0; k < ints.length; k++)
+                vals[k] = IntVal.valueOf(ints[k]);
+            elems = e = vals;
+        }
+        ((Value[]) e)[i] = v;
+    }
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0, n = length(); i < n; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(get(i));
+        }
+        return sb.append("]").toString();
+    }
+}
+
+/**
+ * An object, made by a literal {a: x, b: y, ...}, with properties that
+ * o.name reads and o.name = v adds or changes. Reading a property the
+ * object does not have gives null, like reading an undeclared variable.
+ *
+ * The values sit in an array of slots, laid out by the object's Shape,
+ * which it shares with every object that got the same properties in the
+ * same order; the property accesses of the AST cache the slot they find
+ * for a shape. An object with more than maxSlots properties switches,
+ * for good, to a LinkedHashMap from names to values, and has no shape.
+ *
+ * Like arrays, objects are mutable and not synchronized, and they cannot
+ * be passed between isolates.
+ */
+class ObjectVal implements Value {
+    /**
+     * Properties beyond which an object is kept in a HashMap, set with the
+     * fwjs.object.slots system property. With 0, every object is.
+     */
+    static int maxSlots = Integer.getInteger("fwjs.object.slots", 64);
+
+    /** The layout of slots, or null once the object is a HashMap. */
+    private Shape shape;
+    private Value[] slots;
+    private Map<String, Value> map;
+
+    /** An object of the shape, whose slots are the values of its properties. */
+    ObjectVal(Shape shape, Value[] slots) {
+        this.shape = shape;
+        this.slots = slots;
+        if (shape.size() > maxSlots)
+            toMap();
+    }
+    /** The object's shape, or null if it is kept in a HashMap. */
+    Shape shape() {
+        return shape;
+    }
+    /** The value in a slot of the object's shape, or null for slot -1. */
+    Value slot(int i) {
+        return i < 0 ? NullVal.NULL : slots[i];
+    }
+    /**
+     * Stores into a slot of the object's shape, and moves the object to
+     * next, which is either that shape or the child that adds slot i.
+     */
+    void store(int i, Shape next, Value v) {
+        if (next != shape) {
+            if (next.size() > maxSlots) {
+                toMap();
+                map.put(next.name(i), v);
+                return;
+            }
+            if (i >= slots.length)
+                slots = Arrays.copyOf(slots, Math.max(4, 2 * slots.length));
+            shape = next;
+        }
+        slots[i] = v;
+    }
+    Value get(String name) {
+        if (shape == null) {
+            Value v = map.get(name);
+            return v != null ? v : NullVal.NULL;
+        }
+        return slot(shape.slot(name));
+    }
+    void put(String name, Value v) {
+        if (shape == null) {
+            map.put(name, v);
+            return;
+        }
+        int i = shape.slot(name);
+        store(i < 0 ? shape.size() : i, i < 0 ? shape.with(name) : shape, v);
+    }
+    private void toMap() {
+        map = new LinkedHashMap<String, Value>();
+        for (int i = 0; i < shape.size(); i++)
+            map.put(shape.name(i), slots[i]);
+        shape = null;
+        slots = null;
+    }
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        if (shape == null) {
+            for (Map.Entry<String, Value> e : map.entrySet())
+                sb.append(sb.length() > 1 ? ", " : "").append(e.getKey())
+                  .append(": ").append(e.getValue());
+        } else {
+            for (int i = 0; i < shape.size(); i++)
+                sb.append(i > 0 ? ", " : "").append(shape.name(i)).append(": ").append(slots[i]);
+        }
+        return sb.append("}").toString();
     }
 }
@@ -0,0 +1,442 @@
+package edu.sjsu.fwjs;
+
+import java.util.Arrays;
+
+/**
+ * Runs bytecode produced by the BytecodeCompiler in a single dispatch
+ * loop over a file of registers.
+ *
+ * Each call runs in a window of the register file just above its
+ * caller's, and pushes a record on the VM's own call stack instead of
+ * recursing in Java. Functions whose locals the compiler put in
+ * registers need no Environment at all; the others use the same frames
+ * as the tree walker, so closures behave identically. Bindings of
+ * globals are cached by index after their first lookup.
+ *
+ * The VM is not one of the Interpreter's modes, since it is still slower
+ * than the tree walker with its specialized nodes; see VmBenchmark.
+ */
+public class VirtualMachine {
+    private Value[] regs = new Value[256];
+
+    private Chunk[] callChunks = new Chunk[64];
+    private int[] callPcs = new int[64];
+    private Environment[] callEnvs = new Environment[64];
+    private int csp;
+
+    private String[] globalNames;
+    private Environment globalEnv;
+    private Binding[] globals;
+
+    private static final Op[] OPS = Op.values();
+
+    /**
+     * Runs a compiled program in the context of the specified environment
+     * and returns its value.
+     */
+    public Value run(Chunk prog, Environment env) {
+        csp = 0;
+        globalNames = prog.globalNames;
+        globalEnv = env.global();
+        globals = new Binding[globalNames.length];
+        if (regs.length < prog.frameSize)
+            regs = new Value[prog.frameSize];
+        System.arraycopy(prog.values, 0, regs, prog.locals, prog.values.length);
+        try {
+            return loop(prog, env);
+        } finally {
+            Arrays.fill(regs, null);
+            Arrays.fill(callEnvs, null);
+            Arrays.fill(callChunks, null);
+            globalEnv = null;
+        }
+    }
+
+    private Value loop(Chunk prog, Environment env) {
+        final Binding[] globals = this.globals;
+        Chunk chunk = prog;
+        int[] code = chunk.code;
+        Object[] consts = chunk.consts;
+        Value[] regs = this.regs;
+        int base = 0;
+        int pc = 0;
+        while (true) {
+            switch (code[pc++]) {
+                case Chunk.MOVE:
+                    regs[base + code[pc]] = regs[base + code[pc + 1]];
+                    pc += 2;
+                    break;
+                case Chunk.LOAD_SLOT:
+                    regs[base + code[pc]] = env.getSlot(code[pc + 1], code[pc + 2],
+                            (String) consts[code[pc + 3]]);
+                    pc += 4;
+                    break;
+                case Chunk.STORE_SLOT:
+                    env.setSlot(code[pc], code[pc + 1], (String) consts[code[pc + 2]],
+                            regs[base + code[pc + 3]]);
+                    pc += 4;
+                    break;
+                case Chunk.DECL_SLOT:
+                    env.declareSlot(code[pc], regs[base + code[pc + 1]]);
+                    pc += 2;
+                    break;
+                case Chunk.LOAD_LOCAL: {
+                    // Until it is declared, the name refers to a variable
+                    // further out, as Environment.getSlot has it.
+                    Value v = regs[base + code[pc + 1]];
+                    if (v == null)
+                        v = env.resolveVar((String) consts[code[pc + 2]]);
+                    regs[base + code[pc]] = v;
+                    pc += 3;
+                    break;
+                }
+                case Chunk.STORE_LOCAL: {
+                    int r = base + code[pc];
+                    Value v = regs[base + code[pc + 2]];
+                    if (regs[r] != null)
+                        regs[r] = v;
+                    else
+                        env.updateVar((String) consts[code[pc + 1]], v);
+                    pc += 3;
+                    break;
+                }
+                case Chunk.DECL_LOCAL: {
+                    int r = base + code[pc];
+                    if (regs[r] != null)
+                        throw new RuntimeException();
+                    regs[r] = regs[base + code[pc + 1]];
+                    pc += 2;
+                    break;
+                }
+                case Chunk.LOAD_GLOBAL: {
+                    Binding b = globals[code[pc + 1]];
+                    if (b == null)
+                        b = binding(code[pc + 1]);
+                    regs[base + code[pc]] = b == null ? NullVal.NULL : b.get();
+                    pc += 2;
+                    break;
+                }
+                case Chunk.STORE_GLOBAL: {
+                    Binding b = globals[code[pc]];
+                    Value v = regs[base + code[pc + 1]];
+                    if (b != null)
+                        b.set(v);
+                    else
+                        storeGlobal(code[pc], v);
+                    pc += 2;
+                    break;
+                }
+                case Chunk.UPDATE_GLOBAL: {
+                    int g = code[pc + 1];
+                    Op op = OPS[code[pc + 2] - Chunk.ADD];
+                    Value a = regs[base + code[pc + 3]];
+                    Value b = regs[base + code[pc + 4]];
+                    Value v;
+                    if (globalEnv.isConcurrent()) {
+                        v = globalEnv.updateGlobal(globalNames[g], op, a, b);
+                    } else {
+                        v = BinOpExpr.apply(op, a, b);
+                        storeGlobal(g, v);
+                    }
+                    regs[base + code[pc]] = v;
+                    pc += 5;
+                    break;
+                }
+                case Chunk.LOAD_NAME:
+                    regs[base + code[pc]] = env.resolveVar((String) consts[code[pc + 1]]);
+                    pc += 2;
+                    break;
+                case Chunk.STORE_NAME:
+                    env.updateVar((String) consts[code[pc]], regs[base + code[pc + 1]]);
+                    pc += 2;
+                    break;
+                case Chunk.DECL_NAME:
+                    declare(env, (String) consts[code[pc]], regs[base + code[pc + 1]]);
+                    pc += 2;
+                    break;
+                case Chunk.JUMP:
+                    pc = code[pc];
+                    break;
+                case Chunk.JUMP_IF_FALSE:
+                    pc = BoolVal.test(regs[base + code[pc]]) ? pc + 2 : code[pc + 1];
+                    break;
+                case Chunk.JUMP_IF_TRUE:
+                    pc = BoolVal.test(regs[base + code[pc]]) ? code[pc + 1] : pc + 2;
+                    break;
+                case Chunk.SEQ: {
+                    Value v = regs[base + code[pc + 1]];
+                    if (!(v instanceof NullVal))
+                        regs[base + code[pc]] = v;
+                    pc += 2;
+                    break;
+                }
+                case Chunk.PRINT:
+                    PrintExpr.print(regs[base + code[pc++]]);
+                    break;
+                case Chunk.CLOSURE:
+                    regs[base + code[pc]] = new CompiledClosure((Chunk) consts[code[pc + 1]], env);
+                    pc += 2;
+                    break;
+                case Chunk.CALL: {
+                    Value f = regs[base + code[pc + 1]];
+                    int a = base + code[pc + 2];
+                    int n = code[pc + 3];
+                    if (!(f instanceof CompiledClosure)
+                            || ((CompiledClosure) f).chunk.decl.frameNames == null) {
+                        regs[base + code[pc]] = callOther(f, regs, a, n);
+                        pc += 4;
+                        break;
+                    }
+                    CompiledClosure fn = (CompiledClosure) f;
+                    Chunk callee = fn.chunk;
+                    int[] slots = callee.decl.paramSlots;
+                    if (slots.length != n)
+                        throw new RuntimeException();
+                    int next = base + chunk.frameSize;
+                    if (next + callee.frameSize > regs.length)
+                        regs = this.regs = Arrays.copyOf(regs,
+                                Math.max(regs.length * 2, next + callee.frameSize));
+                    Environment calleeEnv;
+                    if (callee.registers) {
+                        for (int i = next; i < next + callee.locals; i++)
+                            regs[i] = null;
+                        for (int i = 0; i < n; i++) {
+                            if (regs[next + slots[i]] != null)
+                                throw new RuntimeException();
+                            regs[next + slots[i]] = regs[a + i];
+                        }
+                        calleeEnv = fn.env();
+                    } else {
+                        calleeEnv = new Environment(fn.env(), callee.decl.frameNames);
+                        for (int i = 0; i < n; i++)
+                            calleeEnv.declareSlot(slots[i], regs[a + i]);
+                    }
+                    System.arraycopy(callee.values, 0, regs, next + callee.locals,
+                            callee.values.length);
+                    if (csp == callChunks.length) growCalls();
+                    callChunks[csp] = chunk;
+                    callPcs[csp] = pc + 4;
+                    callEnvs[csp] = env;
+                    csp++;
+                    chunk = callee;
+                    code = chunk.code;
+                    consts = chunk.consts;
+                    env = calleeEnv;
+                    base = next;
+                    pc = 0;
+                    break;
+                }
+                case Chunk.RETURN: {
+                    Value v = regs[base + code[pc]];
+                    if (csp == 0)
+                        return v;
+                    csp--;
+                    chunk = callChunks[csp];
+                    pc = callPcs[csp];
+                    env = callEnvs[csp];
+                    callChunks[csp] = null;
+                    callEnvs[csp] = null;
+                    code = chunk.code;
+                    consts = chunk.consts;
+                    base -= chunk.frameSize;
+                    // The result register of the CALL just returned from.
+                    regs[base + code[pc - 4]] = v;
+                    break;
+                }
+                case Chunk.EVAL:
+                    regs[base + code[pc]] = TailCall.complete(
+                            ((Expression) consts[code[pc + 1]]).evaluate(env));
+                    pc += 2;
+                    break;
+                case Chunk.ARRAY:
+                    regs[base + code[pc]] = ((ArrayExpr) consts[code[pc + 1]])
+                            .make(regs, base + code[pc + 2]);
+                    pc += 3;
+                    break;
+                case Chunk.INDEX: {
+                    Value a = regs[base + code[pc + 1]];
+                    Value i = regs[base + code[pc + 2]];
+                    if (!(a instanceof ArrayVal) || !(i instanceof IntVal))
+                        throw new RuntimeException();
+                    regs[base + code[pc]] = ((ArrayVal) a).get(((IntVal) i).toInt());
+                    pc += 3;
+                    break;
+                }
+                case Chunk.INDEX_SET: {
+                    Value a = regs[base + code[pc + 1]];
+                    Value i = regs[base + code[pc + 2]];
+                    Value v = regs[base + code[pc + 3]];
+                    if (!(a instanceof ArrayVal) || !(i instanceof IntVal))
+                        throw new RuntimeException();
+                    ((ArrayVal) a).set(((IntVal) i).toInt(), v);
+                    regs[base + code[pc]] = v;
+                    pc += 4;
+                    break;
+                }
+                case Chunk.OBJECT:
+                    regs[base + code[pc]] = ((ObjectExpr) consts[code[pc + 1]])
+                            .make(regs, base + code[pc + 2]);
+                    pc += 3;
+                    break;
+                case Chunk.GET:
+                    regs[base + code[pc]] = ((PropertyExpr) consts[code[pc + 2]])
+                            .get(regs[base + code[pc + 1]]);
+                    pc += 3;
+                    break;
+                case Chunk.PUT:
+                    regs[base + code[pc]] = ((PropertyAssignExpr) consts[code[pc + 2]])
+                            .put(regs[base + code[pc + 1]], regs[base + code[pc + 3]]);
+                    pc += 4;
+                    break;
+                case Chunk.ADD: {
+                    Value a = regs[base + code[pc + 1]];
+                    Value b = regs[base + code[pc + 2]];
+                    regs[base + code[pc]] = a instanceof IntVal && b instanceof IntVal
+                        ? IntVal.valueOf(((IntVal) a).toInt() + ((IntVal) b).toInt())
+                        : BinOpExpr.apply(Op.ADD, a, b);
+                    pc += 3;
+                    break;
+                }
+                case Chunk.SUBTRACT: {
+                    Value a = regs[base + code[pc + 1]];
+                    Value b = regs[base + code[pc + 2]];
+                    regs[base + code[pc]] = a instanceof IntVal && b instanceof IntVal
+                        ? IntVal.valueOf(((IntVal) a).toInt() - ((IntVal) b).toInt())
+                        : BinOpExpr.apply(Op.SUBTRACT, a, b);
+                    pc += 3;
+                    break;
+                }
+                case Chunk.MULTIPLY: {
+                    Value a = regs[base + code[pc + 1]];
+                    Value b = regs[base + code[pc + 2]];
+                    regs[base + code[pc]] = a instanceof IntVal && b instanceof IntVal
+                        ? IntVal.valueOf(((IntVal) a).toInt() * ((IntVal) b).toInt())
+                        : BinOpExpr.apply(Op.MULTIPLY, a, b);
+                    pc += 3;
+                    break;
+                }
+                case Chunk.MOD: {
+                    Value a = regs[base + code[pc + 1]];
+                    Value b = regs[base + code[pc + 2]];
+                    regs[base + code[pc]] = a instanceof IntVal && b instanceof IntVal
+                            && ((IntVal) b).toInt() != 0
+                        ? IntVal.valueOf(((IntVal) a).toInt() % ((IntVal) b).toInt())
+                        : BinOpExpr.apply(Op.MOD, a, b);
+                    pc += 3;
+                    break;
+                }
+                case Chunk.DIVIDE:
+                case Chunk.GT:
+                case Chunk.GE:
+                case Chunk.LT:
+                case Chunk.LE:
+                case Chunk.EQ:
+                    regs[base + code[pc]] = BinOpExpr.apply(OPS[code[pc - 1] - Chunk.ADD],
+                            regs[base + code[pc + 1]], regs[base + code[pc + 2]]);
+                    pc += 3;
+                    break;
+                case Chunk.JUMP_IF_LT: {
+                    Value a = regs[base + code[pc]];
+                    Value b = regs[base + code[pc + 1]];
+                    boolean t = a instanceof IntVal && b instanceof IntVal
+                        ? ((IntVal) a).toInt() < ((IntVal) b).toInt()
+                        : BoolVal.test(BinOpExpr.apply(Op.LT, a, b));
+                    pc = t ? code[pc + 2] : pc + 3;
+                    break;
+                }
+                case Chunk.JUMP_UNLESS_LT: {
+                    Value a = regs[base + code[pc]];
+                    Value b = regs[base + code[pc + 1]];
+                    boolean t = a instanceof IntVal && b instanceof IntVal
+                        ? ((IntVal) a).toInt() < ((IntVal) b).toInt()
+                        : BoolVal.test(BinOpExpr.apply(Op.LT, a, b));
+                    pc = t ? pc + 3 : code[pc + 2];
+                    break;
+                }
+                case Chunk.JUMP_IF_GT:
+                case Chunk.JUMP_IF_GE:
+                case Chunk.JUMP_IF_LE:
+                case Chunk.JUMP_IF_EQ: {
+                    boolean t = compare(code[pc - 1] - Chunk.JUMP_IF_GT,
+                            regs[base + code[pc]], regs[base + code[pc + 1]]);
+                    pc = t ? code[pc + 2] : pc + 3;
+                    break;
+                }
+                case Chunk.JUMP_UNLESS_GT:
+                case Chunk.JUMP_UNLESS_GE:
+                case Chunk.JUMP_UNLESS_LE:
+                case Chunk.JUMP_UNLESS_EQ: {
+                    boolean t = compare(code[pc - 1] - Chunk.JUMP_UNLESS_GT,
+                            regs[base + code[pc]], regs[base + code[pc + 1]]);
+                    pc = t ? pc + 3 : code[pc + 2];
+                    break;
+                }
+                default:
+                    throw new IllegalStateException("bad opcode " + code[pc - 1]);
+            }
+        }
+    }
+
+    /** The comparison GT + k applied to a and b. */
+    private static boolean compare(int k, Value a, Value b) {
+        Op op = OPS[Op.GT.ordinal() + k];
+        if (a instanceof IntVal && b instanceof IntVal) {
+            int x = ((IntVal) a).toInt();
+            int y = ((IntVal) b).toInt();
+            switch (op) {
+                case GT: return x > y;
+                case GE: return x >= y;
+                case LE: return x <= y;
+                default: return x == y;
+            }
+        }
+        return BoolVal.test(BinOpExpr.apply(op, a, b));
+    }
+
+    /** Looks up global g and caches its binding, or returns null if it has none yet. */
+    private Binding binding(int g) {
+        return globals[g] = globalEnv.lookupBinding(globalNames[g]);
+    }
+
+    private void storeGlobal(int g, Value v) {
+        Binding b = globals[g];
+        if (b == null)
+            b = binding(g);
+        if (b != null)
+            b.set(v);
+        else
+            globalEnv.updateVar(globalNames[g], v);
+    }
+
+    /** Calls a function that the VM does not run itself, on the tree walker. */
+    private static Value callOther(Value f, Value[] regs, int a, int n) {
+        if (!(f instanceof ClosureVal))
+            throw new RuntimeException();
+        return ((ClosureVal) f).call(Arrays.copyOfRange(regs, a, a + n));
+    }
+
+    private static void declare(Environment env, String name, Value v) {
+        try {
+            env.createVar(name, v);
+        } catch (Exception e) { throw new RuntimeException(); }
+    }
+
+    private void growCalls() {
+        int n = callChunks.length * 2;
+        callChunks = Arrays.copyOf(callChunks, n);
+        callPcs = Arrays.copyOf(callPcs, n);
+        callEnvs = Arrays.copyOf(callEnvs, n);
+    }
+}
+
+/**
+ * A closure created by compiled code. It can still be applied by the
+ * tree walker, which evaluates the body of its declaration.
+ */
+class CompiledClosure extends ClosureVal {
+    final Chunk chunk;
+    public CompiledClosure(Chunk chunk, Environment env) {
+        super(chunk.decl, env);
+        this.chunk = chunk;
+    }
+}
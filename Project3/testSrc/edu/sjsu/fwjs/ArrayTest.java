@@ -0,0 +1,91 @@
+package edu.sjsu.fwjs;
+
+import static edu.sjsu.fwjs.Programs.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ArrayTest {
+    @Test
+    public void testLiterals() {
+        ArrayVal a = (ArrayVal) eval("[1, 2, 3];");
+        assertTrue(a.isIntArray());
+        assertEquals(3, a.length());
+        assertEquals(IntVal.valueOf(2), a.get(1));
+        assertEquals("[1, 2, 3]", a.toString());
+        ArrayVal b = (ArrayVal) eval("var x = 5; [x, x + 1];");
+        assertTrue(b.isIntArray());
+        ArrayVal c = (ArrayVal) eval("[1, true, null, [2]];");
+        assertFalse(c.isIntArray());
+        assertEquals("[1, true, null, [2]]", c.toString());
+        assertEquals(0, ((ArrayVal) eval("[];")).length());
+    }
+
+    @Test
+    public void testEachEvaluationMakesANewArray() {
+        assertEquals(IntVal.valueOf(1), eval(
+                "var f = function() { [1, 2]; }; var a = f(); a[0] = 9; f()[0];"));
+        assertEquals(BoolVal.FALSE, eval("var f = function() { [1, 2]; }; f() == f();"));
+        assertEquals(BoolVal.TRUE, eval("var a = [1]; var b = a; b[0] = 2; a == b;"));
+    }
+
+    @Test
+    public void testIndexAndAssign() {
+        assertEquals(IntVal.valueOf(25), eval(
+                "var a = [0, 0, 0, 0, 0, 0]; var i = 0;"
+                + "while (i < a.length) { a[i] = i * i; i = i + 1; } a[5];"));
+        assertEquals(IntVal.valueOf(7), eval("var a = [1, 2]; var b = [0]; b[0] = a[1] = 7;"));
+        assertEquals(IntVal.valueOf(12), eval(
+                "var m = [[1, 2], [3, 4]]; m[1][0] = m[0][1] * 6; m[1][0];"));
+        assertEquals(IntVal.valueOf(3), eval("var f = function() { [1, 2, 3]; }; f().length;"));
+    }
+
+    @Test
+    public void testStoringAnythingButAnIntegerBoxes() {
+        ArrayVal a = (ArrayVal) eval("var a = [1, 2, 3]; a[1] = 5; a;");
+        assertTrue(a.isIntArray());
+        ArrayVal b = (ArrayVal) eval("var a = [1, 2, 3]; a[1] = false; a[1] = 5; a;");
+        assertFalse(b.isIntArray());
+        assertEquals("[1, 5, 3]", b.toString());
+    }
+
+    @Test
+    public void testErrors() {
+        for (String src : new String[] {
+                "[1, 2][2];", "[1, 2][0 - 1];", "var a = [1]; a[1] = 2;", "var a = [1]; a[1] = true;",
+                "[1, 2][true];", "var x = 3; x[0];", "[1].size;", "var x = 3; x.length;" })
+        {
+            try {
+                eval(src);
+                fail(src);
+            } catch (RuntimeException e) {
+                // Expected.
+            }
+        }
+    }
+
+    @Test
+    public void testModes() throws Exception {
+        String src = "var fill = function(a, v) { var i = 0; while (i < a.length) { a[i] = v + i; i = i + 1; } a; };"
+                + "var sum = function(a) { var s = 0; var i = 0; while (i < a.length) { s = s + a[i]; i = i + 1; } s; };"
+                + "var k = 0; var t = 0; while (k < 2000) { t = t + sum(fill([0, 0, 0, 0], k)); k = k + 1; }"
+                + "print(t); print(fill([true, 0], 1));";
+        assertPrints("8008000" + NL + "[1, 2]" + NL, src);
+    }
+
+    @Test
+    public void testParsers() throws Exception {
+        String src = "var a = [1, [2, x], f(3)[0], []]; a[i + 1] = b[0] = a.length;"
+                + "print(g(a)[1][2].length); x = a[0] = 2 * 3 < y; async a[0](1); (a)[0] = [];";
+        assertParsersAgree(src);
+        // A store binds loosest, and needs an index of its own.
+        for (String bad : new String[] { "1 + a[0] = 2;", "(a[0]) = 1;", "await a[0] = 1;" }) {
+            try {
+                DirectParser.parse(bad);
+                fail(bad);
+            } catch (DirectParser.SyntaxError e) {
+                // Expected.
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package edu.sjsu.fwjs;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.junit.Test;
+
+public class AstCacheTest {
+
+    private static byte[] bytes(Expression prog) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AstCache.write(prog, out);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        String src = "var fib = function(n) { if (n < 2) n; else fib(n - 1) + fib(n - 2); };\n"
+                + "var i = 0; var big = 2000000000 * -1; var b = true == false;\n"
+                + "while (i < 10) { i = i + 1; }\n"
+                + "if (b == null) big; else fib(i) - big % 7;";
+        Expression prog = Interpreter.parse(new ANTLRInputStream(src));
+        byte[] data = bytes(prog);
+        Expression copy = AstCache.read(new ByteArrayInputStream(data));
+        assertArrayEquals(data, bytes(copy));
+        assertEquals(prog.evaluate(new Environment()),
+                new Resolver().resolve(copy).evaluate(new Environment()));
+    }
+
+    @Test
+    public void testStoreAndLoad() throws Exception {
+        File dir = Files.createTempDirectory("fwjs").toFile();
+        AstCache cache = new AstCache(dir);
+        ByteBuffer src = ByteBuffer.wrap("x = 1 + y;".getBytes("UTF-8"));
+        assertNull(cache.load(src));
+        cache.store(src, new AssignExpr("x", new BinOpExpr(Op.ADD,
+                new ValueExpr(new IntVal(1)), new VarExpr("y"))));
+        AssignExpr ae = (AssignExpr) cache.load(src);
+        assertEquals("x", ae.varName);
+        assertTrue(ae.e instanceof AddExpr);
+        assertNull(cache.load(ByteBuffer.wrap("x = 2;".getBytes("UTF-8"))));
+
+        // A damaged file is a miss.
+        for (File f : dir.listFiles()) {
+            FileOutputStream out = new FileOutputStream(f);
+            out.write(new byte[] {'F', 'W', 'J', 'S', 2, 1});
+            out.close();
+        }
+        assertNull(cache.load(src));
+        for (File f : dir.listFiles()) f.delete();
+        dir.delete();
+    }
+
+    @Test
+    public void testOnlyInAGivenDirectory() throws Exception {
+        String saved = System.getProperty("fwjs.cache.dir");
+        File dir = Files.createTempDirectory("fwjs").toFile();
+        File script = new File(dir, "script.fwjs");
+        Files.write(script.toPath(), "var x = 1 + 2;".getBytes("UTF-8"));
+        try {
+            System.clearProperty("fwjs.cache.dir");
+            assertNull(AstCache.fromProperties());
+            System.setProperty("fwjs.cache.dir", "");
+            assertNull(AstCache.fromProperties());
+            File cacheDir = new File(dir, "cache");
+            System.setProperty("fwjs.cache.dir", cacheDir.getPath());
+            Interpreter.main(new String[] { script.getPath() });
+            assertEquals(1, cacheDir.listFiles().length);
+            Interpreter.main(new String[] { script.getPath() });
+            for (File f : cacheDir.listFiles()) f.delete();
+            cacheDir.delete();
+        } finally {
+            if (saved == null)
+                System.clearProperty("fwjs.cache.dir");
+            else
+                System.setProperty("fwjs.cache.dir", saved);
+            script.delete();
+            dir.delete();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package edu.sjsu.fwjs;
+
+import static edu.sjsu.fwjs.Programs.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class AsyncTest {
+    private static Value eval(String src) {
+        Resolver resolver = new Resolver();
+        Expression prog = prepare(src, resolver);
+        assertTrue(resolver.spawnsThreads());
+        return prog.evaluate(Environment.concurrent());
+    }
+
+    @Test
+    public void testResults() {
+        assertEquals(IntVal.valueOf(25), eval(
+                "var sq = function(x) { x * x; }; var a = async sq(3); var b = async sq(4);"
+                + "await a + await b;"));
+        // On a function value, with no arguments, and on other values.
+        assertEquals(IntVal.valueOf(5), eval("var f = function() { 5; }; await async f;"));
+        assertEquals(IntVal.valueOf(12), eval("var f = function() { 5; }; await async f + await 7;"));
+        assertEquals(IntVal.valueOf(12), eval(
+                "var add = function(a) { function(b) { a + b; }; }; await async add(5)(7);"));
+    }
+
+    @Test
+    public void testArgumentsAreEvaluatedBeforeTheCall() {
+        // The arguments see x before the call changes it, whenever it runs.
+        assertEquals(IntVal.valueOf(11), eval(
+                "var x = 1; var set = function(a) { x = 10; a; }; var f = async set(x);"
+                + "await f + x;"));
+    }
+
+    @Test
+    public void testErrorsAtAwait() {
+        Value f = eval("var bad = function() { 1 + true; }; async bad();");
+        assertTrue(f instanceof FutureVal);
+        try {
+            ((FutureVal) f).await();
+            fail();
+        } catch (RuntimeException e) {
+            // Thrown by the call, on the thread that awaited it.
+        }
+        try {
+            eval("var x = 3; async x(1);");
+            fail();
+        } catch (RuntimeException e) {
+            // Not a function, found before the call starts.
+        }
+    }
+
+    @Test
+    public void testNestedCalls() throws Exception {
+        // 2^12 calls, each waiting on calls it started, on any pool size.
+        String src = "var tree = function(d) { if (d == 0) { 1; } else {"
+                + " var l = async tree(d - 1); var r = async tree(d - 1); await l + await r; } };"
+                + "print(tree(12));";
+        assertPrints("4096" + NL, src);
+    }
+
+    @Test
+    public void testProgramEndsAfterItsCalls() throws Exception {
+        // Calls nobody awaits still finish, and print, before the program ends.
+        String out = run("var p = function(i) { var j = 0; while (j < 1000) { j = j + 1; } print(i); };"
+                + "var i = 0; while (i < 50) { async p(i); i = i + 1; }");
+        assertEquals(50, out.split(NL).length);
+    }
+
+    @Test
+    public void testCounterInGlobal() {
+        assertEquals(IntVal.valueOf(4000), eval(
+                "var count = 0; var inc = function(n) { var i = 0;"
+                + " while (i < n) { count = count + 1; i = i + 1; } };"
+                + "var a = async inc(1000); var b = async inc(1000); var c = async inc(1000);"
+                + "inc(1000); await a; await b; await c; count;"));
+    }
+
+    @Test
+    public void testParsers() throws Exception {
+        String src = "var f = async g(1, 2)(3); var h = await async k; await f + 1 * await h(2);"
+                + "async function(x) { x; }; await (async g)(1);";
+        assertParsersAgree(src);
+    }
+}
@@ -0,0 +1,110 @@
+package edu.sjsu.fwjs;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class BatchRunnerTest {
+    private static final String NL = System.lineSeparator();
+
+    private static String run(List<BatchRunner.Job> jobs, int failures, boolean stack)
+            throws Exception {
+        // Errors go to the same stream, to check where they come.
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BatchRunner runner = new BatchRunner(4, stack, false)) {
+            assertEquals(failures, runner.run(jobs, out, new PrintStream(out, true)));
+        }
+        return out.toString();
+    }
+
+    @Test
+    public void testOutputInOrder() throws Exception {
+        Path dir = Files.createTempDirectory("fwjs");
+        try {
+            // The first run takes longest, so later ones finish first.
+            Path slow = dir.resolve("slow.fwjs");
+            Files.write(slow, "var i = 0; while (i < 200000) { i = i + 1; } print(i);".getBytes());
+            Path fast = dir.resolve("fast.fwjs");
+            Files.write(fast, "print(1); print(2);".getBytes());
+            Path bad = dir.resolve("bad.fwjs");
+            Files.write(bad, "print(1 + true);".getBytes());
+            List<BatchRunner.Job> jobs = new ArrayList<BatchRunner.Job>();
+            jobs.add(new BatchRunner.Job(slow));
+            for (int i = 0; i < 20; i++)
+                jobs.add(new BatchRunner.Job(fast));
+            jobs.add(new BatchRunner.Job(bad));
+            jobs.add(new BatchRunner.Job(slow));
+            StringBuilder expected = new StringBuilder("200000" + NL);
+            for (int i = 0; i < 20; i++)
+                expected.append("1" + NL + "2" + NL);
+            expected.append(bad.toRealPath() + ": java.lang.RuntimeException" + NL);
+            expected.append("200000" + NL);
+            assertEquals(expected.toString(), run(jobs, 1, false));
+        } finally {
+            for (File f : dir.toFile().listFiles()) f.delete();
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void testManifest() throws Exception {
+        Path dir = Files.createTempDirectory("fwjs");
+        try {
+            Files.write(dir.resolve("sq.fwjs"),
+                    "if (neg) { n = 0 - n; } print(n * n);".getBytes());
+            Files.write(dir.resolve("bad.fwjs"), "x = ;".getBytes());
+            Path manifest = dir.resolve("jobs.txt");
+            Files.write(manifest, Arrays.asList("# squares", "sq.fwjs n=3 neg=false", "",
+                    "sq.fwjs n=4 neg=true", "bad.fwjs", "  sq.fwjs   neg=false n=5"));
+            List<BatchRunner.Job> jobs = BatchRunner.jobs(Arrays.asList("@" + manifest));
+            assertEquals(4, jobs.size());
+            for (boolean stack : new boolean[] { false, true }) {
+                String out = run(jobs, 1, stack);
+                assertTrue(out, out.startsWith("9" + NL + "16" + NL
+                        + dir.resolve("bad.fwjs").toAbsolutePath() + ": line 1:4 "));
+                assertTrue(out, out.endsWith(NL + "25" + NL));
+            }
+        } finally {
+            for (File f : dir.toFile().listFiles()) f.delete();
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void testSharedTreeManyThreads() throws Exception {
+        int threshold = JitCompiler.threshold;
+        JitCompiler.threshold = 50;
+        Path dir = Files.createTempDirectory("fwjs");
+        try {
+            // Runs of one script on every thread, with call sites and
+            // operators that see ints on some runs and booleans on others.
+            Path script = dir.resolve("mixed.fwjs");
+            Files.write(script, ("var id = function(x) { x; };"
+                    + "var f = function(a, b) { if (a == b) { a; } else { id(b); } };"
+                    + "var i = 0; var r = 0; while (i < 200) { r = f(v, v); i = i + 1; }"
+                    + "print(r == v);").getBytes());
+            List<BatchRunner.Job> jobs = new ArrayList<BatchRunner.Job>();
+            StringBuilder expected = new StringBuilder();
+            for (int i = 0; i < 200; i++) {
+                jobs.add(new BatchRunner.Job(script, Collections.singletonMap("v",
+                        i % 3 == 0 ? (Value) BoolVal.valueOf(i % 2 == 0) : IntVal.valueOf(i))));
+                expected.append("true" + NL);
+            }
+            assertEquals(expected.toString(), run(jobs, 0, false));
+        } finally {
+            JitCompiler.threshold = threshold;
+            for (File f : dir.toFile().listFiles()) f.delete();
+            Files.delete(dir);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package edu.sjsu.fwjs;
+
+import static edu.sjsu.fwjs.Programs.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ChannelTest {
+    private static final String PIPELINE =
+        "var produce = function(out, n) { var i = 1;"
+        + " while (i <= n) { send(out, i); i = i + 1; } close(out); };"
+        + "var inc = function(in, out) { var open = true; var v = null;"
+        + " while (open) { v = recv(in); if (v == null) { open = false; } else { send(out, v + 1); } }"
+        + " close(out); };"
+        + "var stages = function(in, k) { if (k == 0) { in; } else {"
+        + " var out = chan(2); spawn inc(in, out); stages(out, k - 1); } };"
+        + "var sum = function(in) { var s = 0; var open = true; var v = null;"
+        + " while (open) { v = recv(in); if (v == null) { open = false; } else { s = s + v; } } s; };";
+
+    @Test
+    public void testPipeline() throws Exception {
+        // 1..100, plus one in each of 8 stages.
+        String src = PIPELINE + "var c = chan(1); spawn produce(c, 100); print(sum(stages(c, 8)));";
+        assertPrints("5850" + NL, src);
+    }
+
+    @Test
+    public void testIsolatedGlobals() {
+        assertEquals(IntVal.valueOf(1), evalConcurrent(
+                "var count = 1; var bump = function(c) { count = count + 1; send(c, count); };"
+                + "var c = chan(1); spawn bump(c); recv(c) - count;"));
+        // Functions declared at the top level see the isolate's globals.
+        assertEquals(IntVal.valueOf(12), evalConcurrent(
+                "var n = 5; var get = function() { n; };"
+                + "var f = function() { n = 6; get() * 2; }; var r = await spawn f(); r + n - 5;"));
+    }
+
+    @Test
+    public void testOnlyCopyableValuesCross() {
+        for (String src : new String[] {
+                "var c = chan(1); send(c, function() { 1; });",
+                "var f = function(g) { g; }; spawn f(function() { 1; });",
+                "var f = function() { function() { 1; }; }; await spawn f();",
+                "var mk = function() { function() { 1; }; }; spawn mk()();" })
+        {
+            try {
+                evalConcurrent(src);
+                fail(src);
+            } catch (RuntimeException e) {
+                // Expected.
+            }
+        }
+        // Channels themselves may be sent.
+        assertEquals(IntVal.valueOf(7), evalConcurrent(
+                "var c = chan(1); var d = chan(1); send(c, d); send(recv(c), 7); recv(d);"));
+    }
+
+    @Test
+    public void testClose() {
+        assertEquals(IntVal.valueOf(3), evalConcurrent(
+                "var c = chan(2); send(c, 1); send(c, 2); close(c);"
+                + "var a = recv(c); var b = recv(c); if (recv(c) == null) { a + b; } else { 0; }"));
+        try {
+            evalConcurrent("var c = chan(1); close(c); send(c, 1);");
+            fail();
+        } catch (RuntimeException e) {
+            // Sending on a closed channel.
+        }
+        try {
+            evalConcurrent("chan(0);");
+            fail();
+        } catch (RuntimeException e) {
+            // Capacity must be positive.
+        }
+    }
+
+    @Test
+    public void testSendBlocksWhileFull() throws Exception {
+        ChannelVal c = new ChannelVal(1);
+        c.send(IntVal.valueOf(1));
+        Thread t = new Thread(() -> c.send(IntVal.valueOf(2)));
+        t.start();
+        t.join(100);
+        assertTrue(t.isAlive());
+        assertEquals(IntVal.valueOf(1), c.recv());
+        t.join(5000);
+        assertFalse(t.isAlive());
+        assertEquals(IntVal.valueOf(2), c.recv());
+    }
+
+    @Test
+    public void testCloseWakesBlockedThreads() throws Exception {
+        ChannelVal c = new ChannelVal(1);
+        Value[] got = new Value[1];
+        Thread t = new Thread(() -> got[0] = c.recv());
+        t.start();
+        t.join(100);
+        assertTrue(t.isAlive());
+        c.close();
+        t.join(5000);
+        assertEquals(NullVal.NULL, got[0]);
+    }
+
+    @Test
+    public void testParsers() throws Exception {
+        String src = "var c = chan(n + 1); send(c, f(1) * 2); var v = recv(c); close(c);"
+                + "spawn g(1, 2); var r = await spawn f; send(recv(c), close(d));";
+        assertParsersAgree(src);
+    }
+}
@@ -0,0 +1,160 @@
+package edu.sjsu.fwjs;
+
+import static edu.sjsu.fwjs.Programs.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.junit.Test;
+
+/**
+ * Stress tests of Environment.concurrent() in the style of jcstress:
+ * several actors run at once against a fresh environment, released
+ * together by a barrier, for many rounds, and the outcome of every
+ * round is checked against the ones the environment allows.
+ */
+public class ConcurrentEnvironmentTest {
+    private static final int ACTORS = 4;
+    private static final int ROUNDS = 2000;
+
+    /** One actor's part of a round: its index, and the round's environment. */
+    private interface Actor {
+        void run(int actor, Environment env) throws Exception;
+    }
+
+    private static void stress(int rounds, Actor actor, Consumer<Environment> check)
+            throws Exception {
+        stress(rounds, Environment::concurrent, actor, check);
+    }
+
+    /**
+     * Runs the actors for every round, in an environment from fresh,
+     * and calls check after each.
+     */
+    private static void stress(int rounds, Supplier<Environment> fresh, Actor actor,
+            Consumer<Environment> check) throws Exception {
+        AtomicReference<Environment> env = new AtomicReference<Environment>();
+        AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        CyclicBarrier start = new CyclicBarrier(ACTORS + 1);
+        CyclicBarrier end = new CyclicBarrier(ACTORS + 1);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int a = 0; a < ACTORS; a++) {
+            final int id = a;
+            Thread t = new Thread(() -> {
+                try {
+                    for (int r = 0; r < rounds; r++) {
+                        start.await();
+                        try {
+                            actor.run(id, env.get());
+                        } catch (Throwable e) {
+                            failure.compareAndSet(null, e);
+                        }
+                        end.await();
+                    }
+                } catch (Exception e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            t.start();
+            threads.add(t);
+        }
+        for (int r = 0; r < rounds; r++) {
+            env.set(fresh.get());
+            start.await();
+            end.await();
+            if (failure.get() != null) break;
+            check.accept(env.get());
+        }
+        for (Thread t : threads) t.join();
+        if (failure.get() != null) throw new AssertionError(failure.get());
+    }
+
+    @Test
+    public void testCreateVarOnce() throws Exception {
+        // Every actor declares x; exactly one succeeds, and x holds its value.
+        AtomicInteger created = new AtomicInteger();
+        int[] winner = new int[1];
+        stress(ROUNDS, (id, env) -> {
+            try {
+                env.createVar("x", IntVal.valueOf(id));
+                created.incrementAndGet();
+                winner[0] = id;
+            } catch (RuntimeException e) {
+                // Declared by another actor first.
+            }
+        }, env -> {
+            assertEquals(1, created.getAndSet(0));
+            assertEquals(IntVal.valueOf(winner[0]), env.resolveVar("x"));
+        });
+    }
+
+    @Test
+    public void testAssignmentCreatesOneVariable() throws Exception {
+        // Actors assign an undeclared x; none fail, and the last one wins.
+        stress(ROUNDS, (id, env) -> env.updateVar("x", IntVal.valueOf(id)), env -> {
+            Value x = env.resolveVar("x");
+            assertTrue(x.toString(), x instanceof IntVal
+                    && ((IntVal) x).toInt() >= 0 && ((IntVal) x).toInt() < ACTORS);
+            assertNotNull(env.lookupBinding("x"));
+        });
+    }
+
+    @Test
+    public void testDistinctVariables() throws Exception {
+        // Actors each create their own variables; none are lost.
+        int vars = 200;
+        stress(ROUNDS / 20, (id, env) -> {
+            for (int i = 0; i < vars; i++)
+                env.createVar("v" + id + "_" + i, IntVal.valueOf(i));
+        }, env -> {
+            for (int a = 0; a < ACTORS; a++)
+                for (int i = 0; i < vars; i++)
+                    assertEquals(IntVal.valueOf(i), env.resolveVar("v" + a + "_" + i));
+        });
+    }
+
+    @Test
+    public void testCounterUpdatesAreAtomic() throws Exception {
+        // Actors call a function counting in a global, enough times for
+        // the JitCompiler to compile it; no increment is lost.
+        int threshold = JitCompiler.threshold;
+        JitCompiler.threshold = 100;
+        try {
+            Expression prog = Interpreter.parse(new ANTLRInputStream(
+                    "var count = 0; var inc = function(n) { count = count + n; };"));
+            int calls = 20000;
+            stress(10, () -> {
+                Environment env = Environment.concurrent();
+                prog.evaluate(env);
+                return env;
+            }, (id, env) -> {
+                ClosureVal inc = (ClosureVal) env.resolveVar("inc");
+                Value[] one = { IntVal.valueOf(1) };
+                for (int i = 0; i < calls; i++)
+                    inc.call(one);
+            }, env -> assertEquals(IntVal.valueOf(ACTORS * calls), env.resolveVar("count")));
+        } finally {
+            JitCompiler.threshold = threshold;
+        }
+    }
+
+    @Test
+    public void testUpdateReadsTheVariableFirst() throws Exception {
+        // x = x + f() reads x before f assigns it, in every mode, and in
+        // a concurrent environment as in a plain one.
+        String src = "var x = 1; var f = function() { x = 10; 1; }; x = x + f();";
+        assertPrints("2" + NL, src + "print(x);");
+        Environment env = Environment.concurrent();
+        Interpreter.parse(new ANTLRInputStream(src)).evaluate(env);
+        assertEquals(IntVal.valueOf(2), env.resolveVar("x"));
+        // Also when the Interpreter makes it concurrent for an async call.
+        assertPrints("2" + NL + "10" + NL, src + "print(x); await async f(); print(x);");
+    }
+}
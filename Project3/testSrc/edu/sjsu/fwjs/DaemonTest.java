@@ -0,0 +1,50 @@
+package edu.sjsu.fwjs;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+public class DaemonTest {
+
+    private static String run(Path socket, String src, int status, String... args)
+            throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        assertEquals(status, DaemonClient.run(socket, args,
+                new ByteArrayInputStream(src.getBytes("US-ASCII")), out, err));
+        return out.toString("US-ASCII") + err.toString("US-ASCII");
+    }
+
+    @Test
+    public void testRequests() throws Exception {
+        Path dir = Files.createTempDirectory("fwjs");
+        Path socket = dir.resolve("fwjs.sock");
+        Daemon daemon = new Daemon(socket);
+        Thread serve = new Thread(() -> {
+            try {
+                daemon.serve();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        serve.start();
+        try {
+            assertEquals("42\n", run(socket, "var x = 6; print(x * 7);", 0));
+            // Every request gets its own globals.
+            assertEquals("null\n", run(socket, "print(x);", 0, "-stack"));
+            String failed = run(socket, "print(1); print(1 + true);", 1, "-stream");
+            assertTrue(failed, failed.startsWith("1\nException in thread \"main\""));
+            assertEquals("40320\n", run(socket, "", 0, "fwjsScripts/factorial.fwjs"));
+        } finally {
+            daemon.close();
+            serve.join();
+            Files.delete(dir);
+        }
+        assertFalse(Files.exists(socket));
+    }
+}
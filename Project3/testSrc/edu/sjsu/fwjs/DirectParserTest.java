@@ -0,0 +1,262 @@
+package edu.sjsu.fwjs;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.Test;
+
+import edu.sjsu.fwjs.parser.FeatherweightJavaScriptLexer;
+import edu.sjsu.fwjs.parser.FeatherweightJavaScriptParser;
+
+public class DirectParserTest {
+
+    private static class Counter extends BaseErrorListener {
+        int errors;
+        @Override
+        public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol,
+                int line, int charPositionInLine, String msg, RecognitionException e) {
+            errors++;
+        }
+    }
+
+    private static byte[] bytes(Expression prog) throws Exception {
+        if (prog == null) return null;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AstCache.write(prog, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Parses with ANTLR, quietly. Returns the serialized tree, or null if
+     * there was a syntax error or input was left over.
+     */
+    private static byte[] antlr(String src) throws Exception {
+        Counter counter = new Counter();
+        FeatherweightJavaScriptLexer lexer = new FeatherweightJavaScriptLexer(new ANTLRInputStream(src));
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(counter);
+        CommonTokenStream tokens = new CommonTokenStream(lexer);
+        FeatherweightJavaScriptParser parser = new FeatherweightJavaScriptParser(tokens);
+        parser.removeErrorListeners();
+        parser.addErrorListener(counter);
+        ParseTree tree = parser.prog();
+        if (counter.errors > 0 || tokens.LA(1) != Token.EOF) return null;
+        Expression prog = new ExpressionBuilderVisitor().visit(tree);
+        return prog == null ? new byte[0] : bytes(prog);
+    }
+
+    /** Like antlr, with the DirectParser. */
+    private static byte[] direct(String src) throws Exception {
+        try {
+            Expression prog = DirectParser.parse(src);
+            return prog == null ? new byte[0] : bytes(prog);
+        } catch (DirectParser.SyntaxError e) {
+            return null;
+        }
+    }
+
+    @Test
+    public void testScripts() throws Exception {
+        for (File f : new File("fwjsScripts").listFiles()) {
+            if (!f.getName().endsWith(".fwjs")) continue;
+            String src = new String(Files.readAllBytes(f.toPath()));
+            assertArrayEquals(f.getName(), antlr(src), direct(src));
+        }
+    }
+
+    @Test
+    public void testRandomPrograms() throws Exception {
+        Random rnd = new Random(1);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int n = 1 + rnd.nextInt(4);
+            for (int j = 0; j < n; j++)
+                statement(rnd, sb, 3);
+            String src = sb.toString();
+            byte[] expected = antlr(src);
+            assertNotNull(src, expected);
+            assertArrayEquals(src, expected, direct(src));
+        }
+    }
+
+    @Test
+    public void testRandomTokens() throws Exception {
+        String[] tokens = { "if", "else", "while", "function", "var", "print", "0", "12",
+                "true", "null", "x", "y_1", "iffy", "*", "/", "%", "+", "-", ">", ">=", "<",
+                "<=", "==", "=", ";", "(", ")", "{", "}", ",", "/* c */", "// c\n", "\n", "async",
+                "await", "par", "spawn", "chan", "send", "recv", "close", "[", "]", ".", ":" };
+        Random rnd = new Random(2);
+        int valid = 0;
+        for (int i = 0; i < 30000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int n = 1 + rnd.nextInt(8);
+            for (int j = 0; j < n; j++)
+                sb.append(tokens[rnd.nextInt(tokens.length)]).append(rnd.nextBoolean() ? " " : "");
+            String src = sb.toString();
+            byte[] expected = antlr(src);
+            assertArrayEquals(src, expected, direct(src));
+            if (expected != null) valid++;
+        }
+        assertTrue(valid > 100);
+    }
+
+    private static final String[] NAMES = { "x", "y", "f", "iffy", "nullable", "var2", "_t" };
+    private static final String[] OPS = { "*", "/", "%", "+", "-", "<", "<=", ">", ">=", "==" };
+
+    private static void statement(Random rnd, StringBuilder sb, int depth) {
+        switch (depth == 0 ? rnd.nextInt(2) : rnd.nextInt(7)) {
+            case 0: {
+                int start = sb.length();
+                expression(rnd, sb, depth);
+                // A statement cannot start with an object literal.
+                if (sb.charAt(start) == '{') sb.insert(start, '(').append(')');
+                sb.append(";\n");
+                break;
+            }
+            case 1: sb.append(";"); break;
+            case 2: store(rnd, sb, depth - 1); sb.append(";\n"); break;
+            case 3: sb.append("print(");
+                    expression(rnd, sb, depth - 1);
+                    sb.append(");\n");
+                    break;
+            case 4: sb.append("while (");
+                    expression(rnd, sb, depth - 1);
+                    sb.append(") ");
+                    block(rnd, sb, depth - 1);
+                    break;
+            default:
+                sb.append("if (");
+                expression(rnd, sb, depth - 1);
+                sb.append(")");
+                block(rnd, sb, depth - 1);
+                if (rnd.nextBoolean()) {
+                    sb.append(rnd.nextBoolean() ? " else " : "/* else */else\n");
+                    block(rnd, sb, depth - 1);
+                }
+        }
+    }
+
+    private static void block(Random rnd, StringBuilder sb, int depth) {
+        if (rnd.nextBoolean()) {
+            statement(rnd, sb, depth);
+            return;
+        }
+        sb.append("{ ");
+        int n = rnd.nextInt(3);
+        for (int i = 0; i < n; i++)
+            statement(rnd, sb, depth);
+        sb.append("}\n");
+    }
+
+    /** name[i] = e or name.p = e, or a chain of such stores. */
+    private static void store(Random rnd, StringBuilder sb, int depth) {
+        sb.append(NAMES[rnd.nextInt(NAMES.length)]);
+        if (rnd.nextBoolean()) {
+            sb.append("[");
+            expression(rnd, sb, depth);
+            sb.append("] = ");
+        } else {
+            sb.append(".").append(NAMES[rnd.nextInt(NAMES.length)]).append(" = ");
+        }
+        if (rnd.nextInt(4) == 0)
+            store(rnd, sb, depth - 1);
+        else
+            expression(rnd, sb, depth);
+    }
+
+    private static void expression(Random rnd, StringBuilder sb, int depth) {
+        switch (depth <= 0 ? rnd.nextInt(4) : rnd.nextInt(16)) {
+            case 0: sb.append(rnd.nextInt(3) == 0 ? 0 : rnd.nextInt(100000)); break;
+            case 1: sb.append(rnd.nextBoolean() ? "true" : "false"); break;
+            case 2: sb.append(rnd.nextInt(4) == 0 ? "null" : NAMES[rnd.nextInt(NAMES.length)]); break;
+            case 3: sb.append(NAMES[rnd.nextInt(NAMES.length)]); break;
+            case 4: case 5: case 6:
+                expression(rnd, sb, depth - 1);
+                sb.append(rnd.nextBoolean() ? " " : "").append(OPS[rnd.nextInt(OPS.length)]);
+                expression(rnd, sb, depth - 1);
+                break;
+            case 7:
+                sb.append("(");
+                expression(rnd, sb, depth - 1);
+                sb.append(")");
+                break;
+            case 8: {
+                expression(rnd, sb, depth - 1);
+                sb.append("(");
+                int n = rnd.nextInt(3);
+                for (int i = 0; i < n; i++) {
+                    if (i > 0) sb.append(", ");
+                    expression(rnd, sb, depth - 1);
+                }
+                sb.append(")");
+                break;
+            }
+            case 9: {
+                sb.append("function(");
+                int n = rnd.nextInt(3);
+                for (int i = 0; i < n; i++)
+                    sb.append(i > 0 ? "," : "").append(NAMES[rnd.nextInt(NAMES.length)]);
+                sb.append(") ");
+                block(rnd, sb, depth - 1);
+                break;
+            }
+            case 10:
+                sb.append(rnd.nextBoolean() ? "async " : rnd.nextBoolean() ? "await " : "spawn ");
+                expression(rnd, sb, depth - 1);
+                break;
+            case 11:
+                if (rnd.nextBoolean()) {
+                    sb.append("send(");
+                    expression(rnd, sb, depth - 1);
+                    sb.append(", ");
+                } else {
+                    sb.append(rnd.nextBoolean() ? "chan(" : rnd.nextBoolean() ? "recv(" : "close(");
+                }
+                expression(rnd, sb, depth - 1);
+                sb.append(")");
+                break;
+            case 12: {
+                boolean object = rnd.nextBoolean();
+                sb.append(object ? "{" : "[");
+                for (int i = rnd.nextInt(4); i > 0; i--) {
+                    if (object) sb.append(NAMES[rnd.nextInt(NAMES.length)]).append(": ");
+                    expression(rnd, sb, depth - 1);
+                    if (i > 1) sb.append(", ");
+                }
+                sb.append(object ? "}" : "]");
+                break;
+            }
+            case 13:
+                expression(rnd, sb, depth - 1);
+                if (rnd.nextInt(3) == 0) {
+                    sb.append(".").append(rnd.nextBoolean() ? "length" : NAMES[rnd.nextInt(NAMES.length)]);
+                } else {
+                    sb.append("[");
+                    expression(rnd, sb, depth - 1);
+                    sb.append("]");
+                }
+                break;
+            case 14:
+                // A store binds loosest, so it only goes anywhere in parentheses.
+                sb.append("(");
+                store(rnd, sb, depth - 1);
+                sb.append(")");
+                break;
+            default:
+                sb.append(rnd.nextBoolean() ? "var " : "").append(NAMES[rnd.nextInt(NAMES.length)])
+                  .append(" = ");
+                expression(rnd, sb, depth - 1);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import static org.junit.Assert.*;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.antlr.v4.runtime.ANTLRInputStream;
 import org.junit.Test;
 
 public class ExpressionTest {
@@ -87,6 +88,72 @@ public class ExpressionTest {
         assertEquals(iv, new IntVal(3));
     }
     
+    @Test
+    public void testBinOpSpecialization() throws Exception {
+        Environment env = new Environment();
+        env.createVar("x", new IntVal(1));
+        BinOpExpr boe = BinOpExpr.create(Op.ADD, new VarExpr("x"), new ValueExpr(new IntVal(2)));
+        assertEquals(BinOpExpr.UNINITIALIZED, boe.state);
+        assertEquals(new IntVal(3), boe.evaluate(env));
+        assertEquals(BinOpExpr.INT, boe.state);
+        env.updateVar("x", new BoolVal(true));
+        try {
+            boe.evaluate(env);
+            fail();
+        } catch (RuntimeException e) {}
+        assertEquals(BinOpExpr.GENERIC, boe.state);
+        env.updateVar("x", new IntVal(5));
+        assertEquals(new IntVal(7), boe.evaluate(env));
+    }
+
+    @Test
+    public void testEqSpecialization() throws Exception {
+        Environment env = new Environment();
+        env.createVar("x", new BoolVal(true));
+        BinOpExpr boe = BinOpExpr.create(Op.EQ, new VarExpr("x"), new ValueExpr(new BoolVal(true)));
+        assertEquals(BoolVal.TRUE, boe.evaluate(env));
+        assertEquals(BinOpExpr.BOOL, boe.state);
+        env.updateVar("x", new IntVal(1));
+        assertEquals(BoolVal.FALSE, boe.evaluate(env));
+        assertEquals(BinOpExpr.GENERIC, boe.state);
+    }
+
+    @Test
+    public void testCallSiteInlineCache() {
+        // One call site, f(i), sees two functions in turn.
+        Expression prog = Interpreter.parse(new ANTLRInputStream(
+                "var a = function(x) { x + 1; }; var b = function(x) { x * 2; };"
+                + "var f = a; var i = 0; var s = 0;"
+                + "while (i < 10) { if (i == 5) { f = b; } s = s + f(i); i = i + 1; } s;"));
+        FunctionAppExpr.counting = true;
+        try {
+            long hits = FunctionAppExpr.cacheHits.sum(), misses = FunctionAppExpr.cacheMisses.sum();
+            assertEquals(new IntVal(15 + 70), prog.evaluate(new Environment()));
+            assertEquals(8, FunctionAppExpr.cacheHits.sum() - hits);
+            assertEquals(2, FunctionAppExpr.cacheMisses.sum() - misses);
+        } finally {
+            FunctionAppExpr.counting = false;
+        }
+    }
+
+    @Test
+    public void testMegamorphicCallSite() {
+        int saved = FunctionAppExpr.cacheSize;
+        FunctionAppExpr.cacheSize = 1;
+        FunctionAppExpr.counting = true;
+        try {
+            Expression prog = Interpreter.parse(new ANTLRInputStream(
+                    "var call = function(g) { g(); };"
+                    + "call(function() { 1; }) + call(function() { 2; }) + call(function() { 3; });"));
+            long mega = FunctionAppExpr.megamorphicCalls.sum();
+            assertEquals(new IntVal(6), prog.evaluate(new Environment()));
+            assertEquals(1, FunctionAppExpr.megamorphicCalls.sum() - mega);
+        } finally {
+            FunctionAppExpr.cacheSize = saved;
+            FunctionAppExpr.counting = false;
+        }
+    }
+
     @Test
     public void testSeqExpr() {
         Environment env = new Environment();
@@ -96,6 +163,23 @@ public class ExpressionTest {
                         new ValueExpr(new IntVal(3))));
         assertEquals(se.evaluate(env), new IntVal(6));
     }
+
+    @Test
+    public void testBlockExpr() {
+        Environment env = new Environment();
+        List<Expression> stmts = new ArrayList<Expression>();
+        stmts.add(new AssignExpr("x", new ValueExpr(new IntVal(2))));
+        stmts.add(new ValueExpr(new IntVal(3)));
+        stmts.add(new WhileExpr(new ValueExpr(BoolVal.FALSE), new VarExpr("x")));
+        assertEquals(new IntVal(3), new BlockExpr(stmts).evaluate(env));
+
+        // Far more statements than SeqExpr chains could evaluate.
+        stmts.clear();
+        for (int i = 0; i < 100000; i++)
+            stmts.add(new AssignExpr("x", new BinOpExpr(Op.ADD,
+                    new VarExpr("x"), new ValueExpr(new IntVal(1)))));
+        assertEquals(new IntVal(100002), new BlockExpr(stmts).evaluate(env));
+    }
     
     @Test
     public void testWhileExpr() {
@@ -112,6 +196,22 @@ public class ExpressionTest {
         assertEquals(new IntVal(0), env.resolveVar("x"));
     }
     
+    @Test
+    // x = 1000000; while (x > 0) x = x - 1;
+    public void testLongWhileExpr() {
+        Environment env = new Environment();
+        env.updateVar("x", new IntVal(1000000));
+        WhileExpr we = new WhileExpr(new BinOpExpr(Op.GT,
+                    new VarExpr("x"),
+                    new ValueExpr(new IntVal(0))),
+                new AssignExpr("x",
+                        new BinOpExpr(Op.SUBTRACT,
+                                new VarExpr("x"),
+                                new ValueExpr(new IntVal(1)))));
+        assertEquals(new NullVal(), we.evaluate(env));
+        assertEquals(new IntVal(0), env.resolveVar("x"));
+    }
+    
     @Test
     // (function(x) { x; })(321);
     public void testIdFunction() {
@@ -0,0 +1,183 @@
+package edu.sjsu.fwjs;
+
+import static org.junit.Assert.*;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.junit.Test;
+
+public class JitCompilerTest {
+
+    /** Evaluates a program that binds a function to f, and returns it. */
+    private static ClosureVal function(String src, Environment env) {
+        Expression prog = Interpreter.parse(new ANTLRInputStream(src));
+        prog.evaluate(env);
+        return (ClosureVal) env.resolveVar("f");
+    }
+
+    private static Value[] ints(int... is) {
+        Value[] vs = new Value[is.length];
+        for (int i = 0; i < is.length; i++)
+            vs[i] = IntVal.valueOf(is[i]);
+        return vs;
+    }
+
+    @Test
+    public void testArithmeticLoop() {
+        ClosureVal f = function("var f = function(n) { var i = 0; var s = 0;"
+                + " while (i < n) { s = s + i % 7 * 3; i = i + 1; } s; };", new Environment());
+        CompiledFunction code = JitCompiler.compile(f.decl(), ints(10));
+        assertNotNull(code);
+        assertEquals(f.call(ints(1000)), code.call(ints(1000), f.env()));
+    }
+
+    @Test
+    public void testArrays() {
+        ClosureVal f = function("var f = function(n) { var a = [0, 0, 0, 0]; var b = [n, true];"
+                + " var i = 0; while (i < a.length) { a[i] = n + i; i = i + 1; }"
+                + " b[1] = a[3]; a[0] * b[1] + b[0] + a.length; };", new Environment());
+        CompiledFunction code = JitCompiler.compile(f.decl(), ints(1));
+        assertNotNull(code);
+        assertEquals(new IntVal(5 * 8 + 5 + 4), code.call(ints(5), f.env()));
+        assertEquals(f.call(ints(7)), code.call(ints(7), f.env()));
+        ClosureVal g = function("var f = function(a, i) { a[i] = a[i] + 1; a[i + 1] = false; };",
+                new Environment());
+        code = JitCompiler.compile(g.decl(), new Value[] { NullVal.NULL, IntVal.valueOf(0) });
+        assertNotNull(code);
+        ArrayVal a = ArrayVal.of(ints(1, 2, 3));
+        code.call(new Value[] { a, IntVal.valueOf(1) }, g.env());
+        assertEquals("[1, 3, false]", a.toString());
+        try {
+            code.call(new Value[] { a, IntVal.valueOf(2) }, g.env());
+            fail();
+        } catch (RuntimeException e) {
+            // false + 1, as on the tree walker.
+        }
+    }
+
+    @Test
+    public void testOperandsRunBeforeTypeChecks() {
+        // The right-hand side runs before a bad index, or a bad operand
+        // read from an array, is found, as on the tree walker.
+        Environment env = new Environment();
+        ClosureVal f = function("var x = 0; var set = function() { x = x + 1; 5; };"
+                + "var f = function(store, a, b) { if (store) { a[b[0]] = set(); }"
+                + " else { b[0] + set(); } };", env);
+        Value[] sample = { BoolVal.TRUE, ArrayVal.of(ints(0)), ArrayVal.of(ints(0)) };
+        CompiledFunction code = JitCompiler.compile(f.decl(), sample);
+        assertNotNull(code);
+        for (boolean store : new boolean[] { true, false }) {
+            for (boolean compiled : new boolean[] { false, true }) {
+                Value[] args = { BoolVal.valueOf(store), ArrayVal.of(ints(0)),
+                        ArrayVal.of(new Value[] { BoolVal.TRUE }) };
+                Value before = env.resolveVar("x");
+                try {
+                    if (compiled)
+                        code.call(args, f.env());
+                    else
+                        f.call(args);
+                    fail();
+                } catch (RuntimeException e) {
+                    // true as an index, or in a sum.
+                }
+                assertEquals(((IntVal) before).toInt() + 1, ((IntVal) env.resolveVar("x")).toInt());
+            }
+        }
+    }
+
+    @Test
+    public void testObjects() {
+        ClosureVal f = function("var f = function(n) { var o = {x: n, y: 0}; var i = 0;"
+                + " while (i < n) { o.y = o.y + o.x; i = i + 1; } o.z = o.y; o; };",
+                new Environment());
+        CompiledFunction code = JitCompiler.compile(f.decl(), ints(1));
+        assertNotNull(code);
+        assertEquals("{x: 5, y: 25, z: 25}", code.call(ints(5), f.env()).toString());
+        assertEquals(f.call(ints(7)).toString(), code.call(ints(7), f.env()).toString());
+        // length is a property like any other, but for arrays.
+        ClosureVal g = function("var f = function(o) { var i = 0;"
+                + " while (i < o.length) { i = i + 1; } i + o.length; };", new Environment());
+        code = JitCompiler.compile(g.decl(), new Value[] { NullVal.NULL });
+        assertNotNull(code);
+        ObjectVal o = new ObjectVal(Shape.EMPTY.with("length"), ints(3));
+        assertEquals(IntVal.valueOf(6), code.call(new Value[] { o }, g.env()));
+        assertEquals(IntVal.valueOf(4), code.call(new Value[] { ArrayVal.of(ints(1, 2)) }, g.env()));
+    }
+
+    @Test
+    public void testRecursionThroughGlobal() {
+        Environment env = new Environment();
+        ClosureVal f = function("var f = function(n) {"
+                + " if (n < 2) n; else f(n - 1) + f(n - 2); };", env);
+        CompiledFunction code = JitCompiler.compile(f.decl(), ints(5));
+        assertNotNull(code);
+        assertEquals(new IntVal(55), code.call(ints(10), f.env()));
+    }
+
+    @Test
+    public void testOuterVariablesAndGlobals() {
+        Environment env = new Environment();
+        ClosureVal f = function("var g = 1; var mk = function(k) { function(n) { var i = 0;"
+                + " while (i < n) { g = g + k; k = k + 1; i = i + 1; } k == 3; }; };"
+                + " var f = mk(1);", env);
+        CompiledFunction code = JitCompiler.compile(f.decl(), ints(2));
+        assertNotNull(code);
+        assertEquals(BoolVal.TRUE, code.call(ints(2), f.env()));
+        assertEquals(new IntVal(4), env.resolveVar("g"));
+        assertEquals(BoolVal.FALSE, code.call(ints(1), f.env()));
+        assertEquals(new IntVal(7), env.resolveVar("g"));
+    }
+
+    @Test
+    public void testCopiesShareOneClass() {
+        String src = "var f = function(n) { if (n < 2) n; else f(n - 1) + f(n - 2); };";
+        ClosureVal f = function(src, new Environment());
+        ClosureVal g = function(src, new Environment());
+        CompiledFunction a = JitCompiler.compile(f.decl(), ints(5));
+        CompiledFunction b = JitCompiler.compile(g.decl(), ints(5));
+        assertSame(a.getClass(), b.getClass());
+        assertNotSame(a.getClass(), JitCompiler.compile(f.decl(),
+                new Value[] { NullVal.NULL }).getClass());
+        assertEquals(new IntVal(55), b.call(ints(10), g.env()));
+    }
+
+    @Test
+    public void testUnexpectedArgumentFallsBack() {
+        ClosureVal f = function("var f = function(x) { if (x == true) 1; else 2; };",
+                new Environment());
+        CompiledFunction code = JitCompiler.compile(f.decl(), ints(3));
+        assertNotNull(code);
+        assertNull(code.call(new Value[] { BoolVal.TRUE }, f.env()));
+        assertEquals(new IntVal(2), code.call(ints(3), f.env()));
+    }
+
+    @Test
+    public void testHotFunctionSwitchesToCompiledCode() {
+        int saved = JitCompiler.threshold;
+        JitCompiler.threshold = 5;
+        try {
+            ClosureVal f = function("var f = function(x) { x * 2; };", new Environment());
+            for (int i = 0; i < 10; i++)
+                assertEquals(new IntVal(2 * i), f.call(ints(i)));
+            JitCompiler.awaitCompilations();
+            assertNotNull(f.decl().compiled);
+            assertEquals(new IntVal(8), f.call(ints(4)));
+            // Arguments of another type still run, on the tree walker.
+            try {
+                f.call(new Value[] { BoolVal.TRUE });
+                fail();
+            } catch (RuntimeException e) {}
+            assertEquals(1, f.decl().deopts);
+        } finally {
+            JitCompiler.threshold = saved;
+        }
+    }
+
+    @Test
+    public void testUnsupportedFunctionsAreNotCompiled() {
+        Environment env = new Environment();
+        ClosureVal f = function("var f = function(x) { function(y) { x + y; }; };", env);
+        assertNull(JitCompiler.compile(f.decl(), ints(1)));
+        f = function("var f = function(x) { if (x) { var y = 1; } y; };", new Environment());
+        assertNull(JitCompiler.compile(f.decl(), ints(1)));
+    }
+}
@@ -0,0 +1,112 @@
+package edu.sjsu.fwjs;
+
+import static edu.sjsu.fwjs.Programs.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ObjectTest {
+    @Test
+    public void testLiterals() {
+        ObjectVal o = (ObjectVal) eval("var x = 5; ({x: x, y: true, z: {}});");
+        assertEquals(IntVal.valueOf(5), o.get("x"));
+        assertEquals("{x: 5, y: true, z: {}}", o.toString());
+        assertEquals(0, ((ObjectVal) eval("var o = {}; o;")).shape().size());
+        // A name given twice keeps its first place and its last value.
+        assertEquals("{x: 3, y: 2}", eval("var o = {x: 1, y: 2, x: 3}; o;").toString());
+        assertEquals(BoolVal.FALSE, eval("var f = function() { ({}); }; f() == f();"));
+    }
+
+    @Test
+    public void testSameOrderSameShape() {
+        ArrayVal a = (ArrayVal) eval("var f = function(i) { ({x: i, y: i}); };"
+                + "var o = {}; o.x = 1; o.y = 2; var p = {y: 1}; p.x = 2;"
+                + "[f(1), f(2), o, p, {y: 3, x: 4}];");
+        Shape s = ((ObjectVal) a.get(0)).shape();
+        assertSame(s, ((ObjectVal) a.get(1)).shape());
+        assertSame(s, ((ObjectVal) a.get(2)).shape());
+        assertNotSame(s, ((ObjectVal) a.get(3)).shape());
+        assertSame(((ObjectVal) a.get(3)).shape(), ((ObjectVal) a.get(4)).shape());
+        assertEquals(1, s.slot("y"));
+    }
+
+    @Test
+    public void testReadAndStore() {
+        assertEquals(BoolVal.TRUE, eval("var o = {x: 1}; o.y == null;"));
+        assertEquals(IntVal.valueOf(7), eval("var o = {x: 1}; var p = {}; p.y = o.x = 7; o.x + 0 * p.y;"));
+        assertEquals(IntVal.valueOf(9), eval("var o = {p: {q: 1}}; o.p.q = 9; o.p.q;"));
+        assertEquals("{x: 2, y: 3}", eval("var o = {x: 1}; o.x = 2; o.y = 3; o;").toString());
+        assertEquals(IntVal.valueOf(4), eval(
+                "var a = [{x: 1}, {x: 2}]; a[1].x = a[0].x + 3; a[1].x;"));
+    }
+
+    @Test
+    public void testAccessesOfManyShapes() {
+        assertEquals(IntVal.valueOf(15), eval("var get = function(o) { o.y; };"
+                + "get({x: 1, y: 2}) + get({y: 3}) + get({z: 0, w: 0, y: 4}) + get({x: 5, y: 6});"));
+        // More shapes than a cache holds.
+        assertEquals(IntVal.valueOf(42), eval("var get = function(o) { o.y; };"
+                + "var os = [{y: 1}, {x: 0, y: 2}, {z: 0, y: 3}, {w: 0, y: 4}, {v: 0, y: 5}, {u: 0, y: 6}];"
+                + "var s = 0; var i = 0; while (i < 12) { s = s + get(os[i % 6]); i = i + 1; } s;"));
+        assertEquals("[{x: 1, y: 2}, {y: 2}, {y: 2, x: 1}, {x: 1, y: 2}]", eval(
+                "var set = function(o) { o.y = 2; o; };"
+                + "[set({x: 1}), set({}), set({y: 1, x: 1}), set({x: 1})];").toString());
+    }
+
+    @Test
+    public void testManyPropertiesUseAMap() {
+        int saved = ObjectVal.maxSlots;
+        ObjectVal.maxSlots = 2;
+        try {
+            ArrayVal a = (ArrayVal) eval("var get = function(o) { o.c; };"
+                    + "var o = {a: 1, b: 2}; var c = get(o); o.c = 3; o.a = 4;"
+                    + "[o, {a: 1, b: 2, c: 3}, c, get(o), get({c: 5})];");
+            assertNull(((ObjectVal) a.get(0)).shape());
+            assertNull(((ObjectVal) a.get(1)).shape());
+            assertEquals("[{a: 4, b: 2, c: 3}, {a: 1, b: 2, c: 3}, null, 3, 5]", a.toString());
+        } finally {
+            ObjectVal.maxSlots = saved;
+        }
+    }
+
+    @Test
+    public void testErrors() {
+        for (String src : new String[] {
+                "var x = 1; x.y;", "var x = 1; x.y = 2;", "var n = null; n.x;", "[1].y = 2;",
+                "[1].x;", "var c = chan(1); send(c, {x: 1});" })
+        {
+            try {
+                eval(src);
+                fail(src);
+            } catch (RuntimeException e) {
+                // Expected.
+            }
+        }
+    }
+
+    @Test
+    public void testModes() throws Exception {
+        String src = "var mk = function(i) { ({x: i, y: i * 2}); };"
+                + "var sum = function(o) { o.x + o.y; };"
+                + "var k = 0; var t = 0; while (k < 2000) { t = t + sum(mk(k)); k = k + 1; }"
+                + "var p = mk(1); p.z = 3; print(t); print(p);";
+        assertPrints("5997000" + NL + "{x: 1, y: 2, z: 3}" + NL, src);
+    }
+
+    @Test
+    public void testParsers() throws Exception {
+        String src = "var o = {a: 1, b: {c: [x]}, d: f(2).e}; o.a = p.q = o.b.c[0];"
+                + "if (o.a) { x; } else { ({}); } print({}.x); ({x: 1}).y = 2; a[0].b = c.d[1] = 3;";
+        assertParsersAgree(src);
+        // A statement cannot start with an object literal, and a store needs
+        // a property of its own.
+        for (String bad : new String[] { "{x: 1};", "if (x) {}.y;", "(o.x) = 1;", "o.x.y() = 1;" }) {
+            try {
+                DirectParser.parse(bad);
+                fail(bad);
+            } catch (DirectParser.SyntaxError e) {
+                // Expected.
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package edu.sjsu.fwjs;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class OptimizerTest {
+
+    private static ValueExpr val(int i) {
+        return new ValueExpr(IntVal.valueOf(i));
+    }
+
+    private static ValueExpr val(boolean b) {
+        return new ValueExpr(BoolVal.valueOf(b));
+    }
+
+    @Test
+    // (1 + 2) * 4;
+    public void testFoldsConstants() {
+        Optimizer opt = new Optimizer();
+        Expression e = opt.optimize(new BinOpExpr(Op.MULTIPLY,
+                new BinOpExpr(Op.ADD, val(1), val(2)), val(4)));
+        assertEquals(new IntVal(12), ((ValueExpr) e).val);
+        assertEquals(4, opt.nodesRemoved());
+    }
+
+    @Test(expected=RuntimeException.class)
+    // 1 / 0;
+    public void testDivisionByZeroStillFails() {
+        Expression e = new Optimizer().optimize(new BinOpExpr(Op.DIVIDE, val(1), val(0)));
+        assertTrue(e instanceof BinOpExpr);
+        e.evaluate(new Environment());
+    }
+
+    @Test
+    // if (1 < 2) 3; else x = 4;
+    public void testConstantIf() {
+        Expression e = new Optimizer().optimize(new IfExpr(
+                new BinOpExpr(Op.LT, val(1), val(2)),
+                val(3), new AssignExpr("x", val(4))));
+        assertEquals(new IntVal(3), ((ValueExpr) e).val);
+    }
+
+    @Test
+    // if (1) 2; else 3;
+    public void testNonBooleanConditionIsKept() {
+        Expression e = new Optimizer().optimize(new IfExpr(val(1), val(2), val(3)));
+        assertTrue(e instanceof IfExpr);
+    }
+
+    @Test
+    // x = 1; while (false) x = 2; x;
+    public void testDropsDeadLoopAndPureStatements() {
+        Optimizer opt = new Optimizer();
+        Expression e = opt.optimize(new SeqExpr(new SeqExpr(
+                new AssignExpr("x", val(1)),
+                new WhileExpr(val(false), new AssignExpr("x", val(2)))),
+                new VarExpr("x")));
+        SeqExpr se = (SeqExpr) e;
+        assertTrue(se.e1 instanceof AssignExpr);
+        assertTrue(se.e2 instanceof VarExpr);
+        assertEquals(5, opt.nodesRemoved());
+        assertEquals(new IntVal(1), e.evaluate(new Environment()));
+    }
+
+    @Test
+    // 1; x;
+    public void testKeepsValueOfSequenceEndingInNull() {
+        // x is null, so the sequence evaluates to 1.
+        Expression e = new Optimizer().optimize(new SeqExpr(val(1), new VarExpr("x")));
+        assertEquals(new IntVal(1), e.evaluate(new Environment()));
+        // Inside a loop body the values are unused.
+        e = new Optimizer().optimize(new WhileExpr(new VarExpr("b"),
+                new SeqExpr(val(1), new VarExpr("x"))));
+        assertTrue(((WhileExpr) e).body instanceof VarExpr);
+    }
+}
@@ -0,0 +1,51 @@
+package edu.sjsu.fwjs;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+public class OutputSinkTest {
+    private static final String NL = System.lineSeparator();
+
+    @Test
+    public void testPrintsLikePrintln() {
+        Value[] vals = { IntVal.valueOf(0), IntVal.valueOf(7), IntVal.valueOf(-42),
+                IntVal.valueOf(1000000000), IntVal.valueOf(Integer.MAX_VALUE),
+                IntVal.valueOf(Integer.MIN_VALUE), BoolVal.TRUE, NullVal.NULL,
+                new ClosureVal(new ArrayList<String>(), new ValueExpr(NullVal.NULL),
+                        new Environment()) };
+        StringBuilder expected = new StringBuilder();
+        for (Value v : vals)
+            expected.append(v).append(NL);
+        // Small enough that most values straddle a flush.
+        for (int size : new int[] { 1, 5, 13, 1 << 16 }) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            OutputSink sink = new OutputSink(Channels.newChannel(out), size);
+            for (Value v : vals)
+                sink.print(v);
+            sink.flush();
+            assertEquals("size " + size, expected.toString(), out.toString());
+        }
+    }
+
+    @Test
+    public void testFile() throws Exception {
+        Path file = Files.createTempFile("fwjs", ".out");
+        try {
+            Files.write(file, "much longer than the new contents".getBytes());
+            Interpreter.execute(new String[] { "-out", file.toString() },
+                    new ByteArrayInputStream(
+                            "var i = 0; while (i < 3) { print(i * 11); i = i + 1; }".getBytes()));
+            assertEquals("0" + NL + "11" + NL + "22" + NL, new String(Files.readAllBytes(file)));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package edu.sjsu.fwjs;
+
+import static edu.sjsu.fwjs.Programs.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.junit.Test;
+
+public class ParTest {
+    private static final String FIB =
+        "var fibSeq = function(n) { if (n < 2) { n; } else { fibSeq(n - 1) + fibSeq(n - 2); } };"
+        + "var fib = function(n, cutoff) { if (n < cutoff) { fibSeq(n); } else {"
+        + " par { var a = fib(n - 1, cutoff); var b = fib(n - 2, cutoff); } a + b; } };";
+
+    private static Value eval(String src) {
+        Resolver resolver = new Resolver();
+        Expression prog = prepare(src, resolver);
+        assertTrue(resolver.spawnsThreads());
+        return prog.evaluate(Environment.concurrent());
+    }
+
+    @Test
+    public void testResults() throws Exception {
+        for (int cutoff : new int[] { 2, 10, 30 })
+            assertPrints("6765" + NL, FIB + "print(fib(20, " + cutoff + "));");
+    }
+
+    @Test
+    public void testOnManyThreads() throws Exception {
+        // Every branch forks, on a pool with more threads than this has cores.
+        int saved = ParExpr.surplus;
+        ParExpr.surplus = Integer.MAX_VALUE;
+        ForkJoinPool pool = new ForkJoinPool(8);
+        try {
+            Value v = pool.submit(() -> eval(FIB + "fib(18, 2);")).get();
+            assertEquals(IntVal.valueOf(2584), v);
+        } finally {
+            pool.shutdown();
+            ParExpr.surplus = saved;
+        }
+    }
+
+    @Test
+    public void testSequential() {
+        // With no surplus allowed, nothing is forked; the result is the same.
+        int saved = ParExpr.surplus;
+        ParExpr.surplus = -1;
+        try {
+            assertEquals(IntVal.valueOf(2584), eval(FIB + "fib(18, 2);"));
+        } finally {
+            ParExpr.surplus = saved;
+        }
+    }
+
+    @Test
+    public void testValues() throws Exception {
+        String fib = "var fibSeq = function(n) { if (n < 2) { n; } else { fibSeq(n - 1) + fibSeq(n - 2); } };"
+            + "var fib = function(n, cutoff) { if (n < cutoff) { fibSeq(n); } else {"
+            + " var r = par(function() { fib(n - 1, cutoff); }, function() { fib(n - 2, cutoff); });"
+            + " r[0] + r[1]; } };";
+        assertEquals(IntVal.valueOf(6765), eval(fib + "fib(20, 5);"));
+        assertPrints("[1, true, null]" + NL,
+                "var one = function() { 1; };"
+                + "print(par(one, function() { true; }, function() { null; }));");
+    }
+
+    @Test
+    public void testWaitsForEveryBranch() {
+        // The first branch fails at once, the par still waits for the others.
+        Value done = null;
+        Environment env = Environment.concurrent();
+        Expression prog = new Resolver().resolve(Interpreter.build(new ANTLRInputStream(
+                "var done = false; var spin = function(k) { while (k > 0) { k = k - 1; } };"
+                + "par { 1 + true; { spin(100000); done = true; } }"), null));
+        try {
+            prog.evaluate(env);
+            fail();
+        } catch (RuntimeException e) {
+            done = env.resolveVar("done");
+        }
+        assertEquals(BoolVal.TRUE, done);
+    }
+
+    @Test
+    public void testPrints() throws Exception {
+        String out = run("var p = function(i) { print(i); };"
+                + "par { p(1); p(2); { p(3); p(4); } p(5); }");
+        String[] lines = out.split(NL);
+        Arrays.sort(lines);
+        assertArrayEquals(new String[] { "1", "2", "3", "4", "5" }, lines);
+        assertTrue(out, out.contains("3" + NL + "4" + NL));
+    }
+
+    @Test
+    public void testParsers() throws Exception {
+        String src = "par { var a = f(1); { b = 2; print(b); } ; if (x) { y; } par { z; w; } }"
+                + "par { } par { f(); } par(f, g); var r = par(f)[0] + 1; par(function() { x; }).y;";
+        assertParsersAgree(src);
+    }
+}
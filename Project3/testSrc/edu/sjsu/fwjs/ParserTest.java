@@ -0,0 +1,130 @@
+package edu.sjsu.fwjs;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.Test;
+
+public class ParserTest {
+
+    private static String tree(CharStream input, boolean sllFirst) {
+        boolean saved = Interpreter.sllFirst;
+        Interpreter.sllFirst = sllFirst;
+        try {
+            ParseTree t = Interpreter.parseTree(input, null);
+            return t.toStringTree();
+        } finally {
+            Interpreter.sllFirst = saved;
+        }
+    }
+
+    @Test
+    public void testSllMatchesLl() throws Exception {
+        String src = ParserBenchmark.generate(20000);
+        assertEquals(tree(new ANTLRInputStream(src), false),
+                tree(new ANTLRInputStream(src), true));
+        for (File f : new File("fwjsScripts").listFiles()) {
+            if (!f.getName().endsWith(".fwjs") || f.getName().equals("objects.fwjs"))
+                continue;
+            assertEquals(f.getName(),
+                    tree(new ANTLRInputStream(new FileInputStream(f)), false),
+                    tree(new ANTLRInputStream(new FileInputStream(f)), true));
+        }
+    }
+
+    @Test
+    public void testMappedInput() throws Exception {
+        File f = new File("fwjsScripts/lists.fwjs");
+        MappedCharStream mapped = MappedCharStream.open(f.toPath());
+        assertEquals(tree(new ANTLRInputStream(new FileInputStream(f)), true),
+                tree(mapped, true));
+        assertEquals(new String(Files.readAllBytes(f.toPath()), "US-ASCII"), mapped.toString());
+        MappedCharStream s = new MappedCharStream(
+                ByteBuffer.wrap(new byte[] {'a', (byte) 0xc3, (byte) 0xa9, 'b'}), "s");
+        assertEquals("a\uFFFD\uFFFDb", s.toString());
+        assertEquals('b', s.LA(4));
+        assertEquals(CharStream.EOF, s.LA(5));
+    }
+
+    @Test
+    public void testElseBelongsToNearestIf() {
+        Expression prog = Interpreter.parse(new ANTLRInputStream(
+                "x = 0; if (true) if (false) x = 1; else x = 2; x;"));
+        assertEquals(new IntVal(2), prog.evaluate(new Environment()));
+    }
+
+    @Test
+    public void testSyntaxErrorFallsBackToLl() {
+        final int[] errors = new int[1];
+        BaseErrorListener listener = new BaseErrorListener() {
+            @Override
+            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol,
+                    int line, int charPositionInLine, String msg, RecognitionException e) {
+                errors[0]++;
+            }
+        };
+        ParseTree t = Interpreter.parseTree(new ANTLRInputStream("x = 1; y = ; z = 3;"), listener);
+        assertEquals(1, errors[0]);
+        assertNotNull(t);
+    }
+
+    /** The statements of a StatementStream, in a block as the visitor makes a program. */
+    private static byte[] streamed(InputStream in) throws Exception {
+        StatementStream stmts = new StatementStream(in);
+        List<Expression> prog = new ArrayList<Expression>();
+        for (Expression stat; (stat = stmts.next()) != null; )
+            prog.add(stat);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AstCache.write(prog.size() == 1 ? prog.get(0) : new BlockExpr(prog), out);
+        return out.toByteArray();
+    }
+
+    private static byte[] whole(CharStream input) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AstCache.write(Interpreter.build(input, null), out);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testStatementStreamMatchesProgram() throws Exception {
+        String src = ParserBenchmark.generate(20000);
+        assertArrayEquals(whole(new ANTLRInputStream(src)),
+                streamed(new ByteArrayInputStream(src.getBytes("US-ASCII"))));
+        for (File f : new File("fwjsScripts").listFiles()) {
+            if (!f.getName().endsWith(".fwjs") || f.getName().equals("objects.fwjs"))
+                continue;
+            assertArrayEquals(f.getName(),
+                    whole(new ANTLRInputStream(new FileInputStream(f))),
+                    streamed(new FileInputStream(f)));
+        }
+    }
+
+    @Test
+    public void testStatementsShareGlobals() {
+        StatementStream stmts = new StatementStream(new ByteArrayInputStream((
+                "var x = 1; ; if (true) if (false) x = 5; else x = 2;\n"
+                + "var f = function(n) { x = x + n; };\n"
+                + "while (x < 10) f(3);").getBytes()));
+        Environment env = new Environment();
+        int n = 0;
+        for (Expression stat; (stat = stmts.next()) != null; n++)
+            new Resolver().resolve(stat).evaluate(env);
+        assertEquals(4, n);
+        assertEquals(new IntVal(11), env.resolveVar("x"));
+    }
+}
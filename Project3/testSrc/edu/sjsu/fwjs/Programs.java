@@ -0,0 +1,87 @@
+package edu.sjsu.fwjs;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+
+/**
+ * Running FWJS programs from tests: through the Interpreter, in each of
+ * the ways it can run them, or straight on the tree walker.
+ */
+final class Programs {
+    static final String NL = System.lineSeparator();
+
+    /** The Interpreter flags of each mode a program can run in. */
+    static final List<String[]> MODES = Arrays.asList(new String[0], new String[] { "-stack" },
+            new String[] { "-direct" }, new String[] { "-stream" });
+
+    private Programs() {
+    }
+
+    /** Runs a program with the Interpreter and the given flags, and returns what it printed. */
+    static String run(String src, String... flags) throws Exception {
+        PrintStream saved = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out, true));
+        try {
+            Interpreter.execute(flags, new ByteArrayInputStream(src.getBytes()));
+        } finally {
+            System.setOut(saved);
+        }
+        return out.toString();
+    }
+
+    /** Checks that a program prints expected in every mode. */
+    static void assertPrints(String expected, String src) throws Exception {
+        for (String[] flags : MODES)
+            assertEquals(Arrays.toString(flags), expected, run(src, flags));
+    }
+
+    /** Parses, optimizes and resolves a program, as the Interpreter would. */
+    static Expression prepare(String src, Resolver resolver) {
+        return resolver.resolve(
+                new Optimizer().optimize(Interpreter.build(new ANTLRInputStream(src), null)));
+    }
+
+    /** The value of a program on the tree walker. */
+    static Value eval(String src) {
+        return prepare(src, new Resolver()).evaluate(new Environment());
+    }
+
+    /**
+     * The value of a program on the tree walker, in a concurrent
+     * environment, once every thread it started has finished.
+     */
+    static Value evalConcurrent(String src) {
+        Expression prog = prepare(src, new Resolver());
+        Environment env = Environment.concurrent();
+        try {
+            return prog.evaluate(env);
+        } finally {
+            Async.quiesce(env);
+        }
+    }
+
+    /** A program as the AstCache writes it. */
+    static byte[] bytes(Expression prog) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AstCache.write(prog, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Checks that the DirectParser and the AstCache build the same tree
+     * as the ANTLR parser.
+     */
+    static void assertParsersAgree(String src) throws Exception {
+        byte[] antlr = bytes(Interpreter.build(new ANTLRInputStream(src), null));
+        assertArrayEquals(antlr, bytes(DirectParser.parse(src)));
+        assertArrayEquals(antlr, bytes(AstCache.read(new ByteArrayInputStream(antlr))));
+    }
+}
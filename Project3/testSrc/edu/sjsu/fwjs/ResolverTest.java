@@ -0,0 +1,123 @@
+package edu.sjsu.fwjs;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ResolverTest {
+
+    private static List<String> names(String... ns) {
+        List<String> l = new ArrayList<String>();
+        for (String n : ns) l.add(n);
+        return l;
+    }
+
+    private static List<Expression> exprs(Expression... es) {
+        List<Expression> l = new ArrayList<Expression>();
+        for (Expression e : es) l.add(e);
+        return l;
+    }
+
+    @Test
+    // (function(x,y) { x / y; })(8,2);
+    public void testParamsUseSlots() {
+        FunctionDeclExpr f = new FunctionDeclExpr(names("x", "y"),
+                new BinOpExpr(Op.DIVIDE, new VarExpr("x"), new VarExpr("y")));
+        Expression app = new Resolver().resolve(new FunctionAppExpr(f,
+                exprs(new ValueExpr(new IntVal(8)), new ValueExpr(new IntVal(2)))));
+        FunctionDeclExpr rf = (FunctionDeclExpr) ((FunctionAppExpr) app).f;
+        assertArrayEquals(new String[] {"x", "y"}, rf.frameNames);
+        VarExpr y = (VarExpr) ((BinOpExpr) rf.body).e2;
+        assertEquals(0, y.depth);
+        assertEquals(1, y.slot);
+        assertEquals(new IntVal(4), app.evaluate(new Environment()));
+    }
+
+    @Test
+    // var c = function() { var i = 0; function() { i = i + 1; }; }(); c(); c();
+    public void testClosureCounter() {
+        FunctionDeclExpr inner = new FunctionDeclExpr(names(),
+                new AssignExpr("i", new BinOpExpr(Op.ADD,
+                        new VarExpr("i"), new ValueExpr(new IntVal(1)))));
+        FunctionDeclExpr outer = new FunctionDeclExpr(names(),
+                new SeqExpr(new VarDeclExpr("i", new ValueExpr(new IntVal(0))), inner));
+        Expression prog = new SeqExpr(new SeqExpr(
+                new VarDeclExpr("c", new FunctionAppExpr(outer, exprs())),
+                new FunctionAppExpr(new VarExpr("c"), exprs())),
+                new FunctionAppExpr(new VarExpr("c"), exprs()));
+        prog = new Resolver().resolve(prog);
+        assertEquals(new IntVal(2), prog.evaluate(new Environment()));
+    }
+
+    @Test
+    // x = 1; (function() { x; var x = 2; x; })();
+    public void testUseBeforeDeclFallsBackToOuter() {
+        FunctionDeclExpr f = new FunctionDeclExpr(names(),
+                new SeqExpr(new PrintExpr(new VarExpr("x")),
+                        new SeqExpr(new VarDeclExpr("x", new ValueExpr(new IntVal(2))),
+                                new VarExpr("x"))));
+        Expression prog = new Resolver().resolve(new SeqExpr(
+                new AssignExpr("x", new ValueExpr(new IntVal(1))),
+                new FunctionAppExpr(f, exprs())));
+        Environment env = new Environment();
+        assertEquals(new IntVal(2), prog.evaluate(env));
+        assertEquals(new IntVal(1), env.resolveVar("x"));
+    }
+
+    @Test
+    // (function() { g = 7; })(); g;
+    public void testAssignCreatesGlobal() {
+        FunctionDeclExpr f = new FunctionDeclExpr(names(),
+                new AssignExpr("g", new ValueExpr(new IntVal(7))));
+        Expression prog = new Resolver().resolve(new SeqExpr(
+                new FunctionAppExpr(f, exprs()), new VarExpr("g")));
+        Environment env = new Environment();
+        assertEquals(new IntVal(7), prog.evaluate(env));
+        assertEquals(new IntVal(7), env.resolveVar("g"));
+    }
+
+    @Test
+    // (function(x, x) { x; })(1, 2);  /* should throw an error */
+    public void testDuplicateParams() {
+        FunctionDeclExpr f = new FunctionDeclExpr(names("x", "x"), new VarExpr("x"));
+        Expression app = new Resolver().resolve(new FunctionAppExpr(f,
+                exprs(new ValueExpr(new IntVal(1)), new ValueExpr(new IntVal(2)))));
+        try {
+            app.evaluate(new Environment());
+            fail();
+        } catch (Exception e) {}
+    }
+
+    @Test
+    // var loop = function(n, acc) { if (n == 0) acc; else loop(n - 1, acc + 1); };
+    // loop(1000000, 0);
+    public void testDeepTailRecursion() {
+        FunctionDeclExpr f = new FunctionDeclExpr(names("n", "acc"),
+                new IfExpr(new BinOpExpr(Op.EQ, new VarExpr("n"), new ValueExpr(new IntVal(0))),
+                        new VarExpr("acc"),
+                        new FunctionAppExpr(new VarExpr("loop"), exprs(
+                                new BinOpExpr(Op.SUBTRACT, new VarExpr("n"), new ValueExpr(new IntVal(1))),
+                                new BinOpExpr(Op.ADD, new VarExpr("acc"), new ValueExpr(new IntVal(1)))))));
+        Expression prog = new Resolver().resolve(new SeqExpr(
+                new VarDeclExpr("loop", f),
+                new FunctionAppExpr(new VarExpr("loop"), exprs(
+                        new ValueExpr(new IntVal(1000000)), new ValueExpr(new IntVal(0))))));
+        assertEquals(new IntVal(1000000), prog.evaluate(new Environment()));
+    }
+
+    @Test
+    // var nul = function() { null; }; (function() { 5; nul(); })();
+    public void testTailCallReturningNull() {
+        FunctionDeclExpr nul = new FunctionDeclExpr(names(), new ValueExpr(new NullVal()));
+        FunctionDeclExpr f = new FunctionDeclExpr(names(),
+                new SeqExpr(new ValueExpr(new IntVal(5)),
+                        new FunctionAppExpr(new VarExpr("nul"), exprs())));
+        Expression prog = new Resolver().resolve(new SeqExpr(
+                new VarDeclExpr("nul", nul),
+                new FunctionAppExpr(f, exprs())));
+        assertEquals(new IntVal(5), prog.evaluate(new Environment()));
+    }
+}
@@ -0,0 +1,46 @@
+package edu.sjsu.fwjs;
+
+import static org.junit.Assert.*;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.junit.Test;
+
+public class StackMachineTest {
+
+    private static Value run(String src) {
+        Expression prog = Interpreter.parse(new ANTLRInputStream(src));
+        return new StackMachine().run(prog, new Environment());
+    }
+
+    @Test
+    public void testSeqAndWhile() {
+        assertEquals(new IntVal(45), run(
+                "var i = 0; var s = 0; while (i < 10) { s = s + i; i = i + 1; } s;"));
+    }
+
+    @Test
+    public void testSeqKeepsValueBeforeNull() {
+        assertEquals(new IntVal(5), run(
+                "var nul = function() { null; }; (function() { 5; nul(); })();"));
+    }
+
+    @Test
+    // Far deeper than the recursive evaluator manages on a default stack.
+    public void testDeepNonTailRecursion() {
+        assertEquals(new IntVal(200000), run(
+                "var count = function(n) { if (n == 0) 0; else 1 + count(n - 1); };"
+                + "count(200000);"));
+    }
+
+    @Test
+    public void testErrorLeavesMachineUsable() {
+        StackMachine m = new StackMachine();
+        Expression bad = Interpreter.parse(new ANTLRInputStream("1 + (2 + true);"));
+        try {
+            m.run(bad, new Environment());
+            fail();
+        } catch (Exception e) {}
+        Expression good = Interpreter.parse(new ANTLRInputStream("1 + 2;"));
+        assertEquals(new IntVal(3), m.run(good, new Environment()));
+    }
+}
@@ -0,0 +1,95 @@
+package edu.sjsu.fwjs;
+
+import static org.junit.Assert.*;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.junit.Test;
+
+public class VirtualMachineTest {
+
+    private static Value run(String src) {
+        Expression prog = Interpreter.parse(new ANTLRInputStream(src));
+        Chunk chunk = new BytecodeCompiler().compile(prog);
+        return new VirtualMachine().run(chunk, new Environment());
+    }
+
+    @Test
+    public void testArithmeticLoop() {
+        assertEquals(new IntVal(45), run(
+                "var i = 0; var s = 0; while (i < 10) { s = s + i; i = i + 1; } s;"));
+    }
+
+    @Test
+    public void testLoopInFunction() {
+        assertEquals(new IntVal(120), run(
+                "var f = function(n) { var r = 1; while (n > 1) { r = r * n; n = n - 1; } r; };"
+                + "f(5);"));
+    }
+
+    @Test
+    public void testConditionMustBeBoolean() {
+        try {
+            run("if (1) 2; else 3;");
+            fail();
+        } catch (RuntimeException e) {}
+    }
+
+    @Test
+    public void testClosuresAndRecursion() {
+        assertEquals(new IntVal(55), run(
+                "var fib = function(n) { if (n < 2) n; else fib(n - 1) + fib(n - 2); };"
+                + "var add = function(x) { function(y) { x + y; }; };"
+                + "add(fib(9))(21);"));
+    }
+
+    @Test
+    public void testSeqKeepsValueBeforeNull() {
+        assertEquals(new IntVal(5), run(
+                "var nul = function() { null; }; (function() { 5; nul(); })();"));
+    }
+
+    /** Runs src on the tree walker too, and checks that both agree. */
+    private static Value same(String src) {
+        Value expected = Interpreter.parse(new ANTLRInputStream(src)).evaluate(new Environment());
+        Value actual = run(src);
+        assertEquals(expected, actual);
+        return actual;
+    }
+
+    @Test
+    public void testLocalReadBeforeItsDeclaration() {
+        // The first read of x finds the global, the second the local.
+        assertEquals(new IntVal(10), same(
+                "var x = 7; var f = function(b) { var y = 0; if (b) { var x = 3; } y = x; var x = 3; y + x; };"
+                + "f(false);"));
+    }
+
+    @Test
+    public void testDuplicateDeclarationFails() {
+        try {
+            run("var f = function() { var x = 1; var x = 2; x; }; f();");
+            fail();
+        } catch (RuntimeException e) {}
+    }
+
+    @Test
+    public void testOperandsBeforeLaterAssignment() {
+        assertEquals(new IntVal(6), same(
+                "var f = function(a) { a + (a = 5); }; f(1);"));
+    }
+
+    @Test
+    public void testArraysAndObjects() {
+        assertEquals(new IntVal(10), same(
+                "var f = function(n) { var a = [0, 0, 0]; var o = { s: 0 };"
+                + " var i = 0; while (i < n) { a[i % 3] = a[i % 3] + i; o.s = o.s + 1; i = i + 1; }"
+                + " a[0] + a[2] + o.s; }; f(5);"));
+    }
+
+    @Test
+    public void testCapturedLocalsStayInEnvironment() {
+        assertEquals(new IntVal(3), same(
+                "var counter = function() { var n = 0; function() { n = n + 1; n; }; };"
+                + "var c = counter(); c(); c(); c();"));
+    }
+}